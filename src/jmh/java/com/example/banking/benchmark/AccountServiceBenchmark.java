@@ -0,0 +1,100 @@
+package com.example.banking.benchmark;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.example.banking.config.AccountCacheProperties;
+import com.example.banking.config.AccountIdCacheProperties;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.mapper.AccountMapperImpl;
+import com.example.banking.model.Account;
+import com.example.banking.service.AccountCache;
+import com.example.banking.service.AccountIdCache;
+import com.example.banking.service.AccountService;
+import com.example.banking.service.HotAccountRegistry;
+import com.example.banking.service.HotAccountService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+/**
+ * {@link AccountService#transferFund} and the account number to id resolution it starts with, against in-memory
+ * repositories. Transfers alternate direction so balances never run out.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountServiceBenchmark {
+
+    private static final String FROM_ACCOUNT_NUMBER = "4b1a8c0e-1d52-4f4e-9a55-0d8f1f7f5a01";
+    private static final String TO_ACCOUNT_NUMBER = "9c3e2f6d-7a41-4c8b-b0f2-5e6a7d8c9b02";
+
+    private AccountService accountService;
+    private AccountIdCache accountIdCache;
+    private boolean forward;
+
+    @Setup
+    public void setUp() {
+        var accountRepository = InMemoryRepositories.accountRepository(List.of(new Account(1L, FROM_ACCOUNT_NUMBER, 1_000_000L, 1_000_000L),
+                                                                               new Account(2L, TO_ACCOUNT_NUMBER, 1_000_000L, 1_000_000L)));
+        var accountBalanceSlotRepository = InMemoryRepositories.accountBalanceSlotRepository();
+        var hotAccountService = new HotAccountService(accountRepository,
+                                                      accountBalanceSlotRepository,
+                                                      new HotAccountRegistry(accountBalanceSlotRepository,
+                                                                             new ShardRouter(1)));
+        accountIdCache = new AccountIdCache(accountRepository, new AccountIdCacheProperties(10_000, Duration.ofHours(1)));
+        var accountCache = new AccountCache(new AccountCacheProperties(10_000, Duration.ofSeconds(30)),
+                                            new NoOpTransactionManager());
+        accountService = new AccountService(accountRepository,
+                                            new AccountMapperImpl(),
+                                            hotAccountService,
+                                            accountIdCache,
+                                            accountCache,
+                                            new ShardRouter(1));
+    }
+
+    @Benchmark
+    public List<Account> transferFund() {
+        forward = !forward;
+        return forward
+               ? accountService.transferFund(FROM_ACCOUNT_NUMBER, TO_ACCOUNT_NUMBER, 1L)
+               : accountService.transferFund(TO_ACCOUNT_NUMBER, FROM_ACCOUNT_NUMBER, 1L);
+    }
+
+    @Benchmark
+    public Long resolveAccountId() {
+        return accountIdCache.find(FROM_ACCOUNT_NUMBER).orElseThrow();
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
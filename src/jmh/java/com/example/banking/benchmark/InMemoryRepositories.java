@@ -0,0 +1,99 @@
+package com.example.banking.benchmark;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.example.banking.model.Account;
+import com.example.banking.repository.AccountBalanceSlotRepository;
+import com.example.banking.repository.AccountRepository;
+
+/**
+ * Map-backed stand-ins for the repositories, so benchmarks measure the service code and not the database. Only the
+ * methods the benchmarked paths call are implemented.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static AccountRepository accountRepository(Collection<Account> accounts) {
+        var store = new AccountStore();
+        accounts.forEach(store::put);
+        return proxy(AccountRepository.class, store::invoke);
+    }
+
+    static AccountBalanceSlotRepository accountBalanceSlotRepository() {
+        return proxy(AccountBalanceSlotRepository.class, (method, args) -> {
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static <T> T proxy(Class<T> repositoryType, Handler handler) {
+        return repositoryType.cast(Proxy.newProxyInstance(repositoryType.getClassLoader(),
+                                                          new Class<?>[] { repositoryType },
+                                                          (proxy, method, args) -> switch (method.getName()) {
+                                                              case "hashCode" -> System.identityHashCode(proxy);
+                                                              case "equals" -> proxy == args[0];
+                                                              case "toString" -> repositoryType.getSimpleName();
+                                                              default -> handler.invoke(method, args);
+                                                          }));
+    }
+
+    private interface Handler {
+
+        Object invoke(Method method, Object[] args);
+    }
+
+    private static final class AccountStore {
+
+        private final Map<Long, Account> accountsById = new ConcurrentHashMap<>();
+        private final Map<String, Long> idsByNumber = new ConcurrentHashMap<>();
+
+        void put(Account account) {
+            accountsById.put(account.getId(), account);
+            idsByNumber.put(account.getAccountNumber(), account.getId());
+        }
+
+        Object invoke(Method method, Object[] args) {
+            return switch (method.getName()) {
+                case "findIdByAccountNumber" -> Optional.ofNullable(idsByNumber.get((String) args[0]));
+                case "findById" -> Optional.ofNullable(accountsById.get((Long) args[0]));
+                case "findAllById" -> findAllById((Iterable<?>) args[0]);
+                case "saveAll" -> args[0];
+                case "increaseBalance" -> increaseBalance((Long) args[0], (Long) args[1]);
+                case "decreaseBalance" -> decreaseBalance((Long) args[0], (Long) args[1]);
+                default -> throw new UnsupportedOperationException(method.getName());
+            };
+        }
+
+        private int increaseBalance(Long id, Long amount) {
+            return accountsById.computeIfPresent(id, (key, account) -> account.increaseBalance(amount)) == null ? 0 : 1;
+        }
+
+        private int decreaseBalance(Long id, Long amount) {
+            var updated = new int[1];
+            accountsById.computeIfPresent(id, (key, account) -> {
+                if (account.getBalance() >= amount) {
+                    account.decreaseBalance(amount);
+                    updated[0] = 1;
+                }
+                return account;
+            });
+            return updated[0];
+        }
+
+        private List<Account> findAllById(Iterable<?> ids) {
+            var accounts = new ArrayList<Account>();
+            for (var id : ids) {
+                Optional.ofNullable(accountsById.get((Long) id)).ifPresent(accounts::add);
+            }
+            return accounts;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.banking.benchmark;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import com.example.banking.dto.AccountDto;
+import com.example.banking.dto.SingleTransactionResponse;
+import com.example.banking.dto.TransactionResponse;
+import com.example.banking.mapper.AccountMapper;
+import com.example.banking.mapper.AccountMapperImpl;
+import com.example.banking.mapper.TransactionMapper;
+import com.example.banking.mapper.TransactionMapperImpl;
+import com.example.banking.model.Account;
+import com.example.banking.model.Transaction;
+import com.example.banking.model.TransactionType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The MapStruct conversions every balance and transaction response goes through.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    private final AccountMapper accountMapper = new AccountMapperImpl();
+    private final TransactionMapper transactionMapper = new TransactionMapperImpl();
+    private final Account fromAccount = new Account(1L, "4b1a8c0e-1d52-4f4e-9a55-0d8f1f7f5a01", 1_000L, 1_000L);
+    private final Account toAccount = new Account(2L, "9c3e2f6d-7a41-4c8b-b0f2-5e6a7d8c9b02", 2_000L, 2_000L);
+    private final Transaction transfer = Transaction.builder()
+                                                    .id(1L)
+                                                    .fromAccount(fromAccount)
+                                                    .toAccount(toAccount)
+                                                    .amount(100L)
+                                                    .type(TransactionType.TRANSFER)
+                                                    .timestamp(Timestamp.from(Instant.parse("2024-01-01T00:00:00Z")))
+                                                    .build();
+
+    @Benchmark
+    public AccountDto toAccountDto() {
+        return accountMapper.toAccountDto(fromAccount);
+    }
+
+    @Benchmark
+    public TransactionResponse toTransactionResponse() {
+        return transactionMapper.toTransactionResponse(transfer);
+    }
+
+    @Benchmark
+    public SingleTransactionResponse toSingleDepositTransactionResponse() {
+        return transactionMapper.toSingleDepositTransactionResponse(transfer);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.banking.load;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Picks account indexes in {@code [0, accounts)}.
+ */
+interface AccountSelector {
+
+    int next(SplittableRandom random);
+
+    static AccountSelector uniform(int accounts) {
+        return random -> random.nextInt(accounts);
+    }
+
+    /**
+     * Index {@code k} is picked with probability proportional to {@code 1 / (k + 1)^theta}; lookups are a binary search
+     * over the precomputed cumulative distribution.
+     */
+    static AccountSelector zipfian(int accounts, double theta) {
+        var cumulative = new double[accounts];
+        var sum = 0.0;
+        for (int k = 0; k < accounts; k++) {
+            sum += 1.0 / Math.pow(k + 1, theta);
+            cumulative[k] = sum;
+        }
+        var total = sum;
+        return random -> {
+            var index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            return Math.min(index >= 0 ? index : -index - 1, accounts - 1);
+        };
+    }
+}
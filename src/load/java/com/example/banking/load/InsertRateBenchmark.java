@@ -0,0 +1,166 @@
+package com.example.banking.load;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.example.banking.model.PooledIdGenerator;
+import com.example.banking.model.TransactionType;
+import com.example.banking.util.TestContainerConfig;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures how fast rows reach {@code transactions} with the statements Hibernate issues for each id strategy, against
+ * the same MySQL container the tests use:
+ * <ul>
+ * <li>{@code IDENTITY}: one INSERT per row, with the generated key read back, so nothing can be batched</li>
+ * <li>{@code POOLED}: an id block reserved in {@code id_sequences} on a connection of its own every
+ * {@code insert.block-size} rows, and the rows sent as one JDBC batch, which the driver rewrites into multi-row
+ * INSERTs</li>
+ * </ul>
+ * Each run starts from an empty table and commits every {@code insert.transaction-size} rows, like a flush of that
+ * many transactions. Run with {@code ./mvnw -Pload-test test-compile exec:java@insert-rate [-Dinsert.rows=100000]}.
+ */
+@Slf4j
+public final class InsertRateBenchmark {
+
+    private static final String SEQUENCE_NAME = "transactions";
+    private static final String IDENTITY_INSERT = """
+            INSERT INTO transactions (from_account_id, to_account_id, amount, type, timestamp)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+    private static final String POOLED_INSERT = """
+            INSERT INTO transactions (id, from_account_id, to_account_id, amount, type, timestamp)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private InsertRateBenchmark() {
+    }
+
+    public static void main(String[] args) throws SQLException {
+        var rows = Integer.getInteger("insert.rows", 100_000);
+        var warmupRows = Integer.getInteger("insert.warmup-rows", 10_000);
+        var transactionSize = Integer.getInteger("insert.transaction-size", 50);
+        var blockSize = Integer.getInteger("insert.block-size", 50);
+
+        var mySqlContainer = TestContainerConfig.mySqlContainer;
+        var url = mySqlContainer.getJdbcUrl() + (mySqlContainer.getJdbcUrl().contains("?") ? "&" : "?")
+                  + "rewriteBatchedStatements=true";
+        try (var connection = DriverManager.getConnection(url, mySqlContainer.getUsername(), mySqlContainer.getPassword());
+             var blockConnection = DriverManager.getConnection(url,
+                                                               mySqlContainer.getUsername(),
+                                                               mySqlContainer.getPassword())) {
+            connection.setAutoCommit(false);
+            blockConnection.setAutoCommit(false);
+
+            insertIdentity(connection, warmupRows, transactionSize);
+            insertPooled(connection, blockConnection, warmupRows, transactionSize, blockSize);
+
+            var identityRate = insertIdentity(connection, rows, transactionSize);
+            var pooledRate = insertPooled(connection, blockConnection, rows, transactionSize, blockSize);
+            log.info("Inserted {} rows in transactions of {}: IDENTITY {} rows/s, POOLED {} rows/s ({}x)",
+                     rows,
+                     transactionSize,
+                     Math.round(identityRate),
+                     Math.round(pooledRate),
+                     String.format("%.1f", pooledRate / identityRate));
+        }
+    }
+
+    private static double insertIdentity(Connection connection, int rows, int transactionSize) throws SQLException {
+        reset(connection);
+        var started = System.nanoTime();
+        try (var statement = connection.prepareStatement(IDENTITY_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            for (var i = 0; i < rows; i++) {
+                bindRow(statement, 1);
+                statement.executeUpdate();
+                try (var keys = statement.getGeneratedKeys()) {
+                    keys.next();
+                }
+                if ((i + 1) % transactionSize == 0) {
+                    connection.commit();
+                }
+            }
+            connection.commit();
+        }
+        return rows / ((System.nanoTime() - started) / 1e9);
+    }
+
+    private static double insertPooled(Connection connection, Connection blockConnection, int rows, int transactionSize,
+                                       int blockSize) throws SQLException {
+        reset(connection);
+        var started = System.nanoTime();
+        var nextId = 0L;
+        var blockEnd = 0L;
+        try (var statement = connection.prepareStatement(POOLED_INSERT)) {
+            for (var i = 0; i < rows; i++) {
+                if (nextId == blockEnd) {
+                    nextId = reserveBlock(blockConnection, blockSize);
+                    blockEnd = nextId + blockSize;
+                }
+                statement.setLong(1, nextId++);
+                bindRow(statement, 2);
+                statement.addBatch();
+                if ((i + 1) % transactionSize == 0) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+        return rows / ((System.nanoTime() - started) / 1e9);
+    }
+
+    /**
+     * Reserves the next block the way the table generator does: read the row under a lock, advance it, commit.
+     *
+     * @return first id of the block
+     */
+    private static long reserveBlock(Connection blockConnection, int blockSize) throws SQLException {
+        long first;
+        try (var select = blockConnection.prepareStatement("SELECT next_val FROM " + PooledIdGenerator.SEQUENCE_TABLE
+                                                           + " WHERE sequence_name = ? FOR UPDATE")) {
+            select.setString(1, SEQUENCE_NAME);
+            try (var resultSet = select.executeQuery()) {
+                resultSet.next();
+                first = resultSet.getLong(1);
+            }
+        }
+        try (var update = blockConnection.prepareStatement("UPDATE " + PooledIdGenerator.SEQUENCE_TABLE
+                                                           + " SET next_val = ? WHERE sequence_name = ?")) {
+            update.setLong(1, first + blockSize);
+            update.setString(2, SEQUENCE_NAME);
+            update.executeUpdate();
+        }
+        blockConnection.commit();
+        return first;
+    }
+
+    private static void bindRow(PreparedStatement statement, int firstParameter) throws SQLException {
+        var random = ThreadLocalRandom.current();
+        statement.setLong(firstParameter, random.nextLong(1, 10_000));
+        statement.setLong(firstParameter + 1, random.nextLong(1, 10_000));
+        statement.setLong(firstParameter + 2, random.nextLong(1, 100_000));
+        statement.setString(firstParameter + 3, TransactionType.TRANSFER.name());
+        statement.setTimestamp(firstParameter + 4, Timestamp.from(Instant.now()));
+    }
+
+    /**
+     * Empties the table and restarts both id sources, so every run inserts into the same state.
+     */
+    private static void reset(Connection connection) throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE transactions");
+            statement.executeUpdate("UPDATE " + PooledIdGenerator.SEQUENCE_TABLE + " SET next_val = 1 WHERE sequence_name = '"
+                                    + SEQUENCE_NAME + "'");
+        }
+        connection.commit();
+    }
+}
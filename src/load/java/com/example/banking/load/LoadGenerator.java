@@ -0,0 +1,162 @@
+package com.example.banking.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Open-loop load: requests are started at a fixed rate on virtual threads whether or not earlier ones have completed,
+ * the way independent clients behave.
+ */
+@Slf4j
+class LoadGenerator {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final URI baseUri;
+    private final List<String> accountNumbers;
+    private final LoadTestSettings settings;
+    private final AccountSelector accountSelector;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+                                                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                                                    .connectTimeout(Duration.ofSeconds(5))
+                                                    .build();
+
+    private final Map<Operation, ConcurrentHistogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    LoadGenerator(URI baseUri, List<String> accountNumbers, LoadTestSettings settings) {
+        this.baseUri = baseUri;
+        this.accountNumbers = accountNumbers;
+        this.settings = settings;
+        this.accountSelector = settings.scenario().accountSelector(accountNumbers.size());
+        for (var operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    LoadReport run() {
+        log.info("Warming up for {}", settings.warmup());
+        drive(settings.warmup());
+        latencies.values().forEach(ConcurrentHistogram::reset);
+        errors.values().forEach(LongAdder::reset);
+
+        log.info("Recording {} at {} requests/s for {}", settings.scenario(), settings.rate(), settings.duration());
+        var startedAt = Instant.now();
+        var started = System.nanoTime();
+        drive(settings.duration());
+        var elapsedNanos = System.nanoTime() - started;
+
+        var operations = new EnumMap<Operation, LoadReport.OperationStats>(Operation.class);
+        var total = 0L;
+        for (var operation : Operation.values()) {
+            var histogram = latencies.get(operation);
+            var count = histogram.getTotalCount();
+            if (count == 0) {
+                continue;
+            }
+            total += count;
+            var errorCount = errors.get(operation).sum();
+            operations.put(operation, new LoadReport.OperationStats(count,
+                                                                    errorCount,
+                                                                    (double) errorCount / count,
+                                                                    histogram.getMean() / 1_000,
+                                                                    toMicros(histogram.getValueAtPercentile(50)),
+                                                                    toMicros(histogram.getValueAtPercentile(99)),
+                                                                    toMicros(histogram.getValueAtPercentile(99.9)),
+                                                                    toMicros(histogram.getMaxValue())));
+        }
+        return new LoadReport(settings.label(),
+                              startedAt,
+                              settings.scenario(),
+                              accountNumbers.size(),
+                              settings.rate(),
+                              total / (elapsedNanos / 1e9),
+                              TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                              operations);
+    }
+
+    private void drive(Duration duration) {
+        var intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        var requests = duration.toNanos() / intervalNanos;
+        var random = new SplittableRandom();
+        var start = System.nanoTime();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requests; i++) {
+                var scheduledAt = start + i * intervalNanos;
+                var delay = scheduledAt - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                var operation = settings.scenario().nextOperation(random);
+                var request = buildRequest(operation, random);
+                executor.execute(() -> send(operation, request, scheduledAt));
+            }
+        }
+    }
+
+    private void send(Operation operation, HttpRequest request, long scheduledAt) {
+        try {
+            var response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 300) {
+                errors.get(operation).increment();
+            }
+        } catch (Exception ex) {
+            errors.get(operation).increment();
+        } finally {
+            latencies.get(operation).recordValue(Math.min(System.nanoTime() - scheduledAt, MAX_TRACKABLE_NANOS));
+        }
+    }
+
+    private HttpRequest buildRequest(Operation operation, SplittableRandom random) {
+        var amount = 1 + random.nextInt(100);
+        return switch (operation) {
+            case DEPOSIT -> post("/transactions/deposit?accountNumber=%s&amount=%d".formatted(nextAccount(random), amount));
+            case WITHDRAW -> post("/transactions/withdraw?accountNumber=%s&amount=%d".formatted(nextAccount(random), amount));
+            case TRANSFER -> {
+                var from = nextAccount(random);
+                var to = nextAccount(random);
+                while (to.equals(from) && accountNumbers.size() > 1) {
+                    to = nextAccount(random);
+                }
+                yield post("/transactions/transfer?fromAccountNumber=%s&toAccountNumber=%s&amount=%d".formatted(from,
+                                                                                                              to,
+                                                                                                              amount));
+            }
+            case GET_ACCOUNT -> get("/accounts/" + nextAccount(random));
+            case LIST_ACCOUNTS -> get("/accounts?size=20");
+        };
+    }
+
+    private String nextAccount(SplittableRandom random) {
+        return accountNumbers.get(accountSelector.next(random));
+    }
+
+    private HttpRequest post(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
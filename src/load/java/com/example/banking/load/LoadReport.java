@@ -0,0 +1,30 @@
+package com.example.banking.load;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Machine-readable result of a run, written as JSON so runs of different versions can be compared.
+ */
+record LoadReport(String label,
+                  Instant startedAt,
+                  Scenario scenario,
+                  int accounts,
+                  int targetRate,
+                  double achievedRate,
+                  long durationMillis,
+                  Map<Operation, OperationStats> operations) {
+
+    /**
+     * Latencies are measured from the moment a request was scheduled to start, so a stalled server also delays the
+     * requests queued behind it (no coordinated omission).
+     */
+    record OperationStats(long count,
+                          long errors,
+                          double errorRate,
+                          double meanMicros,
+                          long p50Micros,
+                          long p99Micros,
+                          long p999Micros,
+                          long maxMicros) { }
+}
@@ -0,0 +1,77 @@
+package com.example.banking.load;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import com.example.banking.BankingAppApplication;
+import com.example.banking.util.TestContainerConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Boots the application against the same MySQL container the tests use, seeds accounts and drives the configured
+ * scenario over HTTP, see {@link LoadTestSettings} for the knobs. Run with {@code ./mvnw -Pload-test verify}.
+ */
+@Slf4j
+public final class LoadTestMain {
+
+    private static final long SEED_BALANCE = 1_000_000_000L;
+    private static final int SEED_BATCH_SIZE = 1_000;
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var settings = LoadTestSettings.fromSystemProperties();
+        var mySqlContainer = TestContainerConfig.mySqlContainer;
+
+        try (var context = new SpringApplicationBuilder(BankingAppApplication.class)
+                .properties("server.port=0",
+                            "spring.datasource.url=" + mySqlContainer.getJdbcUrl(),
+                            "spring.datasource.username=" + mySqlContainer.getUsername(),
+                            "spring.datasource.password=" + mySqlContainer.getPassword())
+                .run(args)) {
+            var accountNumbers = seedAccounts(context.getBean(JdbcTemplate.class), settings.accounts());
+            var port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            var report = new LoadGenerator(URI.create("http://localhost:" + port), accountNumbers, settings).run();
+
+            Files.createDirectories(settings.reportFile().toAbsolutePath().getParent());
+            new ObjectMapper().registerModule(new JavaTimeModule())
+                              .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                              .enable(SerializationFeature.INDENT_OUTPUT)
+                              .writeValue(settings.reportFile().toFile(), report);
+            log.info("Load test report written to {}", settings.reportFile().toAbsolutePath());
+        }
+    }
+
+    /**
+     * Inserts accounts with ids above anything the id generator has handed out and moves the generator past them.
+     */
+    private static List<String> seedAccounts(JdbcTemplate jdbcTemplate, int count) {
+        var firstId = jdbcTemplate.queryForObject("SELECT next_val FROM id_sequences WHERE sequence_name = 'accounts'",
+                                                  Long.class);
+        var accountNumbers = IntStream.range(0, count).mapToObj(i -> UUID.randomUUID().toString()).toList();
+        jdbcTemplate.batchUpdate("INSERT INTO accounts (id, account_number, balance) VALUES (?, ?, ?)",
+                                 IntStream.range(0, count).boxed().toList(),
+                                 SEED_BATCH_SIZE,
+                                 (statement, index) -> {
+                                     statement.setLong(1, firstId + index);
+                                     statement.setString(2, accountNumbers.get(index));
+                                     statement.setLong(3, SEED_BALANCE);
+                                 });
+        jdbcTemplate.update("UPDATE id_sequences SET next_val = ? WHERE sequence_name = 'accounts'", firstId + count);
+        log.info("Seeded {} accounts", count);
+        return accountNumbers;
+    }
+}
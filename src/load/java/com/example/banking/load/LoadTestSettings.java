@@ -0,0 +1,36 @@
+package com.example.banking.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Read from system properties, e.g. {@code -Dload.scenario=ZIPFIAN -Dload.rate=2000}.
+ *
+ * @param scenario   operation mix and account distribution to drive
+ * @param accounts   accounts seeded before the run
+ * @param rate       requests started per second, independent of how fast responses come back
+ * @param warmup     load applied before recording starts
+ * @param duration   recorded load
+ * @param label      free-form tag stored in the report to tell runs apart, e.g. a version or commit
+ * @param reportFile where the JSON report is written
+ */
+record LoadTestSettings(Scenario scenario,
+                        int accounts,
+                        int rate,
+                        Duration warmup,
+                        Duration duration,
+                        String label,
+                        Path reportFile) {
+
+    static LoadTestSettings fromSystemProperties() {
+        var scenario = Scenario.valueOf(System.getProperty("load.scenario", Scenario.UNIFORM.name()));
+        return new LoadTestSettings(scenario,
+                                    Integer.getInteger("load.accounts", 10_000),
+                                    Integer.getInteger("load.rate", 1_000),
+                                    Duration.parse(System.getProperty("load.warmup", "PT10S")),
+                                    Duration.parse(System.getProperty("load.duration", "PT60S")),
+                                    System.getProperty("load.label", "local"),
+                                    Path.of(System.getProperty("load.report",
+                                                               "target/load-report-" + scenario.name().toLowerCase() + ".json")));
+    }
+}
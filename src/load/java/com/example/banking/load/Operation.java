@@ -0,0 +1,9 @@
+package com.example.banking.load;
+
+enum Operation {
+    DEPOSIT,
+    WITHDRAW,
+    TRANSFER,
+    GET_ACCOUNT,
+    LIST_ACCOUNTS
+}
@@ -0,0 +1,43 @@
+package com.example.banking.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Operation mix and account distribution of a load test run.
+ */
+enum Scenario {
+    /**
+     * Writes spread evenly over all accounts, little contention.
+     */
+    UNIFORM(false, Map.of(Operation.DEPOSIT, 25, Operation.WITHDRAW, 25, Operation.TRANSFER, 40, Operation.GET_ACCOUNT, 10)),
+    /**
+     * The same writes with accounts drawn from a Zipfian distribution, so a few hot accounts take most of them.
+     */
+    ZIPFIAN(true, Map.of(Operation.DEPOSIT, 25, Operation.WITHDRAW, 25, Operation.TRANSFER, 40, Operation.GET_ACCOUNT, 10)),
+    /**
+     * Clients polling balances, with occasional writes.
+     */
+    READ_HEAVY(false, Map.of(Operation.GET_ACCOUNT, 85, Operation.LIST_ACCOUNTS, 5, Operation.DEPOSIT, 5, Operation.TRANSFER, 5));
+
+    private final boolean skewed;
+    private final Operation[] weightedOperations;
+
+    Scenario(boolean skewed, Map<Operation, Integer> weights) {
+        this.skewed = skewed;
+        this.weightedOperations = new EnumMap<>(weights).entrySet()
+                                                         .stream()
+                                                         .flatMap(entry -> Stream.generate(entry::getKey).limit(entry.getValue()))
+                                                         .toArray(Operation[]::new);
+    }
+
+    Operation nextOperation(SplittableRandom random) {
+        return weightedOperations[random.nextInt(weightedOperations.length)];
+    }
+
+    AccountSelector accountSelector(int accounts) {
+        return skewed ? AccountSelector.zipfian(accounts, 0.99) : AccountSelector.uniform(accounts);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.banking.archive;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Variable-length integer encoding shared by archive data and index files. Small values take one byte; signed deltas
+ * are zigzag encoded first so small negative values stay small too.
+ */
+final class ArchiveCodec {
+
+    static final int DATA_MAGIC = 0x54584152;
+    static final int INDEX_MAGIC = 0x54584149;
+    static final byte VERSION = 1;
+
+    private ArchiveCodec() {
+    }
+
+    static void writeVarLong(DataOutput output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput input) throws IOException {
+        long value = 0;
+        for (var shift = 0; shift < Long.SIZE; shift += 7) {
+            var next = input.readUnsignedByte();
+            value |= (long) (next & 0x7F) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    static void writeSignedVarLong(DataOutput output, long value) throws IOException {
+        writeVarLong(output, (value << 1) ^ (value >> 63));
+    }
+
+    static long readSignedVarLong(DataInput input) throws IOException {
+        var encoded = readVarLong(input);
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+}
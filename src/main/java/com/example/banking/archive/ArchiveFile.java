@@ -0,0 +1,19 @@
+package com.example.banking.archive;
+
+import java.nio.file.Path;
+
+/**
+ * Archived partition holding the transactions timestamped in {@code [lower, upper)}, in epoch milliseconds.
+ * {@code maxAccountId} is the highest account id in it, so accounts opened later skip the file without reading its
+ * index. {@code shard} is the shard whose partition it holds.
+ */
+record ArchiveFile(int shard, String name, long lower, long upper, long maxAccountId, Path data, Path index) {
+
+    boolean overlaps(long from, long to) {
+        return lower < to && upper > from;
+    }
+
+    boolean mayContain(long accountId) {
+        return accountId <= maxAccountId;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.banking.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes one archive file in row groups. A group stores its rows column by column, with ids and timestamps as deltas,
+ * so similar values sit next to each other and compress well. Next to the data goes an index of the account ids it
+ * contains, so readers skip files an account does not appear in.
+ * <p>
+ * Both files are written under temporary names and only appear under their final names, synced to disk, on
+ * {@link #commit()}. Closing an uncommitted writer deletes them.
+ */
+public class ArchiveWriter implements Closeable {
+
+    private final TransactionArchive archive;
+    private final ArchiveFile file;
+    private final Path dataTemp;
+    private final Path indexTemp;
+    private final FileOutputStream dataFile;
+    private final GZIPOutputStream compressed;
+    private final DataOutputStream output;
+    private final long[] ids;
+    private final long[] timestamps;
+    private final long[] fromAccountIds;
+    private final long[] toAccountIds;
+    private final long[] amounts;
+    private final byte[] types;
+    private final Set<Long> accountIds = new HashSet<>();
+
+    private int buffered;
+    private long rowCount;
+    private long previousId;
+    private long previousTimestamp;
+    private boolean committed;
+
+    ArchiveWriter(TransactionArchive archive, ArchiveFile file, int rowGroupSize) throws IOException {
+        this.archive = archive;
+        this.file = file;
+        this.dataTemp = file.data().resolveSibling(file.data().getFileName() + TransactionArchive.TEMP_SUFFIX);
+        this.indexTemp = file.index().resolveSibling(file.index().getFileName() + TransactionArchive.TEMP_SUFFIX);
+        this.dataFile = new FileOutputStream(dataTemp.toFile());
+        this.compressed = new GZIPOutputStream(dataFile, 65536);
+        this.output = new DataOutputStream(new BufferedOutputStream(compressed, 65536));
+        this.ids = new long[rowGroupSize];
+        this.timestamps = new long[rowGroupSize];
+        this.fromAccountIds = new long[rowGroupSize];
+        this.toAccountIds = new long[rowGroupSize];
+        this.amounts = new long[rowGroupSize];
+        this.types = new byte[rowGroupSize];
+
+        output.writeInt(ArchiveCodec.DATA_MAGIC);
+        output.writeByte(ArchiveCodec.VERSION);
+        output.writeLong(file.lower());
+        output.writeLong(file.upper());
+    }
+
+    public void add(ArchivedTransaction transaction) throws IOException {
+        if (transaction.timestamp() < file.lower() || transaction.timestamp() >= file.upper()) {
+            throw new IllegalArgumentException(String.format("Transaction %d is outside archive %s",
+                                                             transaction.id(),
+                                                             file.name()));
+        }
+        ids[buffered] = transaction.id();
+        timestamps[buffered] = transaction.timestamp();
+        fromAccountIds[buffered] = addAccount(transaction.fromAccountId());
+        toAccountIds[buffered] = addAccount(transaction.toAccountId());
+        amounts[buffered] = transaction.amount();
+        types[buffered] = (byte) transaction.type().ordinal();
+        buffered++;
+        rowCount++;
+        if (buffered == ids.length) {
+            writeRowGroup();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Makes the archive durable under its final name and visible to readers.
+     */
+    public void commit() throws IOException {
+        writeRowGroup();
+        ArchiveCodec.writeVarLong(output, 0);
+        output.flush();
+        compressed.finish();
+        dataFile.getFD().sync();
+        output.close();
+        writeIndex();
+
+        Files.move(indexTemp, file.index(), StandardCopyOption.ATOMIC_MOVE);
+        Files.move(dataTemp, file.data(), StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+        archive.register(new ArchiveFile(file.shard(),
+                                         file.name(),
+                                         file.lower(),
+                                         file.upper(),
+                                         maxAccountId(),
+                                         file.data(),
+                                         file.index()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (committed) {
+            return;
+        }
+        output.close();
+        Files.deleteIfExists(dataTemp);
+        Files.deleteIfExists(indexTemp);
+    }
+
+    private long addAccount(Long accountId) {
+        if (accountId == null) {
+            return 0;
+        }
+        accountIds.add(accountId);
+        return accountId;
+    }
+
+    private long maxAccountId() {
+        return accountIds.stream().mapToLong(Long::longValue).max().orElse(0);
+    }
+
+    private void writeRowGroup() throws IOException {
+        if (buffered == 0) {
+            return;
+        }
+        ArchiveCodec.writeVarLong(output, buffered);
+        for (var i = 0; i < buffered; i++) {
+            ArchiveCodec.writeSignedVarLong(output, ids[i] - previousId);
+            previousId = ids[i];
+        }
+        for (var i = 0; i < buffered; i++) {
+            ArchiveCodec.writeSignedVarLong(output, timestamps[i] - previousTimestamp);
+            previousTimestamp = timestamps[i];
+        }
+        for (var i = 0; i < buffered; i++) {
+            ArchiveCodec.writeVarLong(output, fromAccountIds[i]);
+        }
+        for (var i = 0; i < buffered; i++) {
+            ArchiveCodec.writeVarLong(output, toAccountIds[i]);
+        }
+        for (var i = 0; i < buffered; i++) {
+            ArchiveCodec.writeVarLong(output, amounts[i]);
+        }
+        output.write(types, 0, buffered);
+        buffered = 0;
+    }
+
+    private void writeIndex() throws IOException {
+        var sorted = accountIds.stream().mapToLong(Long::longValue).sorted().toArray();
+        try (var indexFile = new FileOutputStream(indexTemp.toFile());
+             var indexCompressed = new GZIPOutputStream(indexFile);
+             var index = new DataOutputStream(new BufferedOutputStream(indexCompressed))) {
+            index.writeInt(ArchiveCodec.INDEX_MAGIC);
+            ArchiveCodec.writeVarLong(index, maxAccountId());
+            ArchiveCodec.writeVarLong(index, sorted.length);
+            var previous = 0L;
+            for (var accountId : sorted) {
+                ArchiveCodec.writeVarLong(index, accountId - previous);
+                previous = accountId;
+            }
+            index.flush();
+            indexCompressed.finish();
+            indexFile.getFD().sync();
+        }
+    }
+}
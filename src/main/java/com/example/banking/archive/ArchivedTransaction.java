@@ -0,0 +1,13 @@
+package com.example.banking.archive;
+
+import com.example.banking.model.TransactionType;
+
+/**
+ * Transaction row read back from the archive; account ids are {@code null} where the row had none.
+ */
+public record ArchivedTransaction(long id,
+        Long fromAccountId,
+        Long toAccountId,
+        long amount,
+        TransactionType type,
+        long timestamp) { }
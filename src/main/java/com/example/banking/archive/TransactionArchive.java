@@ -0,0 +1,370 @@
+package com.example.banking.archive;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import com.example.banking.datasource.ShardContext;
+import com.example.banking.model.TransactionType;
+import com.example.banking.util.LongLongMap;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cold storage for transactions of dropped partitions: one compressed, columnar file per partition in a local
+ * directory, see {@link ArchiveWriter}. Files are immutable once committed.
+ * <p>
+ * Reads decompress whole files, so they are meant for the rare queries that reach past the live table. The account
+ * index of a file is checked first and kept in a small cache, so a file is only decompressed when the account has
+ * transactions in it.
+ * <p>
+ * With sharding every shard archives its own partitions into a directory of its own, and all methods work on the
+ * archive of the current shard, see {@link ShardContext}. Shard 0 uses the archive directory itself, so enabling
+ * sharding keeps the existing archive.
+ */
+@Slf4j
+public class TransactionArchive {
+
+    static final String TEMP_SUFFIX = ".tmp";
+
+    private static final String DATA_SUFFIX = ".txar";
+    private static final String INDEX_SUFFIX = ".txai";
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final Comparator<ArchivedTransaction> ORDER = Comparator.comparingLong(ArchivedTransaction::timestamp)
+                                                                           .thenComparingLong(ArchivedTransaction::id);
+
+    private final Path directory;
+    private final int rowGroupSize;
+    private final Cache<Path, long[]> indexes;
+    private volatile List<List<ArchiveFile>> files;
+
+    public TransactionArchive(Path directory, int rowGroupSize, int indexCacheSize) {
+        this(directory, 1, rowGroupSize, indexCacheSize);
+    }
+
+    public TransactionArchive(Path directory, int shardCount, int rowGroupSize, int indexCacheSize) {
+        this.directory = directory;
+        this.rowGroupSize = rowGroupSize;
+        this.indexes = Caffeine.newBuilder().maximumSize(indexCacheSize).build();
+        var recovered = new ArrayList<List<ArchiveFile>>(shardCount);
+        for (var shard = 0; shard < shardCount; shard++) {
+            recovered.add(recover(shard));
+        }
+        files = List.copyOf(recovered);
+    }
+
+    /**
+     * Starts writing the archive of a partition holding the transactions timestamped in {@code [lower, upper)}.
+     */
+    public ArchiveWriter create(String name, Instant lower, Instant upper) {
+        var shard = ShardContext.current();
+        var file = new ArchiveFile(shard,
+                                   name,
+                                   lower.toEpochMilli(),
+                                   upper.toEpochMilli(),
+                                   0,
+                                   directoryOf(shard).resolve(name + DATA_SUFFIX),
+                                   directoryOf(shard).resolve(name + INDEX_SUFFIX));
+        try {
+            return new ArchiveWriter(this, file, rowGroupSize);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to create archive " + name, ex);
+        }
+    }
+
+    /**
+     * End of the archived range; transactions timestamped from here on are in the live table.
+     */
+    public Optional<Instant> getHorizon() {
+        var archived = files();
+        return archived.isEmpty() ? Optional.empty() : Optional.of(Instant.ofEpochMilli(archived.getLast().upper()));
+    }
+
+    /**
+     * Archived transactions of the account timestamped in {@code [from, to)}, oldest first.
+     */
+    public List<ArchivedTransaction> findByAccount(long accountId, Instant from, Instant to) {
+        var matches = new ArrayList<ArchivedTransaction>();
+        forEachByAccount(accountId, from, to, matches::add);
+        matches.sort(ORDER);
+        return matches;
+    }
+
+    /**
+     * Passes the archived transactions of the account timestamped in {@code [from, to)} to {@code visitor} as they are
+     * decoded, without collecting them. Files are visited oldest first and rows within a file in the order they were
+     * archived, which is by id.
+     */
+    public void forEachByAccount(long accountId, Instant from, Instant to, Consumer<ArchivedTransaction> visitor) {
+        for (var file : files()) {
+            if (file.overlaps(from.toEpochMilli(), to.toEpochMilli())) {
+                scan(file, accountId, within(from, to), visitor);
+            }
+        }
+    }
+
+    /**
+     * Up to {@code limit} archived transactions of the account strictly before {@code (timestamp, id)}, newest first.
+     */
+    public List<ArchivedTransaction> findHistoryBefore(long accountId, Instant timestamp, long id, int limit) {
+        var history = new ArrayList<ArchivedTransaction>(limit);
+        var archived = files();
+        for (var i = archived.size() - 1; i >= 0 && history.size() < limit; i--) {
+            var file = archived.get(i);
+            if (file.lower() > timestamp.toEpochMilli()) {
+                continue;
+            }
+            var matches = new ArrayList<ArchivedTransaction>();
+            scan(file, accountId, transaction -> transaction.timestamp() < timestamp.toEpochMilli()
+                                                 || transaction.timestamp() == timestamp.toEpochMilli()
+                                                    && transaction.id() < id, matches::add);
+            matches.sort(ORDER.reversed());
+            history.addAll(matches.subList(0, Math.min(matches.size(), limit - history.size())));
+        }
+        return history;
+    }
+
+    /**
+     * Credits minus debits of the account among archived transactions timestamped in {@code [from, to)}.
+     */
+    public long sumNetAmount(long accountId, Instant from, Instant to) {
+        var net = new long[1];
+        for (var file : files()) {
+            if (file.overlaps(from.toEpochMilli(), to.toEpochMilli())) {
+                scan(file, accountId, within(from, to), transaction -> {
+                    if (Long.valueOf(accountId).equals(transaction.toAccountId())) {
+                        net[0] += transaction.amount();
+                    }
+                    if (Long.valueOf(accountId).equals(transaction.fromAccountId())) {
+                        net[0] -= transaction.amount();
+                    }
+                });
+            }
+        }
+        return net[0];
+    }
+
+    /**
+     * Adds credits minus debits of every account among all archived transactions to {@code net}, reading each file
+     * once. Files committed while this runs are not included.
+     *
+     * @return the horizon the totals reach up to, empty if nothing is archived
+     */
+    public Optional<Instant> sumNetAmounts(LongLongMap net) {
+        var archived = files();
+        for (var file : archived) {
+            read(file, group -> {
+                for (var i = 0; i < group.rows(); i++) {
+                    if (group.toAccountIds()[i] != 0) {
+                        net.add(group.toAccountIds()[i], group.amounts()[i]);
+                    }
+                    if (group.fromAccountIds()[i] != 0) {
+                        net.add(group.fromAccountIds()[i], -group.amounts()[i]);
+                    }
+                }
+            });
+        }
+        return archived.isEmpty() ? Optional.empty() : Optional.of(Instant.ofEpochMilli(archived.getLast().upper()));
+    }
+
+    /**
+     * Adds a committed file, replacing an earlier file of the same partition written by a run that did not get to drop
+     * the partition.
+     */
+    synchronized void register(ArchiveFile file) {
+        var updated = new ArrayList<>(files);
+        updated.set(file.shard(),
+                    Stream.concat(updated.get(file.shard())
+                                         .stream()
+                                         .filter(existing -> !existing.name().equals(file.name())),
+                                  Stream.of(file))
+                          .sorted(Comparator.comparingLong(ArchiveFile::lower))
+                          .toList());
+        files = List.copyOf(updated);
+        log.info("Archived transactions from {} to {} in {}",
+                 Instant.ofEpochMilli(file.lower()),
+                 Instant.ofEpochMilli(file.upper()),
+                 file.data());
+    }
+
+    private List<ArchiveFile> files() {
+        return files.get(ShardContext.current());
+    }
+
+    private Path directoryOf(int shard) {
+        return shard == 0 ? directory : directory.resolve("shard-" + shard);
+    }
+
+    private static Predicate<ArchivedTransaction> within(Instant from, Instant to) {
+        return transaction -> transaction.timestamp() >= from.toEpochMilli() && transaction.timestamp() < to.toEpochMilli();
+    }
+
+    private void scan(ArchiveFile file, long accountId, Predicate<ArchivedTransaction> filter,
+                      Consumer<ArchivedTransaction> consumer) {
+        if (!file.mayContain(accountId)) {
+            return;
+        }
+        var accountIds = indexes.get(file.index(), TransactionArchive::readIndex);
+        if (Arrays.binarySearch(accountIds, accountId) < 0) {
+            return;
+        }
+        var account = Long.valueOf(accountId);
+        read(file, group -> {
+            for (var i = 0; i < group.rows(); i++) {
+                var transaction = new ArchivedTransaction(group.ids()[i],
+                                                          group.fromAccountIds()[i] == 0 ? null : group.fromAccountIds()[i],
+                                                          group.toAccountIds()[i] == 0 ? null : group.toAccountIds()[i],
+                                                          group.amounts()[i],
+                                                          TYPES[group.types()[i]],
+                                                          group.timestamps()[i]);
+                if ((account.equals(transaction.fromAccountId()) || account.equals(transaction.toAccountId()))
+                    && filter.test(transaction)) {
+                    consumer.accept(transaction);
+                }
+            }
+        });
+    }
+
+    /**
+     * Decompresses the whole file, one row group at a time.
+     */
+    private void read(ArchiveFile file, Consumer<RowGroup> consumer) {
+        try (var input = open(file.data())) {
+            readHeader(input, file.data());
+            var id = 0L;
+            var timestamp = 0L;
+            for (var rows = (int) ArchiveCodec.readVarLong(input); rows > 0; rows = (int) ArchiveCodec.readVarLong(input)) {
+                var ids = new long[rows];
+                var timestamps = new long[rows];
+                for (var i = 0; i < rows; i++) {
+                    id += ArchiveCodec.readSignedVarLong(input);
+                    ids[i] = id;
+                }
+                for (var i = 0; i < rows; i++) {
+                    timestamp += ArchiveCodec.readSignedVarLong(input);
+                    timestamps[i] = timestamp;
+                }
+                var fromAccountIds = readColumn(input, rows);
+                var toAccountIds = readColumn(input, rows);
+                var amounts = readColumn(input, rows);
+                var types = new byte[rows];
+                input.readFully(types);
+                consumer.accept(new RowGroup(rows, ids, timestamps, fromAccountIds, toAccountIds, amounts, types));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read archive " + file.data(), ex);
+        }
+    }
+
+    private static long[] readColumn(DataInputStream input, int rows) throws IOException {
+        var values = new long[rows];
+        for (var i = 0; i < rows; i++) {
+            values[i] = ArchiveCodec.readVarLong(input);
+        }
+        return values;
+    }
+
+    private static long[] readIndex(Path index) {
+        try (var input = open(index)) {
+            readIndexHeader(input, index);
+            var accountIds = new long[Math.toIntExact(ArchiveCodec.readVarLong(input))];
+            var previous = 0L;
+            for (var i = 0; i < accountIds.length; i++) {
+                previous += ArchiveCodec.readVarLong(input);
+                accountIds[i] = previous;
+            }
+            return accountIds;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read archive index " + index, ex);
+        }
+    }
+
+    /**
+     * @return the highest account id in the index
+     */
+    private static long readIndexHeader(DataInputStream input, Path index) throws IOException {
+        if (input.readInt() != ArchiveCodec.INDEX_MAGIC) {
+            throw new IOException("Not an archive index: " + index);
+        }
+        return ArchiveCodec.readVarLong(input);
+    }
+
+    private static DataInputStream open(Path path) throws IOException {
+        return new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path), 65536)));
+    }
+
+    private static long[] readHeader(DataInputStream input, Path data) throws IOException {
+        if (input.readInt() != ArchiveCodec.DATA_MAGIC || input.readByte() != ArchiveCodec.VERSION) {
+            throw new IOException("Not a transaction archive: " + data);
+        }
+        return new long[] {input.readLong(), input.readLong()};
+    }
+
+    private List<ArchiveFile> recover(int shard) {
+        var shardDirectory = directoryOf(shard);
+        var recovered = new ArrayList<ArchiveFile>();
+        try {
+            Files.createDirectories(shardDirectory);
+            try (Stream<Path> paths = Files.list(shardDirectory)) {
+                for (var path : paths.toList()) {
+                    var fileName = path.getFileName().toString();
+                    if (fileName.endsWith(TEMP_SUFFIX)) {
+                        // left behind by an archive run that did not commit
+                        Files.delete(path);
+                    }
+                }
+            }
+            try (Stream<Path> paths = Files.list(shardDirectory)) {
+                for (var data : paths.filter(path -> path.getFileName().toString().endsWith(DATA_SUFFIX)).toList()) {
+                    var fileName = data.getFileName().toString();
+                    var name = fileName.substring(0, fileName.length() - DATA_SUFFIX.length());
+                    var index = shardDirectory.resolve(name + INDEX_SUFFIX);
+                    long[] bounds;
+                    try (var input = open(data)) {
+                        bounds = readHeader(input, data);
+                    }
+                    try (var input = open(index)) {
+                        recovered.add(new ArchiveFile(shard,
+                                                      name,
+                                                      bounds[0],
+                                                      bounds[1],
+                                                      readIndexHeader(input, index),
+                                                      data,
+                                                      index));
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open transaction archive in " + shardDirectory, ex);
+        }
+        recovered.sort(Comparator.comparingLong(ArchiveFile::lower));
+        log.info("Opened transaction archive in {} with {} files", shardDirectory, recovered.size());
+        return List.copyOf(recovered);
+    }
+
+    /**
+     * Decoded columns of one row group; account ids are {@code 0} where the row had none.
+     */
+    private record RowGroup(int rows,
+            long[] ids,
+            long[] timestamps,
+            long[] fromAccountIds,
+            long[] toAccountIds,
+            long[] amounts,
+            byte[] types) { }
+}
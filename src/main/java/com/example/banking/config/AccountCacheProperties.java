@@ -0,0 +1,14 @@
+package com.example.banking.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param maximumSize      accounts kept in memory before the least recently used ones are evicted
+ * @param expireAfterWrite upper bound on staleness for balance changes made by other nodes
+ */
+@ConfigurationProperties(prefix = "banking.account-cache")
+public record AccountCacheProperties(@DefaultValue("10000") long maximumSize,
+                                     @DefaultValue("30s") Duration expireAfterWrite) { }
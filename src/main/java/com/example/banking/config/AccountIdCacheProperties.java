@@ -0,0 +1,14 @@
+package com.example.banking.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param maximumSize       account numbers kept in memory before the least recently used ones are evicted
+ * @param expireAfterAccess how long an account number may go unused before it is evicted
+ */
+@ConfigurationProperties(prefix = "banking.account-id-cache")
+public record AccountIdCacheProperties(@DefaultValue("100000") long maximumSize,
+                                       @DefaultValue("1h") Duration expireAfterAccess) { }
@@ -0,0 +1,16 @@
+package com.example.banking.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param interval   time between snapshot runs; a balance query replays at most about this much history
+ * @param settleTime how far behind the clock a snapshot is taken, longer than any transaction takes to commit
+ * @param chunkSize  accounts, by id range, snapshotted in one database transaction
+ */
+@ConfigurationProperties(prefix = "banking.balance-snapshots")
+public record BalanceSnapshotProperties(@DefaultValue("PT1H") Duration interval,
+                                        @DefaultValue("PT5M") Duration settleTime,
+                                        @DefaultValue("1000") int chunkSize) { }
@@ -0,0 +1,19 @@
+package com.example.banking.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param bufferSize        events held per subscriber while its connection falls behind; a subscriber whose buffer
+ *                          overflows is disconnected
+ * @param maxSubscribers    open streams across all accounts, further subscriptions are rejected
+ * @param heartbeatInterval time between comments sent to keep idle connections open through proxies
+ * @param timeout           lifetime of a stream, after which the client reconnects
+ */
+@ConfigurationProperties(prefix = "banking.balance-stream")
+public record BalanceStreamProperties(@DefaultValue("64") int bufferSize,
+                                      @DefaultValue("10000") int maxSubscribers,
+                                      @DefaultValue("PT15S") Duration heartbeatInterval,
+                                      @DefaultValue("PT30M") Duration timeout) { }
@@ -0,0 +1,18 @@
+package com.example.banking.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled       route deposits, withdrawals and transfers through single-threaded lanes
+ * @param count         number of lanes, account numbers are hashed onto them
+ * @param queueDepth    pending operations a lane accepts before callers have to wait
+ * @param submitTimeout how long a caller waits for queue space before the operation is rejected
+ */
+@ConfigurationProperties(prefix = "banking.lanes")
+public record ExecutionLaneProperties(@DefaultValue("false") boolean enabled,
+                                      @DefaultValue("8") int count,
+                                      @DefaultValue("1024") int queueDepth,
+                                      @DefaultValue("5s") Duration submitTimeout) { }
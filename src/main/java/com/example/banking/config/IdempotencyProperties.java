@@ -0,0 +1,18 @@
+package com.example.banking.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param retention        how long a key is kept; a retry within this window gets the original response
+ * @param cacheMaximumSize recent keys kept in memory so most retries are answered without a query
+ * @param purgeInterval    delay between purges of expired keys
+ * @param purgeBatchSize   keys deleted per purge transaction
+ */
+@ConfigurationProperties(prefix = "banking.idempotency")
+public record IdempotencyProperties(@DefaultValue("24h") Duration retention,
+                                    @DefaultValue("100000") long cacheMaximumSize,
+                                    @DefaultValue("PT1M") Duration purgeInterval,
+                                    @DefaultValue("1000") int purgeBatchSize) { }
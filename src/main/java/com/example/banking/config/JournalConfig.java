@@ -0,0 +1,19 @@
+package com.example.banking.config;
+
+import com.example.banking.journal.BalanceJournal;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "banking.journal", name = "enabled", havingValue = "true")
+public class JournalConfig {
+
+    @Bean(destroyMethod = "close")
+    public BalanceJournal balanceJournal(JournalProperties properties) {
+        return new BalanceJournal(properties.directory(),
+                                  Math.toIntExact(properties.segmentSize().toBytes()),
+                                  properties.fsyncInterval());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.banking.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * @param enabled        acknowledge money movements once they are durable in the local journal and apply them to the
+ *                       database in the background
+ * @param directory      where journal segments are kept
+ * @param segmentSize    size of a memory-mapped segment file
+ * @param fsyncInterval  how long the flusher waits for more appends before forcing a segment to disk
+ * @param applyBatchSize maximum number of journal entries applied to the database in one transaction
+ * @param applyInterval  how long the applier sleeps when the journal has nothing new
+ */
+@ConfigurationProperties(prefix = "banking.journal")
+public record JournalProperties(@DefaultValue("false") boolean enabled,
+                                @DefaultValue("journal") Path directory,
+                                @DefaultValue("64MB") DataSize segmentSize,
+                                @DefaultValue("2ms") Duration fsyncInterval,
+                                @DefaultValue("500") int applyBatchSize,
+                                @DefaultValue("50ms") Duration applyInterval) { }
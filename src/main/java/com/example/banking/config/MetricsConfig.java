@@ -0,0 +1,61 @@
+package com.example.banking.config;
+
+import javax.sql.DataSource;
+
+import com.example.banking.metrics.MeteredJpaTransactionManager;
+import com.example.banking.metrics.StatementMetricsListener;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.proxy.NanoTimeStopwatchFactory;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Replaces the auto-configured JPA transaction manager to time commits; customizers are applied the same way.
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager(MeterRegistry meterRegistry,
+                                                         ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        var transactionManager = new MeteredJpaTransactionManager(meterRegistry);
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    /**
+     * Wraps the pool in a JDBC proxy that times every statement. The proxy delegates {@code unwrap}, so the Hikari pool
+     * metrics still find the pool behind it. Data sources that only delegate to pools, such as the replica routing,
+     * are left alone so statements are not timed twice.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "banking.metrics.db-statements.enabled", havingValue = "true")
+    public static BeanPostProcessor statementMetricsDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource
+                    || bean instanceof DelegatingDataSource) {
+                    return bean;
+                }
+                var proxyDataSource = new ProxyDataSource(dataSource);
+                proxyDataSource.setProxyConfig(ProxyConfig.Builder.create()
+                                                                  .dataSourceName(beanName)
+                                                                  .queryListener(new StatementMetricsListener(meterRegistry.getObject()))
+                                                                  .stopwatchFactory(new NanoTimeStopwatchFactory())
+                                                                  .build());
+                return proxyDataSource;
+            }
+        };
+    }
+}
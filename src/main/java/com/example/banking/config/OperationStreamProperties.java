@@ -0,0 +1,16 @@
+package com.example.banking.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param chunkSize     most operations applied in one database transaction
+ * @param maxLineLength longest accepted operation line in bytes; longer lines are skipped and reported as failed
+ * @param timeout       longest a stream may run; zero keeps it open until the client ends its input
+ */
+@ConfigurationProperties(prefix = "banking.operation-stream")
+public record OperationStreamProperties(@DefaultValue("100") int chunkSize,
+                                        @DefaultValue("4096") int maxLineLength,
+                                        @DefaultValue("0") Duration timeout) { }
@@ -0,0 +1,29 @@
+package com.example.banking.config;
+
+import com.example.banking.outbox.FileOutboxSink;
+import com.example.banking.outbox.LogOutboxSink;
+import com.example.banking.outbox.OutboxSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provides the sink configured by {@code banking.outbox.sink}. Declaring another {@link OutboxSink} bean, e.g. one
+ * publishing to a message broker, replaces it.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "banking.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public OutboxSink outboxSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        return switch (properties.sink()) {
+            case FILE -> new FileOutboxSink(properties.directory(), objectMapper);
+            case LOG -> new LogOutboxSink(objectMapper);
+        };
+    }
+}
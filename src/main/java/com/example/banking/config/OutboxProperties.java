@@ -0,0 +1,26 @@
+package com.example.banking.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled      record an outbox event with every money movement and relay the events to the sink
+ * @param sink         where the relay delivers events, unless the application provides its own
+ *                     {@link com.example.banking.outbox.OutboxSink} bean
+ * @param directory    where the file sink appends events
+ * @param batchSize    maximum number of events delivered to the sink at once, per shard
+ * @param pollInterval how long the relay waits when the outbox has no full batch; the added delivery latency under
+ *                     light load
+ */
+@ConfigurationProperties(prefix = "banking.outbox")
+public record OutboxProperties(@DefaultValue("true") boolean enabled,
+                               @DefaultValue("FILE") Sink sink,
+                               @DefaultValue("outbox") Path directory,
+                               @DefaultValue("500") int batchSize,
+                               @DefaultValue("100ms") Duration pollInterval) {
+
+    public enum Sink { FILE, LOG }
+}
@@ -0,0 +1,17 @@
+package com.example.banking.config;
+
+import com.example.banking.model.PooledIdGenerator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PersistenceConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer idBlockSizeCustomizer(@Value("${banking.id.block-size:50}") int blockSize) {
+        return properties -> properties.put(PooledIdGenerator.BLOCK_SIZE_SETTING, blockSize);
+    }
+}
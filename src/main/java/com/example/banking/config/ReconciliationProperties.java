@@ -0,0 +1,17 @@
+package com.example.banking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param cron               when to start a reconciliation run, {@code -} to start runs only on request
+ * @param rangeSize          accounts, by id range, compared in one read transaction
+ * @param parallelism        ranges compared at the same time, each holding a database connection
+ * @param maxRangesPerSecond ranges started per second across all workers, so a run leaves the database to online
+ *                           traffic
+ */
+@ConfigurationProperties(prefix = "banking.reconciliation")
+public record ReconciliationProperties(@DefaultValue("-") String cron,
+                                       @DefaultValue("1000") int rangeSize,
+                                       @DefaultValue("2") int parallelism,
+                                       @DefaultValue("20") int maxRangesPerSecond) { }
@@ -0,0 +1,72 @@
+package com.example.banking.config;
+
+import java.time.Clock;
+
+import javax.sql.DataSource;
+
+import com.example.banking.datasource.ReplicaLagMonitor;
+import com.example.banking.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the auto-configured pool with a primary and a replica pool behind a {@link ReplicaRoutingDataSource}.
+ * JPA, {@code JdbcTemplate} and the transaction manager all use the routing data source.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "banking.datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        var dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("banking.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, ReplicaProperties replicaProperties) {
+        var dataSource = DataSourceBuilder.create()
+                                          .type(HikariDataSource.class)
+                                          .driverClassName(properties.determineDriverClassName())
+                                          .url(replicaProperties.url())
+                                          .username(replicaProperties.username())
+                                          .password(replicaProperties.password())
+                                          .build();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                               @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               ReplicaProperties properties,
+                                               Clock clock) {
+        return new ReplicaLagMonitor(new JdbcTemplate(primaryDataSource),
+                                     new JdbcTemplate(replicaDataSource),
+                                     properties.maxLag(),
+                                     clock);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource,
+                                                                              replicaDataSource,
+                                                                              replicaLagMonitor));
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.banking.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Pool settings of the replica are bound separately from {@code banking.datasource.replica.hikari.*}, the same way
+ * {@code spring.datasource.hikari.*} configures the primary pool.
+ *
+ * @param enabled           route read-only transactions to the replica
+ * @param url               JDBC url of the replica
+ * @param username          user of the replica
+ * @param password          password of the replica user
+ * @param maxLag            how far the replica may be behind the primary and still serve reads; must exceed the
+ *                          heartbeat interval
+ * @param heartbeatInterval time between replication heartbeats
+ */
+@ConfigurationProperties(prefix = "banking.datasource.replica")
+public record ReplicaProperties(@DefaultValue("false") boolean enabled,
+                                String url,
+                                String username,
+                                String password,
+                                @DefaultValue("PT5S") Duration maxLag,
+                                @DefaultValue("PT1S") Duration heartbeatInterval) { }
@@ -0,0 +1,10 @@
+package com.example.banking.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param backfillChunkSize accounts, by id range, whose history is recomputed in one database transaction
+ */
+@ConfigurationProperties(prefix = "banking.rollups")
+public record RollupProperties(@DefaultValue("1000") int backfillChunkSize) { }
@@ -0,0 +1,89 @@
+package com.example.banking.config;
+
+import java.util.ArrayList;
+
+import javax.sql.DataSource;
+
+import com.example.banking.datasource.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces the auto-configured pool with one pool per shard behind a {@link ShardRoutingDataSource}. JPA,
+ * {@code JdbcTemplate} and the transaction manager all use the routing data source.
+ * <p>
+ * The pools are not beans of their own, so their metrics are registered here; statement timing applies to the routing
+ * data source as a whole.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "banking.sharding", name = "enabled", havingValue = "true")
+public class ShardDataSourceConfig {
+
+    private static final String POOL_PREFIX = "spring.datasource.hikari";
+
+    public ShardDataSourceConfig(ReplicaProperties replicaProperties, JournalProperties journalProperties) {
+        // both keep state that assumes a single database: the replica heartbeat and the journal checkpoint
+        if (replicaProperties.enabled()) {
+            throw new IllegalStateException("Read replicas cannot be used together with sharding");
+        }
+        if (journalProperties.enabled()) {
+            throw new IllegalStateException("The balance journal cannot be used together with sharding");
+        }
+    }
+
+    @Bean
+    public DataSource shardRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                             ShardingProperties shardingProperties,
+                                             Environment environment,
+                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        var binder = Binder.get(environment);
+        var shards = new ArrayList<DataSource>();
+
+        var first = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(POOL_PREFIX, Bindable.ofInstance(first));
+        shards.add(configurePool(first, 0, meterRegistry));
+
+        for (var i = 0; i < shardingProperties.shards().size(); i++) {
+            var shard = shardingProperties.shards().get(i);
+            var dataSource = DataSourceBuilder.create()
+                                              .type(HikariDataSource.class)
+                                              .driverClassName(dataSourceProperties.determineDriverClassName())
+                                              .url(shard.url())
+                                              .username(shard.username())
+                                              .password(shard.password())
+                                              .build();
+            binder.bind(POOL_PREFIX, Bindable.ofInstance(dataSource));
+            binder.bind("banking.sharding.shards[" + i + "].hikari", Bindable.ofInstance(dataSource));
+            shards.add(configurePool(dataSource, i + 1, meterRegistry));
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("shardRoutingDataSource") DataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    private static HikariDataSource configurePool(HikariDataSource dataSource, int shard,
+                                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        dataSource.setPoolName("shard-" + shard);
+        meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return dataSource;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.banking.config;
+
+import com.example.banking.datasource.ShardRouter;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ShardingConfig {
+
+    /**
+     * Always present, so callers route the same way whether sharding is on or not; without it everything is on shard 0.
+     */
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties) {
+        return new ShardRouter(properties.enabled() ? properties.shards().size() + 1 : 1);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.banking.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Shard 0 is the {@code spring.datasource} database; {@code shards[i]} is shard {@code i + 1}. Pools of the extra
+ * shards start from the {@code spring.datasource.hikari.*} settings and take overrides from
+ * {@code banking.sharding.shards[i].hikari.*}. Accounts are placed by a hash over the shard count, so shards cannot be
+ * added or removed once accounts exist.
+ *
+ * @param enabled            spread accounts over the shards
+ * @param shards             databases of the shards after shard 0
+ * @param recoveryDelay      age at which an unfinished cross-shard transfer is picked up by recovery, long enough for
+ *                           the request that started it to have finished it
+ * @param recoveryInterval   time between recovery runs of unfinished cross-shard transfers
+ * @param recoveryBatchSize  unfinished transfers recovered per shard and run
+ */
+@ConfigurationProperties(prefix = "banking.sharding")
+public record ShardingProperties(@DefaultValue("false") boolean enabled,
+                                 @DefaultValue List<Shard> shards,
+                                 @DefaultValue("PT30S") Duration recoveryDelay,
+                                 @DefaultValue("PT10S") Duration recoveryInterval,
+                                 @DefaultValue("100") int recoveryBatchSize) {
+
+    /**
+     * @param url      JDBC url of the shard
+     * @param username user of the shard
+     * @param password password of the shard user
+     */
+    public record Shard(String url, String username, String password) { }
+}
@@ -0,0 +1,14 @@
+package com.example.banking.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param pageSize rows read per query from each side of the live table, and archived rows per account number lookup
+ * @param timeout  longest an export may take to write, after which the response is cut off
+ */
+@ConfigurationProperties(prefix = "banking.statements")
+public record StatementProperties(@DefaultValue("1000") int pageSize,
+                                  @DefaultValue("PT1H") Duration timeout) { }
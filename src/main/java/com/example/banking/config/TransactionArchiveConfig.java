@@ -0,0 +1,19 @@
+package com.example.banking.config;
+
+import com.example.banking.archive.TransactionArchive;
+import com.example.banking.datasource.ShardRouter;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TransactionArchiveConfig {
+
+    @Bean
+    public TransactionArchive transactionArchive(TransactionArchiveProperties properties, ShardRouter shardRouter) {
+        return new TransactionArchive(properties.directory(),
+                                      shardRouter.getShardCount(),
+                                      properties.rowGroupSize(),
+                                      properties.indexCacheSize());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.banking.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param directory            where archive files of dropped partitions are kept
+ * @param retentionMonths      whole months kept in the live table before the current one; older partitions are archived
+ * @param monthsAhead          months after the current one for which partitions are created in advance
+ * @param rowGroupSize         rows per columnar group in an archive file
+ * @param indexCacheSize       archive account indexes kept in memory
+ * @param maintenanceInterval  time between runs that create upcoming partitions and archive expired ones
+ */
+@ConfigurationProperties(prefix = "banking.transaction-archive")
+public record TransactionArchiveProperties(@DefaultValue("archive") Path directory,
+                                           @DefaultValue("12") int retentionMonths,
+                                           @DefaultValue("2") int monthsAhead,
+                                           @DefaultValue("65536") int rowGroupSize,
+                                           @DefaultValue("16") int indexCacheSize,
+                                           @DefaultValue("PT1H") Duration maintenanceInterval) { }
@@ -0,0 +1,45 @@
+package com.example.banking.config;
+
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+
+/**
+ * Runs request handling, async MVC work such as statement exports and scheduled jobs on virtual threads, so threads
+ * blocked on JDBC no longer hold a platform thread. With unbounded request concurrency the Hikari pool becomes the
+ * effective limit on database work; size it for what MySQL can serve, not for the number of requests.
+ * <p>
+ * Account lanes and the journal keep their dedicated platform threads: there are few of them and they live for the
+ * whole run, so virtual threads would gain nothing there.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "banking.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                                                                                .name("task-", 0)
+                                                                                .factory()));
+    }
+
+    @Bean
+    public TaskScheduler taskScheduler() {
+        return new ConcurrentTaskScheduler(Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual()
+                                                                                            .name("scheduling-", 0)
+                                                                                            .factory()));
+    }
+}
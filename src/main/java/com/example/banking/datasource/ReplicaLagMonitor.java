@@ -0,0 +1,91 @@
+package com.example.banking.datasource;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures how far the replica is behind the primary with a heartbeat row: every run writes the current time to the
+ * primary and reads back the latest time the replica has applied. The replica is only used while that time is within
+ * {@code maxLag} of now, so a stalled replication stream, an unreachable replica or a stalled monitor all fall back to
+ * the primary on their own.
+ * <p>
+ * The heartbeat needs no replication privileges and works the same on any kind of replica. It does rely on the clocks
+ * of the application instances being in sync, and the measured lag includes up to one heartbeat interval.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String WRITE_HEARTBEAT = """
+            INSERT INTO replication_heartbeat (id, beat)
+            VALUES (1, ?)
+            ON DUPLICATE KEY UPDATE beat = VALUES(beat)
+            """;
+    private static final String READ_HEARTBEAT = "SELECT beat FROM replication_heartbeat WHERE id = 1";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    private final Clock clock;
+    private volatile Instant replicatedBeat;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(JdbcTemplate primary, JdbcTemplate replica, Duration maxLag, Clock clock) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLag = maxLag;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${banking.datasource.replica.heartbeat-interval:PT1S}")
+    public void check() {
+        try {
+            primary.update(WRITE_HEARTBEAT, Timestamp.from(clock.instant()));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to write replication heartbeat", ex);
+        }
+        try {
+            var beat = replica.queryForObject(READ_HEARTBEAT, Timestamp.class);
+            replicatedBeat = beat == null ? null : beat.toInstant();
+        } catch (RuntimeException ex) {
+            log.debug("Failed to read replication heartbeat from replica", ex);
+            replicatedBeat = null;
+        }
+        logTransition();
+    }
+
+    /**
+     * Whether read-only transactions may use the replica right now. Evaluated on every connection, so the answer
+     * turns negative once the last heartbeat seen on the replica gets too old, even between checks.
+     */
+    public boolean isReplicaUsable() {
+        var lag = getLag();
+        return lag != null && lag.compareTo(maxLag) <= 0;
+    }
+
+    /**
+     * @return how long ago the latest heartbeat the replica has applied was written, {@code null} if it is unknown
+     */
+    public Duration getLag() {
+        var beat = replicatedBeat;
+        return beat == null ? null : Duration.between(beat, clock.instant());
+    }
+
+    private void logTransition() {
+        var nowUsable = isReplicaUsable();
+        if (nowUsable != usable) {
+            usable = nowUsable;
+            if (nowUsable) {
+                log.info("Routing read-only transactions to the replica, lag {}", getLag());
+            } else {
+                log.warn("Routing read-only transactions to the primary, replica lag {} exceeds {}", getLag(), maxLag);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.banking.datasource;
+
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Shard the current thread works on, read by {@link ShardRoutingDataSource} when a connection is first used. Threads
+ * that never set one work on shard 0, which is also the only shard when sharding is off.
+ * <p>
+ * A transaction stays on the connection it started with, so the shard has to be chosen before the transaction begins;
+ * switching to another shard inside one is rejected instead of silently reading the wrong database.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        var shard = CURRENT.get();
+        return shard == null ? 0 : shard;
+    }
+
+    /**
+     * Runs {@code action} on {@code shard} and restores the previous shard afterwards.
+     */
+    public static <T> T call(int shard, Supplier<T> action) {
+        if (shard != current() && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException(String.format("Cannot switch to shard %d inside a transaction on shard %d",
+                                                          shard,
+                                                          current()));
+        }
+        return callDetached(shard, action);
+    }
+
+    public static void run(int shard, Runnable action) {
+        call(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Like {@link #call}, but allowed inside a transaction, for work that takes a connection of its own, such as
+     * reserving an id block.
+     */
+    public static <T> T callDetached(int shard, Supplier<T> action) {
+        var previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
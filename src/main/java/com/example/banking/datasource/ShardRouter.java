@@ -0,0 +1,81 @@
+package com.example.banking.datasource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Places every account on one of {@code shardCount} databases by a hash of its account number and runs work on the
+ * shard of an account, see {@link ShardContext}. The placement depends on nothing but the account number and the shard
+ * count, so every instance agrees on it without coordination, and the shard count must not change once accounts exist.
+ */
+public class ShardRouter {
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1");
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardOf(String accountNumber) {
+        if (shardCount == 1 || accountNumber == null) {
+            return 0;
+        }
+        var crc = new CRC32();
+        crc.update(accountNumber.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % shardCount);
+    }
+
+    public boolean isSameShard(String accountNumber, String otherAccountNumber) {
+        return shardOf(accountNumber) == shardOf(otherAccountNumber);
+    }
+
+    public <T> T onShardOf(String accountNumber, Supplier<T> action) {
+        return ShardContext.call(shardOf(accountNumber), action);
+    }
+
+    /**
+     * Runs {@code action} on the shard all of {@code accountNumbers} live on.
+     *
+     * @throws IllegalArgumentException if the accounts live on different shards
+     */
+    public <T> T onShardOf(Collection<String> accountNumbers, Supplier<T> action) {
+        var shards = accountNumbers.stream().filter(Objects::nonNull).map(this::shardOf).distinct().toList();
+        if (shards.size() > 1) {
+            throw new IllegalArgumentException("All accounts of a batch must be on the same shard");
+        }
+        return ShardContext.call(shards.isEmpty() ? 0 : shards.getFirst(), action);
+    }
+
+    /**
+     * Runs {@code action} on every shard in turn, passing the shard it runs on.
+     */
+    public void forEachShard(IntConsumer action) {
+        for (var shard = 0; shard < shardCount; shard++) {
+            var current = shard;
+            ShardContext.run(current, () -> action.accept(current));
+        }
+    }
+
+    /**
+     * Runs {@code action} on every shard in turn and collects the results in shard order.
+     */
+    public <T> List<T> mapShards(IntFunction<T> action) {
+        var results = new ArrayList<T>(shardCount);
+        forEachShard(shard -> results.add(action.apply(shard)));
+        return results;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.banking.datasource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections of the shard set in {@link ShardContext}. Like {@link ReplicaRoutingDataSource} it must sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so the shard is looked up when
+ * the first statement runs rather than when the transaction manager opens the connection. Closing it closes the pools
+ * of all shards.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        var targets = new HashMap<Object, Object>();
+        for (var shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Integer determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (var shard : shards) {
+            if (shard instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.banking.dto;
+
+/**
+ * Total balance of an account computed by a snapshot query, without loading the {@code Account}.
+ */
+public interface AccountBalanceAt {
+
+    Long getAccountId();
+
+    Long getBalance();
+}
@@ -0,0 +1,7 @@
+package com.example.banking.dto;
+
+public record AccountIdCacheStats(long size,
+        long hits,
+        long misses,
+        long evictions,
+        double hitRate) { }
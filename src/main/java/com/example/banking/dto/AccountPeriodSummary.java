@@ -0,0 +1,17 @@
+package com.example.banking.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Totals of an account over a period of UTC days; {@code days} only lists days with at least one transaction.
+ */
+public record AccountPeriodSummary(String accountNumber,
+                                   LocalDate from,
+                                   LocalDate to,
+                                   long openingBalance,
+                                   long closingBalance,
+                                   long credits,
+                                   long debits,
+                                   long transactionCount,
+                                   List<DailyRollup> days) { }
@@ -0,0 +1,8 @@
+package com.example.banking.dto;
+
+import java.util.List;
+
+/**
+ * @param nextCursor pass as {@code cursor} to fetch the following accounts, {@code null} after the last one
+ */
+public record AccountSlice(List<AccountDto> accounts, String nextCursor) { }
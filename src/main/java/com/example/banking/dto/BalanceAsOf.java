@@ -0,0 +1,5 @@
+package com.example.banking.dto;
+
+import java.time.Instant;
+
+public record BalanceAsOf(String accountNumber, Instant asOf, Long balance) { }
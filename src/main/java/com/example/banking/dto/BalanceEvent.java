@@ -0,0 +1,8 @@
+package com.example.banking.dto;
+
+/**
+ * Balance of a subscribed account after a committed money movement. The first event of a stream carries the balance
+ * at subscription time and no transaction.
+ */
+public record BalanceEvent(String accountNumber, Long balance, TransactionResponse transaction) {
+}
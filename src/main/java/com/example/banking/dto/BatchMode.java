@@ -0,0 +1,5 @@
+package com.example.banking.dto;
+
+public enum BatchMode {
+    ALL_OR_NOTHING, BEST_EFFORT
+}
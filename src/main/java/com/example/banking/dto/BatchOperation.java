@@ -0,0 +1,8 @@
+package com.example.banking.dto;
+
+import com.example.banking.model.TransactionType;
+
+public record BatchOperation(TransactionType type,
+        String fromAccountNumber,
+        String toAccountNumber,
+        Long amount) { }
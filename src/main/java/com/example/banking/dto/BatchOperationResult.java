@@ -0,0 +1,6 @@
+package com.example.banking.dto;
+
+public record BatchOperationResult(int index,
+        BatchOperationStatus status,
+        String error,
+        TransactionResponse transaction) { }
@@ -0,0 +1,5 @@
+package com.example.banking.dto;
+
+public enum BatchOperationStatus {
+    APPLIED, FAILED, SKIPPED
+}
@@ -0,0 +1,5 @@
+package com.example.banking.dto;
+
+import java.util.List;
+
+public record BatchTransactionRequest(BatchMode mode, List<BatchOperation> operations) { }
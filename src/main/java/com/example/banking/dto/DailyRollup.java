@@ -0,0 +1,5 @@
+package com.example.banking.dto;
+
+import java.time.LocalDate;
+
+public record DailyRollup(LocalDate day, long credits, long debits, long transactionCount, long closingBalance) { }
@@ -0,0 +1,10 @@
+package com.example.banking.dto;
+
+import java.time.LocalDate;
+
+public record DailyTotals(LocalDate day, Long credits, Long debits, Long transactionCount) {
+
+    public long net() {
+        return credits - debits;
+    }
+}
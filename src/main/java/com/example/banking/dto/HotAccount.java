@@ -0,0 +1,3 @@
+package com.example.banking.dto;
+
+public record HotAccount(Long accountId, String accountNumber, Integer slotCount) { }
@@ -0,0 +1,8 @@
+package com.example.banking.dto;
+
+public record LaneStats(int lane,
+        int queued,
+        long completed,
+        long rejected,
+        double meanLatencyMicros,
+        long maxLatencyMicros) { }
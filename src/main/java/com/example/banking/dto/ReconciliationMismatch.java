@@ -0,0 +1,7 @@
+package com.example.banking.dto;
+
+/**
+ * @param expectedBalance opening balance plus credits minus debits of the account
+ * @param actualBalance   balance of the account, including the slots of a hot account
+ */
+public record ReconciliationMismatch(String accountNumber, long expectedBalance, long actualBalance) { }
@@ -0,0 +1,17 @@
+package com.example.banking.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Latest reconciliation run of a shard. {@code finishedAt} is {@code null} while the run is in progress or was
+ * interrupted; {@code mismatches} lists the first of {@code mismatchCount} mismatches found so far.
+ */
+public record ReconciliationReport(int shard,
+                                   long runId,
+                                   Instant startedAt,
+                                   Instant finishedAt,
+                                   long nextAccountId,
+                                   long maxAccountId,
+                                   long mismatchCount,
+                                   List<ReconciliationMismatch> mismatches) { }
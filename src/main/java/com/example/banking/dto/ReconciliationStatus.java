@@ -0,0 +1,5 @@
+package com.example.banking.dto;
+
+import java.util.List;
+
+public record ReconciliationStatus(boolean running, List<ReconciliationReport> shards) { }
@@ -0,0 +1,5 @@
+package com.example.banking.dto;
+
+import java.time.LocalDate;
+
+public record RollupBackfillResult(LocalDate from, LocalDate to, long rollups) { }
@@ -0,0 +1,23 @@
+package com.example.banking.dto;
+
+import java.sql.Timestamp;
+
+import com.example.banking.model.TransactionType;
+
+/**
+ * Row of an account's transaction history, read straight from the query without loading {@code Account} entities.
+ */
+public interface TransactionHistoryEntry {
+
+    Long getId();
+
+    String getFromAccountNumber();
+
+    String getToAccountNumber();
+
+    Long getAmount();
+
+    TransactionType getType();
+
+    Timestamp getTimestamp();
+}
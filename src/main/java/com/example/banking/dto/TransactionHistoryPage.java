@@ -0,0 +1,8 @@
+package com.example.banking.dto;
+
+import java.util.List;
+
+/**
+ * @param nextCursor pass as {@code cursor} to fetch the following page, {@code null} on the last page
+ */
+public record TransactionHistoryPage(List<TransactionResponse> transactions, String nextCursor) { }
@@ -0,0 +1,7 @@
+package com.example.banking.exception;
+
+public class IncompleteRollupsException extends RuntimeException {
+    public IncompleteRollupsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,395 @@
+package com.example.banking.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import com.example.banking.model.TransactionType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of balance changes kept in memory-mapped segment files.
+ * <p>
+ * Appenders write their frame into the current segment under a short lock and then wait for it to become durable. A
+ * single flusher thread forces the segment to disk on behalf of everything appended since the previous force, so
+ * concurrent requests share one fsync (group commit).
+ * <p>
+ * On open, existing segments are scanned and the journal continues after the last intact frame; a torn frame at the
+ * tail is discarded.
+ * <p>
+ * A failed force stops the journal: the frames that were not made durable are zeroed so they cannot reach the disk
+ * later and be recovered, their appenders get an error, and further appends are refused until restart.
+ */
+@Slf4j
+public class BalanceJournal implements Closeable {
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long fsyncIntervalNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final List<Segment> segments = new ArrayList<>();
+    private final Thread flusher;
+
+    private long lastSequence;
+    private long durableSequence;
+    // offset in the last segment up to which frames are durable
+    private int durablePosition;
+    private RuntimeException failure;
+    private volatile boolean closed;
+
+    private Segment readSegment;
+    private int readPosition;
+    private long readSequence = -1;
+
+    public BalanceJournal(Path directory, int segmentSize, Duration fsyncInterval) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        recover();
+        this.flusher = Thread.ofPlatform().name("journal-flusher").daemon().start(this::flushLoop);
+    }
+
+    /**
+     * Appends an entry and blocks until it is durable on disk.
+     */
+    public JournalEntry append(TransactionType type, String fromAccountNumber, String toAccountNumber, long amount,
+                               long timestamp) {
+        JournalEntry entry;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Journal stopped after a failed write", failure);
+            }
+            entry = new JournalEntry(lastSequence + 1, type, fromAccountNumber, toAccountNumber, amount, timestamp);
+            var payload = JournalCodec.encode(entry);
+            if (JournalCodec.HEADER_BYTES * 2 + payload.length > segmentSize) {
+                throw new IllegalArgumentException(String.format("Journal entry of %d bytes exceeds the segment size of %d",
+                                                                 payload.length,
+                                                                 segmentSize));
+            }
+            var segment = segments.getLast();
+            if (segment.buffer.remaining() < JournalCodec.HEADER_BYTES * 2 + payload.length) {
+                try {
+                    segment = roll(entry.sequence());
+                } catch (RuntimeException ex) {
+                    fail(ex);
+                    throw new IllegalStateException("Journal entry could not be made durable", ex);
+                }
+            }
+            JournalCodec.write(segment.buffer, payload);
+            lastSequence = entry.sequence();
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(entry.sequence());
+        return entry;
+    }
+
+    /**
+     * Reads durable entries following {@code afterSequence}. Meant for a single reader; consecutive reads continue
+     * from where the previous one stopped instead of rescanning the segment.
+     */
+    public List<JournalEntry> read(long afterSequence, int maxEntries) {
+        long durable;
+        List<Segment> snapshot;
+        lock.lock();
+        try {
+            durable = durableSequence;
+            snapshot = List.copyOf(segments);
+        } finally {
+            lock.unlock();
+        }
+
+        if (afterSequence != readSequence || readSegment == null || !snapshot.contains(readSegment)) {
+            seek(snapshot, afterSequence);
+        }
+
+        var entries = new ArrayList<JournalEntry>();
+        while (entries.size() < maxEntries && readSequence < durable) {
+            var source = readSegment.buffer.duplicate().position(readPosition);
+            var entry = JournalCodec.read(source);
+            if (entry == null) {
+                var next = snapshot.indexOf(readSegment) + 1;
+                if (next >= snapshot.size()) {
+                    break;
+                }
+                readSegment = snapshot.get(next);
+                readPosition = 0;
+                continue;
+            }
+            readPosition = source.position();
+            readSequence = entry.sequence();
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Deletes segments whose entries are all at or below {@code appliedSequence}. The current segment is kept.
+     */
+    public void truncate(long appliedSequence) {
+        lock.lock();
+        try {
+            while (segments.size() > 1 && segments.get(1).firstSequence <= appliedSequence + 1) {
+                var segment = segments.removeFirst();
+                Files.deleteIfExists(segment.path);
+            }
+        } catch (IOException ex) {
+            log.warn("Failed to delete applied journal segment", ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        lock.lock();
+        try {
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            if (failure == null) {
+                segments.getLast().buffer.force();
+                durableSequence = lastSequence;
+            }
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence && failure == null) {
+                flushed.awaitUninterruptibly();
+            }
+            if (durableSequence < sequence) {
+                throw new IllegalStateException("Journal entry could not be made durable", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (!closed) {
+            lock.lock();
+            try {
+                while (durableSequence == lastSequence && !closed) {
+                    appended.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (fsyncIntervalNanos > 0) {
+                // give concurrent appenders a chance to join this group
+                LockSupport.parkNanos(fsyncIntervalNanos);
+            }
+
+            long target;
+            int position;
+            MappedByteBuffer buffer;
+            lock.lock();
+            try {
+                target = lastSequence;
+                buffer = segments.getLast().buffer;
+                position = buffer.position();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                buffer.force();
+            } catch (RuntimeException ex) {
+                log.error("Failed to force journal segment", ex);
+                lock.lock();
+                try {
+                    fail(ex);
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+
+            lock.lock();
+            try {
+                durableSequence = Math.max(durableSequence, target);
+                // a roll in the meantime has forced this segment and started the next one
+                if (segments.getLast().buffer == buffer) {
+                    durablePosition = Math.max(durablePosition, position);
+                }
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Forces the full segment, which makes everything appended so far durable, and starts a new one.
+     */
+    private Segment roll(long firstSequence) {
+        var buffer = segments.getLast().buffer;
+        buffer.force();
+        durableSequence = lastSequence;
+        durablePosition = buffer.position();
+        flushed.signalAll();
+
+        var segment = openSegment(firstSequence);
+        segments.add(segment);
+        durablePosition = 0;
+        return segment;
+    }
+
+    /**
+     * Takes back the entries that were not made durable and refuses further appends. Called with the lock held.
+     */
+    private void fail(RuntimeException ex) {
+        failure = ex;
+        var buffer = segments.getLast().buffer;
+        buffer.duplicate().position(durablePosition).put(new byte[buffer.position() - durablePosition]);
+        buffer.position(durablePosition);
+        lastSequence = durableSequence;
+        flushed.signalAll();
+    }
+
+    private void seek(List<Segment> snapshot, long afterSequence) {
+        readSegment = snapshot.getFirst();
+        for (var segment : snapshot) {
+            if (segment.firstSequence <= afterSequence + 1) {
+                readSegment = segment;
+            }
+        }
+        readPosition = 0;
+        readSequence = readSegment.firstSequence - 1;
+
+        var source = readSegment.buffer.duplicate().position(0);
+        while (readSequence < afterSequence) {
+            var position = source.position();
+            var entry = JournalCodec.read(source);
+            if (entry == null || entry.sequence() > afterSequence) {
+                source.position(position);
+                break;
+            }
+            readSequence = entry.sequence();
+        }
+        readPosition = source.position();
+        readSequence = afterSequence;
+    }
+
+    private void recover() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                     .sorted()
+                     .forEach(path -> segments.add(openSegment(parseFirstSequence(path))));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open journal in " + directory, ex);
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(openSegment(1));
+        }
+
+        lastSequence = segments.getFirst().firstSequence - 1;
+        for (var segment : segments) {
+            var buffer = segment.buffer;
+            buffer.position(0);
+            for (var entry = JournalCodec.read(buffer); entry != null; entry = JournalCodec.read(buffer)) {
+                lastSequence = entry.sequence();
+            }
+        }
+
+        var tail = segments.getLast().buffer;
+        if (hasDataAfterPosition(tail)) {
+            log.warn("Discarding torn journal frame at offset {} of the last segment", tail.position());
+            tail.duplicate().put(new byte[tail.remaining()]);
+        }
+        durableSequence = lastSequence;
+        durablePosition = tail.position();
+        log.info("Opened journal in {} at sequence {}", directory, lastSequence);
+    }
+
+    private Segment openSegment(long firstSequence) {
+        var path = directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                            StandardOpenOption.WRITE)) {
+            return new Segment(firstSequence, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to map journal segment " + path, ex);
+        }
+    }
+
+    private static boolean hasDataAfterPosition(ByteBuffer buffer) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (buffer.get(i) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long parseFirstSequence(Path path) {
+        var name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Compared by identity; {@link ByteBuffer#equals} would compare the mapped contents.
+     */
+    private static final class Segment {
+
+        private final long firstSequence;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+
+        private Segment(long firstSequence, Path path, MappedByteBuffer buffer) {
+            this.firstSequence = firstSequence;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
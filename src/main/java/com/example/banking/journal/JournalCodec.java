@@ -0,0 +1,107 @@
+package com.example.banking.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+import com.example.banking.model.TransactionType;
+
+/**
+ * Binary layout of a journal frame: payload length, CRC32C of the payload, then the payload itself. A zero length
+ * marks the end of the written part of a segment.
+ */
+final class JournalCodec {
+
+    static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private JournalCodec() {
+    }
+
+    static byte[] encode(JournalEntry entry) {
+        var from = toBytes(entry.fromAccountNumber());
+        var to = toBytes(entry.toAccountNumber());
+        var payload = ByteBuffer.allocate(Long.BYTES * 3 + 1 + Short.BYTES * 2 + length(from) + length(to));
+        payload.putLong(entry.sequence())
+               .put((byte) entry.type().ordinal())
+               .putLong(entry.amount())
+               .putLong(entry.timestamp());
+        putString(payload, from);
+        putString(payload, to);
+        return payload.array();
+    }
+
+    static void write(ByteBuffer target, byte[] payload) {
+        target.putInt(payload.length)
+              .putInt(checksum(payload))
+              .put(payload);
+    }
+
+    /**
+     * Reads the frame at the buffer's position and advances past it.
+     *
+     * @return the entry, or {@code null} at the end of the written data or at a torn or corrupted frame
+     */
+    static JournalEntry read(ByteBuffer source) {
+        if (source.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        var start = source.position();
+        var length = source.getInt();
+        var checksum = source.getInt();
+        if (length <= 0 || length > source.remaining()) {
+            source.position(start);
+            return null;
+        }
+        var payload = new byte[length];
+        source.get(payload);
+        if (checksum(payload) != checksum) {
+            source.position(start);
+            return null;
+        }
+        return decode(ByteBuffer.wrap(payload));
+    }
+
+    private static JournalEntry decode(ByteBuffer payload) {
+        var sequence = payload.getLong();
+        var type = TYPES[payload.get()];
+        var amount = payload.getLong();
+        var timestamp = payload.getLong();
+        var from = getString(payload);
+        var to = getString(payload);
+        return new JournalEntry(sequence, type, from, to, amount, timestamp);
+    }
+
+    private static int checksum(byte[] payload) {
+        var crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] toBytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        buffer.putShort((short) value.length).put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        var length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        var value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
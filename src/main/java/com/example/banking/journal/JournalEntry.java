@@ -0,0 +1,10 @@
+package com.example.banking.journal;
+
+import com.example.banking.model.TransactionType;
+
+public record JournalEntry(long sequence,
+        TransactionType type,
+        String fromAccountNumber,
+        String toAccountNumber,
+        long amount,
+        long timestamp) { }
@@ -1,6 +1,7 @@
 package com.example.banking.mapper;
 
 import com.example.banking.dto.SingleTransactionResponse;
+import com.example.banking.dto.TransactionHistoryEntry;
 import com.example.banking.dto.TransactionResponse;
 import com.example.banking.model.Transaction;
 
@@ -19,4 +20,6 @@ public interface TransactionMapper {
     @Mapping(source = "fromAccount.accountNumber", target = "fromAccountNumber")
     @Mapping(source = "toAccount.accountNumber", target = "toAccountNumber")
     TransactionResponse toTransactionResponse(Transaction transaction);
+
+    TransactionResponse toTransactionResponse(TransactionHistoryEntry entry);
 }
@@ -0,0 +1,45 @@
+package com.example.banking.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * {@link JpaTransactionManager} that times commits. The commit includes the Hibernate flush, so this is the time
+ * spent writing the transaction's changes and making them durable, not just the COMMIT round trip.
+ */
+public class MeteredJpaTransactionManager extends JpaTransactionManager {
+
+    public static final String METRIC_NAME = "banking.db.commit";
+
+    private final Timer committed;
+    private final Timer failed;
+
+    public MeteredJpaTransactionManager(MeterRegistry meterRegistry) {
+        this.committed = commitTimer(meterRegistry, "success");
+        this.failed = commitTimer(meterRegistry, "error");
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        var start = System.nanoTime();
+        var timer = failed;
+        try {
+            super.doCommit(status);
+            timer = committed;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer commitTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder(METRIC_NAME)
+                    .description("Transaction commit time including flush")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.banking.metrics;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Times JDBC statement executions by statement kind, batching and outcome. Expects a nano-time stopwatch on the proxy
+ * so {@link ExecutionInfo#getElapsedTime()} is in nanoseconds.
+ */
+public class StatementMetricsListener implements QueryExecutionListener {
+
+    public static final String METRIC_NAME = "banking.db.statements";
+
+    private final Timer[][][] timers = new Timer[Kind.values().length][2][2];
+
+    public StatementMetricsListener(MeterRegistry meterRegistry) {
+        for (var kind : Kind.values()) {
+            for (var batch = 0; batch < 2; batch++) {
+                for (var success = 0; success < 2; success++) {
+                    timers[kind.ordinal()][batch][success] =
+                            Timer.builder(METRIC_NAME)
+                                 .description("JDBC statement execution time")
+                                 .tag("kind", kind.name().toLowerCase(Locale.ROOT))
+                                 .tag("batch", String.valueOf(batch == 1))
+                                 .tag("outcome", success == 1 ? "success" : "error")
+                                 .register(meterRegistry);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        var kind = queryInfoList.isEmpty() ? Kind.OTHER : Kind.of(queryInfoList.getFirst().getQuery());
+        timers[kind.ordinal()][execInfo.isBatch() ? 1 : 0][execInfo.isSuccess() ? 1 : 0]
+                .record(execInfo.getElapsedTime(), TimeUnit.NANOSECONDS);
+    }
+
+    enum Kind {
+        SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+        /**
+         * Classifies by the first keyword, skipping leading whitespace and parentheses of a parenthesized UNION.
+         */
+        static Kind of(String sql) {
+            var start = 0;
+            while (start < sql.length() && !Character.isLetter(sql.charAt(start))) {
+                start++;
+            }
+            for (var kind : values()) {
+                if (kind != OTHER && sql.regionMatches(true, start, kind.name(), 0, kind.name().length())) {
+                    return kind;
+                }
+            }
+            return OTHER;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.banking.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.example.banking.exception.AccountNotFoundException;
+import com.example.banking.exception.InsufficientFundsException;
+import com.example.banking.exception.NegativeBalanceException;
+import com.example.banking.exception.ServiceOverloadedException;
+import com.example.banking.model.TransactionType;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times money movements per operation and outcome. Every combination is registered up front, so recording on the hot
+ * path is an array lookup instead of a registry lookup by tags.
+ */
+@Component
+public class TransactionMetrics {
+
+    public static final String METRIC_NAME = "banking.transactions";
+
+    private final Timer[][] timers = new Timer[TransactionType.values().length][Outcome.values().length];
+
+    public TransactionMetrics(MeterRegistry meterRegistry) {
+        for (var type : TransactionType.values()) {
+            for (var outcome : Outcome.values()) {
+                timers[type.ordinal()][outcome.ordinal()] =
+                        Timer.builder(METRIC_NAME)
+                             .description("Money movements by operation and outcome")
+                             .tag("operation", type.name().toLowerCase(Locale.ROOT))
+                             .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                             .register(meterRegistry);
+            }
+        }
+    }
+
+    public <T> T record(TransactionType type, Supplier<T> operation) {
+        var start = System.nanoTime();
+        var outcome = Outcome.ERROR;
+        try {
+            var result = operation.get();
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (RuntimeException ex) {
+            outcome = Outcome.of(ex);
+            throw ex;
+        } finally {
+            timers[type.ordinal()][outcome.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    enum Outcome {
+        SUCCESS, INSUFFICIENT_FUNDS, ACCOUNT_NOT_FOUND, REJECTED, OVERLOADED, ERROR;
+
+        static Outcome of(RuntimeException ex) {
+            return switch (ex) {
+                case InsufficientFundsException ignored -> INSUFFICIENT_FUNDS;
+                case AccountNotFoundException ignored -> ACCOUNT_NOT_FOUND;
+                case NegativeBalanceException ignored -> REJECTED;
+                case IllegalArgumentException ignored -> REJECTED;
+                case ServiceOverloadedException ignored -> OVERLOADED;
+                default -> ERROR;
+            };
+        }
+    }
+}
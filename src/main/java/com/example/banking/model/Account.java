@@ -4,8 +4,6 @@ import com.example.banking.exception.InsufficientFundsException;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -22,7 +20,7 @@ import lombok.NoArgsConstructor;
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("accounts")
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -31,6 +29,13 @@ public class Account {
     @Column(nullable = false)
     private Long balance;
 
+    /**
+     * Balance the account was opened with. Movements are recorded as transactions, so the balance should always equal
+     * this plus the credits minus the debits of the account.
+     */
+    @Column(updatable = false)
+    private Long openingBalance;
+
     public Account increaseBalance(Long amount) {
         this.balance += amount;
         return this;
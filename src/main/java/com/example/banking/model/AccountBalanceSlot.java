@@ -0,0 +1,34 @@
+package com.example.banking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Part of a hot account's balance. The account's total balance is {@code accounts.balance} plus the sum of its slots,
+ * which lets concurrent credits land on different rows instead of serializing on the account row.
+ */
+@Entity
+@Table(name = "account_balance_slots")
+@IdClass(AccountBalanceSlotId.class)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountBalanceSlot {
+
+    @Id
+    private Long accountId;
+
+    @Id
+    private Integer slot;
+
+    @Column(nullable = false)
+    private Long balance;
+}
@@ -0,0 +1,17 @@
+package com.example.banking.model;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceSlotId implements Serializable {
+
+    private Long accountId;
+
+    private Integer slot;
+}
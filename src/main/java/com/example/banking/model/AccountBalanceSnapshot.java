@@ -0,0 +1,36 @@
+package com.example.banking.model;
+
+import java.sql.Timestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Total balance of an account, slots of a hot account included, at {@code takenAt}: it includes every transaction with
+ * an earlier timestamp and none with a later one.
+ */
+@Entity
+@Table(name = "account_balance_snapshots")
+@IdClass(AccountBalanceSnapshotId.class)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountBalanceSnapshot {
+
+    @Id
+    private Long accountId;
+
+    @Id
+    private Timestamp takenAt;
+
+    @Column(nullable = false)
+    private Long balance;
+}
@@ -0,0 +1,18 @@
+package com.example.banking.model;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceSnapshotId implements Serializable {
+
+    private Long accountId;
+
+    private Timestamp takenAt;
+}
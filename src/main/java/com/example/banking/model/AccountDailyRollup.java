@@ -0,0 +1,46 @@
+package com.example.banking.model;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Money moved in and out of an account on one UTC day. Hot accounts spread their rollup over the same number of slots
+ * as their balance, so concurrent credits do not serialize on one rollup row; the day's totals are the sum of its
+ * slots.
+ */
+@Entity
+@Table(name = "account_daily_rollups")
+@IdClass(AccountDailyRollupId.class)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountDailyRollup {
+
+    @Id
+    private Long accountId;
+
+    @Id
+    private LocalDate day;
+
+    @Id
+    private Integer slot;
+
+    @Column(nullable = false)
+    private Long credits;
+
+    @Column(nullable = false)
+    private Long debits;
+
+    @Column(nullable = false)
+    private Long transactionCount;
+}
@@ -0,0 +1,20 @@
+package com.example.banking.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountDailyRollupId implements Serializable {
+
+    private Long accountId;
+
+    private LocalDate day;
+
+    private Integer slot;
+}
@@ -0,0 +1,49 @@
+package com.example.banking.model;
+
+import java.sql.Timestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Transfer between accounts on different shards, stored on the shard of the source account in the same transaction as
+ * the debit. It outlives a crash between the debit and the credit, so the credit can be finished later.
+ */
+@Entity
+@Table(name = "cross_shard_transfers")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CrossShardTransfer {
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private String fromAccountNumber;
+
+    @Column(nullable = false)
+    private String toAccountNumber;
+
+    @Column(nullable = false)
+    private Long amount;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private CrossShardTransferStatus status;
+
+    @Column(nullable = false)
+    private Timestamp createdAt;
+
+    @Column(nullable = false)
+    private Timestamp updatedAt;
+}
@@ -0,0 +1,16 @@
+package com.example.banking.model;
+
+public enum CrossShardTransferStatus {
+    /**
+     * Debited on the source shard, the credit on the target shard may or may not have happened yet.
+     */
+    DEBITED,
+    /**
+     * Credited on the target shard.
+     */
+    COMPLETED,
+    /**
+     * The credit could not be made and the debit was refunded.
+     */
+    COMPENSATED
+}
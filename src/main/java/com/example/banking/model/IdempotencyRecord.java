@@ -0,0 +1,38 @@
+package com.example.banking.model;
+
+import java.sql.Timestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response of a money movement stored under the client's idempotency key. {@code request} describes the operation
+ * the key was first used for, so a key reused for a different operation can be told apart from a retry.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    @Column(nullable = false)
+    private String request;
+
+    @Column(nullable = false)
+    private String response;
+
+    @Column(nullable = false)
+    private Timestamp createdAt;
+}
@@ -0,0 +1,25 @@
+package com.example.banking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "journal_checkpoints")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class JournalCheckpoint {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private Long appliedSequence;
+}
@@ -0,0 +1,48 @@
+package com.example.banking.model;
+
+import java.sql.Timestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Money movement waiting to be relayed to downstream systems, inserted in the same transaction as the
+ * {@link Transaction} it describes. Ids come from {@code AUTO_INCREMENT} and only order the events of one database;
+ * {@code transactionId} is unique across shards and identifies the event to consumers.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long transactionId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private TransactionType type;
+
+    private String fromAccountNumber;
+
+    private String toAccountNumber;
+
+    @Column(nullable = false)
+    private Long amount;
+
+    @Column(nullable = false)
+    private Timestamp occurredAt;
+}
@@ -0,0 +1,22 @@
+package com.example.banking.model;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Generates the annotated id with {@link PooledIdGenerator}.
+ */
+@IdGeneratorType(PooledIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface PooledId {
+
+    /**
+     * Row of {@value PooledIdGenerator#SEQUENCE_TABLE} the blocks are reserved from.
+     */
+    String value();
+}
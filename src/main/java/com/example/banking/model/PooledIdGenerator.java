@@ -0,0 +1,53 @@
+package com.example.banking.model;
+
+import java.util.Properties;
+
+import com.example.banking.datasource.ShardContext;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Hands out identifiers in blocks reserved from the {@code id_sequences} table, so inserts no longer need the
+ * generated key back from MySQL and Hibernate is free to batch them. The block size is read from the
+ * {@value #BLOCK_SIZE_SETTING} setting. Applied to an id with {@link PooledId}, which names its row of the table.
+ * <p>
+ * Blocks are always reserved on shard 0, so ids stay unique across shards and an account keeps its id whichever shard
+ * holds it.
+ */
+public class PooledIdGenerator extends TableGenerator {
+
+    public static final String BLOCK_SIZE_SETTING = "banking.id.block-size";
+    public static final String SEQUENCE_TABLE = "id_sequences";
+
+    private final String sequenceName;
+
+    public PooledIdGenerator(PooledId config) {
+        this.sequenceName = config.value();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        var settings = serviceRegistry.requireService(ConfigurationService.class).getSettings();
+        var blockSize = ConfigurationHelper.getInt(BLOCK_SIZE_SETTING, settings, DEFAULT_INCREMENT_SIZE);
+
+        parameters.putIfAbsent(TABLE_PARAM, SEQUENCE_TABLE);
+        parameters.put(SEGMENT_VALUE_PARAM, sequenceName);
+        parameters.putIfAbsent(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        parameters.put(INCREMENT_PARAM, String.valueOf(blockSize));
+
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object obj) {
+        // a new block is reserved on a connection of its own, outside the caller's transaction
+        return ShardContext.callDetached(0, () -> super.generate(session, obj));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.banking.model;
+
+import java.sql.Timestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ledger reconciliation of one shard. Accounts with ids below {@code nextAccountId} have been checked, so an
+ * unfinished run resumes from there; accounts opened after the run started, above {@code maxAccountId}, are left for
+ * the next run.
+ */
+@Entity
+@Table(name = "reconciliation_runs")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReconciliationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Timestamp startedAt;
+
+    private Timestamp finishedAt;
+
+    @Column(nullable = false)
+    private Long nextAccountId;
+
+    @Column(nullable = false)
+    private Long maxAccountId;
+}
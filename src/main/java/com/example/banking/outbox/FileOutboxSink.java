@@ -0,0 +1,71 @@
+package com.example.banking.outbox;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.example.banking.model.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Appends events as newline-delimited JSON to {@code events.ndjson} and forces every batch to disk before returning.
+ * A batch cut short by a crash leaves a partial last line, which readers should skip.
+ */
+@Slf4j
+public class FileOutboxSink implements OutboxSink, Closeable {
+
+    static final String FILE_NAME = "events.ndjson";
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+
+    public FileOutboxSink(Path directory, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(directory);
+            channel = FileChannel.open(directory.resolve(FILE_NAME),
+                                       StandardOpenOption.CREATE,
+                                       StandardOpenOption.WRITE,
+                                       StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open outbox file in " + directory, ex);
+        }
+        log.info("Relaying outbox events to {}", directory.resolve(FILE_NAME));
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        var lines = new StringBuilder();
+        for (var event : events) {
+            try {
+                lines.append(objectMapper.writeValueAsString(event)).append('\n');
+            } catch (JsonProcessingException ex) {
+                throw new IllegalStateException("Cannot serialize outbox event " + event.getId(), ex);
+            }
+        }
+        try {
+            var buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write outbox events", ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.banking.outbox;
+
+import java.util.List;
+
+import com.example.banking.model.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes each event as a JSON line to the {@code banking.outbox} logger at INFO. Logging gives no durability
+ * guarantee, so this is meant for development and for log pipelines that ship the lines on.
+ */
+@Slf4j(topic = "banking.outbox")
+@RequiredArgsConstructor
+public class LogOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        for (var event : events) {
+            try {
+                log.info(objectMapper.writeValueAsString(event));
+            } catch (JsonProcessingException ex) {
+                throw new IllegalStateException("Cannot serialize outbox event " + event.getId(), ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.banking.outbox;
+
+import java.util.List;
+
+import com.example.banking.model.OutboxEvent;
+
+/**
+ * Destination of the outbox relay. Events are removed from the outbox only after {@link #publish} returns, so an
+ * implementation must not return before the events are durable, and must accept events it has seen before: a relay
+ * that stops between the two delivers them again.
+ */
+public interface OutboxSink {
+
+    /**
+     * Delivers {@code events} in order, throwing if any of them could not be delivered.
+     */
+    void publish(List<OutboxEvent> events);
+}
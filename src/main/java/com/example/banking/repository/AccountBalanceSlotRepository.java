@@ -0,0 +1,57 @@
+package com.example.banking.repository;
+
+import java.util.List;
+
+import com.example.banking.dto.HotAccount;
+import com.example.banking.model.AccountBalanceSlot;
+import com.example.banking.model.AccountBalanceSlotId;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AccountBalanceSlotRepository extends JpaRepository<AccountBalanceSlot, AccountBalanceSlotId> {
+
+    @Query("""
+            SELECT new com.example.banking.dto.HotAccount(a.id, a.accountNumber, CAST(COUNT(s.slot) AS Integer))
+            FROM Account a, AccountBalanceSlot s
+            WHERE s.accountId = a.id
+            GROUP BY a.id, a.accountNumber
+            """)
+    List<HotAccount> findHotAccounts();
+
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM AccountBalanceSlot s WHERE s.accountId = :accountId")
+    Long sumBalance(@Param("accountId") Long accountId);
+
+    /**
+     * Locks the slots of the account and reads their balances from the database, indexed by slot number, bypassing any
+     * slot entity the transaction already manages.
+     */
+    @Query(value = """
+            SELECT balance
+            FROM account_balance_slots
+            WHERE account_id = :accountId
+            ORDER BY slot
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<Long> findLockedBalances(@Param("accountId") Long accountId);
+
+    @Modifying
+    @Query(value = """
+            UPDATE account_balance_slots
+            SET balance = balance + :amount
+            WHERE account_id = :accountId
+            AND slot = :slot
+            """, nativeQuery = true)
+    int increaseBalance(@Param("accountId") Long accountId, @Param("slot") Integer slot, @Param("amount") Long amount);
+
+    @Modifying
+    @Query(value = """
+            UPDATE account_balance_slots
+            SET balance = :balance
+            WHERE account_id = :accountId
+            AND slot = :slot
+            """, nativeQuery = true)
+    int setBalance(@Param("accountId") Long accountId, @Param("slot") Integer slot, @Param("balance") Long balance);
+}
@@ -0,0 +1,61 @@
+package com.example.banking.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+import com.example.banking.dto.AccountBalanceAt;
+import com.example.banking.model.AccountBalanceSnapshot;
+import com.example.banking.model.AccountBalanceSnapshotId;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AccountBalanceSnapshotRepository extends JpaRepository<AccountBalanceSnapshot, AccountBalanceSnapshotId> {
+
+    Optional<AccountBalanceSnapshot> findFirstByAccountIdAndTakenAtLessThanEqualOrderByTakenAtDesc(Long accountId,
+                                                                                                 Timestamp takenAt);
+
+    Optional<AccountBalanceSnapshot> findFirstByAccountIdAndTakenAtGreaterThanOrderByTakenAt(Long accountId,
+                                                                                            Timestamp takenAt);
+
+    @Query("SELECT MAX(s.takenAt) FROM AccountBalanceSnapshot s")
+    Optional<Timestamp> findLatestTakenAt();
+
+    /**
+     * Balances at {@code takenAt} of the accounts in {@code [fromAccountId, toAccountId)} that have transactions in
+     * {@code [since, takenAt)}: the current balance and slots minus what moved from {@code takenAt} onwards. A plain
+     * SELECT reads a consistent snapshot without locking the accounts.
+     */
+    @Query(value = """
+            SELECT a.id AS accountId,
+                   CAST(a.balance
+                        + (SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_slots s WHERE s.account_id = a.id)
+                        - (SELECT COALESCE(SUM(t.amount), 0)
+                           FROM transactions t
+                           WHERE t.to_account_id = a.id
+                           AND t.timestamp >= :takenAt)
+                        + (SELECT COALESCE(SUM(t.amount), 0)
+                           FROM transactions t
+                           WHERE t.from_account_id = a.id
+                           AND t.timestamp >= :takenAt) AS SIGNED) AS balance
+            FROM accounts a
+            WHERE a.id >= :fromAccountId
+            AND a.id < :toAccountId
+            AND (EXISTS (SELECT 1
+                         FROM transactions t
+                         WHERE t.to_account_id = a.id
+                         AND t.timestamp >= :since
+                         AND t.timestamp < :takenAt)
+                 OR EXISTS (SELECT 1
+                            FROM transactions t
+                            WHERE t.from_account_id = a.id
+                            AND t.timestamp >= :since
+                            AND t.timestamp < :takenAt))
+            """, nativeQuery = true)
+    List<AccountBalanceAt> findChangedBalancesAt(@Param("fromAccountId") Long fromAccountId,
+                                                 @Param("toAccountId") Long toAccountId,
+                                                 @Param("since") Timestamp since,
+                                                 @Param("takenAt") Timestamp takenAt);
+}
@@ -0,0 +1,86 @@
+package com.example.banking.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.example.banking.dto.DailyTotals;
+import com.example.banking.model.AccountDailyRollup;
+import com.example.banking.model.AccountDailyRollupId;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AccountDailyRollupRepository extends JpaRepository<AccountDailyRollup, AccountDailyRollupId> {
+
+    /**
+     * Totals of the account per day between {@code from} and {@code to}, both inclusive, in day order, with the slots
+     * of each day summed.
+     */
+    @Query("""
+            SELECT new com.example.banking.dto.DailyTotals(r.day, SUM(r.credits), SUM(r.debits), SUM(r.transactionCount))
+            FROM AccountDailyRollup r
+            WHERE r.accountId = :accountId
+            AND r.day BETWEEN :from AND :to
+            GROUP BY r.day
+            ORDER BY r.day
+            """)
+    List<DailyTotals> findDailyTotalsBetween(@Param("accountId") Long accountId,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM account_daily_rollups
+            WHERE account_id >= :fromAccountId
+            AND account_id < :toAccountId
+            AND day BETWEEN :from AND :to
+            """, nativeQuery = true)
+    int deleteRange(@Param("fromAccountId") Long fromAccountId,
+                    @Param("toAccountId") Long toAccountId,
+                    @Param("from") LocalDate from,
+                    @Param("to") LocalDate to);
+
+    /**
+     * Recomputes the rollups of accounts in {@code [fromAccountId, toAccountId)} from the transactions between
+     * {@code start} and {@code end}, grouped by UTC day; a transfer to the same account counts once.
+     * {@code UNIX_TIMESTAMP} reads the stored instant, so the day does not depend on the session time zone.
+     *
+     * @return number of inserted rollups
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO account_daily_rollups (account_id, day, slot, credits, debits, transaction_count)
+            SELECT account_id, day, 0, SUM(credit), SUM(debit), COUNT(DISTINCT id)
+            FROM (
+                SELECT id,
+                       to_account_id AS account_id,
+                       DATE(TIMESTAMPADD(SECOND, UNIX_TIMESTAMP(timestamp), '1970-01-01')) AS day,
+                       amount AS credit,
+                       0 AS debit
+                FROM transactions
+                WHERE to_account_id >= :fromAccountId
+                AND to_account_id < :toAccountId
+                AND timestamp >= :start
+                AND timestamp < :end
+                UNION ALL
+                SELECT id,
+                       from_account_id,
+                       DATE(TIMESTAMPADD(SECOND, UNIX_TIMESTAMP(timestamp), '1970-01-01')),
+                       0,
+                       amount
+                FROM transactions
+                WHERE from_account_id >= :fromAccountId
+                AND from_account_id < :toAccountId
+                AND timestamp >= :start
+                AND timestamp < :end
+            ) movements
+            GROUP BY account_id, day
+            """, nativeQuery = true)
+    int insertRange(@Param("fromAccountId") Long fromAccountId,
+                    @Param("toAccountId") Long toAccountId,
+                    @Param("start") Timestamp start,
+                    @Param("end") Timestamp end);
+}
@@ -1,49 +1,99 @@
 package com.example.banking.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-import com.example.banking.dto.TransferAccounts;
 import com.example.banking.model.Account;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.LockModeType;
 import lombok.NonNull;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
 
     Optional<Account> findByAccountNumber(String accountNumber);
 
+    @Query("SELECT a.id FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<Long> findIdByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Reads the balance from the database rather than from a managed entity, which the single-statement updates below
+     * leave stale.
+     */
+    @Query("SELECT a.balance FROM Account a WHERE a.id = :id")
+    Optional<Long> findBalanceById(@Param("id") Long id);
+
+    @Query("SELECT COALESCE(MAX(a.id), 0) FROM Account a")
+    Long findMaxId();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Account> findAllByIdIn(Collection<Long> ids);
+
+    /**
+     * Locks the account row and reads its balance from the database. Unlike a locking find, it never returns the state
+     * of an entity already managed by the transaction, which the single-statement updates below leave stale.
+     */
     @Query(value = """
-            (SELECT a1.id AS fromAccountId,
-                    a1.account_number AS fromAccountNumber,
-                    a1.balance AS fromAccountBalance,
-                    a2.id AS toAccountId,
-                    a2.account_number AS toAccountNumber,
-                    a2.balance AS toAccountBalance
-             FROM accounts a1
-             LEFT JOIN accounts a2 ON a2.account_number = :toAccountNumber
-             WHERE a1.account_number = :fromAccountNumber)
-            
-            UNION ALL
-            
-            (SELECT NULL AS fromAccountId,
-                    NULL AS fromAccountNumber,
-                    NULL AS fromAccountBalance,
-                    a2.id AS toAccountId,
-                    a2.account_number AS toAccountNumber,
-                    a2.balance AS toAccountBalance
-             FROM accounts a2
-             WHERE a2.account_number = :toAccountNumber
-             AND NOT EXISTS (SELECT 1 FROM accounts a1 WHERE a1.account_number = :fromAccountNumber))
+            SELECT balance
+            FROM accounts
+            WHERE id = :id
+            FOR UPDATE
             """, nativeQuery = true)
-    Optional<TransferAccounts> findAccountsForTransfer(@Param("fromAccountNumber") String fromAccountNumber,
-                                                       @Param("toAccountNumber") String toAccountNumber);
+    Optional<Long> findLockedBalanceById(@Param("id") Long id);
 
+    /**
+     * Credits the account in a single statement.
+     *
+     * @return number of updated rows, {@code 0} when the account does not exist
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE accounts
+            SET balance = balance + :amount
+            WHERE id = :id
+            """, nativeQuery = true)
+    int increaseBalance(@Param("id") Long id, @Param("amount") Long amount);
+
+    /**
+     * Debits the account in a single statement if it holds at least {@code amount}.
+     *
+     * @return number of updated rows, {@code 0} when the account does not exist or has insufficient funds
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE accounts
+            SET balance = balance - :amount
+            WHERE id = :id
+            AND balance >= :amount
+            """, nativeQuery = true)
+    int decreaseBalance(@Param("id") Long id, @Param("amount") Long amount);
+
+    @Modifying
+    @Query(value = """
+            UPDATE accounts
+            SET balance = :balance
+            WHERE id = :id
+            """, nativeQuery = true)
+    int setBalance(@Param("id") Long id, @Param("balance") Long balance);
 
     @NonNull
     Page<Account> findAll(@NonNull Pageable pageable);
+
+    /**
+     * Accounts after {@code id} in id order. A {@link Slice} fetches one extra row to tell whether more follow
+     * instead of counting the table. Read-only in a transaction of its own, since account listing is spread over the
+     * shards.
+     */
+    @Transactional(readOnly = true)
+    Slice<Account> findByIdGreaterThanOrderById(Long id, Pageable pageable);
 }
@@ -0,0 +1,47 @@
+package com.example.banking.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import com.example.banking.model.CrossShardTransfer;
+import com.example.banking.model.CrossShardTransferStatus;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CrossShardTransferRepository extends JpaRepository<CrossShardTransfer, String> {
+
+    List<CrossShardTransfer> findByStatusAndUpdatedAtBeforeOrderByUpdatedAt(CrossShardTransferStatus status,
+                                                                            Timestamp updatedBefore,
+                                                                            Pageable pageable);
+
+    /**
+     * Moves a {@link CrossShardTransferStatus#DEBITED} transfer to its final status.
+     *
+     * @return number of updated rows, {@code 0} when the transfer was already finished
+     */
+    @Modifying
+    @Query("""
+           UPDATE CrossShardTransfer t
+           SET t.status = :status, t.updatedAt = :updatedAt
+           WHERE t.id = :id AND t.status = com.example.banking.model.CrossShardTransferStatus.DEBITED
+           """)
+    int finish(@Param("id") String id,
+               @Param("status") CrossShardTransferStatus status,
+               @Param("updatedAt") Timestamp updatedAt);
+
+    /**
+     * Records on the shard of the target account that the credit of a transfer was made.
+     *
+     * @return {@code 1} when recorded now, {@code 0} when the credit was already made
+     */
+    @Modifying
+    @Query(value = """
+            INSERT IGNORE INTO applied_transfers (transfer_id, applied_at)
+            VALUES (:transferId, :appliedAt)
+            """, nativeQuery = true)
+    int markApplied(@Param("transferId") String transferId, @Param("appliedAt") Timestamp appliedAt);
+}
@@ -0,0 +1,43 @@
+package com.example.banking.repository;
+
+import java.sql.Timestamp;
+
+import com.example.banking.model.IdempotencyRecord;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Inserts the key right away instead of at flush, so a concurrent request with the same key fails on the primary
+     * key within its own transaction.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO idempotency_keys (idempotency_key, request, response, created_at)
+            VALUES (:key, :request, :response, :createdAt)
+            """, nativeQuery = true)
+    void insert(@Param("key") String key,
+                @Param("request") String request,
+                @Param("response") String response,
+                @Param("createdAt") Timestamp createdAt);
+
+    /**
+     * Deletes up to {@code limit} keys created before {@code cutoff} in a transaction of its own.
+     *
+     * @return number of deleted keys
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM idempotency_keys
+            WHERE created_at < :cutoff
+            ORDER BY created_at
+            LIMIT :limit
+            """, nativeQuery = true)
+    int deleteCreatedBefore(@Param("cutoff") Timestamp cutoff, @Param("limit") int limit);
+}
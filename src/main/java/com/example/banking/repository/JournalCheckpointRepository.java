@@ -0,0 +1,8 @@
+package com.example.banking.repository;
+
+import com.example.banking.model.JournalCheckpoint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, String> {
+}
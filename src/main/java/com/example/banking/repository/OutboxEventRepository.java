@@ -0,0 +1,24 @@
+package com.example.banking.repository;
+
+import java.util.List;
+
+import com.example.banking.model.OutboxEvent;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the oldest events until the caller's transaction ends, so relays of several instances deliver them one
+     * after the other instead of interleaving.
+     */
+    @Query(value = """
+            SELECT * FROM outbox_events
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<OutboxEvent> lockOldest(@Param("limit") int limit);
+}
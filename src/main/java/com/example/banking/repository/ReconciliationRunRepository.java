@@ -0,0 +1,33 @@
+package com.example.banking.repository;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+import com.example.banking.model.ReconciliationRun;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+
+    Optional<ReconciliationRun> findFirstByFinishedAtIsNullOrderByIdDesc();
+
+    Optional<ReconciliationRun> findFirstByOrderByIdDesc();
+
+    /**
+     * Moves the checkpoint of the run forward, never back.
+     */
+    @Modifying
+    @Query("""
+           UPDATE ReconciliationRun r
+           SET r.nextAccountId = :nextAccountId
+           WHERE r.id = :id AND r.nextAccountId < :nextAccountId
+           """)
+    int advance(@Param("id") Long id, @Param("nextAccountId") Long nextAccountId);
+
+    @Modifying
+    @Query("UPDATE ReconciliationRun r SET r.finishedAt = :finishedAt WHERE r.id = :id")
+    int finish(@Param("id") Long id, @Param("finishedAt") Timestamp finishedAt);
+}
@@ -1,8 +1,86 @@
 package com.example.banking.repository;
 
+import java.sql.Timestamp;
+import java.util.List;
+
+import com.example.banking.dto.TransactionHistoryEntry;
 import com.example.banking.model.Transaction;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+
+    /**
+     * Newest transactions of the account strictly before {@code (timestamp, id)}. Each side of the union is a range
+     * scan on its {@code (account, timestamp, id)} index that stops after {@code limit} rows, so the cost does not
+     * depend on how far back the page is. {@code UNION} drops the duplicate of a transfer to the same account. Rows
+     * are joined back by the whole primary key, so each lookup reads a single partition.
+     */
+    @Query(value = """
+            SELECT t.id AS id,
+                   fa.account_number AS fromAccountNumber,
+                   ta.account_number AS toAccountNumber,
+                   t.amount AS amount,
+                   t.type AS type,
+                   t.timestamp AS timestamp
+            FROM ((SELECT id, timestamp
+                   FROM transactions
+                   WHERE from_account_id = :accountId
+                   AND (timestamp < :timestamp OR (timestamp = :timestamp AND id < :id))
+                   ORDER BY timestamp DESC, id DESC
+                   LIMIT :limit)
+                  UNION
+                  (SELECT id, timestamp
+                   FROM transactions
+                   WHERE to_account_id = :accountId
+                   AND (timestamp < :timestamp OR (timestamp = :timestamp AND id < :id))
+                   ORDER BY timestamp DESC, id DESC
+                   LIMIT :limit)) page
+            JOIN transactions t ON t.id = page.id AND t.timestamp = page.timestamp
+            LEFT JOIN accounts fa ON fa.id = t.from_account_id
+            LEFT JOIN accounts ta ON ta.id = t.to_account_id
+            ORDER BY t.timestamp DESC, t.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<TransactionHistoryEntry> findHistoryBefore(@Param("accountId") Long accountId,
+                                                    @Param("timestamp") Timestamp timestamp,
+                                                    @Param("id") Long id,
+                                                    @Param("limit") int limit);
+
+    /**
+     * Credits minus debits of the account with a timestamp in {@code [from, to)}, as two range scans on the
+     * {@code (account, timestamp, id)} indexes.
+     */
+    @Query(value = """
+            SELECT CAST((SELECT COALESCE(SUM(amount), 0)
+                         FROM transactions
+                         WHERE to_account_id = :accountId
+                         AND timestamp >= :from
+                         AND timestamp < :to)
+                        - (SELECT COALESCE(SUM(amount), 0)
+                           FROM transactions
+                           WHERE from_account_id = :accountId
+                           AND timestamp >= :from
+                           AND timestamp < :to) AS SIGNED)
+            """, nativeQuery = true)
+    Long sumNetAmountBetween(@Param("accountId") Long accountId,
+                             @Param("from") Timestamp from,
+                             @Param("to") Timestamp to);
+
+    /**
+     * Credits minus debits of the account with a timestamp from {@code from} onwards.
+     */
+    @Query(value = """
+            SELECT CAST((SELECT COALESCE(SUM(amount), 0)
+                         FROM transactions
+                         WHERE to_account_id = :accountId
+                         AND timestamp >= :from)
+                        - (SELECT COALESCE(SUM(amount), 0)
+                           FROM transactions
+                           WHERE from_account_id = :accountId
+                           AND timestamp >= :from) AS SIGNED)
+            """, nativeQuery = true)
+    Long sumNetAmountFrom(@Param("accountId") Long accountId, @Param("from") Timestamp from);
 }
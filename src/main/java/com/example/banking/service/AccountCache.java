@@ -0,0 +1,79 @@
+package com.example.banking.service;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import com.example.banking.config.AccountCacheProperties;
+import com.example.banking.datasource.ShardContext;
+import com.example.banking.dto.AccountDto;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Read-through cache of account balances. Concurrent misses for the same account number share one load, which runs in
+ * its own transaction. Loads deliberately are not read-only: a read-only transaction may be served by a replica, which
+ * could still return the balance from before an eviction and keep it cached until it expires.
+ * <p>
+ * Writers evict the account once their transaction commits. The cache holds the future of a load rather than running
+ * it inside a compute, where the JDBC call would hold the lock of a map bin and pin the carrier of a virtual thread.
+ * Loads run on virtual threads of their own, on the shard of the caller. An eviction removes the future of a load in
+ * flight, so a load that read the balance before the commit cannot repopulate the cache after it.
+ */
+@Component
+public class AccountCache {
+
+    private final ExecutorService loaders = Executors.newVirtualThreadPerTaskExecutor();
+    private final AsyncCache<String, AccountDto> accounts;
+    private final TransactionTemplate loadTransaction;
+
+    public AccountCache(AccountCacheProperties properties, PlatformTransactionManager transactionManager) {
+        this.accounts = Caffeine.newBuilder()
+                                .maximumSize(properties.maximumSize())
+                                .expireAfterWrite(properties.expireAfterWrite())
+                                .executor(loaders)
+                                .buildAsync();
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public AccountDto get(String accountNumber, Function<String, AccountDto> loader) {
+        var shard = ShardContext.current();
+        try {
+            return accounts.get(accountNumber,
+                                key -> ShardContext.call(shard, () -> loadTransaction.execute(status -> loader.apply(key))))
+                           .join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    public void evictAfterCommit(String accountNumber) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accounts.synchronous().invalidate(accountNumber);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accounts.synchronous().invalidate(accountNumber);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        loaders.shutdownNow();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.banking.service;
+
+import java.util.Optional;
+
+import com.example.banking.config.AccountIdCacheProperties;
+import com.example.banking.dto.AccountIdCacheStats;
+import com.example.banking.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Resolves account numbers to account ids. The mapping never changes once an account is created, so entries are only
+ * evicted to bound memory. Unknown account numbers are not cached.
+ * <p>
+ * A miss is looked up outside of the cache and put afterwards, not inside a compute: Caffeine computes under the lock
+ * of a map bin, which would pin the carrier of a virtual thread for the whole query. Concurrent misses for the same
+ * account number may each run the query, and resolve to the same id.
+ */
+@Component
+public class AccountIdCache {
+
+    private final AccountRepository accountRepository;
+    private final Cache<String, Long> accountIds;
+
+    public AccountIdCache(AccountRepository accountRepository, AccountIdCacheProperties properties) {
+        this.accountRepository = accountRepository;
+        this.accountIds = Caffeine.newBuilder()
+                                  .maximumSize(properties.maximumSize())
+                                  .expireAfterAccess(properties.expireAfterAccess())
+                                  .recordStats()
+                                  .build();
+    }
+
+    public Optional<Long> find(String accountNumber) {
+        var accountId = accountIds.getIfPresent(accountNumber);
+        if (accountId != null) {
+            return Optional.of(accountId);
+        }
+        var loaded = accountRepository.findIdByAccountNumber(accountNumber);
+        loaded.ifPresent(id -> accountIds.put(accountNumber, id));
+        return loaded;
+    }
+
+    /**
+     * Adds the mapping of a newly created account once the surrounding transaction commits, so a rolled back account
+     * never becomes resolvable.
+     */
+    public void put(String accountNumber, Long accountId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accountIds.put(accountNumber, accountId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accountIds.put(accountNumber, accountId);
+            }
+        });
+    }
+
+    public AccountIdCacheStats getStats() {
+        var stats = accountIds.stats();
+        return new AccountIdCacheStats(accountIds.estimatedSize(),
+                                       stats.hitCount(),
+                                       stats.missCount(),
+                                       stats.evictionCount(),
+                                       stats.hitRate());
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.banking.service;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import com.example.banking.config.ExecutionLaneProperties;
+import com.example.banking.dto.LaneStats;
+import com.example.banking.exception.ServiceOverloadedException;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs account mutations on single-threaded lanes chosen by hashing the account number, so operations on the same
+ * account never contend for its row lock in the database.
+ * <p>
+ * An operation touching two lanes runs on the lower lane while the higher lane is parked. Both halves are enqueued
+ * under one sequencer lock, which gives all cross-lane operations the same relative order on every lane and rules
+ * out lanes waiting on each other in a cycle.
+ */
+@Component
+public class AccountLaneExecutor {
+
+    private final boolean enabled;
+    private final List<ExecutionLane> lanes;
+    private final ThreadLocal<ExecutionLane> currentLane = new ThreadLocal<>();
+    private final ReentrantLock sequencer = new ReentrantLock();
+
+    public AccountLaneExecutor(ExecutionLaneProperties properties) {
+        this.enabled = properties.enabled();
+        this.lanes = enabled
+                     ? IntStream.range(0, properties.count())
+                                .mapToObj(index -> new ExecutionLane(index,
+                                                                     properties.queueDepth(),
+                                                                     properties.submitTimeout(),
+                                                                     currentLane))
+                                .toList()
+                     : List.of();
+    }
+
+    public <T> T execute(String accountNumber, Supplier<T> action) {
+        if (!enabled || currentLane.get() != null) {
+            return action.get();
+        }
+        return await(submit(laneOf(accountNumber), action::get));
+    }
+
+    public <T> T execute(String firstAccountNumber, String secondAccountNumber, Supplier<T> action) {
+        if (!enabled || currentLane.get() != null) {
+            return action.get();
+        }
+
+        var first = laneOf(firstAccountNumber);
+        var second = laneOf(secondAccountNumber);
+        if (first == second) {
+            return await(submit(first, action::get));
+        }
+
+        var lower = lanes.indexOf(first) < lanes.indexOf(second) ? first : second;
+        var higher = lower == first ? second : first;
+        var handshake = new Handshake();
+        Future<T> result;
+        sequencer.lock();
+        try {
+            result = submit(lower, () -> {
+                handshake.awaitParked();
+                try {
+                    return action.get();
+                } finally {
+                    handshake.release();
+                }
+            });
+            try {
+                submit(higher, handshake::park);
+            } catch (ServiceOverloadedException ex) {
+                handshake.cancel();
+                throw ex;
+            }
+        } finally {
+            sequencer.unlock();
+        }
+        return await(result);
+    }
+
+    public List<LaneStats> getStats() {
+        return lanes.stream().map(ExecutionLane::getStats).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.forEach(ExecutionLane::shutdown);
+    }
+
+    private ExecutionLane laneOf(String accountNumber) {
+        return lanes.get(Math.floorMod(accountNumber.hashCode(), lanes.size()));
+    }
+
+    private <T> Future<T> submit(ExecutionLane lane, Callable<T> task) {
+        try {
+            return lane.submit(task);
+        } catch (RejectedExecutionException ex) {
+            throw new ServiceOverloadedException("Too many pending operations, try again later");
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for account lane", ex);
+        }
+    }
+
+    /**
+     * Coordinates the two halves of a cross-lane operation: the higher lane parks until the work on the lower lane is
+     * done.
+     */
+    private static final class Handshake {
+
+        private final CountDownLatch parked = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private volatile boolean cancelled;
+
+        Void park() throws InterruptedException {
+            parked.countDown();
+            released.await();
+            return null;
+        }
+
+        void awaitParked() throws InterruptedException {
+            parked.await();
+            if (cancelled) {
+                throw new ServiceOverloadedException("Too many pending operations, try again later");
+            }
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        void cancel() {
+            cancelled = true;
+            parked.countDown();
+            released.countDown();
+        }
+    }
+}
@@ -1,19 +1,32 @@
 package com.example.banking.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import com.example.banking.datasource.ShardRouter;
 import com.example.banking.dto.AccountDto;
-import com.example.banking.dto.TransferAccounts;
+import com.example.banking.dto.AccountSlice;
+import com.example.banking.dto.HotAccount;
 import com.example.banking.exception.AccountNotFoundException;
+import com.example.banking.exception.InsufficientFundsException;
 import com.example.banking.exception.NegativeBalanceException;
 import com.example.banking.mapper.AccountMapper;
 import com.example.banking.model.Account;
 import com.example.banking.repository.AccountRepository;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,10 +36,19 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class AccountService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final AccountRepository accountRepository;
     private final AccountMapper accountMapper;
+    private final HotAccountService hotAccountService;
+    private final AccountIdCache accountIdCache;
+    private final AccountCache accountCache;
+    private final ShardRouter shardRouter;
 
-    @Transactional
+    /**
+     * Picks the account number first, since it decides the shard the account is created on. Not transactional itself:
+     * the insert runs in a transaction of its own on that shard.
+     */
     public AccountDto createAccount(Long initialBalance) {
         if (initialBalance < 0) {
             throw new NegativeBalanceException("Initial balance cannot be negative");
@@ -34,66 +56,280 @@ public class AccountService {
 
         var newAccount = Account.builder()
                                 .balance(initialBalance)
+                                .openingBalance(initialBalance)
                                 .accountNumber(UUID.randomUUID().toString())
                                 .build();
-        var savedAccount = accountRepository.save(newAccount);
+        var savedAccount = shardRouter.onShardOf(newAccount.getAccountNumber(), () -> accountRepository.save(newAccount));
+        accountIdCache.put(savedAccount.getAccountNumber(), savedAccount.getId());
 
         return accountMapper.toAccountDto(savedAccount);
     }
 
+    /**
+     * Offset pages cannot be merged across shards without reading every earlier page from each of them, so they are
+     * only served without sharding.
+     */
     @Transactional(readOnly = true)
     public Page<AccountDto> getAllAccounts(Pageable pageable) {
+        if (shardRouter.getShardCount() > 1) {
+            throw new IllegalArgumentException("Page numbers are not supported with sharding, page with the cursor instead");
+        }
         return accountRepository.findAll(pageable)
-                                .map(accountMapper::toAccountDto);
+                                .map(this::toAccountDto);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Lists accounts in id order from an opaque cursor. Each call is an index range scan on the primary key without a
+     * count query, so it costs the same however far the client has paged. Ids are unique across shards, so with
+     * sharding every shard is scanned from the cursor and the results are merged by id.
+     */
+    public AccountSlice getAccounts(String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(String.format("Page size must be between 1 and %d", MAX_PAGE_SIZE));
+        }
+        var afterId = cursor == null ? 0L : decodeCursor(cursor);
+        var slices = shardRouter.mapShards(shard -> accountRepository.findByIdGreaterThanOrderById(afterId,
+                                                                                                   PageRequest.ofSize(size))
+                                                                     .map(account -> new ListedAccount(account.getId(),
+                                                                                                       toAccountDto(account))));
+
+        var merged = slices.stream()
+                           .map(Slice::getContent)
+                           .flatMap(List::stream)
+                           .sorted(Comparator.comparingLong(ListedAccount::id))
+                           .toList();
+        var accounts = merged.subList(0, Math.min(size, merged.size()));
+        var hasNext = merged.size() > size || slices.stream().anyMatch(Slice::hasNext);
+        return new AccountSlice(accounts.stream().map(ListedAccount::account).toList(),
+                                hasNext ? encodeCursor(accounts.getLast().id()) : null);
+    }
+
+    /**
+     * Served from {@link AccountCache}; every method below that changes a balance evicts the account on commit.
+     */
     public AccountDto getAccount(String accountNumber) {
-        return accountMapper.toAccountDto(getAccountByNumber(accountNumber));
+        return accountCache.get(accountNumber, key -> toAccountDto(getAccountByNumber(key)));
+    }
+
+    /**
+     * Balance as the caller's transaction sees it, including its own uncommitted changes. Bypasses {@link AccountCache},
+     * which keeps the committed balance until the transaction ends.
+     */
+    @Transactional
+    public Long readBalance(String accountNumber) {
+        var accountId = getAccountId(accountNumber);
+        var balance = accountRepository.findBalanceById(accountId).orElseThrow(() -> accountNotFound(accountNumber));
+        if (hotAccountService.findHotAccount(accountNumber).isEmpty()) {
+            return balance;
+        }
+        return hotAccountService.getTotalBalance(Account.builder().id(accountId).balance(balance).build());
+    }
+
+    public Long getAccountId(String accountNumber) {
+        return accountIdCache.find(accountNumber)
+                             .orElseThrow(() -> accountNotFound(accountNumber));
     }
 
+    /**
+     * Splits the balance of the account across {@code slots} rows, see {@link HotAccountService}.
+     */
+    @Transactional
+    public AccountDto markHot(String accountNumber, int slots) {
+        var account = getAccountByNumber(accountNumber);
+        hotAccountService.markHot(account, slots);
+        return toAccountDto(account);
+    }
+
+    /**
+     * Credits the account with a single conditional UPDATE by id, without loading it first. The returned account only
+     * carries the id and account number; its balance is not read back.
+     */
     @Transactional
     public Account increaseBalance(String accountNumber, Long amount) {
-        return adjustBalance(accountNumber, amount, Account::increaseBalance);
+        accountCache.evictAfterCommit(accountNumber);
+        var hotAccount = hotAccountService.findHotAccount(accountNumber);
+        if (hotAccount.isPresent()) {
+            return hotAccountService.credit(hotAccount.get(), amount);
+        }
+        return creditRow(getAccountId(accountNumber), accountNumber, amount);
     }
 
+    /**
+     * Debits the account with a single conditional UPDATE by id, without loading it first. The account is known to
+     * exist once its id is resolved, so no updated row means insufficient funds.
+     */
     @Transactional
     public Account decreaseBalance(String accountNumber, Long amount) {
-        return adjustBalance(accountNumber, amount, Account::decreaseBalance);
+        accountCache.evictAfterCommit(accountNumber);
+        var hotAccount = hotAccountService.findHotAccount(accountNumber);
+        if (hotAccount.isPresent()) {
+            return hotAccountService.debit(hotAccount.get(), amount);
+        }
+        return debitRow(getAccountId(accountNumber), accountNumber, amount);
     }
 
-    private Account adjustBalance(String accountNumber, Long amount, BiFunction<Account, Long, Account> balanceAdjuster) {
-        var account = getAccountByNumber(accountNumber);
-        return accountRepository.save(balanceAdjuster.apply(account, amount));
+    private Account getAccountReference(Long accountId, String accountNumber) {
+        return Account.builder()
+                      .id(accountId)
+                      .accountNumber(accountNumber)
+                      .build();
     }
 
+    /**
+     * Moves the amount with the same conditional UPDATEs as {@link #decreaseBalance} and {@link #increaseBalance}, so a
+     * deposit or withdrawal committing at the same time is never overwritten. A hot account is updated before a plain
+     * one and otherwise the accounts are updated in id order, so transfers lock the slots of hot accounts before any
+     * account row, as {@link #getAccountsByNumbers} does, instead of deadlocking. The returned accounts only carry the
+     * id and account number.
+     */
     @Transactional
     public List<Account> transferFund(String fromAccountNumber, String toAccountNumber, Long amount) {
-        var transferAccounts = getTransferAccountsByNumbers(fromAccountNumber, toAccountNumber);
+        accountCache.evictAfterCommit(fromAccountNumber);
+        accountCache.evictAfterCommit(toAccountNumber);
+        var fromAccountId = accountIdCache.find(fromAccountNumber);
+        var toAccountId = accountIdCache.find(toAccountNumber);
+        if (fromAccountId.isEmpty() && toAccountId.isEmpty()) {
+            throw new AccountNotFoundException(String.format("Both accounts not found: %s and %s",
+                                                             fromAccountNumber,
+                                                             toAccountNumber));
+        }
+        var fromId = fromAccountId.orElseThrow(() -> new AccountNotFoundException(String.format("Account not found: %s",
+                                                                                                fromAccountNumber)));
+        var toId = toAccountId.orElseThrow(() -> new AccountNotFoundException(String.format("Account not found: %s",
+                                                                                            toAccountNumber)));
+
+        var fromHotAccount = hotAccountService.findHotAccount(fromAccountNumber);
+        var toHotAccount = hotAccountService.findHotAccount(toAccountNumber);
+        var debitFirst = fromHotAccount.isPresent() == toHotAccount.isPresent()
+                         ? fromId <= toId
+                         : fromHotAccount.isPresent();
+        if (debitFirst) {
+            var fromAccount = debit(fromHotAccount, fromAccountNumber, fromId, amount);
+            return List.of(fromAccount, credit(toHotAccount, toAccountNumber, toId, amount));
+        }
+        var toAccount = credit(toHotAccount, toAccountNumber, toId, amount);
+        return List.of(debit(fromHotAccount, fromAccountNumber, fromId, amount), toAccount);
+    }
+
+    private Account debit(Optional<HotAccount> hotAccount, String accountNumber, Long accountId, Long amount) {
+        return hotAccount.map(account -> hotAccountService.debit(account, amount))
+                         .orElseGet(() -> debitRow(accountId, accountNumber, amount));
+    }
 
-        var fromAccount = transferAccounts.getFromAccount()
-                                          .map(account -> account.decreaseBalance(amount))
-                                          .orElseThrow(() -> new AccountNotFoundException(String.format("Account not found: %s",
-                                                                                                        fromAccountNumber)));
-        var toAccount = transferAccounts.getToAccount()
-                                        .map(account -> account.increaseBalance(amount))
-                                        .orElseThrow(() -> new AccountNotFoundException(String.format("Account not found: %s",
-                                                                                                      toAccountNumber)));
+    private Account credit(Optional<HotAccount> hotAccount, String accountNumber, Long accountId, Long amount) {
+        return hotAccount.map(account -> hotAccountService.credit(account, amount))
+                         .orElseGet(() -> creditRow(accountId, accountNumber, amount));
+    }
+
+    private Account debitRow(Long accountId, String accountNumber, Long amount) {
+        if (accountRepository.decreaseBalance(accountId, amount) == 0) {
+            throw new InsufficientFundsException("Insufficient funds for withdrawal");
+        }
+        return getAccountReference(accountId, accountNumber);
+    }
+
+    private Account creditRow(Long accountId, String accountNumber, Long amount) {
+        if (accountRepository.increaseBalance(accountId, amount) == 0) {
+            throw accountNotFound(accountNumber);
+        }
+        return getAccountReference(accountId, accountNumber);
+    }
 
-        return accountRepository.saveAll(List.of(fromAccount, toAccount));
+    private boolean isHot(Account account) {
+        return hotAccountService.findHotAccount(account.getAccountNumber()).isPresent();
+    }
+
+    /**
+     * Loads and locks the accounts of a batch. A hot account is returned as a detached copy carrying its total balance
+     * across the slots, whose locks are taken first, so that {@link #saveAll} credits or debits the difference through
+     * {@link HotAccountService} instead of writing the row.
+     */
+    @Transactional
+    public Map<String, Account> getAccountsByNumbers(Collection<String> accountNumbers) {
+        var slotBalances = accountNumbers.stream()
+                                         .map(hotAccountService::findHotAccount)
+                                         .flatMap(Optional::stream)
+                                         .sorted(Comparator.comparingLong(HotAccount::accountId))
+                                         .collect(Collectors.toMap(HotAccount::accountNumber,
+                                                                   hotAccountService::lockSlotBalance));
+        var accountIds = accountNumbers.stream()
+                                       .map(accountIdCache::find)
+                                       .flatMap(Optional::stream)
+                                       .toList();
+        return accountRepository.findAllByIdIn(accountIds)
+                                .stream()
+                                .map(account -> Optional.ofNullable(slotBalances.get(account.getAccountNumber()))
+                                                        .map(slotBalance -> withBalance(account,
+                                                                                        account.getBalance() + slotBalance))
+                                                        .orElse(account))
+                                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, String> getAccountNumbers(Collection<Long> accountIds) {
+        return accountRepository.findAllById(accountIds)
+                                .stream()
+                                .collect(Collectors.toMap(Account::getId, Account::getAccountNumber));
+    }
+
+    /**
+     * Writes balances computed on the accounts of {@link #getAccountsByNumbers}. The balance of a hot account is its new
+     * total, applied as a credit or debit of the difference.
+     */
+    @Transactional
+    public List<Account> saveAll(Collection<Account> accounts) {
+        accounts.forEach(account -> accountCache.evictAfterCommit(account.getAccountNumber()));
+        var savedAccounts = new ArrayList<Account>(accounts.size());
+        var rowAccounts = new ArrayList<Account>(accounts.size());
+        for (var account : accounts) {
+            var hotAccount = hotAccountService.findHotAccount(account.getAccountNumber());
+            if (hotAccount.isPresent()) {
+                savedAccounts.add(hotAccountService.setTotalBalance(hotAccount.get(), account.getBalance()));
+            } else {
+                rowAccounts.add(account);
+            }
+        }
+        savedAccounts.addAll(accountRepository.saveAll(rowAccounts));
+        return savedAccounts;
+    }
+
+    private static Account withBalance(Account account, Long balance) {
+        return Account.builder()
+                      .id(account.getId())
+                      .accountNumber(account.getAccountNumber())
+                      .balance(balance)
+                      .openingBalance(account.getOpeningBalance())
+                      .build();
     }
 
     private Account getAccountByNumber(String accountNumber) {
-        return accountRepository.findByAccountNumber(accountNumber)
-                                .orElseThrow(
-                                        () -> new AccountNotFoundException(String.format("Account %s not found", accountNumber)));
+        return accountRepository.findById(getAccountId(accountNumber))
+                                .orElseThrow(() -> accountNotFound(accountNumber));
+    }
+
+    private AccountDto toAccountDto(Account account) {
+        if (isHot(account)) {
+            // runs on the shard the account was loaded from, which also holds its slots
+            return new AccountDto(account.getAccountNumber(), hotAccountService.getTotalBalance(account));
+        }
+        return accountMapper.toAccountDto(account);
+    }
+
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
     }
 
-    private TransferAccounts getTransferAccountsByNumbers(String fromAccountNumber, String toAccountNumber) {
-        return accountRepository.findAccountsForTransfer(fromAccountNumber, toAccountNumber)
-                                .orElseThrow(() -> new AccountNotFoundException(String.format("Both accounts not found: %s and %s",
-                                                                                              fromAccountNumber,
-                                                                                              toAccountNumber)));
+    private record ListedAccount(long id, AccountDto account) { }
 
+    private AccountNotFoundException accountNotFound(String accountNumber) {
+        return new AccountNotFoundException(String.format("Account %s not found", accountNumber));
     }
 }
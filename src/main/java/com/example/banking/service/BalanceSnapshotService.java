@@ -0,0 +1,187 @@
+package com.example.banking.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import com.example.banking.archive.TransactionArchive;
+import com.example.banking.config.BalanceSnapshotProperties;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.dto.BalanceAsOf;
+import com.example.banking.exception.AccountNotFoundException;
+import com.example.banking.repository.AccountBalanceSnapshotRepository;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.TransactionRepository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Answers an account's balance at a past instant from periodic balance snapshots. Each run snapshots the accounts that
+ * had transactions since the previous run, so a query replays at most about one interval of the account's history:
+ * forwards from the latest snapshot before the instant or, when there is none, backwards from the first snapshot after
+ * it or from the current balance. Snapshots only shorten the replay; a missed run makes queries slower, not wrong.
+ * <p>
+ * Transaction timestamps are taken before commit, so snapshots are taken {@code settleTime} behind the clock, when
+ * every transaction with an earlier timestamp has committed.
+ * <p>
+ * Replays reaching before the archive horizon sum the archived part from the {@link TransactionArchive}.
+ */
+@Slf4j
+@Service
+public class BalanceSnapshotService {
+
+    private static final String INSERT_SNAPSHOT = """
+            INSERT INTO account_balance_snapshots (account_id, taken_at, balance)
+            VALUES (?, ?, ?)
+            """;
+
+    private final AccountBalanceSnapshotRepository accountBalanceSnapshotRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final AccountService accountService;
+    private final HotAccountService hotAccountService;
+    private final JdbcTemplate jdbcTemplate;
+    private final BalanceSnapshotProperties properties;
+    private final Clock clock;
+    private final TransactionTemplate snapshotTransaction;
+    private final TransactionArchive transactionArchive;
+    private final ShardRouter shardRouter;
+
+    public BalanceSnapshotService(AccountBalanceSnapshotRepository accountBalanceSnapshotRepository,
+                                  TransactionRepository transactionRepository,
+                                  AccountRepository accountRepository,
+                                  AccountService accountService,
+                                  HotAccountService hotAccountService,
+                                  JdbcTemplate jdbcTemplate,
+                                  BalanceSnapshotProperties properties,
+                                  Clock clock,
+                                  PlatformTransactionManager transactionManager,
+                                  TransactionArchive transactionArchive,
+                                  ShardRouter shardRouter) {
+        this.accountBalanceSnapshotRepository = accountBalanceSnapshotRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.accountService = accountService;
+        this.hotAccountService = hotAccountService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.clock = clock;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.transactionArchive = transactionArchive;
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Balance including every transaction timestamped before {@code asOf}. Before the account was opened this is its
+     * initial balance, which is not recorded as a transaction.
+     */
+    @Transactional(readOnly = true)
+    public BalanceAsOf getBalanceAsOf(String accountNumber, Instant asOf) {
+        if (asOf.isAfter(clock.instant())) {
+            throw new IllegalArgumentException("Balance can only be queried for past instants");
+        }
+        var accountId = accountService.getAccountId(accountNumber);
+        var at = Timestamp.from(asOf);
+
+        var before = accountBalanceSnapshotRepository
+                .findFirstByAccountIdAndTakenAtLessThanEqualOrderByTakenAtDesc(accountId, at);
+        if (before.isPresent()) {
+            var snapshot = before.get();
+            var replayed = netAmount(accountId, snapshot.getTakenAt(), at);
+            return new BalanceAsOf(accountNumber, asOf, snapshot.getBalance() + replayed);
+        }
+
+        var after = accountBalanceSnapshotRepository
+                .findFirstByAccountIdAndTakenAtGreaterThanOrderByTakenAt(accountId, at);
+        if (after.isPresent()) {
+            var snapshot = after.get();
+            var undone = netAmount(accountId, at, snapshot.getTakenAt());
+            return new BalanceAsOf(accountNumber, asOf, snapshot.getBalance() - undone);
+        }
+
+        var account = accountRepository.findById(accountId)
+                                       .orElseThrow(() -> new AccountNotFoundException(String.format("Account %s not found",
+                                                                                                     accountNumber)));
+        var undone = netAmount(accountId, at, null);
+        return new BalanceAsOf(accountNumber, asOf, hotAccountService.getTotalBalance(account) - undone);
+    }
+
+    /**
+     * Credits minus debits of the account timestamped in {@code [from, to)}, or from {@code from} on when {@code to} is
+     * {@code null}.
+     */
+    private long netAmount(Long accountId, Timestamp from, Timestamp to) {
+        var horizon = transactionArchive.getHorizon().map(Timestamp::from);
+        if (horizon.isEmpty() || !from.before(horizon.get())) {
+            return liveNetAmount(accountId, from, to);
+        }
+        var archivedTo = to != null && to.before(horizon.get()) ? to : horizon.get();
+        var net = transactionArchive.sumNetAmount(accountId, from.toInstant(), archivedTo.toInstant());
+        if (to == null || horizon.get().before(to)) {
+            net += liveNetAmount(accountId, horizon.get(), to);
+        }
+        return net;
+    }
+
+    private long liveNetAmount(Long accountId, Timestamp from, Timestamp to) {
+        return to == null
+               ? transactionRepository.sumNetAmountFrom(accountId, from)
+               : transactionRepository.sumNetAmountBetween(accountId, from, to);
+    }
+
+    /**
+     * Snapshots the accounts with transactions since the previous run, in id ranges of
+     * {@link BalanceSnapshotProperties#chunkSize()} accounts with one transaction per range. Every shard snapshots its
+     * own accounts at the same instant.
+     */
+    @Scheduled(fixedDelayString = "${banking.balance-snapshots.interval:PT1H}")
+    public void takeSnapshots() {
+        var takenAt = Timestamp.from(clock.instant().minus(properties.settleTime()).truncatedTo(ChronoUnit.SECONDS));
+        shardRouter.forEachShard(shard -> {
+            try {
+                takeSnapshots(takenAt);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to take balance snapshots on shard {}", shard, ex);
+            }
+        });
+    }
+
+    private void takeSnapshots(Timestamp takenAt) {
+        var since = accountBalanceSnapshotRepository.findLatestTakenAt().orElse(Timestamp.from(Instant.EPOCH));
+        if (!takenAt.after(since)) {
+            return;
+        }
+
+        var chunkSize = properties.chunkSize();
+        var maxAccountId = accountRepository.findMaxId();
+        var snapshots = 0L;
+        for (var firstAccountId = 0L; firstAccountId <= maxAccountId; firstAccountId += chunkSize) {
+            var fromAccountId = firstAccountId;
+            var toAccountId = firstAccountId + chunkSize;
+            snapshots += snapshotTransaction.execute(status -> {
+                var balances = accountBalanceSnapshotRepository.findChangedBalancesAt(fromAccountId,
+                                                                                      toAccountId,
+                                                                                      since,
+                                                                                      takenAt);
+                if (!balances.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SNAPSHOT,
+                                             balances.stream()
+                                                     .map(balance -> new Object[] {balance.getAccountId(),
+                                                                                   takenAt,
+                                                                                   balance.getBalance()})
+                                                     .toList());
+                }
+                return balances.size();
+            });
+        }
+        log.debug("Took {} balance snapshots at {}", snapshots, takenAt);
+    }
+}
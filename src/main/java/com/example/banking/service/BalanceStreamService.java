@@ -0,0 +1,220 @@
+package com.example.banking.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import com.example.banking.config.BalanceStreamProperties;
+import com.example.banking.dto.BalanceEvent;
+import com.example.banking.exception.ServiceOverloadedException;
+import com.example.banking.mapper.TransactionMapper;
+import com.example.banking.model.Account;
+import com.example.banking.model.Transaction;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes the balance of an account to its Server-Sent Events subscribers whenever a committed money movement touches
+ * it. Movements only pay for accounts that have subscribers on this instance: their balance is read once per
+ * movement, inside its transaction so it is the balance the movement left, and the events are handed over once the
+ * transaction commits.
+ * <p>
+ * Publishing never blocks on a connection. Each subscriber has a bounded buffer drained by a virtual thread of its
+ * own while events are waiting, so a slow client only delays itself; one whose buffer overflows is disconnected and
+ * starts over with a fresh balance when it reconnects.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BalanceStreamService {
+
+    private final AccountService accountService;
+    private final TransactionMapper transactionMapper;
+    private final BalanceStreamProperties properties;
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("balance-stream-", 0).factory());
+
+    /**
+     * Opens a stream whose first event is the current balance of the account.
+     */
+    public SseEmitter subscribe(String accountNumber) {
+        return subscribe(accountNumber, new SseEmitter(properties.timeout().toMillis()));
+    }
+
+    SseEmitter subscribe(String accountNumber, SseEmitter emitter) {
+        if (subscriberCount.incrementAndGet() > properties.maxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceOverloadedException("Too many open balance streams");
+        }
+        var subscriber = new Subscriber(accountNumber, emitter, new ArrayBlockingQueue<>(properties.bufferSize()));
+        // registered before the balance is read, so no movement falls between the two
+        subscribers.compute(accountNumber, (key, accountSubscribers) -> {
+            var updated = accountSubscribers == null ? ConcurrentHashMap.<Subscriber>newKeySet() : accountSubscribers;
+            updated.add(subscriber);
+            return updated;
+        });
+        try {
+            offer(subscriber, new BalanceEvent(accountNumber, accountService.getAccount(accountNumber).balance(), null));
+        } catch (RuntimeException ex) {
+            unsubscribe(subscriber);
+            throw ex;
+        }
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Publishes the balances of subscribed accounts touched by {@code transactions} once the caller's transaction
+     * commits, with one balance read per account. A batch touching an account several times reports the balance after
+     * the whole batch with each of its transactions.
+     */
+    public void publishAfterCommit(Collection<Transaction> transactions) {
+        var balances = new HashMap<String, Long>();
+        var events = new ArrayList<BalanceEvent>();
+        for (var transaction : transactions) {
+            var accountNumbers = Stream.of(transaction.getFromAccount(), transaction.getToAccount())
+                                       .filter(Objects::nonNull)
+                                       .map(Account::getAccountNumber)
+                                       .distinct()
+                                       .filter(subscribers::containsKey)
+                                       .toList();
+            if (accountNumbers.isEmpty()) {
+                continue;
+            }
+            var response = transactionMapper.toTransactionResponse(transaction);
+            for (var accountNumber : accountNumbers) {
+                var balance = balances.computeIfAbsent(accountNumber, accountService::readBalance);
+                events.add(new BalanceEvent(accountNumber, balance, response));
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(events);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(events);
+            }
+        });
+    }
+
+    /**
+     * Keeps idle streams open through proxies and notices clients that went away without closing the connection.
+     */
+    @Scheduled(fixedDelayString = "${banking.balance-stream.heartbeat-interval:PT15S}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(accountSubscribers -> accountSubscribers.forEach(subscriber -> {
+            subscriber.heartbeatDue = true;
+            scheduleDrain(subscriber);
+        }));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void stop() {
+        senders.shutdownNow();
+    }
+
+    private void publish(Collection<BalanceEvent> events) {
+        // the movement has committed, so a failure here must not reach its caller
+        try {
+            for (var event : events) {
+                subscribers.getOrDefault(event.accountNumber(), Set.of())
+                           .forEach(subscriber -> offer(subscriber, event));
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to publish balance events", ex);
+        }
+    }
+
+    private void offer(Subscriber subscriber, BalanceEvent event) {
+        if (!subscriber.events.offer(event)) {
+            log.debug("Balance stream of account {} fell behind, disconnecting it", subscriber.accountNumber);
+            unsubscribe(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.heartbeatDue) {
+                subscriber.heartbeatDue = false;
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            for (var event = subscriber.events.poll(); event != null; event = subscriber.events.poll()) {
+                subscriber.emitter.send(SseEmitter.event().name("balance").data(event));
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // the client is gone; the subscriber stays marked as draining, so nothing is sent to it again
+            unsubscribe(subscriber);
+            return;
+        }
+        subscriber.draining.set(false);
+        // an event offered after the last poll found the flag still set and left the send to this thread
+        if (!subscriber.events.isEmpty() || subscriber.heartbeatDue) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.accountNumber, (accountNumber, accountSubscribers) -> {
+            if (accountSubscribers.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return accountSubscribers.isEmpty() ? null : accountSubscribers;
+        });
+    }
+
+    private static final class Subscriber {
+
+        private final String accountNumber;
+        private final SseEmitter emitter;
+        private final BlockingQueue<BalanceEvent> events;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+
+        private Subscriber(String accountNumber, SseEmitter emitter, BlockingQueue<BalanceEvent> events) {
+            this.accountNumber = accountNumber;
+            this.emitter = emitter;
+            this.events = events;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.banking.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.banking.exception.AccountNotFoundException;
+import com.example.banking.model.Account;
+
+/**
+ * Applies batch operations to in-memory copies of the loaded accounts, so nothing reaches the persistence context
+ * until the whole batch has been evaluated. A hot account is loaded with its total balance across the slots, see
+ * {@link AccountService#getAccountsByNumbers}.
+ */
+class BatchLedger {
+
+    private final Map<String, Account> accounts = new HashMap<>();
+    private final Map<String, Account> touchedAccounts = new LinkedHashMap<>();
+
+    BatchLedger(Map<String, Account> loadedAccounts) {
+        loadedAccounts.forEach((accountNumber, account) -> accounts.put(accountNumber, Account.builder()
+                                                                                             .id(account.getId())
+                                                                                             .accountNumber(accountNumber)
+                                                                                             .balance(account.getBalance())
+                                                                                             .openingBalance(account.getOpeningBalance())
+                                                                                             .build()));
+    }
+
+    Account credit(String accountNumber, Long amount) {
+        return touch(getAccount(accountNumber).increaseBalance(amount));
+    }
+
+    Account debit(String accountNumber, Long amount) {
+        return touch(getAccount(accountNumber).decreaseBalance(amount));
+    }
+
+    List<Account> transfer(String fromAccountNumber, String toAccountNumber, Long amount) {
+        var fromAccount = getAccount(fromAccountNumber);
+        var toAccount = getAccount(toAccountNumber);
+
+        return List.of(touch(fromAccount.decreaseBalance(amount)), touch(toAccount.increaseBalance(amount)));
+    }
+
+    List<Account> getTouchedAccounts() {
+        return List.copyOf(touchedAccounts.values());
+    }
+
+    private Account getAccount(String accountNumber) {
+        var account = accounts.get(accountNumber);
+        if (account == null) {
+            throw new AccountNotFoundException(String.format("Account %s not found", accountNumber));
+        }
+        return account;
+    }
+
+    private Account touch(Account account) {
+        touchedAccounts.put(account.getAccountNumber(), account);
+        return account;
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.banking.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.List;
+import java.util.UUID;
+
+import com.example.banking.config.ShardingProperties;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.dto.TransactionResponse;
+import com.example.banking.exception.AccountNotFoundException;
+import com.example.banking.model.Account;
+import com.example.banking.model.CrossShardTransfer;
+import com.example.banking.model.CrossShardTransferStatus;
+import com.example.banking.model.Transaction;
+import com.example.banking.model.TransactionType;
+import com.example.banking.repository.CrossShardTransferRepository;
+import com.example.banking.repository.TransactionRepository;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves money between accounts on different shards. No transaction spans two databases, so a transfer is a saga of
+ * local transactions:
+ * <ol>
+ * <li>on the source shard, debit the source account and store the transfer as {@code DEBITED};</li>
+ * <li>on the target shard, credit the target account unless {@code applied_transfers} shows it was credited before;</li>
+ * <li>on the source shard, mark the transfer {@code COMPLETED}.</li>
+ * </ol>
+ * The transfer is durable once the first step commits, so that is when the request succeeds. A failure or crash after
+ * it leaves the transfer {@code DEBITED}, and {@link #recover} repeats the last two steps later; the applied marker
+ * lets the credit happen only once however often they are repeated. If the target account cannot be credited at all,
+ * the debit is refunded and the transfer ends {@code COMPENSATED}.
+ * <p>
+ * Each shard records its own half of the transfer, a {@code TRANSFER} without target account on the source shard and
+ * one without source account on the target shard, so balances, rollups and snapshots of every shard add up on their
+ * own. Every step chooses its shard before its transaction begins, so this must not be called inside a transaction.
+ */
+@Slf4j
+@Service
+public class CrossShardTransferService {
+
+    private final CrossShardTransferRepository crossShardTransferRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountService accountService;
+    private final IdempotencyService idempotencyService;
+    private final DailyRollupService dailyRollupService;
+    private final OutboxService outboxService;
+    private final BalanceStreamService balanceStreamService;
+    private final ShardRouter shardRouter;
+    private final ShardingProperties properties;
+    private final Clock clock;
+    private final TransactionTemplate stepTransaction;
+
+    public CrossShardTransferService(CrossShardTransferRepository crossShardTransferRepository,
+                                     TransactionRepository transactionRepository,
+                                     AccountService accountService,
+                                     IdempotencyService idempotencyService,
+                                     DailyRollupService dailyRollupService,
+                                     OutboxService outboxService,
+                                     BalanceStreamService balanceStreamService,
+                                     ShardRouter shardRouter,
+                                     ShardingProperties properties,
+                                     Clock clock,
+                                     PlatformTransactionManager transactionManager) {
+        this.crossShardTransferRepository = crossShardTransferRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountService = accountService;
+        this.idempotencyService = idempotencyService;
+        this.dailyRollupService = dailyRollupService;
+        this.outboxService = outboxService;
+        this.balanceStreamService = balanceStreamService;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.clock = clock;
+        this.stepTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @param idempotencyKey when not {@code null}, the response is stored under this key together with the debit
+     */
+    public TransactionResponse transfer(String fromAccountNumber, String toAccountNumber, Long amount,
+                                        String idempotencyKey) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount cannot be negative");
+        }
+        // an unknown target fails here, before any money moves
+        shardRouter.onShardOf(toAccountNumber, () -> accountService.getAccountId(toAccountNumber));
+
+        var now = Timestamp.from(clock.instant());
+        var transfer = CrossShardTransfer.builder()
+                                         .id(UUID.randomUUID().toString())
+                                         .fromAccountNumber(fromAccountNumber)
+                                         .toAccountNumber(toAccountNumber)
+                                         .amount(amount)
+                                         .status(CrossShardTransferStatus.DEBITED)
+                                         .createdAt(now)
+                                         .updatedAt(now)
+                                         .build();
+        var response = new TransactionResponse(fromAccountNumber, toAccountNumber, amount, TransactionType.TRANSFER, now);
+        shardRouter.onShardOf(fromAccountNumber, () -> stepTransaction.execute(status -> {
+            var debited = accountService.decreaseBalance(fromAccountNumber, amount);
+            record(debited, null, amount, now);
+            crossShardTransferRepository.save(transfer);
+            idempotencyService.save(idempotencyKey,
+                                    IdempotencyService.describe(TransactionType.TRANSFER,
+                                                                fromAccountNumber,
+                                                                toAccountNumber,
+                                                                amount),
+                                    response);
+            return null;
+        }));
+
+        try {
+            complete(transfer);
+        } catch (RuntimeException ex) {
+            log.warn("Cross-shard transfer {} is debited, recovery will finish it", transfer.getId(), ex);
+        }
+        return response;
+    }
+
+    /**
+     * Finishes the transfers left {@code DEBITED} for longer than the recovery delay, on every shard. Transfers that
+     * fail again stay {@code DEBITED} for the next run.
+     */
+    @Scheduled(fixedDelayString = "${banking.sharding.recovery-interval:PT10S}")
+    public void recover() {
+        if (shardRouter.getShardCount() == 1) {
+            return;
+        }
+        var cutoff = Timestamp.from(clock.instant().minus(properties.recoveryDelay()));
+        shardRouter.forEachShard(shard -> {
+            List<CrossShardTransfer> unfinished;
+            try {
+                unfinished = crossShardTransferRepository.findByStatusAndUpdatedAtBeforeOrderByUpdatedAt(
+                        CrossShardTransferStatus.DEBITED,
+                        cutoff,
+                        PageRequest.ofSize(properties.recoveryBatchSize()));
+            } catch (RuntimeException ex) {
+                log.warn("Failed to look up unfinished cross-shard transfers on shard {}", shard, ex);
+                return;
+            }
+            for (var transfer : unfinished) {
+                try {
+                    complete(transfer);
+                    log.info("Recovered cross-shard transfer {}", transfer.getId());
+                } catch (RuntimeException ex) {
+                    log.warn("Failed to recover cross-shard transfer {}", transfer.getId(), ex);
+                }
+            }
+        });
+    }
+
+    /**
+     * Credits the target account unless that already happened, then marks the transfer completed. Safe to repeat.
+     */
+    void complete(CrossShardTransfer transfer) {
+        try {
+            shardRouter.onShardOf(transfer.getToAccountNumber(), () -> stepTransaction.execute(status -> {
+                var now = Timestamp.from(clock.instant());
+                if (crossShardTransferRepository.markApplied(transfer.getId(), now) == 1) {
+                    var credited = accountService.increaseBalance(transfer.getToAccountNumber(), transfer.getAmount());
+                    record(null, credited, transfer.getAmount(), now);
+                }
+                return null;
+            }));
+        } catch (AccountNotFoundException ex) {
+            compensate(transfer);
+            return;
+        }
+        shardRouter.onShardOf(transfer.getFromAccountNumber(),
+                              () -> crossShardTransferRepository.finish(transfer.getId(),
+                                                                        CrossShardTransferStatus.COMPLETED,
+                                                                        Timestamp.from(clock.instant())));
+    }
+
+    /**
+     * Refunds the source account of a transfer whose target account does not exist. The refund commits together with
+     * the status change, so it happens only once.
+     */
+    private void compensate(CrossShardTransfer transfer) {
+        shardRouter.onShardOf(transfer.getFromAccountNumber(), () -> stepTransaction.execute(status -> {
+            var now = Timestamp.from(clock.instant());
+            if (crossShardTransferRepository.finish(transfer.getId(), CrossShardTransferStatus.COMPENSATED, now) == 1) {
+                var refunded = accountService.increaseBalance(transfer.getFromAccountNumber(), transfer.getAmount());
+                record(null, refunded, transfer.getAmount(), now);
+                log.warn("Refunded cross-shard transfer {}, account {} not found",
+                         transfer.getId(),
+                         transfer.getToAccountNumber());
+            }
+            return null;
+        }));
+    }
+
+    private void record(Account fromAccount, Account toAccount, Long amount, Timestamp timestamp) {
+        var transaction = Transaction.builder()
+                                     .fromAccount(fromAccount)
+                                     .toAccount(toAccount)
+                                     .amount(amount)
+                                     .type(TransactionType.TRANSFER)
+                                     .timestamp(timestamp)
+                                     .build();
+        transactionRepository.save(transaction);
+        dailyRollupService.record(List.of(transaction));
+        outboxService.record(List.of(transaction));
+        balanceStreamService.publishAfterCommit(List.of(transaction));
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.banking.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.example.banking.archive.TransactionArchive;
+import com.example.banking.config.RollupProperties;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.dto.AccountPeriodSummary;
+import com.example.banking.dto.DailyRollup;
+import com.example.banking.dto.RollupBackfillResult;
+import com.example.banking.exception.AccountNotFoundException;
+import com.example.banking.exception.IncompleteRollupsException;
+import com.example.banking.model.Account;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.AccountDailyRollupRepository;
+import com.example.banking.repository.AccountRepository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains per-account rollups of credits, debits and transaction counts per UTC day, and answers period totals from
+ * them instead of from the transactions of the period.
+ * <p>
+ * Rollups are upserted in the transaction that inserts the {@link Transaction}s, so both commit or roll back together.
+ * Closing balances are not stored: transactions committing around midnight can land out of order, and a running
+ * balance on the rollup row would serialize hot accounts again. Instead a period is anchored on its opening balance
+ * from the {@link BalanceSnapshotService}, and the rollups of the period are added day by day. The result is checked
+ * against the balance at the end of the period, so a period with missing rollups fails instead of reporting wrong
+ * balances.
+ * <p>
+ * A period therefore costs its rollup rows plus two balance lookups, and each lookup replays the account's transactions
+ * since the nearest snapshot. That part is bounded by {@code banking.balance-snapshots.interval} times the activity of
+ * the account, not by the number of days: a busy account reads up to an interval of transactions at both ends of the
+ * period.
+ */
+@Slf4j
+@Service
+public class DailyRollupService {
+
+    public static final int MAX_PERIOD_DAYS = 366;
+
+    private static final String UPSERT = """
+            INSERT INTO account_daily_rollups (account_id, day, slot, credits, debits, transaction_count)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE credits = credits + VALUES(credits),
+                                    debits = debits + VALUES(debits),
+                                    transaction_count = transaction_count + VALUES(transaction_count)
+            """;
+
+    private final AccountDailyRollupRepository accountDailyRollupRepository;
+    private final AccountRepository accountRepository;
+    private final AccountService accountService;
+    private final HotAccountService hotAccountService;
+    private final JdbcTemplate jdbcTemplate;
+    private final RollupProperties properties;
+    private final Clock clock;
+    private final TransactionTemplate backfillTransaction;
+    private final TransactionArchive transactionArchive;
+    private final ShardRouter shardRouter;
+    private final BalanceSnapshotService balanceSnapshotService;
+
+    public DailyRollupService(AccountDailyRollupRepository accountDailyRollupRepository,
+                              AccountRepository accountRepository,
+                              AccountService accountService,
+                              HotAccountService hotAccountService,
+                              JdbcTemplate jdbcTemplate,
+                              RollupProperties properties,
+                              Clock clock,
+                              PlatformTransactionManager transactionManager,
+                              TransactionArchive transactionArchive,
+                              ShardRouter shardRouter,
+                              BalanceSnapshotService balanceSnapshotService) {
+        this.accountDailyRollupRepository = accountDailyRollupRepository;
+        this.accountRepository = accountRepository;
+        this.accountService = accountService;
+        this.hotAccountService = hotAccountService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.clock = clock;
+        this.backfillTransaction = new TransactionTemplate(transactionManager);
+        this.transactionArchive = transactionArchive;
+        this.shardRouter = shardRouter;
+        this.balanceSnapshotService = balanceSnapshotService;
+    }
+
+    /**
+     * Adds {@code transactions} to the rollups in the caller's transaction with one batched upsert. Pending changes are
+     * flushed first, so account rows are always locked before rollup rows, and rollup rows are upserted in key order.
+     */
+    public void record(Collection<Transaction> transactions) {
+        var rollups = new TreeMap<RollupKey, Totals>();
+        var slots = new HashMap<Long, Integer>();
+        for (var transaction : transactions) {
+            var day = LocalDate.ofInstant(transaction.getTimestamp().toInstant(), clock.getZone());
+            Totals credited = null;
+            if (transaction.getToAccount() != null) {
+                credited = totals(rollups, slots, transaction.getToAccount(), day);
+                credited.credits += transaction.getAmount();
+                credited.count++;
+            }
+            if (transaction.getFromAccount() != null) {
+                var debited = totals(rollups, slots, transaction.getFromAccount(), day);
+                debited.debits += transaction.getAmount();
+                if (debited != credited) {
+                    debited.count++;
+                }
+            }
+        }
+        if (rollups.isEmpty()) {
+            return;
+        }
+
+        accountDailyRollupRepository.flush();
+        jdbcTemplate.batchUpdate(UPSERT, rollups.entrySet()
+                                                .stream()
+                                                .map(rollup -> new Object[] {rollup.getKey().accountId(),
+                                                                             rollup.getKey().day(),
+                                                                             rollup.getKey().slot(),
+                                                                             rollup.getValue().credits,
+                                                                             rollup.getValue().debits,
+                                                                             rollup.getValue().count})
+                                                .toList());
+    }
+
+    /**
+     * Totals of the account between {@code from} and {@code to}, both inclusive, with a summary per active day. Reads
+     * the rollups of the period and two balances from the {@link BalanceSnapshotService}; besides one rollup per day,
+     * each balance replays up to one snapshot interval of the account's transactions.
+     *
+     * @throws IncompleteRollupsException if the rollups do not add up to the balance at the end of the period
+     */
+    @Transactional(readOnly = true)
+    public AccountPeriodSummary getPeriod(String accountNumber, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Period start date must not be after its end date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_PERIOD_DAYS) {
+            throw new IllegalArgumentException(String.format("Period must not exceed %d days", MAX_PERIOD_DAYS));
+        }
+        if (from.isAfter(LocalDate.now(clock))) {
+            throw new IllegalArgumentException("Period must not start in the future");
+        }
+
+        var accountId = accountService.getAccountId(accountNumber);
+        var openingBalance = balanceSnapshotService.getBalanceAsOf(accountNumber,
+                                                                   from.atStartOfDay(clock.getZone()).toInstant())
+                                                   .balance();
+
+        var balance = openingBalance;
+        var days = new ArrayList<DailyRollup>();
+        long credits = 0;
+        long debits = 0;
+        long transactionCount = 0;
+        for (var totals : accountDailyRollupRepository.findDailyTotalsBetween(accountId, from, to)) {
+            balance += totals.net();
+            days.add(new DailyRollup(totals.day(), totals.credits(), totals.debits(), totals.transactionCount(), balance));
+            credits += totals.credits();
+            debits += totals.debits();
+            transactionCount += totals.transactionCount();
+        }
+
+        var expectedClosingBalance = closingBalance(accountNumber, accountId, to);
+        if (balance != expectedClosingBalance) {
+            throw new IncompleteRollupsException(String.format("Daily rollups of account %s between %s and %s are "
+                                                               + "incomplete: they add up to %d instead of %d, "
+                                                               + "backfill the period",
+                                                               accountNumber,
+                                                               from,
+                                                               to,
+                                                               balance,
+                                                               expectedClosingBalance));
+        }
+
+        return new AccountPeriodSummary(accountNumber,
+                                        from,
+                                        to,
+                                        openingBalance,
+                                        balance,
+                                        credits,
+                                        debits,
+                                        transactionCount,
+                                        List.copyOf(days));
+    }
+
+    /**
+     * Recomputes the rollups between {@code from} and {@code to} from the transactions table. Accounts are processed
+     * in id ranges of {@link RollupProperties#backfillChunkSize()}, each in a transaction of its own, so locks on the
+     * rollups are held briefly. Only completed days can be backfilled; the current day is maintained live. Days
+     * before the archive horizon are no longer in the transactions table and keep the rollups they have.
+     */
+    public RollupBackfillResult backfill(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Backfill start date must not be after its end date");
+        }
+        var today = LocalDate.now(clock);
+        if (!to.isBefore(today)) {
+            throw new IllegalArgumentException(String.format("Only completed days can be backfilled, up to %s",
+                                                             today.minusDays(1)));
+        }
+        // every shard has its own archive horizon, all of them must allow the range before any shard is rewritten
+        shardRouter.forEachShard(shard -> {
+            var horizon = transactionArchive.getHorizon().map(instant -> LocalDate.ofInstant(instant, clock.getZone()));
+            if (horizon.isPresent() && from.isBefore(horizon.get())) {
+                throw new IllegalArgumentException(String.format("Days before %s are archived and cannot be backfilled",
+                                                                 horizon.get()));
+            }
+        });
+
+        var rollups = shardRouter.mapShards(shard -> backfillShard(from, to))
+                                 .stream()
+                                 .mapToLong(Long::longValue)
+                                 .sum();
+        log.info("Backfilled {} daily rollups from {} to {}", rollups, from, to);
+        return new RollupBackfillResult(from, to, rollups);
+    }
+
+    private long backfillShard(LocalDate from, LocalDate to) {
+        var start = Timestamp.from(from.atStartOfDay(clock.getZone()).toInstant());
+        var end = Timestamp.from(to.plusDays(1).atStartOfDay(clock.getZone()).toInstant());
+        var chunkSize = properties.backfillChunkSize();
+        var maxAccountId = accountRepository.findMaxId();
+        var rollups = 0L;
+        for (var firstAccountId = 0L; firstAccountId <= maxAccountId; firstAccountId += chunkSize) {
+            var fromAccountId = firstAccountId;
+            var toAccountId = firstAccountId + chunkSize;
+            rollups += backfillTransaction.execute(status -> {
+                accountDailyRollupRepository.deleteRange(fromAccountId, toAccountId, from, to);
+                return accountDailyRollupRepository.insertRange(fromAccountId, toAccountId, start, end);
+            });
+        }
+        return rollups;
+    }
+
+    /**
+     * Balance at the end of {@code day}; the current balance while the day is still running.
+     */
+    private long closingBalance(String accountNumber, Long accountId, LocalDate day) {
+        var end = day.plusDays(1).atStartOfDay(clock.getZone()).toInstant();
+        if (end.isBefore(clock.instant())) {
+            return balanceSnapshotService.getBalanceAsOf(accountNumber, end).balance();
+        }
+        var account = accountRepository.findById(accountId)
+                                       .orElseThrow(() -> new AccountNotFoundException(String.format("Account %s not found",
+                                                                                                     accountNumber)));
+        return hotAccountService.getTotalBalance(account);
+    }
+
+    private Totals totals(Map<RollupKey, Totals> rollups, Map<Long, Integer> slots, Account account, LocalDate day) {
+        var slot = slots.computeIfAbsent(account.getId(),
+                                         accountId -> hotAccountService.findHotAccount(account.getAccountNumber())
+                                                                       .map(hot -> ThreadLocalRandom.current()
+                                                                                                    .nextInt(hot.slotCount()))
+                                                                       .orElse(0));
+        return rollups.computeIfAbsent(new RollupKey(account.getId(), day, slot), key -> new Totals());
+    }
+
+    private record RollupKey(Long accountId, LocalDate day, Integer slot) implements Comparable<RollupKey> {
+
+        private static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::accountId)
+                                                                     .thenComparing(RollupKey::day)
+                                                                     .thenComparing(RollupKey::slot);
+
+        @Override
+        public int compareTo(RollupKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class Totals {
+
+        private long credits;
+        private long debits;
+        private long count;
+    }
+}
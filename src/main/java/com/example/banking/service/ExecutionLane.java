@@ -0,0 +1,87 @@
+package com.example.banking.service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.example.banking.dto.LaneStats;
+
+/**
+ * A single worker thread with a bounded queue. Everything submitted to a lane runs serially in submission order.
+ */
+class ExecutionLane {
+
+    private final int index;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    ExecutionLane(int index, int queueDepth, Duration submitTimeout, ThreadLocal<ExecutionLane> currentLane) {
+        this.index = index;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                                               new ArrayBlockingQueue<>(queueDepth),
+                                               runnable -> {
+                                                   var thread = new Thread(() -> {
+                                                       currentLane.set(this);
+                                                       runnable.run();
+                                                   }, "account-lane-" + index);
+                                                   thread.setDaemon(true);
+                                                   return thread;
+                                               },
+                                               (runnable, pool) -> waitForCapacity(runnable, pool, submitTimeout));
+    }
+
+    <T> Future<T> submit(Callable<T> task) {
+        var submittedAt = System.nanoTime();
+        var futureTask = new FutureTask<>(() -> {
+            try {
+                return task.call();
+            } finally {
+                recordLatency(System.nanoTime() - submittedAt);
+            }
+        });
+        executor.execute(futureTask);
+        return futureTask;
+    }
+
+    LaneStats getStats() {
+        var count = completed.sum();
+        return new LaneStats(index,
+                             executor.getQueue().size(),
+                             count,
+                             rejected.sum(),
+                             count == 0 ? 0 : totalLatencyNanos.sum() / 1_000.0 / count,
+                             TimeUnit.NANOSECONDS.toMicros(maxLatencyNanos.get()));
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private void recordLatency(long latencyNanos) {
+        completed.increment();
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    private void waitForCapacity(Runnable runnable, ThreadPoolExecutor pool, Duration submitTimeout) {
+        try {
+            if (!pool.isShutdown() && pool.getQueue().offer(runnable, submitTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        throw new RejectedExecutionException("Lane " + index + " is full");
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.banking.service;
+
+import com.example.banking.datasource.ShardRouter;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotAccountRebalancer {
+
+    private final HotAccountRegistry hotAccountRegistry;
+    private final HotAccountService hotAccountService;
+    private final ShardRouter shardRouter;
+
+    @Scheduled(fixedDelayString = "${banking.hot-accounts.rebalance-interval:PT30S}")
+    public void rebalance() {
+        hotAccountRegistry.refresh();
+        for (var hotAccount : hotAccountRegistry.getAll()) {
+            try {
+                shardRouter.onShardOf(hotAccount.accountNumber(), () -> {
+                    hotAccountService.rebalance(hotAccount);
+                    return null;
+                });
+            } catch (RuntimeException ex) {
+                log.warn("Failed to rebalance hot account {}", hotAccount.accountNumber(), ex);
+            }
+        }
+    }
+}
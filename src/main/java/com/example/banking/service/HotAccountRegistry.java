@@ -0,0 +1,53 @@
+package com.example.banking.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.dto.HotAccount;
+import com.example.banking.repository.AccountBalanceSlotRepository;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keeps the set of hot accounts in memory, so the balance write path can tell whether an account is split into slots
+ * without reading it first. Refreshed on startup and by {@link HotAccountRebalancer} to pick up accounts marked on other
+ * nodes. Holds the hot accounts of all shards.
+ */
+@Component
+@RequiredArgsConstructor
+public class HotAccountRegistry {
+
+    private final AccountBalanceSlotRepository accountBalanceSlotRepository;
+    private final ShardRouter shardRouter;
+    private final Map<String, HotAccount> hotAccounts = new ConcurrentHashMap<>();
+
+    public Optional<HotAccount> find(String accountNumber) {
+        return Optional.ofNullable(hotAccounts.get(accountNumber));
+    }
+
+    public Collection<HotAccount> getAll() {
+        return List.copyOf(hotAccounts.values());
+    }
+
+    public void register(HotAccount hotAccount) {
+        hotAccounts.put(hotAccount.accountNumber(), hotAccount);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        var loaded = shardRouter.mapShards(shard -> accountBalanceSlotRepository.findHotAccounts())
+                                .stream()
+                                .flatMap(List::stream)
+                                .toList();
+        loaded.forEach(this::register);
+        hotAccounts.keySet().retainAll(loaded.stream().map(HotAccount::accountNumber).toList());
+    }
+}
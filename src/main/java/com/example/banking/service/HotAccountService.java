@@ -0,0 +1,173 @@
+package com.example.banking.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import com.example.banking.dto.HotAccount;
+import com.example.banking.exception.InsufficientFundsException;
+import com.example.banking.model.Account;
+import com.example.banking.model.AccountBalanceSlot;
+import com.example.banking.repository.AccountBalanceSlotRepository;
+import com.example.banking.repository.AccountRepository;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Balance operations for hot accounts, whose balance is split between the account row and a fixed number of slot
+ * rows. Credits go to a random slot; debits take a slot that can cover the amount and fall back to a consolidated
+ * debit across the account row and all slots.
+ * <p>
+ * Every operation locks the slots of an account, in slot order, before its row. A credit locks a single slot and
+ * never waits for another lock while holding it, so debits can lock all slots without deadlocking against credits.
+ */
+@Service
+@RequiredArgsConstructor
+public class HotAccountService {
+
+    public static final int MIN_SLOTS = 2;
+    public static final int MAX_SLOTS = 64;
+
+    private final AccountRepository accountRepository;
+    private final AccountBalanceSlotRepository accountBalanceSlotRepository;
+    private final HotAccountRegistry hotAccountRegistry;
+
+    public Optional<HotAccount> findHotAccount(String accountNumber) {
+        return hotAccountRegistry.find(accountNumber);
+    }
+
+    @Transactional
+    public HotAccount markHot(Account account, int slots) {
+        if (slots < MIN_SLOTS || slots > MAX_SLOTS) {
+            throw new IllegalArgumentException(String.format("Slots must be between %d and %d", MIN_SLOTS, MAX_SLOTS));
+        }
+        if (hotAccountRegistry.find(account.getAccountNumber()).isPresent()) {
+            throw new IllegalArgumentException(String.format("Account %s is already hot", account.getAccountNumber()));
+        }
+
+        accountBalanceSlotRepository.saveAll(IntStream.range(0, slots)
+                                                      .mapToObj(slot -> AccountBalanceSlot.builder()
+                                                                                          .accountId(account.getId())
+                                                                                          .slot(slot)
+                                                                                          .balance(0L)
+                                                                                          .build())
+                                                      .toList());
+        var hotAccount = new HotAccount(account.getId(), account.getAccountNumber(), slots);
+        hotAccountRegistry.register(hotAccount);
+        return hotAccount;
+    }
+
+    @Transactional(readOnly = true)
+    public Long getTotalBalance(Account account) {
+        return account.getBalance() + accountBalanceSlotRepository.sumBalance(account.getId());
+    }
+
+    @Transactional
+    public Account credit(HotAccount hotAccount, Long amount) {
+        var slot = ThreadLocalRandom.current().nextInt(hotAccount.slotCount());
+        if (accountBalanceSlotRepository.increaseBalance(hotAccount.accountId(), slot, amount) == 0) {
+            // slots of a freshly marked account may not be committed yet
+            accountRepository.increaseBalance(hotAccount.accountId(), amount);
+        }
+        return toAccountReference(hotAccount);
+    }
+
+    /**
+     * Locks all slots before picking one that covers the amount. Conditionally decrementing a single slot first would
+     * leave that slot locked when the debit falls back to locking the others, out of slot order.
+     */
+    @Transactional
+    public Account debit(HotAccount hotAccount, Long amount) {
+        var slotBalances = accountBalanceSlotRepository.findLockedBalances(hotAccount.accountId());
+        var candidates = IntStream.range(0, slotBalances.size())
+                                  .filter(slot -> slotBalances.get(slot) >= amount)
+                                  .toArray();
+        if (candidates.length > 0) {
+            var slot = candidates[ThreadLocalRandom.current().nextInt(candidates.length)];
+            accountBalanceSlotRepository.setBalance(hotAccount.accountId(), slot, slotBalances.get(slot) - amount);
+            return toAccountReference(hotAccount);
+        }
+        return consolidatedDebit(hotAccount, amount, slotBalances);
+    }
+
+    /**
+     * Locks the slots of the account until the transaction ends and returns their total. A caller that goes on to lock
+     * the account row takes the locks in the same order as {@link #debit}.
+     */
+    @Transactional
+    public long lockSlotBalance(HotAccount hotAccount) {
+        return accountBalanceSlotRepository.findLockedBalances(hotAccount.accountId())
+                                           .stream()
+                                           .mapToLong(Long::longValue)
+                                           .sum();
+    }
+
+    /**
+     * Credits or debits the difference between {@code totalBalance} and the current total of the account, for a
+     * caller that computed the new total under the locks of {@link #lockSlotBalance} and the account row.
+     */
+    @Transactional
+    public Account setTotalBalance(HotAccount hotAccount, Long totalBalance) {
+        var currentBalance = lockSlotBalance(hotAccount)
+                             + accountRepository.findLockedBalanceById(hotAccount.accountId()).orElseThrow();
+        if (totalBalance > currentBalance) {
+            return credit(hotAccount, totalBalance - currentBalance);
+        }
+        if (totalBalance < currentBalance) {
+            return debit(hotAccount, currentBalance - totalBalance);
+        }
+        return toAccountReference(hotAccount);
+    }
+
+    /**
+     * Spreads the whole balance evenly across the slots, leaving the account row empty. Slots are locked before the
+     * account row, the same order as {@link #debit}. Balances are read and written with statements of
+     * their own, since managed entities of the account may be stale after the single-statement updates.
+     */
+    @Transactional
+    public void rebalance(HotAccount hotAccount) {
+        var slotBalances = accountBalanceSlotRepository.findLockedBalances(hotAccount.accountId());
+        if (slotBalances.isEmpty()) {
+            return;
+        }
+        var accountBalance = accountRepository.findLockedBalanceById(hotAccount.accountId()).orElseThrow();
+        var total = accountBalance + slotBalances.stream().mapToLong(Long::longValue).sum();
+
+        var share = total / slotBalances.size();
+        var remainder = total % slotBalances.size();
+        for (int slot = 0; slot < slotBalances.size(); slot++) {
+            accountBalanceSlotRepository.setBalance(hotAccount.accountId(), slot, share + (slot < remainder ? 1 : 0));
+        }
+        accountRepository.setBalance(hotAccount.accountId(), 0L);
+    }
+
+    private Account consolidatedDebit(HotAccount hotAccount, Long amount, List<Long> slotBalances) {
+        var accountBalance = accountRepository.findLockedBalanceById(hotAccount.accountId()).orElseThrow();
+        var total = accountBalance + slotBalances.stream().mapToLong(Long::longValue).sum();
+        if (total < amount) {
+            throw new InsufficientFundsException("Insufficient funds for withdrawal");
+        }
+
+        var remaining = amount - Math.min(amount, accountBalance);
+        accountRepository.setBalance(hotAccount.accountId(), accountBalance - (amount - remaining));
+        for (int slot = 0; slot < slotBalances.size() && remaining > 0; slot++) {
+            var taken = Math.min(remaining, slotBalances.get(slot));
+            if (taken > 0) {
+                accountBalanceSlotRepository.setBalance(hotAccount.accountId(), slot, slotBalances.get(slot) - taken);
+                remaining -= taken;
+            }
+        }
+        return toAccountReference(hotAccount);
+    }
+
+    private Account toAccountReference(HotAccount hotAccount) {
+        return Account.builder()
+                      .id(hotAccount.accountId())
+                      .accountNumber(hotAccount.accountNumber())
+                      .build();
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.banking.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import com.example.banking.config.IdempotencyProperties;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.exception.IdempotencyKeyReusedException;
+import com.example.banking.model.IdempotencyRecord;
+import com.example.banking.model.TransactionType;
+import com.example.banking.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Deduplicates retried money movements by the client's idempotency key. The key is stored together with the response
+ * in the transaction that changes the balance, so either both commit or neither does. Recent keys are kept in a
+ * bounded in-memory cache, so most retries are answered without a query.
+ * <p>
+ * Two requests racing with the same key both miss the lookup. The second one blocks on the primary key until the
+ * first commits, fails with a duplicate key, rolls back its balance change and answers with the stored response.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+    private final Clock clock;
+    private final ShardRouter shardRouter;
+    private final Cache<String, StoredResponse> responses;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              IdempotencyProperties properties,
+                              Clock clock,
+                              ShardRouter shardRouter) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.clock = clock;
+        this.shardRouter = shardRouter;
+        this.responses = Caffeine.newBuilder()
+                                 .maximumSize(properties.cacheMaximumSize())
+                                 .expireAfterWrite(properties.retention())
+                                 .build();
+    }
+
+    /**
+     * Runs {@code operation} unless {@code key} was already used, in which case the stored response is returned. The
+     * operation is expected to {@link #save} its response under the same key. Without a key the operation just runs.
+     */
+    public <T> T execute(String key, String request, Class<T> responseType, Supplier<T> operation) {
+        if (key == null) {
+            return operation.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(String.format("Idempotency key must be 1 to %d characters",
+                                                             MAX_KEY_LENGTH));
+        }
+
+        var stored = find(key);
+        if (stored.isPresent()) {
+            return replay(key, request, stored.get(), responseType);
+        }
+        try {
+            return operation.get();
+        } catch (DataIntegrityViolationException ex) {
+            // lost the race to a request with the same key, which has committed by now
+            return find(key).map(winner -> replay(key, request, winner, responseType))
+                            .orElseThrow(() -> ex);
+        }
+    }
+
+    /**
+     * Stores the response under {@code key} in the caller's transaction, or in a new one if there is none. It is
+     * cached once the transaction commits.
+     */
+    @Transactional
+    public void save(String key, String request, Object response) {
+        if (key == null) {
+            return;
+        }
+        var stored = new StoredResponse(request, toJson(response));
+        idempotencyRecordRepository.insert(key, request, stored.response(), Timestamp.from(clock.instant()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            responses.put(key, stored);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                responses.put(key, stored);
+            }
+        });
+    }
+
+    /**
+     * Deletes keys older than the retention in batches, each in its own transaction, so a large backlog does not hold
+     * locks on the table for long. Keys live on the shard of the account they moved money from, so every shard is
+     * purged.
+     */
+    @Scheduled(fixedDelayString = "${banking.idempotency.purge-interval:PT1M}")
+    public void purgeExpired() {
+        var cutoff = Timestamp.from(clock.instant().minus(properties.retention()));
+        shardRouter.forEachShard(shard -> {
+            try {
+                purgeExpired(cutoff);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to purge idempotency keys on shard {}", shard, ex);
+            }
+        });
+    }
+
+    private void purgeExpired(Timestamp cutoff) {
+        var purged = 0L;
+        int deleted;
+        do {
+            deleted = idempotencyRecordRepository.deleteCreatedBefore(cutoff, properties.purgeBatchSize());
+            purged += deleted;
+        } while (deleted == properties.purgeBatchSize());
+        if (purged > 0) {
+            log.debug("Purged {} idempotency keys created before {}", purged, cutoff);
+        }
+    }
+
+    /**
+     * Describes a money movement for comparing a retry with the request the key was first used for.
+     */
+    public static String describe(TransactionType type, String fromAccountNumber, String toAccountNumber, Long amount) {
+        return type + ":" + fromAccountNumber + ":" + toAccountNumber + ":" + amount;
+    }
+
+    /**
+     * Loads a miss outside of the cache, so a virtual thread waiting on the query does not pin its carrier under the
+     * lock of a Caffeine compute. A stored response never changes, so concurrent loads put the same value.
+     */
+    private Optional<StoredResponse> find(String key) {
+        var cached = responses.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        var loaded = idempotencyRecordRepository.findById(key).map(this::toStoredResponse);
+        loaded.ifPresent(stored -> responses.put(key, stored));
+        return loaded;
+    }
+
+    private <T> T replay(String key, String request, StoredResponse stored, Class<T> responseType) {
+        if (!stored.request().equals(request)) {
+            throw new IdempotencyKeyReusedException(String.format("Idempotency key %s was already used for a different request",
+                                                                  key));
+        }
+        try {
+            return objectMapper.readValue(stored.response(), responseType);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Stored response of idempotency key " + key + " cannot be read", ex);
+        }
+    }
+
+    private String toJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Response cannot be stored for idempotency", ex);
+        }
+    }
+
+    private StoredResponse toStoredResponse(IdempotencyRecord idempotencyRecord) {
+        return new StoredResponse(idempotencyRecord.getRequest(), idempotencyRecord.getResponse());
+    }
+
+    private record StoredResponse(String request, String response) { }
+}
@@ -0,0 +1,89 @@
+package com.example.banking.service;
+
+import java.util.List;
+
+import com.example.banking.config.JournalProperties;
+import com.example.banking.journal.BalanceJournal;
+import com.example.banking.journal.JournalEntry;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replays the balance journal into {@code accounts}/{@code transactions} in batches on a background thread. On
+ * startup it restores the reservations of entries journaled after the last checkpoint, then replays them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "banking.journal", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class JournalApplier {
+
+    private final BalanceJournal balanceJournal;
+    private final JournaledTransactionService journaledTransactionService;
+    private final JournalProperties journalProperties;
+
+    private volatile boolean running;
+    private Thread worker;
+    private long appliedSequence;
+
+    @PostConstruct
+    public void start() {
+        appliedSequence = journaledTransactionService.getAppliedSequence();
+        var unapplied = 0;
+        for (var entries = balanceJournal.read(appliedSequence, journalProperties.applyBatchSize());
+             !entries.isEmpty();
+             entries = balanceJournal.read(entries.getLast().sequence(), journalProperties.applyBatchSize())) {
+            entries.forEach(journaledTransactionService::restoreReservation);
+            unapplied += entries.size();
+        }
+        log.info("Journal applied up to sequence {}, {} entries to replay", appliedSequence, unapplied);
+
+        running = true;
+        worker = Thread.ofPlatform().name("journal-applier").daemon().start(this::applyLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join();
+    }
+
+    private void applyLoop() {
+        List<JournalEntry> pending = List.of();
+        while (running) {
+            try {
+                if (pending.isEmpty()) {
+                    pending = balanceJournal.read(appliedSequence, journalProperties.applyBatchSize());
+                }
+                if (pending.isEmpty()) {
+                    Thread.sleep(journalProperties.applyInterval());
+                    continue;
+                }
+
+                journaledTransactionService.apply(pending);
+                pending.forEach(journaledTransactionService::releaseReservation);
+                appliedSequence = pending.getLast().sequence();
+                balanceJournal.truncate(appliedSequence);
+                pending = List.of();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Failed to apply journal entries after sequence {}, retrying", appliedSequence, ex);
+                try {
+                    Thread.sleep(journalProperties.applyInterval());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.banking.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+import com.example.banking.dto.BatchMode;
+import com.example.banking.dto.BatchOperation;
+import com.example.banking.dto.BatchOperationStatus;
+import com.example.banking.dto.BatchTransactionRequest;
+import com.example.banking.dto.SingleTransactionResponse;
+import com.example.banking.dto.TransactionResponse;
+import com.example.banking.exception.InsufficientFundsException;
+import com.example.banking.journal.BalanceJournal;
+import com.example.banking.journal.JournalEntry;
+import com.example.banking.model.JournalCheckpoint;
+import com.example.banking.model.TransactionType;
+import com.example.banking.repository.JournalCheckpointRepository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Journaled mode: a money movement is acknowledged as soon as it is durable in the {@link BalanceJournal}, and
+ * {@link JournalApplier} writes it to the database later.
+ * <p>
+ * Debits are checked against the database balance minus the debits still waiting in the journal. Pending credits are
+ * not counted until applied, so the check can only be stricter than the database, never looser. Batches and streamed
+ * operations would move money past those reservations, so {@link TransactionDispatcher} refuses them in this mode. Reservations are
+ * released after the applying transaction commits, under the same per-account lock used to take them.
+ * <p>
+ * The balance change only reaches the database when applied, so an idempotency key is stored in a transaction of its
+ * own once the entry is durable. A crash between the two, or two concurrent requests with the same key, can still
+ * journal the operation twice.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "banking.journal", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class JournaledTransactionService {
+
+    static final String CHECKPOINT_NAME = "balance-journal";
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final BalanceJournal balanceJournal;
+    private final AccountService accountService;
+    private final TransactionService transactionService;
+    private final JournalCheckpointRepository journalCheckpointRepository;
+    private final IdempotencyService idempotencyService;
+    private final Clock clock;
+    private final Map<String, Long> reservedDebits = new ConcurrentHashMap<>();
+    private final List<ReentrantLock> locks = IntStream.range(0, LOCK_STRIPES).mapToObj(i -> new ReentrantLock()).toList();
+
+    public SingleTransactionResponse deposit(String accountNumber, Long amount, String idempotencyKey) {
+        validateAmount(amount);
+        accountService.getAccount(accountNumber);
+
+        var entry = balanceJournal.append(TransactionType.DEPOSIT, null, accountNumber, amount, clock.millis());
+        var response =
+                new SingleTransactionResponse(accountNumber, amount, TransactionType.DEPOSIT, new Timestamp(entry.timestamp()));
+        idempotencyService.save(idempotencyKey,
+                                IdempotencyService.describe(TransactionType.DEPOSIT, null, accountNumber, amount),
+                                response);
+        return response;
+    }
+
+    public SingleTransactionResponse withdraw(String accountNumber, Long amount, String idempotencyKey) {
+        validateAmount(amount);
+
+        var entry = appendDebit(TransactionType.WITHDRAWAL, accountNumber, null, amount);
+        var response =
+                new SingleTransactionResponse(accountNumber, amount, TransactionType.WITHDRAWAL, new Timestamp(entry.timestamp()));
+        idempotencyService.save(idempotencyKey,
+                                IdempotencyService.describe(TransactionType.WITHDRAWAL, accountNumber, null, amount),
+                                response);
+        return response;
+    }
+
+    public TransactionResponse transfer(String fromAccountNumber, String toAccountNumber, Long amount,
+                                        String idempotencyKey) {
+        validateAmount(amount);
+        accountService.getAccount(toAccountNumber);
+
+        var entry = appendDebit(TransactionType.TRANSFER, fromAccountNumber, toAccountNumber, amount);
+        var response = new TransactionResponse(fromAccountNumber,
+                                               toAccountNumber,
+                                               amount,
+                                               TransactionType.TRANSFER,
+                                               new Timestamp(entry.timestamp()));
+        idempotencyService.save(idempotencyKey,
+                                IdempotencyService.describe(TransactionType.TRANSFER,
+                                                            fromAccountNumber,
+                                                            toAccountNumber,
+                                                            amount),
+                                response);
+        return response;
+    }
+
+    /**
+     * Applies journal entries through the batch path and advances the checkpoint in the same transaction, so each
+     * entry reaches the database exactly once even if the applier crashes in between.
+     */
+    @Transactional
+    public void apply(List<JournalEntry> entries) {
+        // a commit whose outcome was lost to a connection error is retried with the same entries
+        var appliedSequence = getAppliedSequence();
+        var unapplied = entries.stream().filter(entry -> entry.sequence() > appliedSequence).toList();
+        if (unapplied.isEmpty()) {
+            return;
+        }
+
+        var operations = unapplied.stream()
+                                .map(entry -> new BatchOperation(entry.type(),
+                                                                 entry.fromAccountNumber(),
+                                                                 entry.toAccountNumber(),
+                                                                 entry.amount()))
+                                .toList();
+        var response = transactionService.batch(new BatchTransactionRequest(BatchMode.BEST_EFFORT, operations));
+        response.results()
+                .stream()
+                .filter(result -> result.status() == BatchOperationStatus.FAILED)
+                .forEach(result -> log.error("Journal entry {} could not be applied: {}",
+                                             unapplied.get(result.index()).sequence(),
+                                             result.error()));
+
+        journalCheckpointRepository.save(new JournalCheckpoint(CHECKPOINT_NAME, unapplied.getLast().sequence()));
+    }
+
+    /**
+     * Not read-only: a replica could return an older checkpoint and have entries applied twice.
+     */
+    @Transactional
+    public long getAppliedSequence() {
+        return journalCheckpointRepository.findById(CHECKPOINT_NAME)
+                                          .map(JournalCheckpoint::getAppliedSequence)
+                                          .orElse(0L);
+    }
+
+    /**
+     * Re-takes the reservation of an entry that was journaled but not applied before a restart.
+     */
+    public void restoreReservation(JournalEntry entry) {
+        if (entry.fromAccountNumber() != null) {
+            reservedDebits.merge(entry.fromAccountNumber(), entry.amount(), Long::sum);
+        }
+    }
+
+    public void releaseReservation(JournalEntry entry) {
+        if (entry.fromAccountNumber() == null) {
+            return;
+        }
+        var lock = lockOf(entry.fromAccountNumber());
+        lock.lock();
+        try {
+            reservedDebits.computeIfPresent(entry.fromAccountNumber(),
+                                            (accountNumber, reserved) -> reserved > entry.amount()
+                                                                         ? reserved - entry.amount()
+                                                                         : null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private JournalEntry appendDebit(TransactionType type, String fromAccountNumber, String toAccountNumber, Long amount) {
+        var lock = lockOf(fromAccountNumber);
+        lock.lock();
+        try {
+            // not the cached balance: a load racing an apply can cache the balance from before its debits
+            var balance = accountService.readBalance(fromAccountNumber);
+            var reserved = reservedDebits.getOrDefault(fromAccountNumber, 0L);
+            if (balance - reserved < amount) {
+                throw new InsufficientFundsException("Insufficient funds for withdrawal");
+            }
+            reservedDebits.merge(fromAccountNumber, amount, Long::sum);
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            return balanceJournal.append(type, fromAccountNumber, toAccountNumber, amount, clock.millis());
+        } catch (RuntimeException ex) {
+            releaseReservation(new JournalEntry(0, type, fromAccountNumber, toAccountNumber, amount, 0));
+            throw ex;
+        }
+    }
+
+    private ReentrantLock lockOf(String accountNumber) {
+        return locks.get(Math.floorMod(accountNumber.hashCode(), LOCK_STRIPES));
+    }
+
+    private void validateAmount(Long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount cannot be negative");
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.banking.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import com.example.banking.config.OperationStreamProperties;
+import com.example.banking.datasource.ShardContext;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.dto.BatchMode;
+import com.example.banking.dto.BatchOperation;
+import com.example.banking.dto.BatchOperationResult;
+import com.example.banking.dto.BatchOperationStatus;
+import com.example.banking.dto.BatchTransactionRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies a stream of NDJSON operations in chunks through {@link TransactionService#batch} and writes one NDJSON
+ * {@link BatchOperationResult} per operation as soon as its chunk commits. Result indexes count the operation lines of
+ * the stream from zero.
+ * <p>
+ * The request body is only read once the previous chunk has committed, so a client sending faster than the database
+ * applies is held back by TCP flow control instead of being buffered. A chunk is cut when it is full or when no more
+ * input is available without blocking, so a slow trickle is not delayed waiting for a full chunk. Memory stays bounded
+ * by the chunk size and the maximum line length however long the stream runs.
+ * <p>
+ * With sharding a chunk is split into one batch per shard. Transfers between accounts on different shards fail, as a
+ * batch only commits on one shard.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OperationStreamService {
+
+    private static final int END_OF_STREAM = -1;
+    private static final int LINE_TOO_LONG = -2;
+    private static final String CHUNK_FAILED = "Operation could not be applied";
+    private static final String CROSS_SHARD = "Transfers between accounts on different shards must be sent one by one";
+
+    private final TransactionService transactionService;
+    private final ObjectMapper objectMapper;
+    private final OperationStreamProperties properties;
+    private final ShardRouter shardRouter;
+
+    public StreamingResponseBody process(InputStream requestBody) {
+        return outputStream -> {
+            var input = new BufferedInputStream(requestBody);
+            var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            var line = new byte[properties.maxLineLength()];
+            var chunk = new ArrayList<ParsedLine>(properties.chunkSize());
+            var index = 0;
+
+            for (var length = readLine(input, line); length != END_OF_STREAM; length = readLine(input, line)) {
+                if (length == 0) {
+                    continue;
+                }
+                chunk.add(length == LINE_TOO_LONG
+                          ? ParsedLine.failed(index, String.format("Operation exceeds %d bytes", line.length))
+                          : parse(index, line, length));
+                index++;
+
+                if (chunk.size() >= properties.chunkSize() || input.available() == 0) {
+                    writeResults(writer, apply(chunk));
+                    chunk.clear();
+                }
+            }
+            writeResults(writer, apply(chunk));
+        };
+    }
+
+    private List<BatchOperationResult> apply(List<ParsedLine> chunk) {
+        var operations = chunk.stream().filter(parsed -> parsed.operation() != null).map(ParsedLine::operation).toList();
+        var applied = applyByShard(operations);
+
+        var results = new ArrayList<BatchOperationResult>(chunk.size());
+        var position = 0;
+        for (var parsed : chunk) {
+            if (parsed.operation() == null) {
+                results.add(new BatchOperationResult(parsed.index(), BatchOperationStatus.FAILED, parsed.error(), null));
+            } else {
+                var result = applied.get(position++);
+                results.add(new BatchOperationResult(parsed.index(), result.status(), result.error(), result.transaction()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Applies the operations of each shard as one batch on that shard, so a failing shard only fails its own
+     * operations. Results are in the order of {@code operations}; their indexes are not meaningful.
+     */
+    private List<BatchOperationResult> applyByShard(List<BatchOperation> operations) {
+        var results = new BatchOperationResult[operations.size()];
+        var positionsByShard = new TreeMap<Integer, List<Integer>>();
+        for (var i = 0; i < operations.size(); i++) {
+            var operation = operations.get(i);
+            var shards = Stream.of(operation.fromAccountNumber(), operation.toAccountNumber())
+                               .filter(Objects::nonNull)
+                               .map(shardRouter::shardOf)
+                               .distinct()
+                               .toList();
+            if (shards.size() > 1) {
+                results[i] = new BatchOperationResult(i, BatchOperationStatus.FAILED, CROSS_SHARD, null);
+            } else {
+                positionsByShard.computeIfAbsent(shards.isEmpty() ? 0 : shards.getFirst(), shard -> new ArrayList<>())
+                                .add(i);
+            }
+        }
+
+        positionsByShard.forEach((shard, positions) -> {
+            var shardOperations = positions.stream().map(operations::get).toList();
+            try {
+                var applied = ShardContext.call(shard,
+                                                () -> transactionService.batch(new BatchTransactionRequest(BatchMode.BEST_EFFORT,
+                                                                                                           shardOperations)))
+                                          .results();
+                for (var i = 0; i < positions.size(); i++) {
+                    results[positions.get(i)] = applied.get(i);
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Failed to apply a chunk of {} streamed operations", shardOperations.size(), ex);
+                positions.forEach(position -> results[position] = new BatchOperationResult(position,
+                                                                                           BatchOperationStatus.FAILED,
+                                                                                           CHUNK_FAILED,
+                                                                                           null));
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    private void writeResults(Writer writer, List<BatchOperationResult> results) throws IOException {
+        if (results.isEmpty()) {
+            return;
+        }
+        for (var result : results) {
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private ParsedLine parse(int index, byte[] line, int length) {
+        try {
+            return new ParsedLine(index, objectMapper.readValue(line, 0, length, BatchOperation.class), null);
+        } catch (IOException ex) {
+            var message = ex instanceof JsonProcessingException jsonException ? jsonException.getOriginalMessage() : ex.getMessage();
+            return ParsedLine.failed(index, "Malformed operation: " + message);
+        }
+    }
+
+    /**
+     * Reads the next line into {@code buffer} without the line terminator.
+     *
+     * @return length of the line, {@link #END_OF_STREAM}, or {@link #LINE_TOO_LONG} after skipping a line that does not
+     * fit the buffer
+     */
+    private static int readLine(InputStream input, byte[] buffer) throws IOException {
+        var length = 0;
+        var tooLong = false;
+        int next;
+        while ((next = input.read()) != -1 && next != '\n') {
+            if (length < buffer.length) {
+                buffer[length++] = (byte) next;
+            } else {
+                tooLong = true;
+            }
+        }
+        if (next == -1 && length == 0 && !tooLong) {
+            return END_OF_STREAM;
+        }
+        if (tooLong) {
+            return LINE_TOO_LONG;
+        }
+        return length > 0 && buffer[length - 1] == '\r' ? length - 1 : length;
+    }
+
+    private record ParsedLine(int index, BatchOperation operation, String error) {
+
+        static ParsedLine failed(int index, String error) {
+            return new ParsedLine(index, null, error);
+        }
+    }
+}
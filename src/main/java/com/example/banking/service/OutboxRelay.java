@@ -0,0 +1,109 @@
+package com.example.banking.service;
+
+import com.example.banking.config.OutboxProperties;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.model.OutboxEvent;
+import com.example.banking.outbox.OutboxSink;
+import com.example.banking.repository.OutboxEventRepository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the outbox of every shard to the {@link OutboxSink} in batches on a background thread. A batch is locked,
+ * delivered and deleted in one transaction, so the deleted rows are the relay's checkpoint: a crash or sink failure
+ * before the commit leaves the batch in place to be delivered again, giving at-least-once delivery in id order per
+ * account.
+ * <p>
+ * Delivered rows are deleted by id rather than below a high-water mark, because a movement that took its id earlier
+ * can commit after a later one has been relayed. The batch runs in READ COMMITTED, so its locks cover only the rows
+ * it read and never block the inserts of new events.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "banking.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink outboxSink;
+    private final OutboxProperties properties;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate relayTransaction;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSink outboxSink,
+                       OutboxProperties properties,
+                       ShardRouter shardRouter,
+                       PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSink = outboxSink;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.relayTransaction = new TransactionTemplate(transactionManager);
+        this.relayTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("outbox-relay").daemon().start(this::relayLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join();
+    }
+
+    /**
+     * Relays one batch from every shard.
+     *
+     * @return whether some shard had a full batch, so more events are probably waiting
+     */
+    boolean relay() {
+        return shardRouter.mapShards(shard -> {
+            try {
+                return relayBatch() == properties.batchSize();
+            } catch (RuntimeException ex) {
+                log.warn("Failed to relay outbox events on shard {}, retrying", shard, ex);
+                return false;
+            }
+        }).contains(true);
+    }
+
+    private int relayBatch() {
+        return relayTransaction.execute(status -> {
+            var events = outboxEventRepository.lockOldest(properties.batchSize());
+            if (events.isEmpty()) {
+                return 0;
+            }
+            outboxSink.publish(events);
+            outboxEventRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).toList());
+            return events.size();
+        });
+    }
+
+    private void relayLoop() {
+        while (running) {
+            try {
+                if (!relay()) {
+                    Thread.sleep(properties.pollInterval());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
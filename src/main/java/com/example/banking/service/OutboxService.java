@@ -0,0 +1,60 @@
+package com.example.banking.service;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import com.example.banking.config.OutboxProperties;
+import com.example.banking.model.Account;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.OutboxEventRepository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes an outbox event for every money movement, in the transaction that inserts its {@link Transaction}, so
+ * downstream systems learn about exactly the movements that committed without polling {@code accounts}.
+ * {@link OutboxRelay} delivers the events.
+ * <p>
+ * Events are inserted after the account rows are updated, so the ids of two movements on the same account follow
+ * their commit order and the relay delivers them in that order.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final String INSERT = """
+            INSERT INTO outbox_events (transaction_id, type, from_account_number, to_account_number, amount, occurred_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxProperties properties;
+
+    /**
+     * Adds events for saved {@code transactions} in the caller's transaction with one batched insert. Pending changes
+     * are flushed first, which takes the account row locks before the events get their ids.
+     */
+    public void record(Collection<Transaction> transactions) {
+        if (!properties.enabled() || transactions.isEmpty()) {
+            return;
+        }
+
+        outboxEventRepository.flush();
+        jdbcTemplate.batchUpdate(INSERT, transactions.stream()
+                                                     .map(transaction -> new Object[] {transaction.getId(),
+                                                                                       transaction.getType().name(),
+                                                                                       accountNumberOf(transaction.getFromAccount()),
+                                                                                       accountNumberOf(transaction.getToAccount()),
+                                                                                       transaction.getAmount(),
+                                                                                       transaction.getTimestamp()})
+                                                     .toList());
+    }
+
+    private static String accountNumberOf(Account account) {
+        return Optional.ofNullable(account).map(Account::getAccountNumber).orElse(null);
+    }
+}
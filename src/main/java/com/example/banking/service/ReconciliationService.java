@@ -0,0 +1,469 @@
+package com.example.banking.service;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.example.banking.archive.TransactionArchive;
+import com.example.banking.config.ReconciliationProperties;
+import com.example.banking.datasource.ShardContext;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.dto.ReconciliationMismatch;
+import com.example.banking.dto.ReconciliationReport;
+import com.example.banking.dto.ReconciliationStatus;
+import com.example.banking.model.ReconciliationRun;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.ReconciliationRunRepository;
+import com.example.banking.util.LongLongMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Checks that the balance of every account, including the slots of a hot account, equals its opening balance plus the
+ * credits minus the debits of its transactions, live and archived.
+ * <p>
+ * Each shard is checked in a run of its own. The account ids up to the highest one at the start of the run are split
+ * into ranges of {@link ReconciliationProperties#rangeSize()}, which fork/join workers compare in parallel, each range
+ * in one read-only transaction so balances and transactions come from the same snapshot. A range streams the per
+ * account totals of its transactions from a cursor into primitive maps; the database groups the rows, so only one row
+ * per account crosses the wire. The archived part of the ledger never changes, so it is summed once per run.
+ * <p>
+ * Mismatches are stored in {@code reconciliation_mismatches} and logged. Ranges are handed to the workers in batches,
+ * and the run's checkpoint moves past a batch once all its ranges are compared, so an interrupted or failed run
+ * resumes from its last batch instead of starting over.
+ */
+@Slf4j
+@Service
+public class ReconciliationService {
+
+    private static final int RANGES_PER_WORKER_AND_BATCH = 4;
+    private static final int REPORTED_MISMATCHES = 100;
+
+    private static final String ACCOUNTS_QUERY = """
+            SELECT id, balance, opening_balance
+            FROM accounts
+            WHERE id >= ? AND id < ?
+            """;
+    private static final String SLOTS_QUERY = """
+            SELECT account_id, SUM(balance) AS balance
+            FROM account_balance_slots
+            WHERE account_id >= ? AND account_id < ?
+            GROUP BY account_id
+            """;
+    private static final String CREDITS_QUERY = """
+            SELECT to_account_id AS account_id, SUM(amount) AS amount
+            FROM transactions
+            WHERE to_account_id >= ? AND to_account_id < ? AND timestamp >= ?
+            GROUP BY to_account_id
+            """;
+    private static final String DEBITS_QUERY = """
+            SELECT from_account_id AS account_id, SUM(amount) AS amount
+            FROM transactions
+            WHERE from_account_id >= ? AND from_account_id < ? AND timestamp >= ?
+            GROUP BY from_account_id
+            """;
+    private static final String DELETE_MISMATCHES = """
+            DELETE FROM reconciliation_mismatches
+            WHERE run_id = ? AND account_id >= ? AND account_id < ?
+            """;
+    private static final String INSERT_MISMATCH = """
+            INSERT INTO reconciliation_mismatches (run_id, account_id, expected_balance, actual_balance)
+            VALUES (?, ?, ?, ?)
+            """;
+    private static final String COUNT_MISMATCHES = "SELECT COUNT(*) FROM reconciliation_mismatches WHERE run_id = ?";
+    private static final String MISMATCHES_QUERY = """
+            SELECT a.account_number, m.expected_balance, m.actual_balance
+            FROM reconciliation_mismatches m
+            JOIN accounts a ON a.id = m.account_id
+            WHERE m.run_id = ?
+            ORDER BY m.account_id
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountRepository accountRepository;
+    private final ReconciliationRunRepository reconciliationRunRepository;
+    private final TransactionArchive transactionArchive;
+    private final ShardRouter shardRouter;
+    private final ReconciliationProperties properties;
+    private final Clock clock;
+    private final TransactionTemplate rangeTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final Throttle throttle;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopping;
+
+    public ReconciliationService(JdbcTemplate jdbcTemplate,
+                                 AccountRepository accountRepository,
+                                 ReconciliationRunRepository reconciliationRunRepository,
+                                 TransactionArchive transactionArchive,
+                                 ShardRouter shardRouter,
+                                 ReconciliationProperties properties,
+                                 Clock clock,
+                                 PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.accountRepository = accountRepository;
+        this.reconciliationRunRepository = reconciliationRunRepository;
+        this.transactionArchive = transactionArchive;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.clock = clock;
+        this.rangeTransaction = new TransactionTemplate(transactionManager);
+        this.rangeTransaction.setReadOnly(true);
+        this.rangeTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.throttle = new Throttle(properties.maxRangesPerSecond());
+    }
+
+    /**
+     * Starts a run in the background unless one is in progress, continuing the unfinished run of each shard.
+     */
+    public ReconciliationStatus start() {
+        startInBackground();
+        return getStatus();
+    }
+
+    @Scheduled(cron = "${banking.reconciliation.cron:-}")
+    public void startScheduled() {
+        startInBackground();
+    }
+
+    /**
+     * Runs on the calling thread unless a run is in progress.
+     *
+     * @return whether it ran
+     */
+    boolean reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            reconcileShards();
+            return true;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public ReconciliationStatus getStatus() {
+        var reports = shardRouter.mapShards(shard -> reconciliationRunRepository.findFirstByOrderByIdDesc()
+                                                                                .map(run -> report(shard, run)));
+        return new ReconciliationStatus(running.get(), reports.stream().flatMap(Optional::stream).toList());
+    }
+
+    /**
+     * Lets the workers finish the ranges they are comparing and leaves the run to be resumed.
+     */
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    private void startInBackground() {
+        if (running.compareAndSet(false, true)) {
+            Thread.ofPlatform().name("reconciliation").daemon().start(() -> {
+                try {
+                    reconcileShards();
+                } finally {
+                    running.set(false);
+                }
+            });
+        }
+    }
+
+    private void reconcileShards() {
+        shardRouter.forEachShard(shard -> {
+            try {
+                reconcileShard(shard);
+            } catch (RuntimeException ex) {
+                log.warn("Reconciliation of shard {} failed, the next run resumes it", shard, ex);
+            }
+        });
+    }
+
+    private void reconcileShard(int shard) {
+        var run = reconciliationRunRepository.findFirstByFinishedAtIsNullOrderByIdDesc().orElse(null);
+        if (run == null) {
+            run = reconciliationRunRepository.save(ReconciliationRun.builder()
+                                                                    .startedAt(Timestamp.from(clock.instant()))
+                                                                    .nextAccountId(0L)
+                                                                    .maxAccountId(accountRepository.findMaxId())
+                                                                    .build());
+            log.info("Started reconciliation run {} on shard {} up to account id {}",
+                     run.getId(),
+                     shard,
+                     run.getMaxAccountId());
+        } else {
+            log.info("Resuming reconciliation run {} on shard {} from account id {}",
+                     run.getId(),
+                     shard,
+                     run.getNextAccountId());
+        }
+
+        var progress = new ShardRun(shard, run.getId(), ArchiveTotals.load(transactionArchive));
+        var rangeSize = properties.rangeSize();
+        var end = run.getMaxAccountId() + 1;
+        var batchSize = (long) rangeSize * properties.parallelism() * RANGES_PER_WORKER_AND_BATCH;
+        try (var pool = new ForkJoinPool(properties.parallelism())) {
+            for (var batchStart = run.getNextAccountId(); batchStart < end; batchStart += batchSize) {
+                var batchEnd = Math.min(end, batchStart + batchSize);
+                pool.invoke(new RangeTask(progress, batchStart, batchEnd));
+                if (stopping || progress.failed) {
+                    log.warn("Reconciliation run {} on shard {} stopped before account id {}, the next run resumes it",
+                             run.getId(),
+                             shard,
+                             batchStart);
+                    return;
+                }
+                var runId = run.getId();
+                writeTransaction.execute(status -> reconciliationRunRepository.advance(runId, batchEnd));
+            }
+        }
+
+        var runId = run.getId();
+        writeTransaction.execute(status -> reconciliationRunRepository.finish(runId, Timestamp.from(clock.instant())));
+        var mismatches = jdbcTemplate.queryForObject(COUNT_MISMATCHES, Long.class, runId);
+        if (mismatches != null && mismatches > 0) {
+            log.warn("Reconciliation run {} on shard {} found {} accounts whose balance does not match their transactions",
+                     runId,
+                     shard,
+                     mismatches);
+        } else {
+            log.info("Reconciliation run {} on shard {} found no mismatches", runId, shard);
+        }
+    }
+
+    /**
+     * Compares the accounts with ids in {@code [fromAccountId, toAccountId)} and replaces the mismatches stored for
+     * them, so a range compared again after a resume is not reported twice.
+     */
+    private void reconcileRange(ShardRun progress, long fromAccountId, long toAccountId) {
+        var archive = progress.archive;
+        var compared = compareInTransaction(archive, fromAccountId, toAccountId);
+        if (compared.isEmpty()) {
+            // a partition was archived since the archive was summed
+            compared = compareInTransaction(progress.refresh(archive), fromAccountId, toAccountId);
+        }
+        var found = compared.orElseThrow(() -> new IllegalStateException(
+                "Transaction archive changed twice while comparing accounts from id " + fromAccountId));
+        writeTransaction.execute(status -> {
+            jdbcTemplate.update(DELETE_MISMATCHES, progress.runId, fromAccountId, toAccountId);
+            jdbcTemplate.batchUpdate(INSERT_MISMATCH, found, found.size(), (statement, mismatch) -> {
+                statement.setLong(1, progress.runId);
+                statement.setLong(2, mismatch.accountId());
+                statement.setLong(3, mismatch.expectedBalance());
+                statement.setLong(4, mismatch.actualBalance());
+            });
+            return null;
+        });
+        for (var mismatch : found) {
+            log.warn("Account id {} on shard {} has balance {}, its transactions add up to {}",
+                     mismatch.accountId(),
+                     progress.shard,
+                     mismatch.actualBalance(),
+                     mismatch.expectedBalance());
+        }
+    }
+
+    private Optional<List<Mismatch>> compareInTransaction(ArchiveTotals archive, long fromAccountId, long toAccountId) {
+        return rangeTransaction.execute(status -> compare(archive, fromAccountId, toAccountId));
+    }
+
+    /**
+     * @return the mismatches of the range, empty if the archive moved past the horizon it was summed up to
+     */
+    private Optional<List<Mismatch>> compare(ArchiveTotals archive, long fromAccountId, long toAccountId) {
+        var expected = new LongLongMap(properties.rangeSize());
+        var horizon = Timestamp.from(archive.horizon().orElse(Instant.EPOCH));
+        stream(CREDITS_QUERY,
+               resultSet -> expected.add(resultSet.getLong("account_id"), resultSet.getLong("amount")),
+               fromAccountId, toAccountId, horizon);
+        // partitions are archived before they are dropped, and cannot be dropped while this transaction reads from
+        // transactions, so with the horizon unchanged the live rows start exactly where the archived totals end
+        if (!transactionArchive.getHorizon().equals(archive.horizon())) {
+            return Optional.empty();
+        }
+        stream(DEBITS_QUERY,
+               resultSet -> expected.add(resultSet.getLong("account_id"), -resultSet.getLong("amount")),
+               fromAccountId, toAccountId, horizon);
+
+        var actual = new LongLongMap(properties.rangeSize());
+        stream(ACCOUNTS_QUERY, resultSet -> {
+            var accountId = resultSet.getLong("id");
+            actual.put(accountId, resultSet.getLong("balance"));
+            expected.add(accountId, resultSet.getLong("opening_balance") + archive.net().get(accountId));
+        }, fromAccountId, toAccountId);
+        stream(SLOTS_QUERY,
+               resultSet -> actual.add(resultSet.getLong("account_id"), resultSet.getLong("balance")),
+               fromAccountId, toAccountId);
+
+        var mismatches = new ArrayList<Mismatch>();
+        actual.forEach((accountId, balance) -> {
+            if (expected.get(accountId) != balance) {
+                mismatches.add(new Mismatch(accountId, expected.get(accountId), balance));
+            }
+        });
+        return Optional.of(mismatches);
+    }
+
+    private void stream(String query, RowCallbackHandler handler, Object... parameters) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J streams the rows one by one instead of reading them all into memory first
+            statement.setFetchSize(Integer.MIN_VALUE);
+            for (var i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            return statement;
+        }, handler);
+    }
+
+    private ReconciliationReport report(int shard, ReconciliationRun run) {
+        var mismatchCount = jdbcTemplate.queryForObject(COUNT_MISMATCHES, Long.class, run.getId());
+        var mismatches = jdbcTemplate.query(MISMATCHES_QUERY,
+                                            (resultSet, rowNum) -> new ReconciliationMismatch(resultSet.getString("account_number"),
+                                                                                              resultSet.getLong("expected_balance"),
+                                                                                              resultSet.getLong("actual_balance")),
+                                            run.getId(),
+                                            REPORTED_MISMATCHES);
+        return new ReconciliationReport(shard,
+                                        run.getId(),
+                                        run.getStartedAt().toInstant(),
+                                        run.getFinishedAt() == null ? null : run.getFinishedAt().toInstant(),
+                                        run.getNextAccountId(),
+                                        run.getMaxAccountId(),
+                                        mismatchCount == null ? 0 : mismatchCount,
+                                        mismatches);
+    }
+
+    record Mismatch(long accountId, long expectedBalance, long actualBalance) { }
+
+    /**
+     * Credits minus debits per account among the archived transactions, which reach up to {@code horizon}.
+     */
+    private record ArchiveTotals(Optional<Instant> horizon, LongLongMap net) {
+
+        static ArchiveTotals load(TransactionArchive transactionArchive) {
+            var net = new LongLongMap();
+            return new ArchiveTotals(transactionArchive.sumNetAmounts(net), net);
+        }
+    }
+
+    /**
+     * State of the run on one shard shared by its workers.
+     */
+    private final class ShardRun {
+
+        private final int shard;
+        private final long runId;
+        private volatile ArchiveTotals archive;
+        private volatile boolean failed;
+
+        private ShardRun(int shard, long runId, ArchiveTotals archive) {
+            this.shard = shard;
+            this.runId = runId;
+            this.archive = archive;
+        }
+
+        /**
+         * Sums the archive again unless another worker already did since {@code stale} was loaded.
+         */
+        private synchronized ArchiveTotals refresh(ArchiveTotals stale) {
+            if (archive == stale) {
+                archive = ArchiveTotals.load(transactionArchive);
+            }
+            return archive;
+        }
+    }
+
+    /**
+     * Splits its accounts in halves until one range is left, which it compares on the shard of the run.
+     */
+    private final class RangeTask extends RecursiveAction {
+
+        private final ShardRun progress;
+        private final long fromAccountId;
+        private final long toAccountId;
+
+        private RangeTask(ShardRun progress, long fromAccountId, long toAccountId) {
+            this.progress = progress;
+            this.fromAccountId = fromAccountId;
+            this.toAccountId = toAccountId;
+        }
+
+        @Override
+        protected void compute() {
+            var rangeSize = properties.rangeSize();
+            if (toAccountId - fromAccountId > rangeSize) {
+                var ranges = (toAccountId - fromAccountId + rangeSize - 1) / rangeSize;
+                var middle = fromAccountId + ranges / 2 * rangeSize;
+                invokeAll(new RangeTask(progress, fromAccountId, middle), new RangeTask(progress, middle, toAccountId));
+                return;
+            }
+            if (stopping || progress.failed) {
+                return;
+            }
+            try {
+                throttle.acquire();
+                ShardContext.run(progress.shard, () -> reconcileRange(progress, fromAccountId, toAccountId));
+            } catch (RuntimeException ex) {
+                progress.failed = true;
+                log.warn("Failed to reconcile accounts from id {} to {} on shard {}",
+                         fromAccountId,
+                         toAccountId,
+                         progress.shard,
+                         ex);
+            }
+        }
+    }
+
+    /**
+     * Spaces out the starts of ranges across all workers.
+     */
+    private static final class Throttle {
+
+        private final long intervalNanos;
+        private long nextStart;
+
+        private Throttle(int permitsPerSecond) {
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+            this.nextStart = System.nanoTime();
+        }
+
+        void acquire() {
+            long wait;
+            synchronized (this) {
+                var now = System.nanoTime();
+                var start = Math.max(now, nextStart);
+                nextStart = start + intervalNanos;
+                wait = start - now;
+            }
+            if (wait > 0) {
+                try {
+                    Thread.sleep(Duration.ofNanos(wait));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while throttled", ex);
+                }
+            }
+        }
+    }
+}
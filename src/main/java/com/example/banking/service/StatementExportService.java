@@ -0,0 +1,314 @@
+package com.example.banking.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import com.example.banking.archive.ArchivedTransaction;
+import com.example.banking.archive.TransactionArchive;
+import com.example.banking.config.StatementProperties;
+import com.example.banking.datasource.ShardContext;
+import com.example.banking.dto.StatementFormat;
+import com.example.banking.dto.TransactionResponse;
+import com.example.banking.model.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams an account statement to the response without holding it in memory. The live table is read in keyset pages
+ * of {@code pageSize} rows per side: the debits and the credits of the account are two scans that come back ordered
+ * by their {@code (account, timestamp, id)} index, and they are merged here. Each page is an index range scan that
+ * stops after {@code pageSize} rows without sorting, so neither the database nor the heap grows with the statement
+ * size. All pages are read in one read-only transaction,
+ * so the statement is a consistent snapshot. When the client disconnects, the next write fails and reading stops.
+ * <p>
+ * The part of a statement before the archive horizon is read from the {@link TransactionArchive} instead, file by
+ * file, and written as it is decoded. Archived rows of a partition come in id order rather than strictly by timestamp.
+ * <p>
+ * Days are cut in the zone of the {@link Clock}, like daily rollups and partitions.
+ */
+@Slf4j
+@Service
+public class StatementExportService {
+
+    private static final String PAGE_QUERY = """
+            SELECT t.id,
+                   fa.account_number AS from_account_number,
+                   ta.account_number AS to_account_number,
+                   t.amount,
+                   t.type,
+                   t.timestamp
+            FROM transactions t
+            LEFT JOIN accounts fa ON fa.id = t.from_account_id
+            LEFT JOIN accounts ta ON ta.id = t.to_account_id
+            WHERE t.%s = ?
+            AND (t.timestamp > ? OR (t.timestamp = ? AND t.id > ?))
+            AND t.timestamp < ?
+            ORDER BY t.timestamp, t.id
+            LIMIT ?
+            """;
+    private static final String CSV_HEADER = "timestamp,type,from_account_number,to_account_number,amount\n";
+    private static final Comparator<StatementRow> ORDER = Comparator.comparing(StatementRow::timestamp)
+                                                                    .thenComparingLong(StatementRow::id);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountService accountService;
+    private final ObjectMapper objectMapper;
+    private final StatementProperties statementProperties;
+    private final TransactionArchive transactionArchive;
+    private final Clock clock;
+    private final TransactionTemplate readTransaction;
+
+    public StatementExportService(JdbcTemplate jdbcTemplate,
+                                  AccountService accountService,
+                                  ObjectMapper objectMapper,
+                                  StatementProperties statementProperties,
+                                  TransactionArchive transactionArchive,
+                                  Clock clock,
+                                  PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.accountService = accountService;
+        this.objectMapper = objectMapper;
+        this.statementProperties = statementProperties;
+        this.transactionArchive = transactionArchive;
+        this.clock = clock;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Validates the request and resolves the account up front, so errors are still reported with a proper status
+     * before the response is committed.
+     *
+     * @param from first day of the statement, inclusive
+     * @param to   last day of the statement, inclusive
+     */
+    public StreamingResponseBody export(String accountNumber, LocalDate from, LocalDate to, StatementFormat format,
+                                        boolean gzip) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Statement start date must not be after its end date");
+        }
+        var accountId = accountService.getAccountId(accountNumber);
+        var fromTimestamp = Timestamp.from(from.atStartOfDay(clock.getZone()).toInstant());
+        var toTimestamp = Timestamp.from(to.plusDays(1).atStartOfDay(clock.getZone()).toInstant());
+        var horizon = transactionArchive.getHorizon().map(Timestamp::from).orElse(fromTimestamp);
+
+        // the body is written on another thread, which has to read from the same shard
+        var shard = ShardContext.current();
+        return outputStream -> {
+            try {
+                ShardContext.run(shard, () -> writeStatement(outputStream, accountId, fromTimestamp, toTimestamp, horizon,
+                                                             format, gzip));
+            } catch (UncheckedIOException ex) {
+                log.debug("Statement export of account {} stopped: {}", accountNumber, ex.getMessage());
+                throw ex.getCause();
+            }
+        };
+    }
+
+    private void writeStatement(OutputStream outputStream, Long accountId, Timestamp from, Timestamp to,
+                                Timestamp horizon, StatementFormat format, boolean gzip) {
+        try {
+            var target = gzip ? new GZIPOutputStream(outputStream, 8192) : outputStream;
+            try (var writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8))) {
+                if (format == StatementFormat.CSV) {
+                    writer.write(CSV_HEADER);
+                }
+                if (from.before(horizon)) {
+                    writeArchivedRows(accountId, from, to.before(horizon) ? to : horizon, format, writer);
+                }
+                if (horizon.before(to)) {
+                    writeLiveRows(accountId, from.after(horizon) ? from : horizon, to, format, writer);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Merges the debit and credit pages of the account in {@code (timestamp, id)} order. A transfer to the account
+     * itself is on both sides and written once.
+     */
+    private void writeLiveRows(Long accountId, Timestamp from, Timestamp to, StatementFormat format, Writer writer) {
+        readTransaction.executeWithoutResult(status -> {
+            var debits = new Side("from_account_id", accountId, from, to);
+            var credits = new Side("to_account_id", accountId, from, to);
+            try {
+                var debit = debits.peek();
+                var credit = credits.peek();
+                while (debit != null || credit != null) {
+                    if (credit == null || debit != null && ORDER.compare(debit, credit) <= 0) {
+                        writeRow(debit.response(), format, writer);
+                        if (credit != null && credit.id() == debit.id()) {
+                            credits.poll();
+                        }
+                        debits.poll();
+                    } else {
+                        writeRow(credit.response(), format, writer);
+                        credits.poll();
+                    }
+                    debit = debits.peek();
+                    credit = credits.peek();
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    /**
+     * Writes archived rows as the archive decodes them, resolving the account numbers of their counterparties once per
+     * {@code pageSize} rows, so memory use stays bounded however many rows the range holds.
+     */
+    private void writeArchivedRows(Long accountId, Timestamp from, Timestamp to, StatementFormat format, Writer writer)
+            throws IOException {
+        var pending = new ArrayList<ArchivedTransaction>(statementProperties.pageSize());
+        transactionArchive.forEachByAccount(accountId, from.toInstant(), to.toInstant(), transaction -> {
+            pending.add(transaction);
+            if (pending.size() == statementProperties.pageSize()) {
+                try {
+                    flushArchivedRows(pending, format, writer);
+                } catch (IOException ex) {
+                    // stops reading the archive
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        });
+        flushArchivedRows(pending, format, writer);
+    }
+
+    private void flushArchivedRows(List<ArchivedTransaction> pending, StatementFormat format, Writer writer)
+            throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        var accountNumbers = accountService.getAccountNumbers(pending.stream()
+                                                                     .flatMap(transaction -> Stream.of(transaction.fromAccountId(),
+                                                                                                       transaction.toAccountId()))
+                                                                     .filter(Objects::nonNull)
+                                                                     .distinct()
+                                                                     .toList());
+        for (var transaction : pending) {
+            writeRow(new TransactionResponse(transaction.fromAccountId() == null
+                                             ? null
+                                             : accountNumbers.get(transaction.fromAccountId()),
+                                             transaction.toAccountId() == null
+                                             ? null
+                                             : accountNumbers.get(transaction.toAccountId()),
+                                             transaction.amount(),
+                                             transaction.type(),
+                                             new Timestamp(transaction.timestamp())),
+                     format,
+                     writer);
+        }
+        pending.clear();
+    }
+
+    private void writeRow(TransactionResponse row, StatementFormat format, Writer writer) throws IOException {
+        switch (format) {
+            case CSV -> {
+                writer.write(row.timestamp().toInstant().toString());
+                writer.write(',');
+                writer.write(row.type().name());
+                writer.write(',');
+                writer.write(row.fromAccountNumber() == null ? "" : row.fromAccountNumber());
+                writer.write(',');
+                writer.write(row.toAccountNumber() == null ? "" : row.toAccountNumber());
+                writer.write(',');
+                writer.write(Long.toString(row.amount()));
+                writer.write('\n');
+            }
+            case NDJSON -> {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static StatementRow toStatementRow(ResultSet resultSet) throws SQLException {
+        return new StatementRow(resultSet.getLong("id"),
+                                new TransactionResponse(resultSet.getString("from_account_number"),
+                                                        resultSet.getString("to_account_number"),
+                                                        resultSet.getLong("amount"),
+                                                        TransactionType.valueOf(resultSet.getString("type")),
+                                                        resultSet.getTimestamp("timestamp")));
+    }
+
+    private record StatementRow(long id, TransactionResponse response) {
+
+        private Timestamp timestamp() {
+            return response.timestamp();
+        }
+    }
+
+    /**
+     * One side of the account's live transactions, read a page at a time after the last row it returned.
+     */
+    private final class Side {
+
+        private final String column;
+        private final Long accountId;
+        private final Timestamp to;
+        private final ArrayDeque<StatementRow> page = new ArrayDeque<>();
+        private Timestamp timestamp;
+        private long id;
+        private boolean exhausted;
+
+        private Side(String column, Long accountId, Timestamp from, Timestamp to) {
+            this.column = column;
+            this.accountId = accountId;
+            this.to = to;
+            this.timestamp = from;
+            // ids start at 1, so the first page starts with the first row at from
+            this.id = 0;
+        }
+
+        private StatementRow peek() {
+            if (page.isEmpty() && !exhausted) {
+                var rows = jdbcTemplate.query(String.format(PAGE_QUERY, column),
+                                              (resultSet, rowNum) -> toStatementRow(resultSet),
+                                              accountId,
+                                              timestamp,
+                                              timestamp,
+                                              id,
+                                              to,
+                                              statementProperties.pageSize());
+                exhausted = rows.size() < statementProperties.pageSize();
+                if (!rows.isEmpty()) {
+                    timestamp = rows.getLast().timestamp();
+                    id = rows.getLast().id();
+                }
+                page.addAll(rows);
+            }
+            return page.peek();
+        }
+
+        private void poll() {
+            page.poll();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.banking.service;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.dto.BatchTransactionRequest;
+import com.example.banking.dto.BatchTransactionResponse;
+import com.example.banking.dto.SingleTransactionResponse;
+import com.example.banking.dto.TransactionResponse;
+import com.example.banking.metrics.TransactionMetrics;
+import com.example.banking.model.TransactionType;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Entry point for single money movements. Hands each operation to {@link TransactionService} on the account lane
+ * that owns the involved accounts, so the database transaction is opened on the lane thread. In journaled mode the
+ * operation is acknowledged by {@link JournaledTransactionService} instead. Every operation is timed by
+ * {@link TransactionMetrics}, including time spent waiting for a lane. Retries carrying an idempotency key already seen
+ * are answered by {@link IdempotencyService} without running the operation again.
+ * <p>
+ * Every operation runs on the shard of its account, or of the source account of a transfer, which also keeps the
+ * idempotency key. Transfers between accounts on different shards go through {@link CrossShardTransferService}.
+ * <p>
+ * Batches and streamed operations commit straight to the database, past the debits reserved for journal entries not
+ * applied yet, so they are refused in journaled mode.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionDispatcher {
+
+    private final TransactionService transactionService;
+    private final AccountLaneExecutor accountLaneExecutor;
+    private final Optional<JournaledTransactionService> journaledTransactionService;
+    private final TransactionMetrics transactionMetrics;
+    private final IdempotencyService idempotencyService;
+    private final ShardRouter shardRouter;
+    private final CrossShardTransferService crossShardTransferService;
+    private final OperationStreamService operationStreamService;
+
+    public SingleTransactionResponse deposit(String accountNumber, Long amount, String idempotencyKey) {
+        var request = IdempotencyService.describe(TransactionType.DEPOSIT, null, accountNumber, amount);
+        return transactionMetrics.record(TransactionType.DEPOSIT,
+                                         () -> shardRouter.onShardOf(accountNumber,
+                                                                     () -> idempotencyService.execute(idempotencyKey,
+                                                                                                      request,
+                                                                                                      SingleTransactionResponse.class,
+                                                                                                      () -> doDeposit(accountNumber, amount, idempotencyKey))));
+    }
+
+    public SingleTransactionResponse withdraw(String accountNumber, Long amount, String idempotencyKey) {
+        var request = IdempotencyService.describe(TransactionType.WITHDRAWAL, accountNumber, null, amount);
+        return transactionMetrics.record(TransactionType.WITHDRAWAL,
+                                         () -> shardRouter.onShardOf(accountNumber,
+                                                                     () -> idempotencyService.execute(idempotencyKey,
+                                                                                                      request,
+                                                                                                      SingleTransactionResponse.class,
+                                                                                                      () -> doWithdraw(accountNumber, amount, idempotencyKey))));
+    }
+
+    public TransactionResponse transfer(String fromAccountNumber, String toAccountNumber, Long amount,
+                                        String idempotencyKey) {
+        var request = IdempotencyService.describe(TransactionType.TRANSFER, fromAccountNumber, toAccountNumber, amount);
+        return transactionMetrics.record(TransactionType.TRANSFER,
+                                         () -> shardRouter.onShardOf(fromAccountNumber,
+                                                                     () -> idempotencyService.execute(idempotencyKey,
+                                                                                                      request,
+                                                                                                      TransactionResponse.class,
+                                                                                                      () -> doTransfer(fromAccountNumber,
+                                                                                                                       toAccountNumber,
+                                                                                                                       amount,
+                                                                                                                       idempotencyKey))));
+    }
+
+    public BatchTransactionResponse batch(BatchTransactionRequest request) {
+        requireUnjournaled("Batches");
+        // a batch commits in one transaction, so all of its accounts must be on one shard
+        var accountNumbers = TransactionService.collectAccountNumbers(Optional.ofNullable(request.operations())
+                                                                              .orElse(List.of()));
+        return shardRouter.onShardOf(accountNumbers, () -> transactionService.batch(request));
+    }
+
+    public StreamingResponseBody stream(InputStream requestBody) {
+        requireUnjournaled("Streamed operations");
+        return operationStreamService.process(requestBody);
+    }
+
+    private void requireUnjournaled(String operations) {
+        if (journaledTransactionService.isPresent()) {
+            throw new IllegalArgumentException(operations + " are not supported with the balance journal, "
+                                               + "send the operations one by one instead");
+        }
+    }
+
+    private SingleTransactionResponse doDeposit(String accountNumber, Long amount, String idempotencyKey) {
+        if (journaledTransactionService.isPresent()) {
+            return journaledTransactionService.get().deposit(accountNumber, amount, idempotencyKey);
+        }
+        // the lane thread needs the shard as well
+        return accountLaneExecutor.execute(accountNumber,
+                                           () -> shardRouter.onShardOf(accountNumber,
+                                                                       () -> transactionService.deposit(accountNumber,
+                                                                                                        amount,
+                                                                                                        idempotencyKey)));
+    }
+
+    private SingleTransactionResponse doWithdraw(String accountNumber, Long amount, String idempotencyKey) {
+        if (journaledTransactionService.isPresent()) {
+            return journaledTransactionService.get().withdraw(accountNumber, amount, idempotencyKey);
+        }
+        return accountLaneExecutor.execute(accountNumber,
+                                           () -> shardRouter.onShardOf(accountNumber,
+                                                                       () -> transactionService.withdraw(accountNumber,
+                                                                                                         amount,
+                                                                                                         idempotencyKey)));
+    }
+
+    private TransactionResponse doTransfer(String fromAccountNumber, String toAccountNumber, Long amount,
+                                           String idempotencyKey) {
+        if (journaledTransactionService.isPresent()) {
+            return journaledTransactionService.get().transfer(fromAccountNumber, toAccountNumber, amount, idempotencyKey);
+        }
+        if (!shardRouter.isSameShard(fromAccountNumber, toAccountNumber)) {
+            return accountLaneExecutor.execute(fromAccountNumber,
+                                               toAccountNumber,
+                                               () -> crossShardTransferService.transfer(fromAccountNumber,
+                                                                                        toAccountNumber,
+                                                                                        amount,
+                                                                                        idempotencyKey));
+        }
+        return accountLaneExecutor.execute(fromAccountNumber,
+                                           toAccountNumber,
+                                           () -> shardRouter.onShardOf(fromAccountNumber,
+                                                                       () -> transactionService.transfer(fromAccountNumber,
+                                                                                                         toAccountNumber,
+                                                                                                         amount,
+                                                                                                         idempotencyKey)));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.banking.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import com.example.banking.archive.ArchivedTransaction;
+import com.example.banking.archive.TransactionArchive;
+import com.example.banking.dto.TransactionHistoryEntry;
+import com.example.banking.dto.TransactionHistoryPage;
+import com.example.banking.mapper.TransactionMapper;
+import com.example.banking.model.TransactionType;
+import com.example.banking.repository.TransactionRepository;
+
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+/**
+ * Pages through an account's transactions newest first. Pages are addressed by an opaque cursor holding the
+ * {@code (timestamp, id)} of the last row returned instead of an offset, so every page is a bounded index range scan.
+ * Once the live table runs out, paging continues into the {@link TransactionArchive}.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionHistoryService {
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final Timestamp FIRST_PAGE_TIMESTAMP = Timestamp.valueOf("9999-12-31 23:59:59");
+
+    private final TransactionRepository transactionRepository;
+    private final AccountService accountService;
+    private final TransactionMapper transactionMapper;
+    private final TransactionArchive transactionArchive;
+
+    public TransactionHistoryPage getHistory(String accountNumber, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(String.format("Page size must be between 1 and %d", MAX_PAGE_SIZE));
+        }
+        var accountId = accountService.getAccountId(accountNumber);
+
+        var timestamp = FIRST_PAGE_TIMESTAMP;
+        var id = Long.MAX_VALUE;
+        if (cursor != null) {
+            var position = decodeCursor(cursor);
+            timestamp = new Timestamp(position[0]);
+            id = position[1];
+        }
+
+        // one extra row tells whether another page follows
+        var entries = transactionRepository.findHistoryBefore(accountId, timestamp, id, size + 1);
+        if (entries.size() <= size && transactionArchive.getHorizon().isPresent()) {
+            if (!entries.isEmpty()) {
+                timestamp = entries.getLast().getTimestamp();
+                id = entries.getLast().getId();
+            }
+            entries = Stream.concat(entries.stream(),
+                                    findArchivedHistory(accountId, timestamp, id, size + 1 - entries.size()).stream())
+                            .toList();
+        }
+        var hasMore = entries.size() > size;
+        var page = hasMore ? entries.subList(0, size) : entries;
+
+        return new TransactionHistoryPage(page.stream().map(transactionMapper::toTransactionResponse).toList(),
+                                          hasMore ? encodeCursor(page.getLast()) : null);
+    }
+
+    private List<TransactionHistoryEntry> findArchivedHistory(Long accountId, Timestamp timestamp, long id, int limit) {
+        var archived = transactionArchive.findHistoryBefore(accountId, timestamp.toInstant(), id, limit);
+        if (archived.isEmpty()) {
+            return List.of();
+        }
+        var accountNumbers = accountService.getAccountNumbers(archived.stream()
+                                                                      .flatMap(transaction -> Stream.of(transaction.fromAccountId(),
+                                                                                                        transaction.toAccountId()))
+                                                                      .filter(Objects::nonNull)
+                                                                      .distinct()
+                                                                      .toList());
+        var entries = new ArrayList<TransactionHistoryEntry>(archived.size());
+        for (var transaction : archived) {
+            entries.add(ArchivedEntry.of(transaction, accountNumbers));
+        }
+        return entries;
+    }
+
+    private static String encodeCursor(TransactionHistoryEntry entry) {
+        var position = entry.getTimestamp().getTime() + ":" + entry.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long[] decodeCursor(String cursor) {
+        try {
+            var position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 2);
+            return new long[] { Long.parseLong(position[0]), Long.parseLong(position[1]) };
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+
+    @Value
+    private static class ArchivedEntry implements TransactionHistoryEntry {
+
+        Long id;
+        String fromAccountNumber;
+        String toAccountNumber;
+        Long amount;
+        TransactionType type;
+        Timestamp timestamp;
+
+        static ArchivedEntry of(ArchivedTransaction transaction, Map<Long, String> accountNumbers) {
+            return new ArchivedEntry(transaction.id(),
+                                     accountNumber(accountNumbers, transaction.fromAccountId()),
+                                     accountNumber(accountNumbers, transaction.toAccountId()),
+                                     transaction.amount(),
+                                     transaction.type(),
+                                     new Timestamp(transaction.timestamp()));
+        }
+
+        private static String accountNumber(Map<Long, String> accountNumbers, Long accountId) {
+            return accountId == null ? null : accountNumbers.get(accountId);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.banking.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.example.banking.archive.ArchivedTransaction;
+import com.example.banking.archive.TransactionArchive;
+import com.example.banking.config.TransactionArchiveProperties;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.model.TransactionType;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps {@code transactions} range-partitioned by month of {@code timestamp}. Monthly partitions are created ahead by
+ * splitting the trailing {@code MAXVALUE} partition while it is still empty. Partitions older than the retention are
+ * copied to the {@link TransactionArchive} and then dropped, which frees their space at once instead of deleting row
+ * by row.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionPartitionService {
+
+    private static final String PARTITIONS_QUERY = """
+            SELECT PARTITION_NAME, PARTITION_DESCRIPTION
+            FROM information_schema.PARTITIONS
+            WHERE TABLE_SCHEMA = DATABASE()
+            AND TABLE_NAME = 'transactions'
+            ORDER BY PARTITION_ORDINAL_POSITION
+            """;
+    private static final String MAXVALUE = "MAXVALUE";
+    private static final Pattern PARTITION_NAME = Pattern.compile("\\w+");
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionArchive transactionArchive;
+    private final TransactionArchiveProperties properties;
+    private final Clock clock;
+    private final ShardRouter shardRouter;
+
+    /**
+     * Maintains the partitions of every shard; each shard archives into an archive of its own.
+     */
+    @Scheduled(fixedDelayString = "${banking.transaction-archive.maintenance-interval:PT1H}")
+    public void maintain() {
+        shardRouter.forEachShard(this::maintainShard);
+    }
+
+    private void maintainShard(int shard) {
+        List<Partition> partitions;
+        try {
+            partitions = getPartitions();
+        } catch (RuntimeException ex) {
+            log.warn("Failed to read partitions of transactions on shard {}", shard, ex);
+            return;
+        }
+        if (partitions.isEmpty()) {
+            log.warn("Table transactions of shard {} is not partitioned, skipping partition maintenance", shard);
+            return;
+        }
+        try {
+            createPartitions(partitions);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to create partitions of transactions on shard {}", shard, ex);
+        }
+        try {
+            archiveExpiredPartitions(getPartitions());
+        } catch (RuntimeException ex) {
+            // later partitions wait for this one, so the archive stays contiguous
+            log.warn("Failed to archive expired partitions of transactions on shard {}", shard, ex);
+        }
+    }
+
+    /**
+     * Splits the trailing partition so there is one partition per month up to {@code monthsAhead} months from now.
+     * On a table with only the trailing partition the first new partition also takes all older rows.
+     */
+    void createPartitions(List<Partition> partitions) {
+        var trailing = partitions.getLast();
+        if (trailing.upperBound() != null) {
+            log.warn("Table transactions has no MAXVALUE partition, skipping partition creation");
+            return;
+        }
+        var currentMonth = YearMonth.now(clock);
+        var month = partitions.size() > 1
+                    ? YearMonth.from(Instant.ofEpochSecond(partitions.get(partitions.size() - 2).upperBound())
+                                            .atZone(ZoneOffset.UTC))
+                    : currentMonth;
+
+        var definitions = new ArrayList<String>();
+        for (; !month.isAfter(currentMonth.plusMonths(properties.monthsAhead())); month = month.plusMonths(1)) {
+            definitions.add(String.format("PARTITION p%s VALUES LESS THAN (%d)",
+                                          MONTH.format(month),
+                                          startOf(month.plusMonths(1)).getEpochSecond()));
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
+        definitions.add(String.format("PARTITION %s VALUES LESS THAN (MAXVALUE)", trailing.name()));
+        jdbcTemplate.execute(String.format("ALTER TABLE transactions REORGANIZE PARTITION %s INTO (%s)",
+                                           trailing.name(),
+                                           String.join(", ", definitions)));
+        log.info("Added {} monthly partitions to transactions", definitions.size() - 1);
+    }
+
+    /**
+     * Archives and drops, oldest first, the partitions that end before the first month of the retention window.
+     */
+    void archiveExpiredPartitions(List<Partition> partitions) {
+        var cutoff = startOf(YearMonth.now(clock).minusMonths(properties.retentionMonths())).getEpochSecond();
+        var lower = transactionArchive.getHorizon().orElse(Instant.EPOCH);
+        for (var partition : partitions) {
+            if (partition.upperBound() == null || partition.upperBound() > cutoff) {
+                break;
+            }
+            var upper = Instant.ofEpochSecond(partition.upperBound());
+            archive(partition.name(), lower, upper);
+            lower = upper;
+        }
+    }
+
+    private void archive(String partition, Instant lower, Instant upper) {
+        var rows = 0L;
+        try (var writer = transactionArchive.create("transactions-" + partition, lower, upper)) {
+            jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(String.format("""
+                                                                          SELECT id, from_account_id, to_account_id, amount, type, timestamp
+                                                                          FROM transactions PARTITION (%s)
+                                                                          ORDER BY id
+                                                                          """, partition),
+                                                            ResultSet.TYPE_FORWARD_ONLY,
+                                                            ResultSet.CONCUR_READ_ONLY);
+                // Connector/J streams the rows one by one instead of reading the whole partition into memory
+                statement.setFetchSize(Integer.MIN_VALUE);
+                return statement;
+            }, resultSet -> {
+                try {
+                    writer.add(new ArchivedTransaction(resultSet.getLong("id"),
+                                                       resultSet.getObject("from_account_id", Long.class),
+                                                       resultSet.getObject("to_account_id", Long.class),
+                                                       resultSet.getLong("amount"),
+                                                       TransactionType.valueOf(resultSet.getString("type")),
+                                                       resultSet.getTimestamp("timestamp").getTime()));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+
+            var live = jdbcTemplate.queryForObject(String.format("SELECT COUNT(*) FROM transactions PARTITION (%s)",
+                                                                 partition),
+                                                   Long.class);
+            if (live == null || live != writer.getRowCount()) {
+                throw new IllegalStateException(String.format("Partition %s changed while archiving: %d rows archived, %d live",
+                                                              partition,
+                                                              writer.getRowCount(),
+                                                              live));
+            }
+            writer.commit();
+            rows = writer.getRowCount();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to archive partition " + partition, ex);
+        }
+        jdbcTemplate.execute(String.format("ALTER TABLE transactions DROP PARTITION %s", partition));
+        log.info("Archived and dropped partition {} of transactions with {} rows", partition, rows);
+    }
+
+    private List<Partition> getPartitions() {
+        var partitions = jdbcTemplate.query(PARTITIONS_QUERY, (resultSet, rowNum) -> {
+            var name = resultSet.getString("PARTITION_NAME");
+            var description = resultSet.getString("PARTITION_DESCRIPTION");
+            return new Partition(name, description == null || MAXVALUE.equals(description) ? null : Long.valueOf(description));
+        });
+        if (partitions.stream().anyMatch(partition -> partition.name() == null)) {
+            return List.of();
+        }
+        for (var partition : partitions) {
+            if (!PARTITION_NAME.matcher(partition.name()).matches()) {
+                throw new IllegalStateException("Unexpected partition name " + partition.name());
+            }
+        }
+        return partitions;
+    }
+
+    private static Instant startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    /**
+     * @param upperBound exclusive upper bound in epoch seconds, {@code null} for {@code MAXVALUE}
+     */
+    record Partition(String name, Long upperBound) { }
+}
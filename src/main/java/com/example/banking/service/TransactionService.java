@@ -3,9 +3,24 @@ package com.example.banking.service;
 import java.sql.Timestamp;
 import java.time.Clock;
 import java.time.Instant;
-
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import com.example.banking.dto.BatchMode;
+import com.example.banking.dto.BatchOperation;
+import com.example.banking.dto.BatchOperationResult;
+import com.example.banking.dto.BatchOperationStatus;
+import com.example.banking.dto.BatchTransactionRequest;
+import com.example.banking.dto.BatchTransactionResponse;
 import com.example.banking.dto.SingleTransactionResponse;
 import com.example.banking.dto.TransactionResponse;
+import com.example.banking.exception.AccountNotFoundException;
+import com.example.banking.exception.InsufficientFundsException;
 import com.example.banking.mapper.TransactionMapper;
 import com.example.banking.model.Account;
 import com.example.banking.model.Transaction;
@@ -24,40 +39,175 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final AccountService accountService;
     private final TransactionMapper transactionMapper;
+    private final IdempotencyService idempotencyService;
+    private final DailyRollupService dailyRollupService;
+    private final OutboxService outboxService;
+    private final BalanceStreamService balanceStreamService;
     private final Clock clock;
 
+    /**
+     * @param idempotencyKey when not {@code null}, the response is stored under this key in the same transaction
+     */
     @Transactional
-    public SingleTransactionResponse deposit(String accountNumber, Long amount) {
+    public SingleTransactionResponse deposit(String accountNumber, Long amount, String idempotencyKey) {
         validateAmount(amount);
         var updatedAccount = accountService.increaseBalance(accountNumber, amount);
 
         var transaction = buildTransaction(null, updatedAccount, amount, TransactionType.DEPOSIT);
         transactionRepository.save(transaction);
-
-        return transactionMapper.toSingleDepositTransactionResponse(transaction);
+        dailyRollupService.record(List.of(transaction));
+        outboxService.record(List.of(transaction));
+        balanceStreamService.publishAfterCommit(List.of(transaction));
+
+        var response = transactionMapper.toSingleDepositTransactionResponse(transaction);
+        idempotencyService.save(idempotencyKey,
+                                IdempotencyService.describe(TransactionType.DEPOSIT, null, accountNumber, amount),
+                                response);
+        return response;
     }
 
+    /**
+     * @param idempotencyKey when not {@code null}, the response is stored under this key in the same transaction
+     */
     @Transactional
-    public SingleTransactionResponse withdraw(String accountNumber, Long amount) {
+    public SingleTransactionResponse withdraw(String accountNumber, Long amount, String idempotencyKey) {
         validateAmount(amount);
         var updatedAccount = accountService.decreaseBalance(accountNumber, amount);
 
         var transaction = buildTransaction(updatedAccount, null, amount, TransactionType.WITHDRAWAL);
         transactionRepository.save(transaction);
-
-        return transactionMapper.toSingleWithdrawTransactionResponse(transaction);
+        dailyRollupService.record(List.of(transaction));
+        outboxService.record(List.of(transaction));
+        balanceStreamService.publishAfterCommit(List.of(transaction));
+
+        var response = transactionMapper.toSingleWithdrawTransactionResponse(transaction);
+        idempotencyService.save(idempotencyKey,
+                                IdempotencyService.describe(TransactionType.WITHDRAWAL, accountNumber, null, amount),
+                                response);
+        return response;
     }
 
+    /**
+     * @param idempotencyKey when not {@code null}, the response is stored under this key in the same transaction
+     */
     @Transactional
-    public TransactionResponse transfer(String fromAccountNumber, String toAccountNumber, Long amount) {
+    public TransactionResponse transfer(String fromAccountNumber, String toAccountNumber, Long amount,
+                                        String idempotencyKey) {
         validateAmount(amount);
         var transferAccounts = accountService.transferFund(fromAccountNumber, toAccountNumber, amount);
 
         var transaction =
                 buildTransaction(transferAccounts.getFirst(), transferAccounts.getLast(), amount, TransactionType.TRANSFER);
         transactionRepository.save(transaction);
+        dailyRollupService.record(List.of(transaction));
+        outboxService.record(List.of(transaction));
+        balanceStreamService.publishAfterCommit(List.of(transaction));
+
+        var response = transactionMapper.toTransactionResponse(transaction);
+        idempotencyService.save(idempotencyKey,
+                                IdempotencyService.describe(TransactionType.TRANSFER,
+                                                            fromAccountNumber,
+                                                            toAccountNumber,
+                                                            amount),
+                                response);
+        return response;
+    }
+
+    @Transactional
+    public BatchTransactionResponse batch(BatchTransactionRequest request) {
+        var mode = Optional.ofNullable(request.mode()).orElse(BatchMode.ALL_OR_NOTHING);
+        var operations = Optional.ofNullable(request.operations()).orElse(List.of());
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one operation");
+        }
+
+        var ledger = new BatchLedger(accountService.getAccountsByNumbers(collectAccountNumbers(operations)));
+        var transactions = new Transaction[operations.size()];
+        var errors = new String[operations.size()];
+        for (int i = 0; i < operations.size(); i++) {
+            try {
+                transactions[i] = applyOperation(ledger, operations.get(i));
+            } catch (AccountNotFoundException | InsufficientFundsException | IllegalArgumentException ex) {
+                errors[i] = ex.getMessage();
+            }
+        }
 
-        return transactionMapper.toTransactionResponse(transaction);
+        var committed = mode == BatchMode.BEST_EFFORT || Stream.of(errors).allMatch(Objects::isNull);
+        if (committed) {
+            accountService.saveAll(ledger.getTouchedAccounts());
+            var applied = Stream.of(transactions).filter(Objects::nonNull).toList();
+            transactionRepository.saveAll(applied);
+            dailyRollupService.record(applied);
+            outboxService.record(applied);
+            balanceStreamService.publishAfterCommit(applied);
+        }
+
+        var results = new ArrayList<BatchOperationResult>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            if (errors[i] != null) {
+                results.add(new BatchOperationResult(i, BatchOperationStatus.FAILED, errors[i], null));
+            } else if (committed) {
+                results.add(new BatchOperationResult(i,
+                                                     BatchOperationStatus.APPLIED,
+                                                     null,
+                                                     transactionMapper.toTransactionResponse(transactions[i])));
+            } else {
+                results.add(new BatchOperationResult(i, BatchOperationStatus.SKIPPED, null, null));
+            }
+        }
+
+        return new BatchTransactionResponse(mode, committed, results);
+    }
+
+    private Transaction applyOperation(BatchLedger ledger, BatchOperation operation) {
+        if (operation.type() == null) {
+            throw new IllegalArgumentException("Operation type is required");
+        }
+        if (operation.amount() == null) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        validateAmount(operation.amount());
+
+        return switch (operation.type()) {
+            case DEPOSIT -> buildTransaction(null,
+                                             ledger.credit(requireAccountNumber(operation.toAccountNumber()),
+                                                           operation.amount()),
+                                             operation.amount(),
+                                             TransactionType.DEPOSIT);
+            case WITHDRAWAL -> buildTransaction(ledger.debit(requireAccountNumber(operation.fromAccountNumber()),
+                                                             operation.amount()),
+                                                null,
+                                                operation.amount(),
+                                                TransactionType.WITHDRAWAL);
+            case TRANSFER -> {
+                var transferAccounts = ledger.transfer(requireAccountNumber(operation.fromAccountNumber()),
+                                                       requireAccountNumber(operation.toAccountNumber()),
+                                                       operation.amount());
+                yield buildTransaction(transferAccounts.getFirst(),
+                                       transferAccounts.getLast(),
+                                       operation.amount(),
+                                       TransactionType.TRANSFER);
+            }
+        };
+    }
+
+    /**
+     * Accounts a batch touches, for choosing the shard it runs on.
+     */
+    public static Set<String> collectAccountNumbers(List<BatchOperation> operations) {
+        var accountNumbers = new HashSet<String>();
+        for (var operation : operations) {
+            Optional.ofNullable(operation.fromAccountNumber()).ifPresent(accountNumbers::add);
+            Optional.ofNullable(operation.toAccountNumber()).ifPresent(accountNumbers::add);
+        }
+        return accountNumbers;
+    }
+
+    private String requireAccountNumber(String accountNumber) {
+        if (accountNumber == null || accountNumber.isBlank()) {
+            throw new IllegalArgumentException("Account number is required");
+        }
+        return accountNumber;
     }
 
     private Transaction buildTransaction(Account fromAccount, Account toAccount, Long amount, TransactionType type) {
@@ -0,0 +1,136 @@
+package com.example.banking.util;
+
+import java.util.Arrays;
+
+/**
+ * Map from {@code long} to {@code long} with open addressing and linear probing, for totals over millions of accounts
+ * without a boxed key, value and entry per account. Absent keys read as {@code 0}.
+ * <p>
+ * Not thread-safe. A map that is no longer written can be read by several threads once it has been safely published.
+ */
+public class LongLongMap {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private boolean hasEmptyKey;
+    private long emptyKeyValue;
+
+    public LongLongMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize entries the map holds without growing
+     */
+    public LongLongMap(int expectedSize) {
+        var capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    public long get(long key) {
+        if (key == EMPTY) {
+            return hasEmptyKey ? emptyKeyValue : 0;
+        }
+        var index = indexOf(keys, key);
+        return keys[index] == key ? values[index] : 0;
+    }
+
+    public boolean containsKey(long key) {
+        return key == EMPTY ? hasEmptyKey : keys[indexOf(keys, key)] == key;
+    }
+
+    public void put(long key, long value) {
+        if (key == EMPTY) {
+            size += hasEmptyKey ? 0 : 1;
+            hasEmptyKey = true;
+            emptyKeyValue = value;
+            return;
+        }
+        var index = indexOf(keys, key);
+        if (keys[index] == key) {
+            values[index] = value;
+            return;
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        if (size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the value of {@code key}, starting from {@code 0} for an absent key.
+     */
+    public void add(long key, long delta) {
+        put(key, get(key) + delta);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasEmptyKey) {
+            consumer.accept(EMPTY, emptyKeyValue);
+        }
+        for (var i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        hasEmptyKey = false;
+    }
+
+    private void grow() {
+        var oldKeys = keys;
+        var oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        for (var i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                var index = indexOf(keys, oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Slot holding {@code key}, or the empty slot where it belongs. The table is never more than half full, so there
+     * always is one.
+     */
+    private static int indexOf(long[] keys, long key) {
+        var mask = keys.length - 1;
+        var index = (int) mix(key) & mask;
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Spreads sequential ids over the table, with the 64-bit finalizer of MurmurHash3.
+     */
+    private static long mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return key ^ (key >>> 33);
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        void accept(long key, long value);
+    }
+}
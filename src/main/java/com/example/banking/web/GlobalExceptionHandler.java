@@ -1,8 +1,11 @@
 package com.example.banking.web;
 
 import com.example.banking.exception.AccountNotFoundException;
+import com.example.banking.exception.IdempotencyKeyReusedException;
+import com.example.banking.exception.IncompleteRollupsException;
 import com.example.banking.exception.InsufficientFundsException;
 import com.example.banking.exception.NegativeBalanceException;
+import com.example.banking.exception.ServiceOverloadedException;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -23,5 +26,22 @@ public class GlobalExceptionHandler {
     public String handleInsufficientFundsException(RuntimeException ex) {
         return ex.getMessage();
     }
-}
 
+    @ExceptionHandler(ServiceOverloadedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handleServiceOverloadedException(ServiceOverloadedException ex) {
+        return ex.getMessage();
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public String handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+        return ex.getMessage();
+    }
+
+    @ExceptionHandler(IncompleteRollupsException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String handleIncompleteRollupsException(IncompleteRollupsException ex) {
+        return ex.getMessage();
+    }
+}
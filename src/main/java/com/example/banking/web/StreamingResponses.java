@@ -0,0 +1,32 @@
+package com.example.banking.web;
+
+import java.time.Duration;
+
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Writes a {@link StreamingResponseBody} as a {@link WebAsyncTask}, so each streaming endpoint sets how long it may run
+ * instead of sharing one application-wide async request timeout. Headers have to be set on the response before the
+ * task is returned; handler methods returning it need {@code @ResponseStatus}, which tells Spring MVC that the
+ * response is complete when the task ends.
+ */
+public final class StreamingResponses {
+
+    private StreamingResponses() {
+    }
+
+    /**
+     * @param timeout longest the body may take to write; zero lets it run until it ends
+     */
+    public static WebAsyncTask<Void> write(HttpServletResponse response, Duration timeout, StreamingResponseBody body) {
+        return new WebAsyncTask<>(timeout.toMillis(), () -> {
+            var outputStream = response.getOutputStream();
+            body.writeTo(outputStream);
+            outputStream.flush();
+            return null;
+        });
+    }
+}
@@ -1,27 +1,63 @@
 package com.example.banking.web.controller;
 
+import java.time.Instant;
+import java.time.LocalDate;
+
+import com.example.banking.config.StatementProperties;
+import com.example.banking.datasource.ShardRouter;
 import com.example.banking.dto.AccountDto;
+import com.example.banking.dto.AccountPeriodSummary;
+import com.example.banking.dto.AccountSlice;
+import com.example.banking.dto.BalanceAsOf;
+import com.example.banking.dto.StatementFormat;
+import com.example.banking.dto.TransactionHistoryPage;
 import com.example.banking.service.AccountService;
+import com.example.banking.service.BalanceSnapshotService;
+import com.example.banking.service.BalanceStreamService;
+import com.example.banking.service.DailyRollupService;
+import com.example.banking.service.StatementExportService;
+import com.example.banking.service.TransactionHistoryService;
+import com.example.banking.web.StreamingResponses;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
+/**
+ * Requests about a single account run on the shard of that account, see {@link ShardRouter}.
+ */
 @RestController
 @RequestMapping("/accounts")
 @RequiredArgsConstructor
 public class AccountController {
 
     private final AccountService accountService;
+    private final TransactionHistoryService transactionHistoryService;
+    private final StatementExportService statementExportService;
+    private final DailyRollupService dailyRollupService;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final BalanceStreamService balanceStreamService;
+    private final ShardRouter shardRouter;
+    private final StatementProperties statementProperties;
 
     @PostMapping
     public ResponseEntity<AccountDto> createAccount(@RequestParam Long initialBalance) {
@@ -30,10 +66,80 @@ public class AccountController {
 
     @GetMapping("/{accountNumber}")
     public ResponseEntity<AccountDto> getAccount(@PathVariable String accountNumber) {
-        return ResponseEntity.ok(accountService.getAccount(accountNumber));
+        return ResponseEntity.ok(shardRouter.onShardOf(accountNumber, () -> accountService.getAccount(accountNumber)));
+    }
+
+    @GetMapping("/{accountNumber}/balance")
+    public BalanceAsOf getBalanceAsOf(@PathVariable String accountNumber, @RequestParam Instant asOf) {
+        return shardRouter.onShardOf(accountNumber, () -> balanceSnapshotService.getBalanceAsOf(accountNumber, asOf));
+    }
+
+    /**
+     * Server-Sent Events stream of the account's balance: the current balance first, then one {@code balance} event
+     * per committed movement touching the account.
+     */
+    @GetMapping(path = "/{accountNumber}/balance/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBalance(@PathVariable String accountNumber) {
+        return shardRouter.onShardOf(accountNumber, () -> balanceStreamService.subscribe(accountNumber));
+    }
+
+    @GetMapping("/{accountNumber}/transactions")
+    public TransactionHistoryPage getTransactions(@PathVariable String accountNumber,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "50") int size) {
+        return shardRouter.onShardOf(accountNumber,
+                                     () -> transactionHistoryService.getHistory(accountNumber, cursor, size));
+    }
+
+    @GetMapping("/{accountNumber}/statement")
+    @ResponseStatus(HttpStatus.OK)
+    public WebAsyncTask<Void> exportStatement(@PathVariable String accountNumber,
+                                              @RequestParam @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+                                              @RequestParam @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+                                              @RequestParam(defaultValue = "CSV") StatementFormat format,
+                                              @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, defaultValue = "") String acceptEncoding,
+                                              HttpServletResponse response) {
+        var gzip = acceptEncoding.contains("gzip");
+        var body = shardRouter.onShardOf(accountNumber,
+                                         () -> statementExportService.export(accountNumber, from, to, format, gzip));
+        var fileName = String.format("statement-%s-%s-%s.%s", accountNumber, from, to, format.getExtension());
+
+        response.setContentType(format.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                           ContentDisposition.attachment().filename(fileName).build().toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return StreamingResponses.write(response, statementProperties.timeout(), body);
+    }
+
+    /**
+     * Period totals and daily closing balances answered from the daily rollups, without reading the transactions.
+     */
+    @GetMapping("/{accountNumber}/rollups")
+    public AccountPeriodSummary getPeriodSummary(@PathVariable String accountNumber,
+                                                 @RequestParam @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+                                                 @RequestParam @DateTimeFormat(iso = ISO.DATE) LocalDate to) {
+        return shardRouter.onShardOf(accountNumber, () -> dailyRollupService.getPeriod(accountNumber, from, to));
+    }
+
+    @PostMapping("/{accountNumber}/hot")
+    public ResponseEntity<AccountDto> markHot(@PathVariable String accountNumber, @RequestParam int slots) {
+        return ResponseEntity.ok(shardRouter.onShardOf(accountNumber, () -> accountService.markHot(accountNumber, slots)));
     }
 
     @GetMapping
+    public AccountSlice getAccounts(@RequestParam(required = false) String cursor,
+                                    @RequestParam(defaultValue = "20") int size) {
+        return accountService.getAccounts(cursor, size);
+    }
+
+    /**
+     * Offset pagination with a total count, used when the client asks for a {@code page}. Deep pages and the count
+     * get slower as the table grows; prefer the cursor listing above.
+     */
+    @GetMapping(params = "page")
     public Page<AccountDto> getAllAccounts(Pageable pageable) {
         return accountService.getAllAccounts(pageable);
     }
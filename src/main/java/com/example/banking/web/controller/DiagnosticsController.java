@@ -0,0 +1,63 @@
+package com.example.banking.web.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.example.banking.dto.AccountIdCacheStats;
+import com.example.banking.dto.LaneStats;
+import com.example.banking.dto.ReconciliationStatus;
+import com.example.banking.dto.RollupBackfillResult;
+import com.example.banking.service.AccountIdCache;
+import com.example.banking.service.AccountLaneExecutor;
+import com.example.banking.service.DailyRollupService;
+import com.example.banking.service.ReconciliationService;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/diagnostics")
+@RequiredArgsConstructor
+public class DiagnosticsController {
+
+    private final AccountLaneExecutor accountLaneExecutor;
+    private final AccountIdCache accountIdCache;
+    private final DailyRollupService dailyRollupService;
+    private final ReconciliationService reconciliationService;
+
+    @GetMapping("/lanes")
+    public List<LaneStats> getLaneStats() {
+        return accountLaneExecutor.getStats();
+    }
+
+    @GetMapping("/account-id-cache")
+    public AccountIdCacheStats getAccountIdCacheStats() {
+        return accountIdCache.getStats();
+    }
+
+    @PostMapping("/rollups/backfill")
+    public RollupBackfillResult backfillRollups(@RequestParam @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+                                                @RequestParam @DateTimeFormat(iso = ISO.DATE) LocalDate to) {
+        return dailyRollupService.backfill(from, to);
+    }
+
+    @PostMapping("/reconciliation")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ReconciliationStatus startReconciliation() {
+        return reconciliationService.start();
+    }
+
+    @GetMapping("/reconciliation")
+    public ReconciliationStatus getReconciliationStatus() {
+        return reconciliationService.getStatus();
+    }
+}
@@ -1,15 +1,30 @@
 package com.example.banking.web.controller;
 
+import java.io.IOException;
+
+import com.example.banking.config.OperationStreamProperties;
+import com.example.banking.dto.BatchTransactionRequest;
+import com.example.banking.dto.BatchTransactionResponse;
 import com.example.banking.dto.SingleTransactionResponse;
 import com.example.banking.dto.TransactionResponse;
-import com.example.banking.service.TransactionService;
+import com.example.banking.service.OperationStreamService;
+import com.example.banking.service.TransactionDispatcher;
+import com.example.banking.web.StreamingResponses;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -17,22 +32,53 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class TransactionController {
 
-    private final TransactionService transactionService;
+    /**
+     * Retrying a request with the same key returns the original response instead of moving the money again.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final TransactionDispatcher transactionDispatcher;
+    private final OperationStreamProperties operationStreamProperties;
 
     @PostMapping("/deposit")
-    public ResponseEntity<SingleTransactionResponse> deposit(@RequestParam String accountNumber, @RequestParam Long amount) {
-        return ResponseEntity.ok(transactionService.deposit(accountNumber, amount));
+    public ResponseEntity<SingleTransactionResponse> deposit(@RequestParam String accountNumber,
+                                                             @RequestParam Long amount,
+                                                             @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false)
+                                                             String idempotencyKey) {
+        return ResponseEntity.ok(transactionDispatcher.deposit(accountNumber, amount, idempotencyKey));
     }
 
     @PostMapping("/withdraw")
-    public ResponseEntity<SingleTransactionResponse> withdraw(@RequestParam String accountNumber, @RequestParam Long amount) {
-        return ResponseEntity.ok(transactionService.withdraw(accountNumber, amount));
+    public ResponseEntity<SingleTransactionResponse> withdraw(@RequestParam String accountNumber,
+                                                              @RequestParam Long amount,
+                                                              @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false)
+                                                              String idempotencyKey) {
+        return ResponseEntity.ok(transactionDispatcher.withdraw(accountNumber, amount, idempotencyKey));
     }
 
     @PostMapping("/transfer")
     public ResponseEntity<TransactionResponse> transfer(@RequestParam String fromAccountNumber,
                                                         @RequestParam String toAccountNumber,
-                                                        @RequestParam Long amount) {
-        return ResponseEntity.ok(transactionService.transfer(fromAccountNumber, toAccountNumber, amount));
+                                                        @RequestParam Long amount,
+                                                        @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false)
+                                                        String idempotencyKey) {
+        return ResponseEntity.ok(transactionDispatcher.transfer(fromAccountNumber, toAccountNumber, amount, idempotencyKey));
+    }
+
+    /**
+     * Takes a long-lived NDJSON body of operations and streams back one NDJSON result per operation as it commits, see
+     * {@link OperationStreamService}.
+     */
+    @PostMapping(value = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public WebAsyncTask<Void> stream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        var body = transactionDispatcher.stream(request.getInputStream());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        return StreamingResponses.write(response, operationStreamProperties.timeout(), body);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchTransactionResponse> batch(@RequestBody BatchTransactionRequest request) {
+        return ResponseEntity.ok(transactionDispatcher.batch(request));
     }
 }
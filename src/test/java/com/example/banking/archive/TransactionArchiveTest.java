@@ -0,0 +1,135 @@
+package com.example.banking.archive;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.example.banking.model.TransactionType;
+import com.example.banking.util.LongLongMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionArchiveTest {
+
+    private static final Instant JANUARY = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Instant FEBRUARY = Instant.parse("2024-02-01T00:00:00Z");
+    private static final Instant MARCH = Instant.parse("2024-03-01T00:00:00Z");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void committedArchivesAreFoundAfterReopening() throws IOException {
+        var archive = new TransactionArchive(directory, 2, 4);
+        write(archive, "transactions-p202401", JANUARY, FEBRUARY,
+              transaction(1, null, 7L, 500, TransactionType.DEPOSIT, JANUARY.plusSeconds(10)),
+              transaction(2, 7L, 8L, 100, TransactionType.TRANSFER, JANUARY.plusSeconds(20)),
+              transaction(3, 9L, null, 50, TransactionType.WITHDRAWAL, JANUARY.plusSeconds(30)));
+        write(archive, "transactions-p202402", FEBRUARY, MARCH,
+              transaction(4, 8L, 7L, 200, TransactionType.TRANSFER, FEBRUARY.plusSeconds(10)));
+
+        var reopened = new TransactionArchive(directory, 2, 4);
+
+        assertEquals(Optional.of(MARCH), reopened.getHorizon());
+        assertEquals(List.of(1L, 2L, 4L), ids(reopened.findByAccount(7L, JANUARY, MARCH)));
+        assertEquals(List.of(transaction(2, 7L, 8L, 100, TransactionType.TRANSFER, JANUARY.plusSeconds(20))),
+                     reopened.findByAccount(8L, JANUARY, FEBRUARY));
+        assertTrue(reopened.findByAccount(10L, JANUARY, MARCH).isEmpty());
+    }
+
+    @Test
+    void findHistoryBeforeReturnsNewestFirstAcrossFiles() throws IOException {
+        var archive = new TransactionArchive(directory, 1000, 4);
+        write(archive, "transactions-p202401", JANUARY, FEBRUARY,
+              transaction(1, null, 7L, 500, TransactionType.DEPOSIT, JANUARY.plusSeconds(10)),
+              transaction(2, 7L, 8L, 100, TransactionType.TRANSFER, JANUARY.plusSeconds(20)));
+        write(archive, "transactions-p202402", FEBRUARY, MARCH,
+              transaction(3, 8L, 7L, 200, TransactionType.TRANSFER, FEBRUARY.plusSeconds(10)),
+              transaction(4, 7L, null, 50, TransactionType.WITHDRAWAL, FEBRUARY.plusSeconds(20)));
+
+        assertEquals(List.of(4L, 3L, 2L), ids(archive.findHistoryBefore(7L, MARCH, Long.MAX_VALUE, 3)));
+        assertEquals(List.of(2L, 1L), ids(archive.findHistoryBefore(7L, FEBRUARY.plusSeconds(10), 3L, 10)));
+    }
+
+    @Test
+    void sumNetAmountAddsCreditsAndSubtractsDebits() throws IOException {
+        var archive = new TransactionArchive(directory, 1000, 4);
+        write(archive, "transactions-p202401", JANUARY, FEBRUARY,
+              transaction(1, null, 7L, 500, TransactionType.DEPOSIT, JANUARY.plusSeconds(10)),
+              transaction(2, 7L, 8L, 100, TransactionType.TRANSFER, JANUARY.plusSeconds(20)),
+              transaction(3, 7L, null, 50, TransactionType.WITHDRAWAL, JANUARY.plusSeconds(30)));
+
+        assertEquals(350L, archive.sumNetAmount(7L, JANUARY, FEBRUARY));
+        assertEquals(-150L, archive.sumNetAmount(7L, JANUARY.plusSeconds(20), FEBRUARY));
+        assertEquals(100L, archive.sumNetAmount(8L, JANUARY, FEBRUARY));
+    }
+
+    @Test
+    void sumNetAmountsTotalsEveryAccountAcrossFiles() throws IOException {
+        var archive = new TransactionArchive(directory, 2, 4);
+        write(archive, "transactions-p202401", JANUARY, FEBRUARY,
+              transaction(1, null, 7L, 500, TransactionType.DEPOSIT, JANUARY.plusSeconds(10)),
+              transaction(2, 7L, 8L, 100, TransactionType.TRANSFER, JANUARY.plusSeconds(20)),
+              transaction(3, 9L, null, 50, TransactionType.WITHDRAWAL, JANUARY.plusSeconds(30)));
+        write(archive, "transactions-p202402", FEBRUARY, MARCH,
+              transaction(4, 8L, 7L, 200, TransactionType.TRANSFER, FEBRUARY.plusSeconds(10)));
+
+        var net = new LongLongMap();
+
+        assertEquals(Optional.of(MARCH), archive.sumNetAmounts(net));
+        assertEquals(600L, net.get(7L));
+        assertEquals(-100L, net.get(8L));
+        assertEquals(-50L, net.get(9L));
+        assertEquals(3, net.size());
+    }
+
+    @Test
+    void uncommittedArchiveLeavesNoFiles() throws IOException {
+        var archive = new TransactionArchive(directory, 1000, 4);
+        try (var writer = archive.create("transactions-p202401", JANUARY, FEBRUARY)) {
+            writer.add(transaction(1, null, 7L, 500, TransactionType.DEPOSIT, JANUARY.plusSeconds(10)));
+        }
+
+        assertEquals(Optional.empty(), archive.getHorizon());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void addRejectsTransactionOutsideBounds() throws IOException {
+        var archive = new TransactionArchive(directory, 1000, 4);
+        try (var writer = archive.create("transactions-p202401", JANUARY, FEBRUARY)) {
+            assertThrows(IllegalArgumentException.class,
+                         () -> writer.add(transaction(1, null, 7L, 500, TransactionType.DEPOSIT, FEBRUARY)));
+        }
+    }
+
+    private static void write(TransactionArchive archive, String name, Instant lower, Instant upper,
+                              ArchivedTransaction... transactions) throws IOException {
+        try (var writer = archive.create(name, lower, upper)) {
+            for (var transaction : transactions) {
+                writer.add(transaction);
+            }
+            writer.commit();
+        }
+    }
+
+    private static ArchivedTransaction transaction(long id, Long fromAccountId, Long toAccountId, long amount,
+                                                   TransactionType type, Instant timestamp) {
+        return new ArchivedTransaction(id, fromAccountId, toAccountId, amount, type, timestamp.toEpochMilli());
+    }
+
+    private static List<Long> ids(List<ArchivedTransaction> transactions) {
+        return transactions.stream().map(ArchivedTransaction::id).toList();
+    }
+}
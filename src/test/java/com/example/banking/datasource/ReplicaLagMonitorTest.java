@@ -0,0 +1,105 @@
+package com.example.banking.datasource;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaLagMonitorTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-10T12:00:00Z");
+
+    @Mock
+    private JdbcTemplate primary;
+    @Mock
+    private JdbcTemplate replica;
+    @Mock
+    private Clock clock;
+
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @BeforeEach
+    void setUp() {
+        replicaLagMonitor = new ReplicaLagMonitor(primary, replica, Duration.ofSeconds(5), clock);
+    }
+
+    @Test
+    void replicaIsNotUsableBeforeFirstCheck() {
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+        assertNull(replicaLagMonitor.getLag());
+    }
+
+    @Test
+    void checkWritesHeartbeatAndUsesReplicaWithinMaxLag() {
+        when(clock.instant()).thenReturn(NOW);
+        when(replica.queryForObject(anyString(), eq(Timestamp.class))).thenReturn(Timestamp.from(NOW.minusSeconds(2)));
+
+        replicaLagMonitor.check();
+
+        verify(primary).update(anyString(), eq(Timestamp.from(NOW)));
+        assertEquals(Duration.ofSeconds(2), replicaLagMonitor.getLag());
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+    }
+
+    @Test
+    void replicaBehindMaxLagIsNotUsable() {
+        when(clock.instant()).thenReturn(NOW);
+        when(replica.queryForObject(anyString(), eq(Timestamp.class))).thenReturn(Timestamp.from(NOW.minusSeconds(6)));
+
+        replicaLagMonitor.check();
+
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+    }
+
+    @Test
+    void replicaTurnsUnusableWhenChecksStop() {
+        var now = new AtomicReference<>(NOW);
+        when(clock.instant()).thenAnswer(invocation -> now.get());
+        when(replica.queryForObject(anyString(), eq(Timestamp.class))).thenReturn(Timestamp.from(NOW));
+
+        replicaLagMonitor.check();
+
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        now.set(NOW.plusSeconds(10));
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+    }
+
+    @Test
+    void unreachableReplicaOrMissingHeartbeatIsNotUsable() {
+        when(clock.instant()).thenReturn(NOW);
+        when(replica.queryForObject(anyString(), eq(Timestamp.class))).thenReturn(Timestamp.from(NOW));
+        replicaLagMonitor.check();
+        when(replica.queryForObject(anyString(), eq(Timestamp.class)))
+                .thenThrow(new CannotGetJdbcConnectionException("Connection refused"));
+
+        replicaLagMonitor.check();
+
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+
+        when(replica.queryForObject(anyString(), eq(Timestamp.class))).thenThrow(new EmptyResultDataAccessException(1));
+
+        replicaLagMonitor.check();
+
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.banking.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+    @Mock
+    private DataSource replica;
+    @Mock
+    private ReplicaLagMonitor replicaLagMonitor;
+    @Mock
+    private Connection primaryConnection;
+    @Mock
+    private Connection replicaConnection;
+
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(primary.getConnection()).thenReturn(primaryConnection);
+        lenient().when(replica.getConnection()).thenReturn(replicaConnection);
+        replicaRoutingDataSource = new ReplicaRoutingDataSource(primary, replica, replicaLagMonitor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(true);
+
+        assertSame(replicaConnection, replicaRoutingDataSource.getConnection());
+    }
+
+    @Test
+    void readOnlyTransactionFallsBackToPrimaryWhenReplicaLags() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(false);
+
+        assertSame(primaryConnection, replicaRoutingDataSource.getConnection());
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void readWriteWorkUsesPrimary() throws SQLException {
+        assertSame(primaryConnection, replicaRoutingDataSource.getConnection());
+        verify(replicaLagMonitor, never()).isReplicaUsable();
+    }
+}
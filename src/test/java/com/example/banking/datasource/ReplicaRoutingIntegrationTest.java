@@ -0,0 +1,115 @@
+package com.example.banking.datasource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import com.example.banking.dto.AccountDto;
+import com.example.banking.service.AccountService;
+import com.example.banking.util.TestContainerConfig;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.lifecycle.Startables;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against two independent MySQL instances standing in for a primary and its replica. Nothing replicates between
+ * them, so each test writes the replica's heartbeat itself, and rows that exist only on one side show which one
+ * served a read.
+ */
+@SpringBootTest(properties = {"banking.datasource.replica.enabled=true",
+                              "banking.datasource.replica.max-lag=PT5S",
+                              "banking.datasource.replica.heartbeat-interval=PT1H"})
+class ReplicaRoutingIntegrationTest extends TestContainerConfig {
+
+    private static final String REPLICA_ONLY_ACCOUNT_NUMBER = "replica-only";
+
+    public static MySQLContainer<?> replicaContainer = new MySQLContainer<>(DockerImageName.parse("mysql:8.0.28")
+                                                                                           .asCompatibleSubstituteFor(
+                                                                                                   MySQLContainer.NAME))
+            .withUsername("db_user")
+            .withPassword("db_pass")
+            .withDatabaseName("bank")
+            .withCopyToContainer(MountableFile.forClasspathResource("init-db.sql"),
+                                 "/docker-entrypoint-initdb.d/init-db.sql");
+
+    static {
+        Startables.deepStart(replicaContainer).join();
+    }
+
+    @DynamicPropertySource
+    static void overrideReplicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("banking.datasource.replica.url", replicaContainer::getJdbcUrl);
+        registry.add("banking.datasource.replica.username", replicaContainer::getUsername);
+        registry.add("banking.datasource.replica.password", replicaContainer::getPassword);
+    }
+
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(replicaContainer.getJdbcUrl(),
+                                                                                      replicaContainer.getUsername(),
+                                                                                      replicaContainer.getPassword()));
+
+    @BeforeEach
+    void setUp() {
+        replica.update("""
+                       INSERT IGNORE INTO accounts (account_number, balance)
+                       VALUES (?, 500)
+                       """, REPLICA_ONLY_ACCOUNT_NUMBER);
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplicaWithinMaxLag() {
+        setReplicaHeartbeat(Instant.now());
+
+        assertTrue(listAccountNumbers().contains(REPLICA_ONLY_ACCOUNT_NUMBER));
+    }
+
+    @Test
+    void readOnlyTransactionsFallBackToPrimaryWhenReplicaLags() {
+        setReplicaHeartbeat(Instant.now().minusSeconds(60));
+
+        assertFalse(listAccountNumbers().contains(REPLICA_ONLY_ACCOUNT_NUMBER));
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        setReplicaHeartbeat(Instant.now());
+
+        var account = accountService.createAccount(100L);
+
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM accounts WHERE account_number = ?",
+                                               Integer.class,
+                                               account.accountNumber()));
+        assertEquals(100L, accountService.getAccount(account.accountNumber()).balance());
+    }
+
+    private void setReplicaHeartbeat(Instant beat) {
+        replica.update("""
+                       INSERT INTO replication_heartbeat (id, beat)
+                       VALUES (1, ?)
+                       ON DUPLICATE KEY UPDATE beat = VALUES(beat)
+                       """, Timestamp.from(beat));
+        replicaLagMonitor.check();
+    }
+
+    private List<String> listAccountNumbers() {
+        return accountService.getAccounts(null, 200).accounts().stream().map(AccountDto::accountNumber).toList();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.banking.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardRouterTest {
+
+    private final ShardRouter shardRouter = new ShardRouter(4);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void placesAccountsByStableHash() {
+        var shards = IntStream.range(0, 1000).mapToObj(i -> shardRouter.shardOf("account-" + i)).toList();
+
+        assertTrue(shards.stream().allMatch(shard -> shard >= 0 && shard < 4));
+        assertEquals(4, shards.stream().distinct().count());
+        assertEquals(shards.get(42), new ShardRouter(4).shardOf("account-42"));
+        assertEquals(0, new ShardRouter(1).shardOf("account-42"));
+    }
+
+    @Test
+    void runsOnShardOfAccountAndRestoresPreviousShard() {
+        var shard = shardRouter.onShardOf("account-7", ShardContext::current);
+
+        assertEquals(shardRouter.shardOf("account-7"), shard);
+        assertEquals(0, ShardContext.current());
+    }
+
+    @Test
+    void rejectsBatchesSpanningShards() {
+        var accountNumbers = IntStream.range(0, 20).mapToObj(i -> "account-" + i).toList();
+
+        assertThrows(IllegalArgumentException.class, () -> shardRouter.onShardOf(accountNumbers, () -> null));
+    }
+
+    @Test
+    void visitsEveryShardInOrder() {
+        var visited = new ArrayList<Integer>();
+
+        shardRouter.forEachShard(shard -> visited.add(ShardContext.current()));
+
+        assertEquals(List.of(0, 1, 2, 3), visited);
+    }
+
+    @Test
+    void rejectsSwitchingShardInsideTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertThrows(IllegalStateException.class, () -> ShardContext.call(1, () -> null));
+        assertEquals(1, ShardContext.callDetached(1, ShardContext::current));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.banking.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class ShardRoutingDataSourceTest {
+
+    @Mock
+    private DataSource firstShard;
+    @Mock
+    private DataSource secondShard;
+    @Mock
+    private Connection firstConnection;
+    @Mock
+    private Connection secondConnection;
+
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(firstShard.getConnection()).thenReturn(firstConnection);
+        lenient().when(secondShard.getConnection()).thenReturn(secondConnection);
+        shardRoutingDataSource = new ShardRoutingDataSource(List.of(firstShard, secondShard));
+    }
+
+    @Test
+    void usesShardZeroByDefault() throws SQLException {
+        assertSame(firstConnection, shardRoutingDataSource.getConnection());
+    }
+
+    @Test
+    void usesShardOfCurrentThread() {
+        assertSame(secondConnection, ShardContext.call(1, this::getConnection));
+    }
+
+    @Test
+    void rejectsUnknownShard() {
+        assertThrows(IllegalStateException.class, () -> ShardContext.call(2, this::getConnection));
+    }
+
+    private Connection getConnection() {
+        try {
+            return shardRoutingDataSource.getConnection();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
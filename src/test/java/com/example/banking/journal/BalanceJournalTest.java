@@ -0,0 +1,132 @@
+package com.example.banking.journal;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.example.banking.model.TransactionType;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BalanceJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void appendedEntriesAreReadBackInOrder() {
+        try (var journal = new BalanceJournal(directory, SEGMENT_SIZE, Duration.ofMillis(1))) {
+            journal.append(TransactionType.DEPOSIT, null, "123456", 100, 1L);
+            journal.append(TransactionType.TRANSFER, "123456", "654321", 50, 2L);
+
+            var entries = journal.read(0, 10);
+
+            assertEquals(2, entries.size());
+            assertEquals(new JournalEntry(1, TransactionType.DEPOSIT, null, "123456", 100, 1L), entries.get(0));
+            assertEquals(new JournalEntry(2, TransactionType.TRANSFER, "123456", "654321", 50, 2L), entries.get(1));
+            assertTrue(journal.read(2, 10).isEmpty());
+        }
+    }
+
+    @Test
+    void appendRejectsEntryLargerThanSegment() {
+        try (var journal = new BalanceJournal(directory, SEGMENT_SIZE, Duration.ZERO)) {
+            var accountNumber = "1".repeat(SEGMENT_SIZE);
+
+            var exception = assertThrows(IllegalArgumentException.class,
+                                         () -> journal.append(TransactionType.DEPOSIT, null, accountNumber, 100, 1L));
+
+            assertTrue(exception.getMessage().startsWith("Journal entry of "));
+            assertEquals(0, journal.getLastSequence());
+            assertEquals(1, journal.append(TransactionType.DEPOSIT, null, "123456", 100, 1L).sequence());
+        }
+    }
+
+    @Test
+    void appendsRollOverToNewSegments() throws IOException {
+        try (var journal = new BalanceJournal(directory, SEGMENT_SIZE, Duration.ZERO)) {
+            for (int i = 0; i < 500; i++) {
+                journal.append(TransactionType.WITHDRAWAL, "123456", null, i, i);
+            }
+
+            assertEquals(500, journal.read(0, 1000).size());
+            assertEquals(251, journal.read(250, 1000).getFirst().sequence());
+            var segments = countSegments();
+            assertTrue(segments > 2);
+
+            journal.truncate(400);
+
+            assertTrue(countSegments() < segments);
+            assertEquals(401, journal.read(400, 1000).getFirst().sequence());
+        }
+    }
+
+    @Test
+    void concurrentAppendsAreAllDurableWithUniqueSequences() throws Exception {
+        try (var journal = new BalanceJournal(directory, 1 << 20, Duration.ofMillis(1));
+             var appenders = Executors.newFixedThreadPool(8)) {
+            var futures = new ArrayList<CompletableFuture<JournalEntry>>();
+            for (int i = 0; i < 400; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> journal.append(TransactionType.DEPOSIT, null, "123456", 1, 0),
+                                                          appenders));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+            assertEquals(400, futures.stream().map(CompletableFuture::join).map(JournalEntry::sequence).distinct().count());
+            assertEquals(400, journal.getLastSequence());
+        }
+    }
+
+    @Test
+    void reopenedJournalContinuesAfterLastIntactEntryAndDropsTornTail() throws IOException {
+        try (var journal = new BalanceJournal(directory, SEGMENT_SIZE, Duration.ZERO)) {
+            journal.append(TransactionType.DEPOSIT, null, "123456", 100, 1L);
+            journal.append(TransactionType.DEPOSIT, null, "123456", 200, 2L);
+        }
+        tearLastEntry();
+
+        try (var journal = new BalanceJournal(directory, SEGMENT_SIZE, Duration.ZERO)) {
+            assertEquals(1, journal.getLastSequence());
+
+            var entry = journal.append(TransactionType.DEPOSIT, null, "123456", 300, 3L);
+
+            assertEquals(2, entry.sequence());
+            assertEquals(300, journal.read(1, 10).getFirst().amount());
+        }
+    }
+
+    private long countSegments() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private void tearLastEntry() throws IOException {
+        try (var files = Files.list(directory);
+             var channel = FileChannel.open(files.findFirst().orElseThrow(), StandardOpenOption.READ,
+                                            StandardOpenOption.WRITE)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+            assertEquals(1, JournalCodec.read(buffer).sequence());
+            var second = buffer.position();
+            assertEquals(2, JournalCodec.read(buffer).sequence());
+            buffer.put(second + JournalCodec.HEADER_BYTES + 3, (byte) 0x7f);
+            assertNull(JournalCodec.read(buffer.position(second)));
+            buffer.force();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.banking.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.example.banking.metrics.StatementMetricsListener.Kind;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+class StatementMetricsListenerTest {
+
+    @Test
+    void classifiesStatementsByFirstKeyword() {
+        assertThat(Kind.of("select a.id from accounts a")).isEqualTo(Kind.SELECT);
+        assertThat(Kind.of("\n  (SELECT 1) UNION ALL (SELECT 2)")).isEqualTo(Kind.SELECT);
+        assertThat(Kind.of("UPDATE accounts SET balance = 1")).isEqualTo(Kind.UPDATE);
+        assertThat(Kind.of("insert into transactions values (?)")).isEqualTo(Kind.INSERT);
+        assertThat(Kind.of("commit")).isEqualTo(Kind.OTHER);
+    }
+
+    @Test
+    void recordsElapsedNanosByKindAndBatch() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var listener = new StatementMetricsListener(meterRegistry);
+        var execution = new ExecutionInfo();
+        execution.setBatch(true);
+        execution.setSuccess(true);
+        execution.setElapsedTime(TimeUnit.MILLISECONDS.toNanos(3));
+
+        listener.afterQuery(execution, List.of(new QueryInfo("insert into transactions values (?)")));
+
+        var timer = meterRegistry.get(StatementMetricsListener.METRIC_NAME)
+                                 .tag("kind", "insert")
+                                 .tag("batch", "true")
+                                 .tag("outcome", "success")
+                                 .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(3);
+    }
+}
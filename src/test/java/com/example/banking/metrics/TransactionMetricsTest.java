@@ -0,0 +1,53 @@
+package com.example.banking.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.banking.exception.AccountNotFoundException;
+import com.example.banking.exception.InsufficientFundsException;
+import com.example.banking.model.TransactionType;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TransactionMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TransactionMetrics transactionMetrics = new TransactionMetrics(meterRegistry);
+
+    @Test
+    void recordsSuccessfulOperation() {
+        var result = transactionMetrics.record(TransactionType.DEPOSIT, () -> "done");
+
+        assertThat(result).isEqualTo("done");
+        assertThat(count("deposit", "success")).isEqualTo(1);
+        assertThat(count("deposit", "error")).isZero();
+    }
+
+    @Test
+    void recordsFailureOutcomeAndRethrows() {
+        assertThatThrownBy(() -> transactionMetrics.record(TransactionType.WITHDRAWAL, () -> {
+            throw new InsufficientFundsException("Insufficient funds for withdrawal");
+        })).isInstanceOf(InsufficientFundsException.class);
+        assertThatThrownBy(() -> transactionMetrics.record(TransactionType.TRANSFER, () -> {
+            throw new AccountNotFoundException("Account not found: 123");
+        })).isInstanceOf(AccountNotFoundException.class);
+        assertThatThrownBy(() -> transactionMetrics.record(TransactionType.TRANSFER, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(count("withdrawal", "insufficient_funds")).isEqualTo(1);
+        assertThat(count("transfer", "account_not_found")).isEqualTo(1);
+        assertThat(count("transfer", "error")).isEqualTo(1);
+        assertThat(count("transfer", "success")).isZero();
+    }
+
+    private long count(String operation, String outcome) {
+        return meterRegistry.get(TransactionMetrics.METRIC_NAME)
+                            .tag("operation", operation)
+                            .tag("outcome", outcome)
+                            .timer()
+                            .count();
+    }
+}
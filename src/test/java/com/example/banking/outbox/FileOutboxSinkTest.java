@@ -0,0 +1,61 @@
+package com.example.banking.outbox;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import com.example.banking.model.OutboxEvent;
+import com.example.banking.model.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileOutboxSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void appendsEventsAsJsonLinesAcrossRestarts() throws IOException {
+        try (var sink = new FileOutboxSink(directory, objectMapper)) {
+            sink.publish(List.of(buildEvent(1L), buildEvent(2L)));
+        }
+        try (var sink = new FileOutboxSink(directory, objectMapper)) {
+            sink.publish(List.of(buildEvent(3L)));
+        }
+
+        var lines = Files.readAllLines(directory.resolve(FileOutboxSink.FILE_NAME));
+        assertEquals(3, lines.size());
+        var events = lines.stream().map(this::readEvent).toList();
+        assertEquals(List.of(101L, 102L, 103L), events.stream().map(OutboxEvent::getTransactionId).toList());
+        assertEquals(buildEvent(3L), events.getLast());
+    }
+
+    private OutboxEvent readEvent(String line) {
+        try {
+            return objectMapper.readValue(line, OutboxEvent.class);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private OutboxEvent buildEvent(Long id) {
+        return OutboxEvent.builder()
+                          .id(id)
+                          .transactionId(100 + id)
+                          .type(TransactionType.TRANSFER)
+                          .fromAccountNumber("123456")
+                          .toAccountNumber("654321")
+                          .amount(100L)
+                          .occurredAt(Timestamp.from(Instant.parse("2024-03-10T12:00:00Z")))
+                          .build();
+    }
+}
@@ -2,7 +2,6 @@ package com.example.banking.repository;
 
 import java.util.Optional;
 
-import com.example.banking.dto.TransferAccounts;
 import com.example.banking.util.TestContainerConfig;
 import com.github.database.rider.core.api.configuration.DBUnit;
 import com.github.database.rider.core.api.dataset.DataSet;
@@ -11,9 +10,9 @@ import com.github.database.rider.junit5.api.DBRider;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
@@ -30,54 +29,35 @@ class AccountRepositoryTest extends TestContainerConfig {
     private AccountRepository accountRepository;
 
     @Test
-    void shouldFindBothAccounts() {
-        Optional<TransferAccounts> result = accountRepository.findAccountsForTransfer(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2);
-
-        assertTrue(result.isPresent());
-        TransferAccounts transferAccounts = result.get();
-
-        assertEquals(100, transferAccounts.getFromAccountId());
-        assertEquals(ACCOUNT_NUMBER, transferAccounts.getFromAccountNumber());
-        assertEquals(1000, transferAccounts.getFromAccountBalance());
-        assertEquals(101, transferAccounts.getToAccountId());
-        assertEquals(ACCOUNT_NUMBER_2, transferAccounts.getToAccountNumber());
-        assertEquals(2000, transferAccounts.getToAccountBalance());
+    void shouldFindAccountIdByAccountNumber() {
+        assertEquals(Optional.of(101L), accountRepository.findIdByAccountNumber(ACCOUNT_NUMBER_2));
     }
 
     @Test
-    void shouldNotFindBothAccounts() {
-        Optional<TransferAccounts> result = accountRepository.findAccountsForTransfer(MISSED_ACCOUNT_NUMBER, MISSED_ACCOUNT_NUMBER);
-
-        assertTrue(result.isEmpty());
+    void shouldNotFindAccountIdOfMissedAccount() {
+        assertTrue(accountRepository.findIdByAccountNumber(MISSED_ACCOUNT_NUMBER).isEmpty());
     }
 
     @Test
-    void shouldNotFindFromAccount() {
-        Optional<TransferAccounts> result = accountRepository.findAccountsForTransfer(MISSED_ACCOUNT_NUMBER, ACCOUNT_NUMBER);
+    @Transactional
+    void shouldIncreaseBalanceById() {
+        assertEquals(1, accountRepository.increaseBalance(101L, 500L));
 
-        assertTrue(result.isPresent());
-        TransferAccounts transferAccounts = result.get();
-
-        assertNull(transferAccounts.getFromAccountId());
-        assertNull(transferAccounts.getFromAccountNumber());
-        assertNull(transferAccounts.getFromAccountBalance());
-        assertEquals(100, transferAccounts.getToAccountId());
-        assertEquals(ACCOUNT_NUMBER, transferAccounts.getToAccountNumber());
-        assertEquals(1000, transferAccounts.getToAccountBalance());
+        assertEquals(2500, accountRepository.findByAccountNumber(ACCOUNT_NUMBER_2).orElseThrow().getBalance());
     }
 
     @Test
-    void shouldNotFindToAccount() {
-        Optional<TransferAccounts> result = accountRepository.findAccountsForTransfer(ACCOUNT_NUMBER, MISSED_ACCOUNT_NUMBER);
+    @Transactional
+    void shouldNotIncreaseBalanceOfMissedAccount() {
+        assertEquals(0, accountRepository.increaseBalance(999L, 500L));
+    }
 
-        assertTrue(result.isPresent());
-        TransferAccounts transferAccounts = result.get();
+    @Test
+    @Transactional
+    void shouldDecreaseBalanceOnlyWhenFundsAreSufficient() {
+        assertEquals(0, accountRepository.decreaseBalance(100L, 1001L));
+        assertEquals(1, accountRepository.decreaseBalance(100L, 1000L));
 
-        assertEquals(100, transferAccounts.getFromAccountId());
-        assertEquals(ACCOUNT_NUMBER, transferAccounts.getFromAccountNumber());
-        assertEquals(1000, transferAccounts.getFromAccountBalance());
-        assertNull(transferAccounts.getToAccountId());
-        assertNull(transferAccounts.getToAccountNumber());
-        assertNull(transferAccounts.getToAccountBalance());
+        assertEquals(0, accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow().getBalance());
     }
 }
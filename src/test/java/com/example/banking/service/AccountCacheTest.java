@@ -0,0 +1,95 @@
+package com.example.banking.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.banking.config.AccountCacheProperties;
+import com.example.banking.datasource.ShardContext;
+import com.example.banking.dto.AccountDto;
+import com.example.banking.exception.AccountNotFoundException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class AccountCacheTest {
+
+    private static final String ACCOUNT_NUMBER = "123456";
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AccountCache accountCache;
+
+    @BeforeEach
+    void setUp() {
+        accountCache = new AccountCache(new AccountCacheProperties(100, Duration.ofMinutes(1)), transactionManager);
+    }
+
+    @Test
+    void getLoadsAccountOnlyOnce() {
+        var loads = new AtomicInteger();
+
+        accountCache.get(ACCOUNT_NUMBER, key -> new AccountDto(key, 100L + loads.getAndIncrement()));
+        var result = accountCache.get(ACCOUNT_NUMBER, key -> new AccountDto(key, 100L + loads.getAndIncrement()));
+
+        assertEquals(new AccountDto(ACCOUNT_NUMBER, 100L), result);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getRethrowsExceptionOfLoader() {
+        var exception = assertThrows(AccountNotFoundException.class,
+                                     () -> accountCache.get(ACCOUNT_NUMBER, key -> {
+                                         throw new AccountNotFoundException("Account " + key + " not found");
+                                     }));
+
+        assertEquals("Account " + ACCOUNT_NUMBER + " not found", exception.getMessage());
+    }
+
+    @Test
+    void getLoadsOnShardOfCaller() {
+        var result = ShardContext.call(1, () -> accountCache.get(ACCOUNT_NUMBER,
+                                                                 key -> new AccountDto(key, (long) ShardContext.current())));
+
+        assertEquals(1L, result.balance());
+    }
+
+    @Test
+    void evictionDuringLoadKeepsLoadedBalanceOutOfCache() throws Exception {
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var inFlight = CompletableFuture.supplyAsync(() -> accountCache.get(ACCOUNT_NUMBER, key -> {
+            loading.countDown();
+            await(release);
+            return new AccountDto(key, 100L);
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        accountCache.evictAfterCommit(ACCOUNT_NUMBER);
+        release.countDown();
+
+        assertEquals(100L, inFlight.get(5, TimeUnit.SECONDS).balance());
+        assertEquals(50L, accountCache.get(ACCOUNT_NUMBER, key -> new AccountDto(key, 50L)).balance());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
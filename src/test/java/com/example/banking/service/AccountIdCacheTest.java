@@ -0,0 +1,68 @@
+package com.example.banking.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import com.example.banking.config.AccountIdCacheProperties;
+import com.example.banking.repository.AccountRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AccountIdCacheTest {
+
+    private static final Long ACCOUNT_ID = 1L;
+    private static final String ACCOUNT_NUMBER = "123456";
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    private AccountIdCache accountIdCache;
+
+    @BeforeEach
+    void setUp() {
+        accountIdCache = new AccountIdCache(accountRepository, new AccountIdCacheProperties(100, Duration.ofHours(1)));
+    }
+
+    @Test
+    void findLoadsAccountIdOnlyOnce() {
+        when(accountRepository.findIdByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+
+        assertEquals(Optional.of(ACCOUNT_ID), accountIdCache.find(ACCOUNT_NUMBER));
+        assertEquals(Optional.of(ACCOUNT_ID), accountIdCache.find(ACCOUNT_NUMBER));
+
+        verify(accountRepository, times(1)).findIdByAccountNumber(ACCOUNT_NUMBER);
+        var stats = accountIdCache.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    void findDoesNotCacheUnknownAccountNumber() {
+        when(accountRepository.findIdByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.empty())
+                                                                     .thenReturn(Optional.of(ACCOUNT_ID));
+
+        assertTrue(accountIdCache.find(ACCOUNT_NUMBER).isEmpty());
+        assertEquals(Optional.of(ACCOUNT_ID), accountIdCache.find(ACCOUNT_NUMBER));
+    }
+
+    @Test
+    void putWarmsCacheOutsideTransaction() {
+        accountIdCache.put(ACCOUNT_NUMBER, ACCOUNT_ID);
+
+        assertEquals(Optional.of(ACCOUNT_ID), accountIdCache.find(ACCOUNT_NUMBER));
+        verify(accountRepository, never()).findIdByAccountNumber(ACCOUNT_NUMBER);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.banking.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.banking.config.ExecutionLaneProperties;
+import com.example.banking.exception.AccountNotFoundException;
+import com.example.banking.exception.ServiceOverloadedException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountLaneExecutorTest {
+
+    private AccountLaneExecutor accountLaneExecutor;
+
+    @AfterEach
+    void tearDown() {
+        if (accountLaneExecutor != null) {
+            accountLaneExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void executeRunsInlineWhenDisabled() {
+        accountLaneExecutor = new AccountLaneExecutor(new ExecutionLaneProperties(false, 4, 16, Duration.ofSeconds(1)));
+
+        var thread = accountLaneExecutor.execute("123456", () -> Thread.currentThread().getName());
+
+        assertEquals(Thread.currentThread().getName(), thread);
+    }
+
+    @Test
+    void executeRunsOperationsOfSameAccountSerially() throws Exception {
+        accountLaneExecutor = new AccountLaneExecutor(new ExecutionLaneProperties(true, 4, 1024, Duration.ofSeconds(1)));
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+
+        try (var callers = Executors.newFixedThreadPool(8)) {
+            var futures = new ArrayList<CompletableFuture<Void>>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(CompletableFuture.runAsync(() -> accountLaneExecutor.execute("123456", () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    running.decrementAndGet();
+                    return null;
+                }), callers));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, maxRunning.get());
+        assertEquals(200, accountLaneExecutor.getStats().stream().mapToLong(stats -> stats.completed()).sum());
+    }
+
+    @Test
+    void executeCompletesOpposingCrossLaneOperationsWithoutDeadlock() throws Exception {
+        accountLaneExecutor = new AccountLaneExecutor(new ExecutionLaneProperties(true, 4, 1024, Duration.ofSeconds(1)));
+        var completed = new AtomicInteger();
+
+        try (var callers = Executors.newFixedThreadPool(8)) {
+            var futures = new ArrayList<CompletableFuture<Void>>();
+            for (int i = 0; i < 500; i++) {
+                var from = "account-" + (i % 7);
+                var to = "account-" + ((i + 3) % 7);
+                futures.add(CompletableFuture.runAsync(() -> accountLaneExecutor.execute(from, to, completed::incrementAndGet),
+                                                       callers));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(500, completed.get());
+    }
+
+    @Test
+    void executeRethrowsOperationException() {
+        accountLaneExecutor = new AccountLaneExecutor(new ExecutionLaneProperties(true, 2, 16, Duration.ofSeconds(1)));
+
+        var exception = assertThrows(AccountNotFoundException.class, () -> accountLaneExecutor.execute("123456", () -> {
+            throw new AccountNotFoundException("Account 123456 not found");
+        }));
+
+        assertEquals("Account 123456 not found", exception.getMessage());
+    }
+
+    @Test
+    void executeRejectsWhenLaneIsFull() throws Exception {
+        accountLaneExecutor = new AccountLaneExecutor(new ExecutionLaneProperties(true, 1, 1, Duration.ofMillis(10)));
+        var blocked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        try (var callers = Executors.newFixedThreadPool(2)) {
+            callers.submit(() -> accountLaneExecutor.execute("123456", () -> {
+                blocked.countDown();
+                await(release);
+                return null;
+            }));
+            assertTrue(blocked.await(1, TimeUnit.SECONDS));
+            callers.submit(() -> accountLaneExecutor.execute("123456", () -> null));
+            Thread.sleep(50);
+
+            assertThrows(ServiceOverloadedException.class, () -> accountLaneExecutor.execute("123456", () -> null));
+            release.countDown();
+        }
+        assertEquals(1, accountLaneExecutor.getStats().getFirst().rejected());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,9 +4,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 
+import com.example.banking.datasource.ShardContext;
+import com.example.banking.datasource.ShardRouter;
 import com.example.banking.dto.AccountDto;
-import com.example.banking.dto.TransferAccounts;
+import com.example.banking.dto.HotAccount;
 import com.example.banking.exception.AccountNotFoundException;
 import com.example.banking.exception.InsufficientFundsException;
 import com.example.banking.exception.NegativeBalanceException;
@@ -20,15 +23,23 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,6 +58,18 @@ class AccountServiceTest {
     @Mock
     private AccountMapper accountMapper;
 
+    @Mock
+    private HotAccountService hotAccountService;
+
+    @Mock
+    private AccountIdCache accountIdCache;
+
+    @Mock
+    private AccountCache accountCache;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(1);
+
     @Captor
     private ArgumentCaptor<Account> accountCaptor;
 
@@ -62,9 +85,11 @@ class AccountServiceTest {
 
         var capturedAccount = accountCaptor.getValue();
         assertEquals(BALANCE, capturedAccount.getBalance());
+        assertEquals(BALANCE, capturedAccount.getOpeningBalance());
 
         assertEquals(ACCOUNT_NUMBER, result.accountNumber());
         assertEquals(BALANCE, result.balance());
+        verify(accountIdCache).put(ACCOUNT_NUMBER, ACCOUNT_ID);
     }
 
     @Test
@@ -76,7 +101,9 @@ class AccountServiceTest {
 
     @Test
     void getAccountWithExistingAccountNumberReturnsAccountByNumber() {
-        when(accountRepository.findByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT));
+        loadThroughCache();
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(accountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(ACCOUNT));
         when(accountMapper.toAccountDto(ACCOUNT)).thenReturn(ACCOUNT_DTO);
 
         AccountDto result = accountService.getAccount(ACCOUNT_NUMBER);
@@ -87,7 +114,8 @@ class AccountServiceTest {
 
     @Test
     void getAccountWithNonExistingAccountByNumberNumberThrowsException() {
-        when(accountRepository.findByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.empty());
+        loadThroughCache();
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.empty());
 
         var exception = assertThrows(AccountNotFoundException.class, () -> accountService.getAccount(ACCOUNT_NUMBER));
 
@@ -109,41 +137,152 @@ class AccountServiceTest {
         assertEquals(BALANCE, accountDto.balance());
     }
 
+    @Test
+    void getAccountsReturnsCursorWhenMoreAccountsFollow() {
+        var slice = new SliceImpl<>(List.of(ACCOUNT), PageRequest.ofSize(1), true);
+        when(accountRepository.findByIdGreaterThanOrderById(0L, PageRequest.ofSize(1))).thenReturn(slice);
+        when(accountMapper.toAccountDto(ACCOUNT)).thenReturn(ACCOUNT_DTO);
+        var result = accountService.getAccounts(null, 1);
+        when(accountRepository.findByIdGreaterThanOrderById(ACCOUNT_ID, PageRequest.ofSize(1)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        var nextResult = accountService.getAccounts(result.nextCursor(), 1);
+
+        assertEquals(List.of(ACCOUNT_DTO), result.accounts());
+        assertTrue(nextResult.accounts().isEmpty());
+        assertNull(nextResult.nextCursor());
+    }
+
+    @Test
+    void getAccountsMergesShardsInIdOrder() {
+        var shardedAccountService = new AccountService(accountRepository,
+                                                       accountMapper,
+                                                       hotAccountService,
+                                                       accountIdCache,
+                                                       accountCache,
+                                                       new ShardRouter(2));
+        var shards = List.of(new SliceImpl<>(List.of(buildAccount(1L), buildAccount(4L)), PageRequest.ofSize(2), false),
+                             new SliceImpl<>(List.of(buildAccount(2L), buildAccount(3L)), PageRequest.ofSize(2), true));
+        when(accountRepository.findByIdGreaterThanOrderById(0L, PageRequest.ofSize(2)))
+                .thenAnswer(invocation -> shards.get(ShardContext.current()));
+        when(accountMapper.toAccountDto(any())).thenAnswer(invocation -> {
+            Account account = invocation.getArgument(0);
+            return new AccountDto(account.getAccountNumber(), account.getBalance());
+        });
+
+        var result = shardedAccountService.getAccounts(null, 2);
+
+        assertEquals(List.of("account-1", "account-2"), result.accounts().stream().map(AccountDto::accountNumber).toList());
+        when(accountRepository.findByIdGreaterThanOrderById(2L, PageRequest.ofSize(2)))
+                .thenReturn(new SliceImpl<>(List.of()));
+        assertTrue(shardedAccountService.getAccounts(result.nextCursor(), 2).accounts().isEmpty());
+    }
+
+    @Test
+    void getAllAccountsIsRejectedWithSharding() {
+        var shardedAccountService = new AccountService(accountRepository,
+                                                       accountMapper,
+                                                       hotAccountService,
+                                                       accountIdCache,
+                                                       accountCache,
+                                                       new ShardRouter(2));
+
+        assertThrows(IllegalArgumentException.class, () -> shardedAccountService.getAllAccounts(PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void getAccountsRejectsInvalidCursor() {
+        var exception = assertThrows(IllegalArgumentException.class, () -> accountService.getAccounts("%%%", 10));
+
+        assertEquals("Invalid cursor", exception.getMessage());
+    }
+
     @Test
     void increaseBalanceWithValidAccountNumberIncreasesBalance() {
-        var account = buildAccount();
-        when(accountRepository.findByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.of(account));
-        when(accountRepository.save(account)).thenReturn(account);
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(accountRepository.increaseBalance(ACCOUNT_ID, 50L)).thenReturn(1);
 
         Account result = accountService.increaseBalance(ACCOUNT_NUMBER, 50L);
 
-        assertEquals(150L, result.getBalance());
+        assertEquals(ACCOUNT_ID, result.getId());
+        assertEquals(ACCOUNT_NUMBER, result.getAccountNumber());
+        verify(accountRepository, never()).findById(ACCOUNT_ID);
+    }
+
+    @Test
+    void increaseBalanceWithNonExistingAccountNumberThrowsException() {
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.empty());
+
+        var exception = assertThrows(AccountNotFoundException.class,
+                                     () -> accountService.increaseBalance(ACCOUNT_NUMBER, 50L));
+
+        assertEquals("Account " + ACCOUNT_NUMBER + " not found", exception.getMessage());
     }
 
     @Test
     void decreaseBalanceWithValidAccountNumberDecreasesBalance() {
-        var account = buildAccount();
-        when(accountRepository.findByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.of(account));
-        when(accountRepository.save(account)).thenReturn(account);
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(accountRepository.decreaseBalance(ACCOUNT_ID, 50L)).thenReturn(1);
 
         Account result = accountService.decreaseBalance(ACCOUNT_NUMBER, 50L);
 
-        assertEquals(50L, result.getBalance());
+        assertEquals(ACCOUNT_ID, result.getId());
+        assertEquals(ACCOUNT_NUMBER, result.getAccountNumber());
+        verify(accountRepository, never()).findById(ACCOUNT_ID);
+    }
+
+    @Test
+    void increaseBalanceOfHotAccountCreditsSlot() {
+        var hotAccount = new HotAccount(ACCOUNT_ID, ACCOUNT_NUMBER, 4);
+        when(hotAccountService.findHotAccount(ACCOUNT_NUMBER)).thenReturn(Optional.of(hotAccount));
+        when(hotAccountService.credit(hotAccount, 50L)).thenReturn(ACCOUNT);
+
+        Account result = accountService.increaseBalance(ACCOUNT_NUMBER, 50L);
+
+        assertEquals(ACCOUNT, result);
+        verify(accountRepository, never()).increaseBalance(ACCOUNT_ID, 50L);
+    }
+
+    @Test
+    void getAccountOfHotAccountReturnsSummedBalance() {
+        loadThroughCache();
+        var hotAccount = new HotAccount(ACCOUNT_ID, ACCOUNT_NUMBER, 4);
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(accountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(ACCOUNT));
+        when(hotAccountService.findHotAccount(ACCOUNT_NUMBER)).thenReturn(Optional.of(hotAccount));
+        when(hotAccountService.getTotalBalance(ACCOUNT)).thenReturn(500L);
+
+        AccountDto result = accountService.getAccount(ACCOUNT_NUMBER);
+
+        assertEquals(ACCOUNT_NUMBER, result.accountNumber());
+        assertEquals(500L, result.balance());
     }
 
     @Test
     void decreaseBalanceWhenFundAmountIsNotEnough() {
-        var account = buildAccount();
-        when(accountRepository.findByAccountNumber(ACCOUNT_NUMBER)).thenReturn(Optional.of(account));
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(accountRepository.decreaseBalance(ACCOUNT_ID, 150L)).thenReturn(0);
+
         var exception = assertThrows(InsufficientFundsException.class,
                                      () -> accountService.decreaseBalance(ACCOUNT_NUMBER, 150L));
 
         assertEquals("Insufficient funds for withdrawal", exception.getMessage());
     }
 
+    @Test
+    void decreaseBalanceWithNonExistingAccountNumberThrowsException() {
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.empty());
+
+        var exception = assertThrows(AccountNotFoundException.class,
+                                     () -> accountService.decreaseBalance(ACCOUNT_NUMBER, 50L));
+
+        assertEquals("Account " + ACCOUNT_NUMBER + " not found", exception.getMessage());
+    }
+
     @Test
     void transferFundWithoutExistingAccounts() {
-        when(accountRepository.findAccountsForTransfer(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2)).thenReturn(Optional.empty());
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.empty());
+        when(accountIdCache.find(ACCOUNT_NUMBER_2)).thenReturn(Optional.empty());
 
         var exception = assertThrows(AccountNotFoundException.class,
                                      () -> accountService.transferFund(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2, 50L));
@@ -153,60 +292,144 @@ class AccountServiceTest {
 
     @Test
     void transferFundWithNonExistingFromAccountThrowsException() {
-        var transferAccounts = new TransferAccounts.Builder()
-                .setFromAccountId(null)
-                .setFromAccountNumber(null)
-                .setFromAccountBalance(null)
-                .setToAccountId(2L)
-                .setToAccountNumber(ACCOUNT_NUMBER)
-                .setToAccountBalance(BALANCE)
-                .build();
-        when(accountRepository.findAccountsForTransfer(ACCOUNT_NUMBER_2, ACCOUNT_NUMBER)).thenReturn(Optional.of(transferAccounts));
+        when(accountIdCache.find(ACCOUNT_NUMBER_2)).thenReturn(Optional.empty());
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.of(2L));
 
         var exception = assertThrows(AccountNotFoundException.class,
                                      () -> accountService.transferFund(ACCOUNT_NUMBER_2, ACCOUNT_NUMBER, 50L));
 
         assertEquals("Account not found: " + ACCOUNT_NUMBER_2, exception.getMessage());
+        verify(accountRepository, never()).increaseBalance(any(), any());
     }
 
     @Test
     void transferFundWithNonExistingToAccountThrowsException() {
-        TransferAccounts transferAccounts = new TransferAccounts.Builder()
-                .setFromAccountId(1L)
-                .setFromAccountNumber(ACCOUNT_NUMBER)
-                .setFromAccountBalance(BALANCE)
-                .setToAccountId(null)
-                .setToAccountNumber(null)
-                .setToAccountBalance(null)
-                .build();
-        when(accountRepository.findAccountsForTransfer(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2)).thenReturn(Optional.of(transferAccounts));
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.of(1L));
+        when(accountIdCache.find(ACCOUNT_NUMBER_2)).thenReturn(Optional.empty());
 
         var exception = assertThrows(AccountNotFoundException.class,
                                      () -> accountService.transferFund(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2, 50L));
 
         assertEquals("Account not found: " + ACCOUNT_NUMBER_2, exception.getMessage());
+        verify(accountRepository, never()).decreaseBalance(any(), any());
     }
 
     @Test
     void transferFundWithValidAccountNumbersTransfersFunds() {
-        TransferAccounts transferAccounts = new TransferAccounts.Builder()
-                .setFromAccountId(1L)
-                .setFromAccountNumber(ACCOUNT_NUMBER)
-                .setFromAccountBalance(BALANCE)
-                .setToAccountId(2L)
-                .setToAccountNumber(ACCOUNT_NUMBER_2)
-                .setToAccountBalance(BALANCE)
-                .build();
-        var fromAccount = new Account(1L, ACCOUNT_NUMBER, 50L);
-        var toAccount = new Account(1L, ACCOUNT_NUMBER_2, 150L);
-        when(accountRepository.findAccountsForTransfer(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2)).thenReturn(Optional.of(transferAccounts));
-        when(accountRepository.saveAll(any(List.class))).thenReturn(List.of(fromAccount, toAccount));
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.of(1L));
+        when(accountIdCache.find(ACCOUNT_NUMBER_2)).thenReturn(Optional.of(2L));
+        when(accountRepository.decreaseBalance(1L, 50L)).thenReturn(1);
+        when(accountRepository.increaseBalance(2L, 50L)).thenReturn(1);
+
+        List<Account> result = accountService.transferFund(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2, 50L);
+
+        assertEquals(List.of(1L, 2L), result.stream().map(Account::getId).toList());
+        assertEquals(List.of(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2), result.stream().map(Account::getAccountNumber).toList());
+        var inOrder = inOrder(accountRepository);
+        inOrder.verify(accountRepository).decreaseBalance(1L, 50L);
+        inOrder.verify(accountRepository).increaseBalance(2L, 50L);
+    }
+
+    @Test
+    void transferFundUpdatesAccountsInIdOrder() {
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.of(2L));
+        when(accountIdCache.find(ACCOUNT_NUMBER_2)).thenReturn(Optional.of(1L));
+        when(accountRepository.increaseBalance(1L, 50L)).thenReturn(1);
+        when(accountRepository.decreaseBalance(2L, 50L)).thenReturn(1);
+
+        List<Account> result = accountService.transferFund(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2, 50L);
+
+        assertEquals(List.of(2L, 1L), result.stream().map(Account::getId).toList());
+        var inOrder = inOrder(accountRepository);
+        inOrder.verify(accountRepository).increaseBalance(1L, 50L);
+        inOrder.verify(accountRepository).decreaseBalance(2L, 50L);
+    }
+
+    @Test
+    void transferFundUpdatesHotAccountBeforeAccountRow() {
+        var hotAccount = new HotAccount(2L, ACCOUNT_NUMBER_2, 4);
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.of(1L));
+        when(accountIdCache.find(ACCOUNT_NUMBER_2)).thenReturn(Optional.of(2L));
+        when(hotAccountService.findHotAccount(ACCOUNT_NUMBER)).thenReturn(Optional.empty());
+        when(hotAccountService.findHotAccount(ACCOUNT_NUMBER_2)).thenReturn(Optional.of(hotAccount));
+        when(hotAccountService.credit(hotAccount, 50L)).thenReturn(Account.builder().id(2L).build());
+        when(accountRepository.decreaseBalance(1L, 50L)).thenReturn(1);
 
         List<Account> result = accountService.transferFund(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2, 50L);
 
+        assertEquals(List.of(1L, 2L), result.stream().map(Account::getId).toList());
+        var inOrder = inOrder(hotAccountService, accountRepository);
+        inOrder.verify(hotAccountService).credit(hotAccount, 50L);
+        inOrder.verify(accountRepository).decreaseBalance(1L, 50L);
+    }
+
+    @Test
+    void transferFundWithInsufficientFundsThrowsException() {
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.of(1L));
+        when(accountIdCache.find(ACCOUNT_NUMBER_2)).thenReturn(Optional.of(2L));
+        when(accountRepository.decreaseBalance(1L, 150L)).thenReturn(0);
+
+        var exception = assertThrows(InsufficientFundsException.class,
+                                     () -> accountService.transferFund(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2, 150L));
+
+        assertEquals("Insufficient funds for withdrawal", exception.getMessage());
+        verify(accountRepository, never()).increaseBalance(any(), any());
+    }
+
+    @Test
+    void getAccountsByNumbersReturnsHotAccountWithTotalBalance() {
+        var hotAccount = new HotAccount(ACCOUNT_ID, ACCOUNT_NUMBER, 4);
+        var account = new Account(ACCOUNT_ID, ACCOUNT_NUMBER, 10L, BALANCE);
+        when(hotAccountService.findHotAccount(ACCOUNT_NUMBER)).thenReturn(Optional.of(hotAccount));
+        when(hotAccountService.lockSlotBalance(hotAccount)).thenReturn(90L);
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(accountRepository.findAllByIdIn(List.of(ACCOUNT_ID))).thenReturn(List.of(account));
+
+        var result = accountService.getAccountsByNumbers(List.of(ACCOUNT_NUMBER));
+
+        assertEquals(100L, result.get(ACCOUNT_NUMBER).getBalance());
+        // the managed row keeps its own balance
+        assertEquals(10L, account.getBalance());
+    }
+
+    @Test
+    void saveAllSetsTotalBalanceOfHotAccount() {
+        var hotAccount = new HotAccount(ACCOUNT_ID, ACCOUNT_NUMBER, 4);
+        var account = new Account(ACCOUNT_ID, ACCOUNT_NUMBER, 70L, BALANCE);
+        var otherAccount = new Account(2L, ACCOUNT_NUMBER_2, 130L, BALANCE);
+        when(hotAccountService.findHotAccount(ACCOUNT_NUMBER)).thenReturn(Optional.of(hotAccount));
+        when(hotAccountService.setTotalBalance(hotAccount, 70L)).thenReturn(account);
+        when(accountRepository.saveAll(List.of(otherAccount))).thenReturn(List.of(otherAccount));
+
+        var result = accountService.saveAll(List.of(account, otherAccount));
+
         assertEquals(2, result.size());
-        assertEquals(50L, result.get(0).getBalance());
-        assertEquals(150L, result.get(1).getBalance());
+        verify(hotAccountService).setTotalBalance(hotAccount, 70L);
+    }
+
+    @Test
+    void getAccountServesCachedAccount() {
+        when(accountCache.get(eq(ACCOUNT_NUMBER), any())).thenReturn(ACCOUNT_DTO);
+
+        AccountDto result = accountService.getAccount(ACCOUNT_NUMBER);
+
+        assertEquals(ACCOUNT_DTO, result);
+        verify(accountRepository, never()).findById(any());
+    }
+
+    @Test
+    void increaseBalanceEvictsCachedAccount() {
+        when(accountIdCache.find(ACCOUNT_NUMBER)).thenReturn(Optional.of(ACCOUNT_ID));
+        when(accountRepository.increaseBalance(ACCOUNT_ID, 50L)).thenReturn(1);
+
+        accountService.increaseBalance(ACCOUNT_NUMBER, 50L);
+
+        verify(accountCache).evictAfterCommit(ACCOUNT_NUMBER);
+    }
+
+    private void loadThroughCache() {
+        when(accountCache.get(eq(ACCOUNT_NUMBER), any()))
+                .thenAnswer(invocation -> invocation.<Function<String, AccountDto>>getArgument(1).apply(ACCOUNT_NUMBER));
     }
 
     private static Account buildAccount() {
@@ -216,4 +439,12 @@ class AccountServiceTest {
                       .balance(BALANCE)
                       .build();
     }
+
+    private static Account buildAccount(long id) {
+        return Account.builder()
+                      .id(id)
+                      .accountNumber("account-" + id)
+                      .balance(BALANCE)
+                      .build();
+    }
 }
\ No newline at end of file
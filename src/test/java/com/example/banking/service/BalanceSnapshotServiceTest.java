@@ -0,0 +1,203 @@
+package com.example.banking.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import com.example.banking.archive.TransactionArchive;
+import com.example.banking.config.BalanceSnapshotProperties;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.dto.AccountBalanceAt;
+import com.example.banking.model.Account;
+import com.example.banking.model.AccountBalanceSnapshot;
+import com.example.banking.repository.AccountBalanceSnapshotRepository;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.TransactionRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceSnapshotServiceTest {
+
+    private static final String ACCOUNT_NUMBER = "123456";
+    private static final Long ACCOUNT_ID = 1L;
+    private static final Instant NOW = Instant.parse("2024-03-10T12:00:00.250Z");
+    private static final Instant AS_OF = Instant.parse("2024-03-10T10:30:00Z");
+    private static final Timestamp SNAPSHOT_BEFORE = Timestamp.from(Instant.parse("2024-03-10T10:00:00Z"));
+    private static final Timestamp SNAPSHOT_AFTER = Timestamp.from(Instant.parse("2024-03-10T11:00:00Z"));
+
+    @Mock
+    private AccountBalanceSnapshotRepository accountBalanceSnapshotRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private AccountService accountService;
+    @Mock
+    private HotAccountService hotAccountService;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private TransactionArchive transactionArchive;
+    @Captor
+    private ArgumentCaptor<List<Object[]>> rowsCaptor;
+
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        balanceSnapshotService = new BalanceSnapshotService(accountBalanceSnapshotRepository,
+                                                            transactionRepository,
+                                                            accountRepository,
+                                                            accountService,
+                                                            hotAccountService,
+                                                            jdbcTemplate,
+                                                            new BalanceSnapshotProperties(Duration.ofHours(1),
+                                                                                          Duration.ofMinutes(5),
+                                                                                          1000),
+                                                            Clock.fixed(NOW, ZoneOffset.UTC),
+                                                            transactionManager,
+                                                            transactionArchive,
+                                                            new ShardRouter(1));
+    }
+
+    @Test
+    void getBalanceAsOfReplaysForwardFromEarlierSnapshot() {
+        when(accountService.getAccountId(ACCOUNT_NUMBER)).thenReturn(ACCOUNT_ID);
+        when(accountBalanceSnapshotRepository.findFirstByAccountIdAndTakenAtLessThanEqualOrderByTakenAtDesc(ACCOUNT_ID,
+                                                                                                            Timestamp.from(AS_OF)))
+                .thenReturn(Optional.of(new AccountBalanceSnapshot(ACCOUNT_ID, SNAPSHOT_BEFORE, 500L)));
+        when(transactionRepository.sumNetAmountBetween(ACCOUNT_ID, SNAPSHOT_BEFORE, Timestamp.from(AS_OF))).thenReturn(-30L);
+
+        var balance = balanceSnapshotService.getBalanceAsOf(ACCOUNT_NUMBER, AS_OF);
+
+        assertEquals(470L, balance.balance());
+        assertEquals(AS_OF, balance.asOf());
+    }
+
+    @Test
+    void getBalanceAsOfUndoesBackwardFromLaterSnapshot() {
+        when(accountService.getAccountId(ACCOUNT_NUMBER)).thenReturn(ACCOUNT_ID);
+        when(accountBalanceSnapshotRepository.findFirstByAccountIdAndTakenAtLessThanEqualOrderByTakenAtDesc(any(), any()))
+                .thenReturn(Optional.empty());
+        when(accountBalanceSnapshotRepository.findFirstByAccountIdAndTakenAtGreaterThanOrderByTakenAt(ACCOUNT_ID,
+                                                                                                      Timestamp.from(AS_OF)))
+                .thenReturn(Optional.of(new AccountBalanceSnapshot(ACCOUNT_ID, SNAPSHOT_AFTER, 500L)));
+        when(transactionRepository.sumNetAmountBetween(ACCOUNT_ID, Timestamp.from(AS_OF), SNAPSHOT_AFTER)).thenReturn(200L);
+
+        var balance = balanceSnapshotService.getBalanceAsOf(ACCOUNT_NUMBER, AS_OF);
+
+        assertEquals(300L, balance.balance());
+    }
+
+    @Test
+    void getBalanceAsOfUndoesBackwardFromCurrentBalanceWithoutSnapshots() {
+        var account = Account.builder().id(ACCOUNT_ID).accountNumber(ACCOUNT_NUMBER).balance(1000L).build();
+        when(accountService.getAccountId(ACCOUNT_NUMBER)).thenReturn(ACCOUNT_ID);
+        when(accountBalanceSnapshotRepository.findFirstByAccountIdAndTakenAtLessThanEqualOrderByTakenAtDesc(any(), any()))
+                .thenReturn(Optional.empty());
+        when(accountBalanceSnapshotRepository.findFirstByAccountIdAndTakenAtGreaterThanOrderByTakenAt(any(), any()))
+                .thenReturn(Optional.empty());
+        when(accountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(account));
+        when(hotAccountService.getTotalBalance(account)).thenReturn(1200L);
+        when(transactionRepository.sumNetAmountFrom(ACCOUNT_ID, Timestamp.from(AS_OF))).thenReturn(150L);
+
+        var balance = balanceSnapshotService.getBalanceAsOf(ACCOUNT_NUMBER, AS_OF);
+
+        assertEquals(1050L, balance.balance());
+    }
+
+    @Test
+    void getBalanceAsOfSplitsReplayAtArchiveHorizon() {
+        var horizon = Instant.parse("2024-03-01T00:00:00Z");
+        var asOf = Instant.parse("2024-02-15T00:00:00Z");
+        var account = Account.builder().id(ACCOUNT_ID).accountNumber(ACCOUNT_NUMBER).balance(1000L).build();
+        when(accountService.getAccountId(ACCOUNT_NUMBER)).thenReturn(ACCOUNT_ID);
+        when(accountBalanceSnapshotRepository.findFirstByAccountIdAndTakenAtLessThanEqualOrderByTakenAtDesc(any(), any()))
+                .thenReturn(Optional.empty());
+        when(accountBalanceSnapshotRepository.findFirstByAccountIdAndTakenAtGreaterThanOrderByTakenAt(any(), any()))
+                .thenReturn(Optional.empty());
+        when(accountRepository.findById(ACCOUNT_ID)).thenReturn(Optional.of(account));
+        when(hotAccountService.getTotalBalance(account)).thenReturn(1000L);
+        when(transactionArchive.getHorizon()).thenReturn(Optional.of(horizon));
+        when(transactionArchive.sumNetAmount(ACCOUNT_ID, asOf, horizon)).thenReturn(300L);
+        when(transactionRepository.sumNetAmountFrom(ACCOUNT_ID, Timestamp.from(horizon))).thenReturn(-100L);
+
+        var balance = balanceSnapshotService.getBalanceAsOf(ACCOUNT_NUMBER, asOf);
+
+        assertEquals(800L, balance.balance());
+    }
+
+    @Test
+    void getBalanceAsOfRejectsFutureInstant() {
+        var exception = assertThrows(IllegalArgumentException.class,
+                                     () -> balanceSnapshotService.getBalanceAsOf(ACCOUNT_NUMBER, NOW.plusSeconds(1)));
+
+        assertEquals("Balance can only be queried for past instants", exception.getMessage());
+    }
+
+    @Test
+    void takeSnapshotsInsertsChangedAccountsBehindSettleTime() {
+        var takenAt = Timestamp.from(Instant.parse("2024-03-10T11:55:00Z"));
+        when(accountBalanceSnapshotRepository.findLatestTakenAt()).thenReturn(Optional.of(SNAPSHOT_AFTER));
+        when(accountRepository.findMaxId()).thenReturn(1500L);
+        when(accountBalanceSnapshotRepository.findChangedBalancesAt(0L, 1000L, SNAPSHOT_AFTER, takenAt))
+                .thenReturn(List.of(balanceAt(7L, 250L)));
+        when(accountBalanceSnapshotRepository.findChangedBalancesAt(1000L, 2000L, SNAPSHOT_AFTER, takenAt))
+                .thenReturn(List.of());
+
+        balanceSnapshotService.takeSnapshots();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), rowsCaptor.capture());
+        assertEquals(1, rowsCaptor.getValue().size());
+        assertArrayEquals(new Object[] {7L, takenAt, 250L}, rowsCaptor.getValue().getFirst());
+    }
+
+    @Test
+    void takeSnapshotsSkipsRunWhenLatestSnapshotIsNotOlder() {
+        when(accountBalanceSnapshotRepository.findLatestTakenAt())
+                .thenReturn(Optional.of(Timestamp.from(Instant.parse("2024-03-10T11:55:00Z"))));
+
+        balanceSnapshotService.takeSnapshots();
+
+        verify(accountRepository, never()).findMaxId();
+    }
+
+    private AccountBalanceAt balanceAt(Long accountId, Long balance) {
+        return new AccountBalanceAt() {
+            @Override
+            public Long getAccountId() {
+                return accountId;
+            }
+
+            @Override
+            public Long getBalance() {
+                return balance;
+            }
+        };
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.banking.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.example.banking.config.BalanceStreamProperties;
+import com.example.banking.dto.AccountDto;
+import com.example.banking.dto.BalanceEvent;
+import com.example.banking.dto.TransactionResponse;
+import com.example.banking.exception.ServiceOverloadedException;
+import com.example.banking.mapper.TransactionMapper;
+import com.example.banking.model.Account;
+import com.example.banking.model.Transaction;
+import com.example.banking.model.TransactionType;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceStreamServiceTest {
+
+    private static final String FROM_ACCOUNT_NUMBER = "123456";
+    private static final String TO_ACCOUNT_NUMBER = "654321";
+    private static final Timestamp TIMESTAMP = Timestamp.from(Instant.parse("2024-03-10T12:00:00Z"));
+    private static final TransactionResponse RESPONSE =
+            new TransactionResponse(FROM_ACCOUNT_NUMBER, TO_ACCOUNT_NUMBER, 100L, TransactionType.TRANSFER, TIMESTAMP);
+
+    @Mock
+    private AccountService accountService;
+    @Mock
+    private TransactionMapper transactionMapper;
+
+    private BalanceStreamService balanceStreamService;
+
+    @BeforeEach
+    void setUp() {
+        balanceStreamService = buildService(2, 10);
+        lenient().when(accountService.getAccount(TO_ACCOUNT_NUMBER)).thenReturn(new AccountDto(TO_ACCOUNT_NUMBER, 500L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        balanceStreamService.stop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void sendsCurrentBalanceFirst() throws InterruptedException {
+        var emitter = new RecordingEmitter();
+
+        balanceStreamService.subscribe(TO_ACCOUNT_NUMBER, emitter);
+
+        assertEquals(new BalanceEvent(TO_ACCOUNT_NUMBER, 500L, null), emitter.next());
+        assertEquals(1, balanceStreamService.getSubscriberCount());
+    }
+
+    @Test
+    void publishesBalanceOnlyAfterCommit() throws InterruptedException {
+        var emitter = new RecordingEmitter();
+        balanceStreamService.subscribe(TO_ACCOUNT_NUMBER, emitter);
+        emitter.next();
+        when(accountService.readBalance(TO_ACCOUNT_NUMBER)).thenReturn(600L);
+        when(transactionMapper.toTransactionResponse(any(Transaction.class))).thenReturn(RESPONSE);
+        TransactionSynchronizationManager.initSynchronization();
+
+        balanceStreamService.publishAfterCommit(List.of(buildTransfer()));
+
+        assertNull(emitter.events.poll(100, TimeUnit.MILLISECONDS));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(new BalanceEvent(TO_ACCOUNT_NUMBER, 600L, RESPONSE), emitter.next());
+        verify(accountService, never()).readBalance(FROM_ACCOUNT_NUMBER);
+    }
+
+    @Test
+    void skipsMovementsWithoutSubscribers() {
+        balanceStreamService.publishAfterCommit(List.of(buildTransfer()));
+
+        verify(accountService, never()).readBalance(anyString());
+        verify(transactionMapper, never()).toTransactionResponse(any(Transaction.class));
+    }
+
+    @Test
+    void disconnectsSubscriberThatFallsBehind() throws InterruptedException {
+        var emitter = new RecordingEmitter();
+        emitter.blocked = new CountDownLatch(1);
+        balanceStreamService.subscribe(TO_ACCOUNT_NUMBER, emitter);
+        emitter.next();
+        when(accountService.readBalance(TO_ACCOUNT_NUMBER)).thenReturn(600L);
+        when(transactionMapper.toTransactionResponse(any(Transaction.class))).thenReturn(RESPONSE);
+
+        // the buffer holds two events while the first send is stuck
+        for (var i = 0; i < 3; i++) {
+            balanceStreamService.publishAfterCommit(List.of(buildTransfer()));
+        }
+
+        assertTrue(emitter.completed);
+        assertEquals(0, balanceStreamService.getSubscriberCount());
+        emitter.blocked.countDown();
+    }
+
+    @Test
+    void rejectsSubscribersOverLimit() {
+        var limitedService = buildService(2, 1);
+        try {
+            limitedService.subscribe(TO_ACCOUNT_NUMBER, new RecordingEmitter());
+
+            assertThrows(ServiceOverloadedException.class,
+                         () -> limitedService.subscribe(TO_ACCOUNT_NUMBER, new RecordingEmitter()));
+            assertEquals(1, limitedService.getSubscriberCount());
+        } finally {
+            limitedService.stop();
+        }
+    }
+
+    private BalanceStreamService buildService(int bufferSize, int maxSubscribers) {
+        return new BalanceStreamService(accountService,
+                                        transactionMapper,
+                                        new BalanceStreamProperties(bufferSize,
+                                                                    maxSubscribers,
+                                                                    Duration.ofSeconds(15),
+                                                                    Duration.ofMinutes(30)));
+    }
+
+    private Transaction buildTransfer() {
+        return Transaction.builder()
+                          .fromAccount(Account.builder().id(1L).accountNumber(FROM_ACCOUNT_NUMBER).build())
+                          .toAccount(Account.builder().id(2L).accountNumber(TO_ACCOUNT_NUMBER).build())
+                          .amount(100L)
+                          .type(TransactionType.TRANSFER)
+                          .timestamp(TIMESTAMP)
+                          .build();
+    }
+
+    /**
+     * Records the balance events sent to it; a send blocks while {@code blocked} is not released, like a client that
+     * stopped reading.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<BalanceEvent> events = new LinkedBlockingQueue<>();
+        private volatile CountDownLatch blocked = new CountDownLatch(0);
+        private volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            for (var data : builder.build()) {
+                if (data.getData() instanceof BalanceEvent event) {
+                    events.add(event);
+                }
+            }
+            try {
+                blocked.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        private BalanceEvent next() throws InterruptedException {
+            return events.poll(1, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.banking.service;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.example.banking.util.TestContainerConfig;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Deposits and transfers on the same accounts, released at once from many threads. A transfer that wrote back a
+ * balance it had read earlier would lose the deposits committed in between.
+ */
+@SpringBootTest
+class ConcurrentTransferIntegrationTest extends TestContainerConfig {
+
+    private static final int ROUNDS = 200;
+    private static final long INITIAL_BALANCE = 10_000L;
+
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private TransactionService transactionService;
+
+    @Test
+    void concurrentDepositsAndTransfersKeepEveryMovement() throws Exception {
+        var from = accountService.createAccount(INITIAL_BALANCE).accountNumber();
+        var to = accountService.createAccount(INITIAL_BALANCE).accountNumber();
+
+        var start = new CountDownLatch(1);
+        var tasks = new ArrayList<Callable<Object>>();
+        for (int i = 0; i < ROUNDS; i++) {
+            tasks.add(awaiting(start, () -> transactionService.deposit(from, 3L, null)));
+            tasks.add(awaiting(start, () -> transactionService.deposit(to, 5L, null)));
+            tasks.add(awaiting(start, () -> transactionService.transfer(from, to, 7L, null)));
+            tasks.add(awaiting(start, () -> transactionService.transfer(to, from, 2L, null)));
+        }
+        try (var executor = Executors.newFixedThreadPool(16)) {
+            var futures = tasks.stream().map(executor::submit).toList();
+            start.countDown();
+            for (Future<Object> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(INITIAL_BALANCE + ROUNDS * (3L - 7L + 2L), accountService.readBalance(from));
+        assertEquals(INITIAL_BALANCE + ROUNDS * (5L + 7L - 2L), accountService.readBalance(to));
+    }
+
+    private static Callable<Object> awaiting(CountDownLatch start, Callable<Object> task) {
+        return () -> {
+            start.await();
+            return task.call();
+        };
+    }
+}
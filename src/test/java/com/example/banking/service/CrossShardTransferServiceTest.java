@@ -0,0 +1,193 @@
+package com.example.banking.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.banking.config.ShardingProperties;
+import com.example.banking.datasource.ShardContext;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.exception.AccountNotFoundException;
+import com.example.banking.model.Account;
+import com.example.banking.model.CrossShardTransfer;
+import com.example.banking.model.CrossShardTransferStatus;
+import com.example.banking.model.Transaction;
+import com.example.banking.repository.CrossShardTransferRepository;
+import com.example.banking.repository.TransactionRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * With two shards, account {@code 123456} lives on shard 1 and {@code 111111} on shard 0.
+ */
+@ExtendWith(MockitoExtension.class)
+class CrossShardTransferServiceTest {
+
+    private static final String FROM_ACCOUNT_NUMBER = "123456";
+    private static final String TO_ACCOUNT_NUMBER = "111111";
+    private static final Instant NOW = Instant.parse("2024-03-10T12:00:00Z");
+
+    @Mock
+    private CrossShardTransferRepository crossShardTransferRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private AccountService accountService;
+    @Mock
+    private IdempotencyService idempotencyService;
+    @Mock
+    private DailyRollupService dailyRollupService;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private BalanceStreamService balanceStreamService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Captor
+    private ArgumentCaptor<Transaction> transactionCaptor;
+
+    private CrossShardTransferService crossShardTransferService;
+
+    @BeforeEach
+    void setUp() {
+        crossShardTransferService = new CrossShardTransferService(crossShardTransferRepository,
+                                                                  transactionRepository,
+                                                                  accountService,
+                                                                  idempotencyService,
+                                                                  dailyRollupService,
+                                                                  outboxService,
+                                                                  balanceStreamService,
+                                                                  new ShardRouter(2),
+                                                                  new ShardingProperties(true,
+                                                                                         List.of(),
+                                                                                         Duration.ofSeconds(30),
+                                                                                         Duration.ofSeconds(10),
+                                                                                         100),
+                                                                  Clock.fixed(NOW, ZoneOffset.UTC),
+                                                                  transactionManager);
+    }
+
+    @Test
+    void debitsOnSourceShardAndCreditsOnTargetShard() {
+        var shards = new ArrayList<String>();
+        when(accountService.decreaseBalance(FROM_ACCOUNT_NUMBER, 100L)).thenAnswer(invocation -> {
+            shards.add("debit:" + ShardContext.current());
+            return buildAccount(1L, FROM_ACCOUNT_NUMBER);
+        });
+        when(crossShardTransferRepository.markApplied(anyString(), any())).thenReturn(1);
+        when(accountService.increaseBalance(TO_ACCOUNT_NUMBER, 100L)).thenAnswer(invocation -> {
+            shards.add("credit:" + ShardContext.current());
+            return buildAccount(2L, TO_ACCOUNT_NUMBER);
+        });
+        when(crossShardTransferRepository.finish(anyString(), eq(CrossShardTransferStatus.COMPLETED), any()))
+                .thenAnswer(invocation -> {
+                    shards.add("complete:" + ShardContext.current());
+                    return 1;
+                });
+
+        var response = crossShardTransferService.transfer(FROM_ACCOUNT_NUMBER, TO_ACCOUNT_NUMBER, 100L, "key");
+
+        assertEquals(List.of("debit:1", "credit:0", "complete:1"), shards);
+        assertEquals(100L, response.amount());
+        verify(transactionRepository, times(2)).save(transactionCaptor.capture());
+        var legs = transactionCaptor.getAllValues();
+        assertEquals(FROM_ACCOUNT_NUMBER, legs.get(0).getFromAccount().getAccountNumber());
+        assertNull(legs.get(0).getToAccount());
+        assertNull(legs.get(1).getFromAccount());
+        assertEquals(TO_ACCOUNT_NUMBER, legs.get(1).getToAccount().getAccountNumber());
+        verify(idempotencyService).save(eq("key"), anyString(), eq(response));
+    }
+
+    @Test
+    void leavesTransferDebitedWhenCreditFails() {
+        when(accountService.decreaseBalance(FROM_ACCOUNT_NUMBER, 100L)).thenReturn(buildAccount(1L, FROM_ACCOUNT_NUMBER));
+        when(crossShardTransferRepository.markApplied(anyString(), any()))
+                .thenThrow(new IllegalStateException("shard down"));
+
+        crossShardTransferService.transfer(FROM_ACCOUNT_NUMBER, TO_ACCOUNT_NUMBER, 100L, null);
+
+        verify(crossShardTransferRepository).save(any(CrossShardTransfer.class));
+        verify(crossShardTransferRepository, never()).finish(anyString(), any(), any());
+    }
+
+    @Test
+    void recoveryCompletesDebitedTransfersWithoutCreditingTwice() {
+        var transfer = buildTransfer();
+        when(crossShardTransferRepository.findByStatusAndUpdatedAtBeforeOrderByUpdatedAt(
+                eq(CrossShardTransferStatus.DEBITED), eq(Timestamp.from(NOW.minusSeconds(30))), any(Pageable.class)))
+                .thenAnswer(invocation -> ShardContext.current() == 1 ? List.of(transfer) : List.of());
+        when(crossShardTransferRepository.markApplied(eq(transfer.getId()), any())).thenReturn(0);
+
+        crossShardTransferService.recover();
+
+        verify(accountService, never()).increaseBalance(anyString(), any());
+        verify(crossShardTransferRepository).finish(eq(transfer.getId()), eq(CrossShardTransferStatus.COMPLETED), any());
+    }
+
+    @Test
+    void refundsSourceAccountWhenTargetAccountIsGone() {
+        var transfer = buildTransfer();
+        when(crossShardTransferRepository.markApplied(eq(transfer.getId()), any())).thenReturn(1);
+        when(accountService.increaseBalance(TO_ACCOUNT_NUMBER, 100L))
+                .thenThrow(new AccountNotFoundException("Account not found"));
+        when(crossShardTransferRepository.finish(eq(transfer.getId()), eq(CrossShardTransferStatus.COMPENSATED), any()))
+                .thenReturn(1);
+        when(accountService.increaseBalance(FROM_ACCOUNT_NUMBER, 100L)).thenReturn(buildAccount(1L, FROM_ACCOUNT_NUMBER));
+
+        crossShardTransferService.complete(transfer);
+
+        verify(crossShardTransferRepository, never()).finish(anyString(), eq(CrossShardTransferStatus.COMPLETED), any());
+        verify(transactionRepository).save(transactionCaptor.capture());
+        assertEquals(FROM_ACCOUNT_NUMBER, transactionCaptor.getValue().getToAccount().getAccountNumber());
+    }
+
+    @Test
+    void rejectsNegativeAmount() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> crossShardTransferService.transfer(FROM_ACCOUNT_NUMBER, TO_ACCOUNT_NUMBER, -1L, null));
+        verify(accountService, never()).decreaseBalance(anyString(), any());
+    }
+
+    private CrossShardTransfer buildTransfer() {
+        return CrossShardTransfer.builder()
+                                 .id("transfer-1")
+                                 .fromAccountNumber(FROM_ACCOUNT_NUMBER)
+                                 .toAccountNumber(TO_ACCOUNT_NUMBER)
+                                 .amount(100L)
+                                 .status(CrossShardTransferStatus.DEBITED)
+                                 .createdAt(Timestamp.from(NOW.minusSeconds(60)))
+                                 .updatedAt(Timestamp.from(NOW.minusSeconds(60)))
+                                 .build();
+    }
+
+    private Account buildAccount(long id, String accountNumber) {
+        var account = new Account();
+        account.setId(id);
+        account.setAccountNumber(accountNumber);
+        account.setBalance(1000L);
+        return account;
+    }
+}
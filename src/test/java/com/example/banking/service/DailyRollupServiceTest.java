@@ -0,0 +1,240 @@
+package com.example.banking.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import com.example.banking.archive.TransactionArchive;
+import com.example.banking.config.RollupProperties;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.dto.BalanceAsOf;
+import com.example.banking.dto.DailyRollup;
+import com.example.banking.dto.DailyTotals;
+import com.example.banking.dto.HotAccount;
+import com.example.banking.exception.IncompleteRollupsException;
+import com.example.banking.model.Account;
+import com.example.banking.model.Transaction;
+import com.example.banking.model.TransactionType;
+import com.example.banking.repository.AccountDailyRollupRepository;
+import com.example.banking.repository.AccountRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DailyRollupServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-10T12:00:00Z");
+    private static final LocalDate DAY_1 = LocalDate.parse("2024-03-01");
+    private static final LocalDate DAY_2 = LocalDate.parse("2024-03-02");
+    private static final LocalDate DAY_3 = LocalDate.parse("2024-03-03");
+    private static final Account ACCOUNT_1 = Account.builder().id(1L).accountNumber("111").balance(1000L).build();
+    private static final Account ACCOUNT_2 = Account.builder().id(2L).accountNumber("222").build();
+
+    @Mock
+    private AccountDailyRollupRepository accountDailyRollupRepository;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private AccountService accountService;
+    @Mock
+    private HotAccountService hotAccountService;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private TransactionArchive transactionArchive;
+    @Mock
+    private BalanceSnapshotService balanceSnapshotService;
+    @Captor
+    private ArgumentCaptor<List<Object[]>> rowsCaptor;
+
+    private DailyRollupService dailyRollupService;
+
+    @BeforeEach
+    void setUp() {
+        dailyRollupService = new DailyRollupService(accountDailyRollupRepository,
+                                                    accountRepository,
+                                                    accountService,
+                                                    hotAccountService,
+                                                    jdbcTemplate,
+                                                    new RollupProperties(1000),
+                                                    Clock.fixed(NOW, ZoneOffset.UTC),
+                                                    transactionManager,
+                                                    transactionArchive,
+                                                    new ShardRouter(1),
+                                                    balanceSnapshotService);
+        lenient().when(hotAccountService.findHotAccount(anyString())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void recordUpsertsTotalsPerAccountAndDayInKeyOrderAfterFlush() {
+        dailyRollupService.record(List.of(transaction(null, ACCOUNT_2, 100L, TransactionType.DEPOSIT, DAY_1),
+                                          transaction(ACCOUNT_1, ACCOUNT_2, 50L, TransactionType.TRANSFER, DAY_1),
+                                          transaction(ACCOUNT_1, null, 30L, TransactionType.WITHDRAWAL, DAY_2)));
+
+        var inOrder = inOrder(accountDailyRollupRepository, jdbcTemplate);
+        inOrder.verify(accountDailyRollupRepository).flush();
+        inOrder.verify(jdbcTemplate).batchUpdate(anyString(), rowsCaptor.capture());
+        var rows = rowsCaptor.getValue();
+        assertEquals(3, rows.size());
+        assertArrayEquals(new Object[] {1L, DAY_1, 0, 0L, 50L, 1L}, rows.get(0));
+        assertArrayEquals(new Object[] {1L, DAY_2, 0, 0L, 30L, 1L}, rows.get(1));
+        assertArrayEquals(new Object[] {2L, DAY_1, 0, 150L, 0L, 2L}, rows.get(2));
+    }
+
+    @Test
+    void recordCountsTransferWithinOneAccountOnce() {
+        dailyRollupService.record(List.of(transaction(ACCOUNT_1, ACCOUNT_1, 50L, TransactionType.TRANSFER, DAY_1)));
+
+        verify(jdbcTemplate).batchUpdate(anyString(), rowsCaptor.capture());
+        assertArrayEquals(new Object[] {1L, DAY_1, 0, 50L, 50L, 1L}, rowsCaptor.getValue().getFirst());
+    }
+
+    @Test
+    void recordSpreadsHotAccountOverItsSlots() {
+        when(hotAccountService.findHotAccount("222")).thenReturn(Optional.of(new HotAccount(2L, "222", 4)));
+
+        dailyRollupService.record(List.of(transaction(null, ACCOUNT_2, 100L, TransactionType.DEPOSIT, DAY_1)));
+
+        verify(jdbcTemplate).batchUpdate(anyString(), rowsCaptor.capture());
+        var row = rowsCaptor.getValue().getFirst();
+        assertTrue((Integer) row[2] >= 0 && (Integer) row[2] < 4);
+        assertEquals(100L, row[3]);
+    }
+
+    @Test
+    void getPeriodAddsRollupsToOpeningBalance() {
+        when(accountService.getAccountId("111")).thenReturn(1L);
+        stubBalanceAsOf(DAY_1, 730L);
+        stubBalanceAsOf(DAY_3, 800L);
+        when(accountDailyRollupRepository.findDailyTotalsBetween(1L, DAY_1, DAY_2))
+                .thenReturn(List.of(new DailyTotals(DAY_1, 100L, 0L, 1L), new DailyTotals(DAY_2, 0L, 30L, 2L)));
+
+        var summary = dailyRollupService.getPeriod("111", DAY_1, DAY_2);
+
+        assertEquals(730L, summary.openingBalance());
+        assertEquals(800L, summary.closingBalance());
+        assertEquals(100L, summary.credits());
+        assertEquals(30L, summary.debits());
+        assertEquals(3L, summary.transactionCount());
+        assertEquals(List.of(new DailyRollup(DAY_1, 100L, 0L, 1L, 830L), new DailyRollup(DAY_2, 0L, 30L, 2L, 800L)),
+                     summary.days());
+        verify(accountRepository, never()).findById(any());
+    }
+
+    @Test
+    void getPeriodEndingTodayChecksCurrentBalance() {
+        var today = LocalDate.ofInstant(NOW, ZoneOffset.UTC);
+        when(accountService.getAccountId("111")).thenReturn(1L);
+        stubBalanceAsOf(today, 900L);
+        when(accountDailyRollupRepository.findDailyTotalsBetween(1L, today, today))
+                .thenReturn(List.of(new DailyTotals(today, 100L, 0L, 1L)));
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(ACCOUNT_1));
+        when(hotAccountService.getTotalBalance(ACCOUNT_1)).thenReturn(1000L);
+
+        var summary = dailyRollupService.getPeriod("111", today, today);
+
+        assertEquals(900L, summary.openingBalance());
+        assertEquals(1000L, summary.closingBalance());
+    }
+
+    @Test
+    void getPeriodFailsWhenRollupsAreMissing() {
+        when(accountService.getAccountId("111")).thenReturn(1L);
+        stubBalanceAsOf(DAY_1, 730L);
+        stubBalanceAsOf(DAY_3, 800L);
+        // the rollup of DAY_1 was never written
+        when(accountDailyRollupRepository.findDailyTotalsBetween(1L, DAY_1, DAY_2))
+                .thenReturn(List.of(new DailyTotals(DAY_2, 0L, 30L, 2L)));
+
+        var exception = assertThrows(IncompleteRollupsException.class,
+                                     () -> dailyRollupService.getPeriod("111", DAY_1, DAY_2));
+
+        assertEquals("Daily rollups of account 111 between 2024-03-01 and 2024-03-02 are incomplete: they add up to 700 "
+                     + "instead of 800, backfill the period", exception.getMessage());
+    }
+
+    @Test
+    void getPeriodRejectsPeriodLongerThanLimit() {
+        var exception = assertThrows(IllegalArgumentException.class,
+                                     () -> dailyRollupService.getPeriod("111", DAY_1, DAY_1.plusDays(366)));
+
+        assertEquals("Period must not exceed 366 days", exception.getMessage());
+    }
+
+    @Test
+    void backfillRecomputesAccountsInChunks() {
+        when(accountRepository.findMaxId()).thenReturn(2500L);
+        when(accountDailyRollupRepository.insertRange(any(), any(), any(), any())).thenReturn(5);
+
+        var result = dailyRollupService.backfill(DAY_1, DAY_2);
+
+        assertEquals(15L, result.rollups());
+        var start = Timestamp.from(Instant.parse("2024-03-01T00:00:00Z"));
+        var end = Timestamp.from(Instant.parse("2024-03-03T00:00:00Z"));
+        for (var firstAccountId : List.of(0L, 1000L, 2000L)) {
+            verify(accountDailyRollupRepository).deleteRange(firstAccountId, firstAccountId + 1000, DAY_1, DAY_2);
+            verify(accountDailyRollupRepository).insertRange(eq(firstAccountId), eq(firstAccountId + 1000), eq(start), eq(end));
+        }
+    }
+
+    @Test
+    void backfillRejectsCurrentDay() {
+        var today = LocalDate.ofInstant(NOW, ZoneOffset.UTC);
+
+        var exception = assertThrows(IllegalArgumentException.class, () -> dailyRollupService.backfill(DAY_1, today));
+
+        assertEquals("Only completed days can be backfilled, up to 2024-03-09", exception.getMessage());
+    }
+
+    @Test
+    void backfillRejectsArchivedDays() {
+        when(transactionArchive.getHorizon()).thenReturn(Optional.of(Instant.parse("2024-03-02T00:00:00Z")));
+
+        var exception = assertThrows(IllegalArgumentException.class, () -> dailyRollupService.backfill(DAY_1, DAY_2));
+
+        assertEquals("Days before 2024-03-02 are archived and cannot be backfilled", exception.getMessage());
+        verify(accountRepository, never()).findMaxId();
+    }
+
+    private void stubBalanceAsOf(LocalDate day, long balance) {
+        var asOf = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        when(balanceSnapshotService.getBalanceAsOf("111", asOf)).thenReturn(new BalanceAsOf("111", asOf, balance));
+    }
+
+    private Transaction transaction(Account from, Account to, Long amount, TransactionType type, LocalDate day) {
+        return Transaction.builder()
+                          .fromAccount(from)
+                          .toAccount(to)
+                          .amount(amount)
+                          .type(type)
+                          .timestamp(Timestamp.from(day.atTime(23, 59).toInstant(ZoneOffset.UTC)))
+                          .build();
+    }
+}
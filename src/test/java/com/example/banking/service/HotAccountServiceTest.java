@@ -0,0 +1,147 @@
+package com.example.banking.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.example.banking.dto.HotAccount;
+import com.example.banking.exception.InsufficientFundsException;
+import com.example.banking.model.Account;
+import com.example.banking.repository.AccountBalanceSlotRepository;
+import com.example.banking.repository.AccountRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HotAccountServiceTest {
+
+    private static final Long ACCOUNT_ID = 1L;
+    private static final String ACCOUNT_NUMBER = "123456";
+    private static final HotAccount HOT_ACCOUNT = new HotAccount(ACCOUNT_ID, ACCOUNT_NUMBER, 3);
+
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private AccountBalanceSlotRepository accountBalanceSlotRepository;
+    @Mock
+    private HotAccountRegistry hotAccountRegistry;
+
+    @InjectMocks
+    private HotAccountService hotAccountService;
+
+    @Test
+    void markHotRejectsTooFewSlots() {
+        var account = new Account(ACCOUNT_ID, ACCOUNT_NUMBER, 100L, 100L);
+
+        var exception = assertThrows(IllegalArgumentException.class, () -> hotAccountService.markHot(account, 1));
+
+        assertEquals("Slots must be between 2 and 64", exception.getMessage());
+    }
+
+    @Test
+    void markHotRegistersAccount() {
+        var account = new Account(ACCOUNT_ID, ACCOUNT_NUMBER, 100L, 100L);
+
+        var result = hotAccountService.markHot(account, 3);
+
+        assertEquals(HOT_ACCOUNT, result);
+        verify(hotAccountRegistry).register(HOT_ACCOUNT);
+    }
+
+    @Test
+    void creditFallsBackToAccountRowWhenSlotIsMissing() {
+        when(accountBalanceSlotRepository.increaseBalance(eq(ACCOUNT_ID), anyInt(), eq(50L))).thenReturn(0);
+
+        var result = hotAccountService.credit(HOT_ACCOUNT, 50L);
+
+        assertEquals(ACCOUNT_ID, result.getId());
+        verify(accountRepository).increaseBalance(ACCOUNT_ID, 50L);
+    }
+
+    @Test
+    void debitTakesSlotWithEnoughBalance() {
+        when(accountBalanceSlotRepository.findLockedBalances(ACCOUNT_ID)).thenReturn(List.of(20L, 30L, 60L));
+
+        var result = hotAccountService.debit(HOT_ACCOUNT, 50L);
+
+        assertEquals(ACCOUNT_NUMBER, result.getAccountNumber());
+        verify(accountBalanceSlotRepository).setBalance(ACCOUNT_ID, 2, 10L);
+        verify(accountRepository, never()).findLockedBalanceById(ACCOUNT_ID);
+    }
+
+    @Test
+    void debitConsolidatesBalanceAcrossSlots() {
+        when(accountBalanceSlotRepository.findLockedBalances(ACCOUNT_ID)).thenReturn(List.of(20L, 30L, 40L));
+        when(accountRepository.findLockedBalanceById(ACCOUNT_ID)).thenReturn(Optional.of(10L));
+
+        hotAccountService.debit(HOT_ACCOUNT, 70L);
+
+        var inOrder = inOrder(accountBalanceSlotRepository, accountRepository);
+        inOrder.verify(accountBalanceSlotRepository).findLockedBalances(ACCOUNT_ID);
+        inOrder.verify(accountRepository).findLockedBalanceById(ACCOUNT_ID);
+
+        verify(accountRepository).setBalance(ACCOUNT_ID, 0L);
+        verify(accountBalanceSlotRepository).setBalance(ACCOUNT_ID, 0, 0L);
+        verify(accountBalanceSlotRepository).setBalance(ACCOUNT_ID, 1, 0L);
+        verify(accountBalanceSlotRepository).setBalance(ACCOUNT_ID, 2, 30L);
+    }
+
+    @Test
+    void debitThrowsWhenConsolidatedBalanceIsNotEnough() {
+        when(accountBalanceSlotRepository.findLockedBalances(ACCOUNT_ID)).thenReturn(List.of(20L));
+        when(accountRepository.findLockedBalanceById(ACCOUNT_ID)).thenReturn(Optional.of(10L));
+
+        var exception = assertThrows(InsufficientFundsException.class, () -> hotAccountService.debit(HOT_ACCOUNT, 100L));
+
+        assertEquals("Insufficient funds for withdrawal", exception.getMessage());
+        verify(accountRepository, never()).setBalance(anyLong(), anyLong());
+    }
+
+    @Test
+    void rebalanceSpreadsBalanceEvenlyAcrossSlots() {
+        when(accountBalanceSlotRepository.findLockedBalances(ACCOUNT_ID)).thenReturn(List.of(0L, 0L, 0L));
+        when(accountRepository.findLockedBalanceById(ACCOUNT_ID)).thenReturn(Optional.of(11L));
+
+        hotAccountService.rebalance(HOT_ACCOUNT);
+
+        verify(accountRepository).setBalance(ACCOUNT_ID, 0L);
+        verify(accountBalanceSlotRepository).setBalance(ACCOUNT_ID, 0, 4L);
+        verify(accountBalanceSlotRepository).setBalance(ACCOUNT_ID, 1, 4L);
+        verify(accountBalanceSlotRepository).setBalance(ACCOUNT_ID, 2, 3L);
+    }
+
+    @Test
+    void setTotalBalanceDebitsDifference() {
+        when(accountBalanceSlotRepository.findLockedBalances(ACCOUNT_ID)).thenReturn(List.of(10L, 40L, 20L));
+        when(accountRepository.findLockedBalanceById(ACCOUNT_ID)).thenReturn(Optional.of(40L));
+
+        hotAccountService.setTotalBalance(HOT_ACCOUNT, 75L);
+
+        verify(accountBalanceSlotRepository).setBalance(ACCOUNT_ID, 1, 5L);
+    }
+
+    @Test
+    void setTotalBalanceCreditsDifference() {
+        when(accountBalanceSlotRepository.findLockedBalances(ACCOUNT_ID)).thenReturn(List.of(30L, 40L, 20L));
+        when(accountRepository.findLockedBalanceById(ACCOUNT_ID)).thenReturn(Optional.of(10L));
+        when(accountBalanceSlotRepository.increaseBalance(eq(ACCOUNT_ID), anyInt(), eq(50L))).thenReturn(1);
+
+        hotAccountService.setTotalBalance(HOT_ACCOUNT, 150L);
+
+        verify(accountBalanceSlotRepository).increaseBalance(eq(ACCOUNT_ID), anyInt(), eq(50L));
+        verify(accountRepository, never()).increaseBalance(anyLong(), anyLong());
+    }
+}
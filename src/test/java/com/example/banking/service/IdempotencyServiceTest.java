@@ -0,0 +1,124 @@
+package com.example.banking.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import com.example.banking.config.IdempotencyProperties;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.dto.SingleTransactionResponse;
+import com.example.banking.exception.IdempotencyKeyReusedException;
+import com.example.banking.model.IdempotencyRecord;
+import com.example.banking.model.TransactionType;
+import com.example.banking.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String KEY = "retry-1";
+    private static final String ACCOUNT_NUMBER = "123456";
+    private static final Instant NOW = Instant.parse("2024-03-01T12:00:00Z");
+    private static final String REQUEST = IdempotencyService.describe(TransactionType.DEPOSIT, null, ACCOUNT_NUMBER, 100L);
+    private static final SingleTransactionResponse RESPONSE =
+            new SingleTransactionResponse(ACCOUNT_NUMBER, 100L, TransactionType.DEPOSIT, Timestamp.from(NOW));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository,
+                                                    objectMapper,
+                                                    new IdempotencyProperties(Duration.ofHours(24), 100, Duration.ofMinutes(1), 2),
+                                                    Clock.fixed(NOW, ZoneOffset.UTC),
+                                                    new ShardRouter(1));
+    }
+
+    @Test
+    void executeRunsOperationWithoutKey() {
+        var response = idempotencyService.execute(null, REQUEST, SingleTransactionResponse.class, () -> RESPONSE);
+
+        assertEquals(RESPONSE, response);
+        verify(idempotencyRecordRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void executeReplaysStoredResponse() throws Exception {
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.of(storedRecord(REQUEST)));
+
+        var response = idempotencyService.execute(KEY, REQUEST, SingleTransactionResponse.class, () -> fail("Replayed"));
+
+        assertEquals(RESPONSE, response);
+    }
+
+    @Test
+    void savedResponseIsReplayedWithoutQuery() {
+        idempotencyService.save(KEY, REQUEST, RESPONSE);
+
+        var response = idempotencyService.execute(KEY, REQUEST, SingleTransactionResponse.class, () -> fail("Replayed"));
+
+        assertEquals(RESPONSE, response);
+        verify(idempotencyRecordRepository).insert(any(), any(), any(), any());
+        verify(idempotencyRecordRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void executeRejectsKeyReusedForDifferentRequest() throws Exception {
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.of(storedRecord(REQUEST)));
+        var otherRequest = IdempotencyService.describe(TransactionType.DEPOSIT, null, ACCOUNT_NUMBER, 200L);
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                     () -> idempotencyService.execute(KEY, otherRequest, SingleTransactionResponse.class, () -> RESPONSE));
+    }
+
+    @Test
+    void executeReplaysWinnerAfterLosingRaceOnKey() throws Exception {
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.empty())
+                                                      .thenReturn(Optional.of(storedRecord(REQUEST)));
+
+        var response = idempotencyService.execute(KEY, REQUEST, SingleTransactionResponse.class, () -> {
+            throw new DataIntegrityViolationException("Duplicate entry");
+        });
+
+        assertEquals(RESPONSE, response);
+    }
+
+    @Test
+    void purgeExpiredDeletesInBatchesUntilNoneLeft() {
+        var cutoff = Timestamp.from(NOW.minus(Duration.ofHours(24)));
+        when(idempotencyRecordRepository.deleteCreatedBefore(cutoff, 2)).thenReturn(2, 2, 1);
+
+        idempotencyService.purgeExpired();
+
+        verify(idempotencyRecordRepository, times(3)).deleteCreatedBefore(cutoff, 2);
+    }
+
+    private IdempotencyRecord storedRecord(String request) throws Exception {
+        return new IdempotencyRecord(KEY, request, objectMapper.writeValueAsString(RESPONSE), Timestamp.from(NOW));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.banking.service;
+
+import java.time.Clock;
+
+import com.example.banking.exception.InsufficientFundsException;
+import com.example.banking.journal.BalanceJournal;
+import com.example.banking.journal.JournalEntry;
+import com.example.banking.model.TransactionType;
+import com.example.banking.repository.JournalCheckpointRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JournaledTransactionServiceTest {
+
+    private static final String ACCOUNT_NUMBER = "123456";
+    private static final JournalEntry WITHDRAWAL = new JournalEntry(1, TransactionType.WITHDRAWAL, ACCOUNT_NUMBER, null, 80, 0);
+
+    @Mock
+    private BalanceJournal balanceJournal;
+    @Mock
+    private AccountService accountService;
+    @Mock
+    private TransactionService transactionService;
+    @Mock
+    private JournalCheckpointRepository journalCheckpointRepository;
+    @Mock
+    private IdempotencyService idempotencyService;
+    @Mock
+    private Clock clock;
+
+    @InjectMocks
+    private JournaledTransactionService journaledTransactionService;
+
+    @Test
+    void withdrawAcknowledgesOnceJournaled() {
+        when(accountService.readBalance(ACCOUNT_NUMBER)).thenReturn(100L);
+        when(balanceJournal.append(TransactionType.WITHDRAWAL, ACCOUNT_NUMBER, null, 80L, 0L)).thenReturn(WITHDRAWAL);
+
+        var response = journaledTransactionService.withdraw(ACCOUNT_NUMBER, 80L, null);
+
+        assertEquals(ACCOUNT_NUMBER, response.accountNumber());
+        assertEquals(80L, response.amount());
+        assertEquals(TransactionType.WITHDRAWAL, response.type());
+    }
+
+    @Test
+    void withdrawCountsDebitsStillPendingInJournal() {
+        when(accountService.readBalance(ACCOUNT_NUMBER)).thenReturn(100L);
+        when(balanceJournal.append(TransactionType.WITHDRAWAL, ACCOUNT_NUMBER, null, 80L, 0L)).thenReturn(WITHDRAWAL);
+        journaledTransactionService.withdraw(ACCOUNT_NUMBER, 80L, null);
+
+        var exception = assertThrows(InsufficientFundsException.class,
+                                     () -> journaledTransactionService.withdraw(ACCOUNT_NUMBER, 80L, null));
+
+        assertEquals("Insufficient funds for withdrawal", exception.getMessage());
+    }
+
+    @Test
+    void withdrawSucceedsAgainOnceReservationIsReleased() {
+        when(accountService.readBalance(ACCOUNT_NUMBER)).thenReturn(100L);
+        when(balanceJournal.append(TransactionType.WITHDRAWAL, ACCOUNT_NUMBER, null, 80L, 0L)).thenReturn(WITHDRAWAL);
+        journaledTransactionService.withdraw(ACCOUNT_NUMBER, 80L, null);
+        journaledTransactionService.releaseReservation(WITHDRAWAL);
+
+        var response = journaledTransactionService.withdraw(ACCOUNT_NUMBER, 80L, null);
+
+        assertEquals(80L, response.amount());
+    }
+
+    @Test
+    void withdrawReleasesReservationWhenJournalFails() {
+        when(accountService.readBalance(ACCOUNT_NUMBER)).thenReturn(100L);
+        when(balanceJournal.append(TransactionType.WITHDRAWAL, ACCOUNT_NUMBER, null, 80L, 0L))
+                .thenThrow(new IllegalStateException("Journal is closed"))
+                .thenReturn(WITHDRAWAL);
+
+        assertThrows(IllegalStateException.class, () -> journaledTransactionService.withdraw(ACCOUNT_NUMBER, 80L, null));
+        var response = journaledTransactionService.withdraw(ACCOUNT_NUMBER, 80L, null);
+
+        assertEquals(80L, response.amount());
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.banking.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import com.example.banking.config.OperationStreamProperties;
+import com.example.banking.datasource.ShardContext;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.dto.BatchMode;
+import com.example.banking.dto.BatchOperation;
+import com.example.banking.dto.BatchOperationResult;
+import com.example.banking.dto.BatchOperationStatus;
+import com.example.banking.dto.BatchTransactionRequest;
+import com.example.banking.dto.BatchTransactionResponse;
+import com.example.banking.model.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OperationStreamServiceTest {
+
+    private static final String DEPOSIT = "{\"type\":\"DEPOSIT\",\"toAccountNumber\":\"123456\",\"amount\":100}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private TransactionService transactionService;
+
+    private OperationStreamService operationStreamService;
+
+    @BeforeEach
+    void setUp() {
+        operationStreamService = new OperationStreamService(transactionService,
+                                                            objectMapper,
+                                                            new OperationStreamProperties(2, 128, Duration.ZERO),
+                                                            new ShardRouter(1));
+    }
+
+    @Test
+    void appliesOperationsInChunksAndReportsEachInOrder() throws Exception {
+        when(transactionService.batch(any())).thenAnswer(invocation -> applied(invocation.getArgument(0)));
+
+        var results = process(DEPOSIT + "\n" + DEPOSIT + "\r\n\n" + DEPOSIT + "\n");
+
+        assertEquals(3, results.size());
+        IntStream.range(0, 3).forEach(index -> {
+            assertEquals(index, results.get(index).index());
+            assertEquals(BatchOperationStatus.APPLIED, results.get(index).status());
+        });
+        verify(transactionService, times(2)).batch(any());
+    }
+
+    @Test
+    void reportsMalformedAndOversizedLinesWithoutApplyingThem() throws Exception {
+        when(transactionService.batch(any())).thenAnswer(invocation -> applied(invocation.getArgument(0)));
+
+        var results = process("not json\n" + "{\"amount\":\"" + "9".repeat(200) + "\"}\n" + DEPOSIT);
+
+        assertEquals(3, results.size());
+        assertEquals(BatchOperationStatus.FAILED, results.get(0).status());
+        assertTrue(results.get(0).error().startsWith("Malformed operation"));
+        assertEquals(BatchOperationStatus.FAILED, results.get(1).status());
+        assertEquals("Operation exceeds 128 bytes", results.get(1).error());
+        assertEquals(2, results.get(2).index());
+        assertEquals(BatchOperationStatus.APPLIED, results.get(2).status());
+    }
+
+    @Test
+    void failsAllOperationsOfChunkThatCouldNotBeApplied() throws Exception {
+        when(transactionService.batch(any())).thenThrow(new IllegalStateException("Connection refused"));
+
+        var results = process(DEPOSIT + "\n" + DEPOSIT + "\n");
+
+        assertEquals(2, results.size());
+        results.forEach(result -> {
+            assertEquals(BatchOperationStatus.FAILED, result.status());
+            assertEquals("Operation could not be applied", result.error());
+            assertNull(result.transaction());
+        });
+    }
+
+    @Test
+    void splitsChunkByShardAndFailsTransfersBetweenShards() throws Exception {
+        var shardedService = new OperationStreamService(transactionService,
+                                                        objectMapper,
+                                                        new OperationStreamProperties(3, 128, Duration.ZERO),
+                                                        new ShardRouter(2));
+        var shardsByAccount = new HashMap<String, Integer>();
+        when(transactionService.batch(any())).thenAnswer(invocation -> {
+            BatchTransactionRequest request = invocation.getArgument(0);
+            shardsByAccount.put(request.operations().getFirst().toAccountNumber(), ShardContext.current());
+            return applied(request);
+        });
+
+        var results = process(shardedService,
+                              DEPOSIT + "\n"
+                              + "{\"type\":\"DEPOSIT\",\"toAccountNumber\":\"111111\",\"amount\":100}\n"
+                              + "{\"type\":\"TRANSFER\",\"fromAccountNumber\":\"123456\",\"toAccountNumber\":\"111111\",\"amount\":100}\n");
+
+        assertEquals(List.of(BatchOperationStatus.APPLIED, BatchOperationStatus.APPLIED, BatchOperationStatus.FAILED),
+                     results.stream().map(BatchOperationResult::status).toList());
+        assertEquals(Map.of("123456", 1, "111111", 0), shardsByAccount);
+        verify(transactionService, times(2)).batch(any());
+    }
+
+    private List<BatchOperationResult> process(String body) throws Exception {
+        return process(operationStreamService, body);
+    }
+
+    private List<BatchOperationResult> process(OperationStreamService service, String body) throws Exception {
+        var output = new ByteArrayOutputStream();
+        service.process(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))
+               .writeTo(output);
+        return output.toString(StandardCharsets.UTF_8)
+                     .lines()
+                     .map(line -> {
+                         try {
+                             return objectMapper.readValue(line, BatchOperationResult.class);
+                         } catch (Exception ex) {
+                             throw new IllegalStateException(ex);
+                         }
+                     })
+                     .toList();
+    }
+
+    private static BatchTransactionResponse applied(BatchTransactionRequest request) {
+        assertEquals(BatchMode.BEST_EFFORT, request.mode());
+        List<BatchOperation> operations = request.operations();
+        return new BatchTransactionResponse(BatchMode.BEST_EFFORT,
+                                            true,
+                                            IntStream.range(0, operations.size())
+                                                     .mapToObj(i -> new BatchOperationResult(i,
+                                                                                             BatchOperationStatus.APPLIED,
+                                                                                             null,
+                                                                                             null))
+                                                     .toList());
+    }
+}
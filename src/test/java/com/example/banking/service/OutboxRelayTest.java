@@ -0,0 +1,112 @@
+package com.example.banking.service;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.banking.config.OutboxProperties;
+import com.example.banking.datasource.ShardContext;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.model.OutboxEvent;
+import com.example.banking.model.TransactionType;
+import com.example.banking.outbox.OutboxSink;
+import com.example.banking.repository.OutboxEventRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private OutboxSink outboxSink;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void deliversBatchBeforeDeletingIt() {
+        var events = List.of(buildEvent(1L), buildEvent(2L));
+        when(outboxEventRepository.lockOldest(BATCH_SIZE)).thenReturn(events);
+
+        assertTrue(buildRelay(1).relay());
+
+        var inOrder = inOrder(outboxSink, outboxEventRepository);
+        inOrder.verify(outboxSink).publish(events);
+        inOrder.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    }
+
+    @Test
+    void waitsWhenNoBatchIsFull() {
+        when(outboxEventRepository.lockOldest(BATCH_SIZE)).thenReturn(List.of(buildEvent(1L)));
+
+        assertFalse(buildRelay(1).relay());
+    }
+
+    @Test
+    void keepsEventsWhenSinkFails() {
+        var events = List.of(buildEvent(1L), buildEvent(2L));
+        when(outboxEventRepository.lockOldest(BATCH_SIZE)).thenReturn(events);
+        doThrow(new IllegalStateException("sink down")).when(outboxSink).publish(events);
+
+        assertFalse(buildRelay(1).relay());
+
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void drainsEveryShard() {
+        var shards = new ArrayList<Integer>();
+        when(outboxEventRepository.lockOldest(BATCH_SIZE)).thenAnswer(invocation -> {
+            shards.add(ShardContext.current());
+            return ShardContext.current() == 1 ? List.of(buildEvent(1L), buildEvent(2L)) : List.of();
+        });
+
+        assertTrue(buildRelay(2).relay());
+
+        assertEquals(List.of(0, 1), shards);
+        verify(outboxSink).publish(any());
+    }
+
+    private OutboxRelay buildRelay(int shardCount) {
+        return new OutboxRelay(outboxEventRepository,
+                               outboxSink,
+                               new OutboxProperties(true,
+                                                    OutboxProperties.Sink.LOG,
+                                                    Path.of("outbox"),
+                                                    BATCH_SIZE,
+                                                    Duration.ofMillis(100)),
+                               new ShardRouter(shardCount),
+                               transactionManager);
+    }
+
+    private OutboxEvent buildEvent(Long id) {
+        return OutboxEvent.builder()
+                          .id(id)
+                          .transactionId(100 + id)
+                          .type(TransactionType.DEPOSIT)
+                          .toAccountNumber("123456")
+                          .amount(100L)
+                          .occurredAt(Timestamp.from(Instant.parse("2024-03-10T12:00:00Z")))
+                          .build();
+    }
+}
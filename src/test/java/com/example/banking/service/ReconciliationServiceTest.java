@@ -0,0 +1,269 @@
+package com.example.banking.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import com.example.banking.archive.TransactionArchive;
+import com.example.banking.config.ReconciliationProperties;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.model.ReconciliationRun;
+import com.example.banking.repository.AccountRepository;
+import com.example.banking.repository.ReconciliationRunRepository;
+import com.example.banking.util.LongLongMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs against an in-memory stand-in for the tables a range reads. With a range size of 2 and account ids up to 5,
+ * a run compares the ranges starting at 0, 2 and 4.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReconciliationServiceTest {
+
+    private static final long RUN_ID = 5L;
+    private static final Instant HORIZON = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Instant LATER_HORIZON = Instant.parse("2024-02-01T00:00:00Z");
+    private static final Instant NOW = Instant.parse("2024-03-15T10:00:00Z");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private ReconciliationRunRepository reconciliationRunRepository;
+    @Mock
+    private TransactionArchive transactionArchive;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Captor
+    private ArgumentCaptor<Collection<ReconciliationService.Mismatch>> mismatchesCaptor;
+
+    // account id -> {balance, opening balance}
+    private final Map<Long, long[]> accounts = new TreeMap<>();
+    private final Map<Long, Long> slots = new TreeMap<>();
+    private final Map<Long, Long> credits = new TreeMap<>();
+    private final Map<Long, Long> debits = new TreeMap<>();
+    private final List<Long> comparedRanges = Collections.synchronizedList(new ArrayList<>());
+    private Long failingRange;
+
+    private ReconciliationService reconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        reconciliationService = new ReconciliationService(jdbcTemplate,
+                                                          accountRepository,
+                                                          reconciliationRunRepository,
+                                                          transactionArchive,
+                                                          new ShardRouter(1),
+                                                          new ReconciliationProperties("-", 2, 2, 1000),
+                                                          Clock.fixed(NOW, ZoneOffset.UTC),
+                                                          transactionManager);
+    }
+
+    @Test
+    void reconcileStoresMismatchesAndFinishesRun() throws SQLException {
+        accounts.put(1L, new long[] {150L, 100L});
+        credits.put(1L, 80L);
+        debits.put(1L, 30L);
+        accounts.put(2L, new long[] {90L, 100L});
+        // hot account: part of the balance is in its slots, part of its history is archived
+        accounts.put(5L, new long[] {20L, 0L});
+        slots.put(5L, 30L);
+        stubTables();
+        stubArchive(Map.of(5L, 50L), HORIZON);
+        when(transactionArchive.getHorizon()).thenReturn(Optional.of(HORIZON));
+        when(reconciliationRunRepository.findFirstByFinishedAtIsNullOrderByIdDesc()).thenReturn(Optional.empty());
+        when(accountRepository.findMaxId()).thenReturn(5L);
+        when(reconciliationRunRepository.save(any())).thenAnswer(invocation -> {
+            var run = invocation.getArgument(0, ReconciliationRun.class);
+            run.setId(RUN_ID);
+            return run;
+        });
+
+        assertTrue(reconciliationService.reconcile());
+
+        assertEquals(List.of(0L, 2L, 4L), comparedRanges.stream().sorted().toList());
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(),
+                                                   mismatchesCaptor.capture(),
+                                                   anyInt(),
+                                                   any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(new ReconciliationService.Mismatch(2L, 100L, 90L)),
+                     mismatchesCaptor.getAllValues().stream().flatMap(Collection::stream).toList());
+        verify(reconciliationRunRepository).advance(RUN_ID, 6L);
+        verify(reconciliationRunRepository).finish(RUN_ID, Timestamp.from(NOW));
+    }
+
+    @Test
+    void reconcileResumesUnfinishedRunFromCheckpoint() throws SQLException {
+        accounts.put(5L, new long[] {100L, 100L});
+        stubTables();
+        stubArchive(Map.of(), HORIZON);
+        when(transactionArchive.getHorizon()).thenReturn(Optional.of(HORIZON));
+        when(reconciliationRunRepository.findFirstByFinishedAtIsNullOrderByIdDesc())
+                .thenReturn(Optional.of(buildRun(4L, 5L)));
+
+        reconciliationService.reconcile();
+
+        assertEquals(List.of(4L), comparedRanges);
+        verify(reconciliationRunRepository, never()).save(any());
+        verify(reconciliationRunRepository).advance(RUN_ID, 6L);
+        verify(reconciliationRunRepository).finish(RUN_ID, Timestamp.from(NOW));
+    }
+
+    @Test
+    void reconcileSumsArchiveAgainWhenHorizonMoves() throws SQLException {
+        // a partition holding the debit was archived after the run summed the archive
+        accounts.put(1L, new long[] {70L, 100L});
+        stubTables();
+        when(transactionArchive.sumNetAmounts(any())).thenReturn(Optional.of(HORIZON)).thenAnswer(invocation -> {
+            invocation.getArgument(0, LongLongMap.class).add(1L, -30L);
+            return Optional.of(LATER_HORIZON);
+        });
+        when(transactionArchive.getHorizon()).thenReturn(Optional.of(LATER_HORIZON));
+        when(reconciliationRunRepository.findFirstByFinishedAtIsNullOrderByIdDesc())
+                .thenReturn(Optional.of(buildRun(0L, 1L)));
+
+        reconciliationService.reconcile();
+
+        verify(transactionArchive, times(2)).sumNetAmounts(any());
+        verify(jdbcTemplate).batchUpdate(anyString(),
+                                         mismatchesCaptor.capture(),
+                                         anyInt(),
+                                         any(ParameterizedPreparedStatementSetter.class));
+        assertTrue(mismatchesCaptor.getValue().isEmpty());
+        verify(reconciliationRunRepository).finish(RUN_ID, Timestamp.from(NOW));
+    }
+
+    @Test
+    void failedRangeLeavesRunToBeResumed() throws SQLException {
+        accounts.put(1L, new long[] {100L, 100L});
+        failingRange = 2L;
+        stubTables();
+        stubArchive(Map.of(), HORIZON);
+        // the other ranges are skipped if the failing one runs first
+        lenient().when(transactionArchive.getHorizon()).thenReturn(Optional.of(HORIZON));
+        when(reconciliationRunRepository.findFirstByFinishedAtIsNullOrderByIdDesc())
+                .thenReturn(Optional.of(buildRun(0L, 5L)));
+
+        reconciliationService.reconcile();
+
+        verify(reconciliationRunRepository, never()).advance(anyLong(), anyLong());
+        verify(reconciliationRunRepository, never()).finish(anyLong(), any());
+    }
+
+    private void stubArchive(Map<Long, Long> net, Instant horizon) {
+        when(transactionArchive.sumNetAmounts(any())).thenAnswer(invocation -> {
+            var totals = invocation.getArgument(0, LongLongMap.class);
+            net.forEach(totals::add);
+            return Optional.of(horizon);
+        });
+    }
+
+    /**
+     * Serves the range queries from the maps, passing the range bounds the statement was given.
+     */
+    private void stubTables() throws SQLException {
+        doAnswer(invocation -> {
+            var parameters = new ArrayList<Object>();
+            var statement = mock(PreparedStatement.class);
+            doAnswer(set -> parameters.add(set.getArgument(1))).when(statement).setObject(anyInt(), any());
+            var query = new String[1];
+            var connection = mock(Connection.class);
+            when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenAnswer(prepare -> {
+                query[0] = prepare.getArgument(0);
+                return statement;
+            });
+            invocation.getArgument(0, PreparedStatementCreator.class).createPreparedStatement(connection);
+
+            var from = (Long) parameters.get(0);
+            var to = (Long) parameters.get(1);
+            var handler = invocation.getArgument(1, RowCallbackHandler.class);
+            for (var row : rows(query[0], from, to)) {
+                handler.processRow(resultSet(row));
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private List<Map<String, Long>> rows(String query, long from, long to) {
+        if (query.contains("FROM accounts")) {
+            if (Long.valueOf(from).equals(failingRange)) {
+                throw new QueryTimeoutException("Statement cancelled due to timeout");
+            }
+            comparedRanges.add(from);
+            return accounts.entrySet()
+                           .stream()
+                           .filter(entry -> entry.getKey() >= from && entry.getKey() < to)
+                           .map(entry -> Map.of("id", entry.getKey(),
+                                                "balance", entry.getValue()[0],
+                                                "opening_balance", entry.getValue()[1]))
+                           .toList();
+        }
+        if (query.contains("account_balance_slots")) {
+            return totals(slots, "balance", from, to);
+        }
+        return totals(query.contains("to_account_id AS account_id") ? credits : debits, "amount", from, to);
+    }
+
+    private static List<Map<String, Long>> totals(Map<Long, Long> totals, String column, long from, long to) {
+        return totals.entrySet()
+                     .stream()
+                     .filter(entry -> entry.getKey() >= from && entry.getKey() < to)
+                     .map(entry -> Map.of("account_id", entry.getKey(), column, entry.getValue()))
+                     .toList();
+    }
+
+    private static ResultSet resultSet(Map<String, Long> row) throws SQLException {
+        var resultSet = mock(ResultSet.class);
+        when(resultSet.getLong(anyString())).thenAnswer(invocation -> row.get(invocation.getArgument(0, String.class)));
+        return resultSet;
+    }
+
+    private static ReconciliationRun buildRun(long nextAccountId, long maxAccountId) {
+        return ReconciliationRun.builder()
+                                .id(RUN_ID)
+                                .startedAt(Timestamp.from(NOW.minusSeconds(3600)))
+                                .nextAccountId(nextAccountId)
+                                .maxAccountId(maxAccountId)
+                                .build();
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.banking.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import com.example.banking.archive.ArchivedTransaction;
+import com.example.banking.archive.TransactionArchive;
+import com.example.banking.config.StatementProperties;
+import com.example.banking.dto.StatementFormat;
+import com.example.banking.model.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Serves the page queries from an in-memory list of transactions, applying the side, keyset position, end and limit
+ * the query was given.
+ */
+@ExtendWith(MockitoExtension.class)
+class StatementExportServiceTest {
+
+    private static final Long ACCOUNT_ID = 1L;
+    private static final Long OTHER_ACCOUNT_ID = 2L;
+    private static final String ACCOUNT_NUMBER = "123456";
+    private static final String OTHER_ACCOUNT_NUMBER = "654321";
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 1, 31);
+    private static final Timestamp TIMESTAMP = Timestamp.from(Instant.parse("2024-01-02T10:00:00Z"));
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private AccountService accountService;
+    @Mock
+    private TransactionArchive transactionArchive;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<LiveRow> table = new ArrayList<>();
+
+    @Test
+    void exportWritesCsvRows() throws Exception {
+        table.add(new LiveRow(1L, ACCOUNT_ID, OTHER_ACCOUNT_ID, 100L, TransactionType.TRANSFER, TIMESTAMP));
+        stubTable();
+
+        var output = new ByteArrayOutputStream();
+        exportService(1000, ZoneOffset.UTC).export(ACCOUNT_NUMBER, FROM, TO, StatementFormat.CSV, false).writeTo(output);
+
+        assertEquals("""
+                             timestamp,type,from_account_number,to_account_number,amount
+                             2024-01-02T10:00:00Z,TRANSFER,123456,654321,100
+                             """, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportCompressesRowsWithGzip() throws Exception {
+        table.add(new LiveRow(1L, ACCOUNT_ID, OTHER_ACCOUNT_ID, 100L, TransactionType.TRANSFER, TIMESTAMP));
+        stubTable();
+
+        var output = new ByteArrayOutputStream();
+        exportService(1000, ZoneOffset.UTC).export(ACCOUNT_NUMBER, FROM, TO, StatementFormat.NDJSON, true).writeTo(output);
+
+        try (var input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            var line = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals("{\"fromAccountNumber\":\"123456\",\"toAccountNumber\":\"654321\",\"amount\":100,"
+                         + "\"type\":\"TRANSFER\",\"timestamp\":" + TIMESTAMP.getTime() + "}\n", line);
+        }
+    }
+
+    @Test
+    void exportMergesDebitsAndCreditsAcrossPages() throws Exception {
+        table.add(new LiveRow(1L, null, ACCOUNT_ID, 500L, TransactionType.DEPOSIT, at("2024-01-02T10:00:00Z")));
+        table.add(new LiveRow(2L, ACCOUNT_ID, OTHER_ACCOUNT_ID, 100L, TransactionType.TRANSFER, at("2024-01-02T10:00:00Z")));
+        // a transfer to the account itself is on both sides
+        table.add(new LiveRow(3L, ACCOUNT_ID, ACCOUNT_ID, 50L, TransactionType.TRANSFER, at("2024-01-03T10:00:00Z")));
+        table.add(new LiveRow(4L, OTHER_ACCOUNT_ID, ACCOUNT_ID, 20L, TransactionType.TRANSFER, at("2024-01-04T10:00:00Z")));
+        table.add(new LiveRow(5L, ACCOUNT_ID, null, 10L, TransactionType.WITHDRAWAL, at("2024-01-05T10:00:00Z")));
+        stubTable();
+
+        var output = new ByteArrayOutputStream();
+        exportService(1, ZoneOffset.UTC).export(ACCOUNT_NUMBER, FROM, TO, StatementFormat.CSV, false).writeTo(output);
+
+        assertEquals("""
+                             timestamp,type,from_account_number,to_account_number,amount
+                             2024-01-02T10:00:00Z,DEPOSIT,,123456,500
+                             2024-01-02T10:00:00Z,TRANSFER,123456,654321,100
+                             2024-01-03T10:00:00Z,TRANSFER,123456,123456,50
+                             2024-01-04T10:00:00Z,TRANSFER,654321,123456,20
+                             2024-01-05T10:00:00Z,WITHDRAWAL,123456,,10
+                             """, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportCutsDaysInClockZone() throws Exception {
+        // 1 January 01:00 at UTC+2, still 31 December in UTC
+        table.add(new LiveRow(1L, null, ACCOUNT_ID, 500L, TransactionType.DEPOSIT, at("2023-12-31T23:00:00Z")));
+        // 1 February 00:30 at UTC+2, after the statement
+        table.add(new LiveRow(2L, null, ACCOUNT_ID, 100L, TransactionType.DEPOSIT, at("2024-01-31T22:30:00Z")));
+        stubTable();
+
+        var output = new ByteArrayOutputStream();
+        exportService(1000, ZoneOffset.ofHours(2)).export(ACCOUNT_NUMBER, FROM, TO, StatementFormat.CSV, false)
+                                                  .writeTo(output);
+
+        assertEquals("""
+                             timestamp,type,from_account_number,to_account_number,amount
+                             2023-12-31T23:00:00Z,DEPOSIT,,123456,500
+                             """, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportStopsWhenClientDisconnects() throws Exception {
+        table.add(new LiveRow(1L, ACCOUNT_ID, OTHER_ACCOUNT_ID, 100L, TransactionType.TRANSFER, TIMESTAMP));
+        stubTable();
+        var output = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        var body = exportService(1000, ZoneOffset.UTC).export(ACCOUNT_NUMBER, FROM, TO, StatementFormat.CSV, false);
+
+        assertThrows(IOException.class, () -> body.writeTo(output));
+    }
+
+    @Test
+    void exportWritesArchivedRowsAsTheyAreRead() throws Exception {
+        when(accountService.getAccountId(ACCOUNT_NUMBER)).thenReturn(ACCOUNT_ID);
+        when(transactionArchive.getHorizon()).thenReturn(Optional.of(Instant.parse("2024-02-01T00:00:00Z")));
+        doAnswer(invocation -> {
+            Consumer<ArchivedTransaction> visitor = invocation.getArgument(3);
+            visitor.accept(new ArchivedTransaction(1L, null, ACCOUNT_ID, 500L, TransactionType.DEPOSIT, TIMESTAMP.getTime()));
+            visitor.accept(new ArchivedTransaction(2L, ACCOUNT_ID, 2L, 100L, TransactionType.TRANSFER, TIMESTAMP.getTime()));
+            return null;
+        }).when(transactionArchive).forEachByAccount(eq(ACCOUNT_ID), any(), any(), any());
+        when(accountService.getAccountNumbers(List.of(ACCOUNT_ID))).thenReturn(Map.of(ACCOUNT_ID, ACCOUNT_NUMBER));
+        when(accountService.getAccountNumbers(List.of(ACCOUNT_ID, 2L))).thenReturn(Map.of(ACCOUNT_ID, ACCOUNT_NUMBER,
+                                                                                         2L, OTHER_ACCOUNT_NUMBER));
+
+        var output = new ByteArrayOutputStream();
+        exportService(1, ZoneOffset.UTC).export(ACCOUNT_NUMBER, FROM, TO, StatementFormat.CSV, false).writeTo(output);
+
+        assertEquals("""
+                             timestamp,type,from_account_number,to_account_number,amount
+                             2024-01-02T10:00:00Z,DEPOSIT,,123456,500
+                             2024-01-02T10:00:00Z,TRANSFER,123456,654321,100
+                             """, output.toString(StandardCharsets.UTF_8));
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), any(Object[].class));
+    }
+
+    @Test
+    void exportRejectsInvertedDateRange() {
+        var exportService = exportService(1000, ZoneOffset.UTC);
+
+        var exception = assertThrows(IllegalArgumentException.class,
+                                     () -> exportService.export(ACCOUNT_NUMBER, TO, FROM, StatementFormat.CSV, false));
+
+        assertEquals("Statement start date must not be after its end date", exception.getMessage());
+        verify(accountService, never()).getAccountId(ACCOUNT_NUMBER);
+    }
+
+    private StatementExportService exportService(int pageSize, ZoneOffset zone) {
+        return new StatementExportService(jdbcTemplate,
+                                          accountService,
+                                          new ObjectMapper(),
+                                          new StatementProperties(pageSize, Duration.ofHours(1)),
+                                          transactionArchive,
+                                          Clock.fixed(Instant.parse("2024-03-01T00:00:00Z"), zone),
+                                          transactionManager);
+    }
+
+    private void stubTable() {
+        when(accountService.getAccountId(ACCOUNT_NUMBER)).thenReturn(ACCOUNT_ID);
+        doAnswer(invocation -> {
+            String query = invocation.getArgument(0);
+            RowMapper<?> mapper = invocation.getArgument(1);
+            Long accountId = invocation.getArgument(2);
+            Timestamp timestamp = invocation.getArgument(3);
+            long id = invocation.getArgument(5);
+            Timestamp to = invocation.getArgument(6);
+            int limit = invocation.getArgument(7);
+            var debits = query.contains("t.from_account_id = ?");
+            var page = table.stream()
+                            .filter(row -> accountId.equals(debits ? row.fromAccountId() : row.toAccountId()))
+                            .filter(row -> row.timestamp().after(timestamp)
+                                           || row.timestamp().equals(timestamp) && row.id() > id)
+                            .filter(row -> row.timestamp().before(to))
+                            .sorted(Comparator.comparing(LiveRow::timestamp).thenComparingLong(LiveRow::id))
+                            .limit(limit)
+                            .toList();
+            var rows = new ArrayList<Object>();
+            for (var row : page) {
+                rows.add(mapper.mapRow(resultSet(row), rows.size()));
+            }
+            return rows;
+        }).when(jdbcTemplate).query(anyString(), any(RowMapper.class), any(Object[].class));
+    }
+
+    private static ResultSet resultSet(LiveRow row) throws SQLException {
+        var resultSet = mock(ResultSet.class);
+        lenient().when(resultSet.getLong("id")).thenReturn(row.id());
+        lenient().when(resultSet.getString("from_account_number")).thenReturn(accountNumber(row.fromAccountId()));
+        lenient().when(resultSet.getString("to_account_number")).thenReturn(accountNumber(row.toAccountId()));
+        lenient().when(resultSet.getLong("amount")).thenReturn(row.amount());
+        lenient().when(resultSet.getString("type")).thenReturn(row.type().name());
+        lenient().when(resultSet.getTimestamp("timestamp")).thenReturn(row.timestamp());
+        return resultSet;
+    }
+
+    private static String accountNumber(Long accountId) {
+        if (accountId == null) {
+            return null;
+        }
+        return Objects.equals(accountId, ACCOUNT_ID) ? ACCOUNT_NUMBER : OTHER_ACCOUNT_NUMBER;
+    }
+
+    private static Timestamp at(String instant) {
+        return Timestamp.from(Instant.parse(instant));
+    }
+
+    private record LiveRow(long id, Long fromAccountId, Long toAccountId, long amount, TransactionType type,
+                           Timestamp timestamp) { }
+}
@@ -0,0 +1,143 @@
+package com.example.banking.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import com.example.banking.archive.ArchivedTransaction;
+import com.example.banking.archive.TransactionArchive;
+import com.example.banking.dto.TransactionHistoryEntry;
+import com.example.banking.dto.TransactionResponse;
+import com.example.banking.exception.AccountNotFoundException;
+import com.example.banking.mapper.TransactionMapper;
+import com.example.banking.model.TransactionType;
+import com.example.banking.repository.TransactionRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionHistoryServiceTest {
+
+    private static final Long ACCOUNT_ID = 1L;
+    private static final String ACCOUNT_NUMBER = "123456";
+
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private AccountService accountService;
+    @Mock
+    private TransactionMapper transactionMapper;
+    @Mock
+    private TransactionArchive transactionArchive;
+
+    @InjectMocks
+    private TransactionHistoryService transactionHistoryService;
+
+    @Test
+    void getHistoryReturnsCursorWhenMoreRowsFollow() {
+        var firstPageEntries = entries(30, 20, 10);
+        var secondPageEntries = entries(10);
+        when(accountService.getAccountId(ACCOUNT_NUMBER)).thenReturn(ACCOUNT_ID);
+        when(transactionRepository.findHistoryBefore(eq(ACCOUNT_ID), any(), eq(Long.MAX_VALUE), eq(3)))
+                .thenReturn(firstPageEntries);
+
+        var page = transactionHistoryService.getHistory(ACCOUNT_NUMBER, null, 2);
+
+        assertEquals(2, page.transactions().size());
+        when(transactionRepository.findHistoryBefore(ACCOUNT_ID, new Timestamp(20_000L), 20L, 3))
+                .thenReturn(secondPageEntries);
+
+        var nextPage = transactionHistoryService.getHistory(ACCOUNT_NUMBER, page.nextCursor(), 2);
+
+        assertEquals(1, nextPage.transactions().size());
+        assertNull(nextPage.nextCursor());
+    }
+
+    @Test
+    void getHistoryContinuesIntoArchiveAfterLiveRows() {
+        var liveEntries = entries(30);
+        when(accountService.getAccountId(ACCOUNT_NUMBER)).thenReturn(ACCOUNT_ID);
+        when(transactionRepository.findHistoryBefore(eq(ACCOUNT_ID), any(), eq(Long.MAX_VALUE), eq(3)))
+                .thenReturn(liveEntries);
+        when(transactionArchive.getHorizon()).thenReturn(Optional.of(Instant.ofEpochSecond(25)));
+        when(transactionArchive.findHistoryBefore(ACCOUNT_ID, Instant.ofEpochSecond(30), 30L, 2))
+                .thenReturn(List.of(new ArchivedTransaction(20, 2L, ACCOUNT_ID, 100, TransactionType.TRANSFER, 20_000L),
+                                    new ArchivedTransaction(10, null, ACCOUNT_ID, 500, TransactionType.DEPOSIT, 10_000L)));
+        when(accountService.getAccountNumbers(List.of(2L, ACCOUNT_ID))).thenReturn(Map.of(2L, "654321",
+                                                                                          ACCOUNT_ID, ACCOUNT_NUMBER));
+        when(transactionMapper.toTransactionResponse(any(TransactionHistoryEntry.class))).thenAnswer(invocation -> {
+            TransactionHistoryEntry entry = invocation.getArgument(0);
+            return new TransactionResponse(entry.getFromAccountNumber(),
+                                           entry.getToAccountNumber(),
+                                           entry.getAmount(),
+                                           entry.getType(),
+                                           entry.getTimestamp());
+        });
+
+        var page = transactionHistoryService.getHistory(ACCOUNT_NUMBER, null, 2);
+
+        assertEquals(2, page.transactions().size());
+        assertEquals("654321", page.transactions().get(1).fromAccountNumber());
+        assertEquals(ACCOUNT_NUMBER, page.transactions().get(1).toAccountNumber());
+        assertEquals(new Timestamp(20_000L), page.transactions().get(1).timestamp());
+        assertNotNull(page.nextCursor());
+    }
+
+    @Test
+    void getHistoryRejectsInvalidCursor() {
+        when(accountService.getAccountId(ACCOUNT_NUMBER)).thenReturn(ACCOUNT_ID);
+
+        var exception = assertThrows(IllegalArgumentException.class,
+                                     () -> transactionHistoryService.getHistory(ACCOUNT_NUMBER, "not-a-cursor", 10));
+
+        assertEquals("Invalid cursor", exception.getMessage());
+    }
+
+    @Test
+    void getHistoryRejectsTooLargePage() {
+        var exception = assertThrows(IllegalArgumentException.class,
+                                     () -> transactionHistoryService.getHistory(ACCOUNT_NUMBER, null, 201));
+
+        assertEquals("Page size must be between 1 and 200", exception.getMessage());
+    }
+
+    @Test
+    void getHistoryOfMissingAccountThrowsException() {
+        when(accountService.getAccountId(ACCOUNT_NUMBER)).thenThrow(new AccountNotFoundException("Account 123456 not found"));
+
+        assertThrows(AccountNotFoundException.class, () -> transactionHistoryService.getHistory(ACCOUNT_NUMBER, null, 10));
+        verify(transactionRepository, never()).findHistoryBefore(anyLong(), any(), anyLong(), anyInt());
+    }
+
+    private static List<TransactionHistoryEntry> entries(long... ids) {
+        return LongStream.of(ids).mapToObj(TransactionHistoryServiceTest::entry).toList();
+    }
+
+    private static TransactionHistoryEntry entry(long id) {
+        var entry = mock(TransactionHistoryEntry.class);
+        lenient().when(entry.getId()).thenReturn(id);
+        lenient().when(entry.getTimestamp()).thenReturn(new Timestamp(id * 1_000L));
+        return entry;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.banking.service;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import com.example.banking.archive.TransactionArchive;
+import com.example.banking.config.TransactionArchiveProperties;
+import com.example.banking.datasource.ShardRouter;
+import com.example.banking.service.TransactionPartitionService.Partition;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionPartitionServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-10T12:00:00Z");
+    private static final long APRIL = Instant.parse("2024-04-01T00:00:00Z").getEpochSecond();
+    private static final long MAY = Instant.parse("2024-05-01T00:00:00Z").getEpochSecond();
+    private static final long JUNE = Instant.parse("2024-06-01T00:00:00Z").getEpochSecond();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionArchive transactionArchive;
+
+    private TransactionPartitionService transactionPartitionService;
+
+    @BeforeEach
+    void setUp() {
+        transactionPartitionService = new TransactionPartitionService(jdbcTemplate,
+                                                                      transactionArchive,
+                                                                      new TransactionArchiveProperties(Path.of("archive"),
+                                                                                                       12,
+                                                                                                       2,
+                                                                                                       65536,
+                                                                                                       16,
+                                                                                                       Duration.ofHours(1)),
+                                                                      Clock.fixed(NOW, ZoneOffset.UTC),
+                                                                      new ShardRouter(1));
+    }
+
+    @Test
+    void createPartitionsSplitsTrailingPartitionUpToMonthsAhead() {
+        transactionPartitionService.createPartitions(List.of(new Partition("p202403", APRIL),
+                                                             new Partition("p_future", null)));
+
+        verify(jdbcTemplate).execute("ALTER TABLE transactions REORGANIZE PARTITION p_future INTO ("
+                                     + "PARTITION p202404 VALUES LESS THAN (" + MAY + "), "
+                                     + "PARTITION p202405 VALUES LESS THAN (" + JUNE + "), "
+                                     + "PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    void createPartitionsStartsWithCurrentMonthOnUnsplitTable() {
+        transactionPartitionService.createPartitions(List.of(new Partition("p_future", null)));
+
+        verify(jdbcTemplate).execute("ALTER TABLE transactions REORGANIZE PARTITION p_future INTO ("
+                                     + "PARTITION p202403 VALUES LESS THAN (" + APRIL + "), "
+                                     + "PARTITION p202404 VALUES LESS THAN (" + MAY + "), "
+                                     + "PARTITION p202405 VALUES LESS THAN (" + JUNE + "), "
+                                     + "PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    void createPartitionsSkipsWhenMonthsAheadExist() {
+        transactionPartitionService.createPartitions(List.of(new Partition("p202405", JUNE),
+                                                             new Partition("p_future", null)));
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void archiveExpiredPartitionsKeepsPartitionsWithinRetention() {
+        transactionPartitionService.archiveExpiredPartitions(List.of(new Partition("p202403", APRIL),
+                                                                     new Partition("p_future", null)));
+
+        verify(transactionArchive, never()).create(anyString(), any(), any());
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void archiveExpiredPartitionsStopsAtMaxValuePartition() {
+        transactionPartitionService.archiveExpiredPartitions(List.of(new Partition("p_future", null)));
+
+        verify(transactionArchive, never()).create(anyString(), any(), any());
+    }
+}
@@ -4,7 +4,12 @@ import java.sql.Timestamp;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
+import com.example.banking.dto.BatchMode;
+import com.example.banking.dto.BatchOperation;
+import com.example.banking.dto.BatchOperationStatus;
+import com.example.banking.dto.BatchTransactionRequest;
 import com.example.banking.dto.SingleTransactionResponse;
 import com.example.banking.dto.TransactionResponse;
 import com.example.banking.mapper.TransactionMapper;
@@ -23,9 +28,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -47,9 +57,21 @@ class TransactionServiceTest {
     @Mock
     private TransactionMapper transactionMapper;
     @Mock
+    private IdempotencyService idempotencyService;
+    @Mock
+    private DailyRollupService dailyRollupService;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private BalanceStreamService balanceStreamService;
+    @Mock
     private Clock clock;
     @Captor
     private ArgumentCaptor<Transaction> transactionCaptor;
+    @Captor
+    private ArgumentCaptor<List<Account>> accountsCaptor;
+    @Captor
+    private ArgumentCaptor<List<Transaction>> transactionsCaptor;
 
     @BeforeEach
     void setUp() {
@@ -69,11 +91,14 @@ class TransactionServiceTest {
         when(transactionMapper.toSingleDepositTransactionResponse(transactionCaptor.capture()))
                 .thenReturn(singleTransactionResponse);
 
-        var response = transactionService.deposit(ACCOUNT_NUMBER, AMOUNT);
+        var response = transactionService.deposit(ACCOUNT_NUMBER, AMOUNT, null);
 
         assertEquals(singleTransactionResponse, response);
         var transaction = transactionCaptor.getValue();
         verify(transactionRepository).save(transaction);
+        verify(dailyRollupService).record(List.of(transaction));
+        verify(outboxService).record(List.of(transaction));
+        verify(balanceStreamService).publishAfterCommit(List.of(transaction));
         assertNull(transaction.getFromAccount());
         assertEquals(ACCOUNT_NUMBER, transaction.getToAccount().getAccountNumber());
         assertEquals(AMOUNT, transaction.getAmount());
@@ -84,7 +109,7 @@ class TransactionServiceTest {
     @Test
     void depositIncreasesAccountBalanceWhenNegativeAmount() {
         var exception = assertThrows(IllegalArgumentException.class,
-                                     () -> transactionService.deposit(ACCOUNT_NUMBER, NEGATIVE_AMOUNT));
+                                     () -> transactionService.deposit(ACCOUNT_NUMBER, NEGATIVE_AMOUNT, null));
 
         assertEquals("Amount cannot be negative", exception.getMessage());
     }
@@ -99,7 +124,7 @@ class TransactionServiceTest {
         when(transactionMapper.toSingleWithdrawTransactionResponse(transactionCaptor.capture()))
                 .thenReturn(singleTransactionResponse);
 
-        var response = transactionService.withdraw(ACCOUNT_NUMBER, AMOUNT);
+        var response = transactionService.withdraw(ACCOUNT_NUMBER, AMOUNT, null);
 
         assertEquals(singleTransactionResponse, response);
         var transaction = transactionCaptor.getValue();
@@ -114,7 +139,7 @@ class TransactionServiceTest {
     @Test
     void withdrawDecreasesAccountBalanceWhenNegativeAmount() {
         var exception = assertThrows(IllegalArgumentException.class,
-                                     () -> transactionService.withdraw(ACCOUNT_NUMBER, NEGATIVE_AMOUNT));
+                                     () -> transactionService.withdraw(ACCOUNT_NUMBER, NEGATIVE_AMOUNT, null));
 
         assertEquals("Amount cannot be negative", exception.getMessage());
     }
@@ -130,7 +155,7 @@ class TransactionServiceTest {
                                                           TIMESTAMP);
         when(transactionMapper.toTransactionResponse(transactionCaptor.capture())).thenReturn(transactionResponse);
 
-        var response = transactionService.transfer(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2, AMOUNT);
+        var response = transactionService.transfer(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2, AMOUNT, null);
 
         assertEquals(transactionResponse, response);
         var transaction = transactionCaptor.getValue();
@@ -142,12 +167,126 @@ class TransactionServiceTest {
         assertEquals(TIMESTAMP, transaction.getTimestamp());
     }
 
+    @Test
+    void transferStoresResponseUnderIdempotencyKey() {
+        when(accountService.transferFund(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2, AMOUNT))
+                .thenReturn(List.of(ACCOUNT, Account.builder().accountNumber(ACCOUNT_NUMBER_2).build()));
+        var transactionResponse = new TransactionResponse(ACCOUNT_NUMBER,
+                                                          ACCOUNT_NUMBER_2,
+                                                          AMOUNT,
+                                                          TransactionType.TRANSFER,
+                                                          TIMESTAMP);
+        when(transactionMapper.toTransactionResponse(any(Transaction.class))).thenReturn(transactionResponse);
+
+        transactionService.transfer(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2, AMOUNT, "retry-1");
+
+        verify(idempotencyService).save("retry-1",
+                                        IdempotencyService.describe(TransactionType.TRANSFER,
+                                                                    ACCOUNT_NUMBER,
+                                                                    ACCOUNT_NUMBER_2,
+                                                                    AMOUNT),
+                                        transactionResponse);
+    }
+
     @Test
     void transferFundsBetweenAccountsWhenNegativeAmount() {
         var exception = assertThrows(IllegalArgumentException.class,
-                                     () -> transactionService.transfer(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2, NEGATIVE_AMOUNT));
+                                     () -> transactionService.transfer(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2, NEGATIVE_AMOUNT, null));
 
         assertEquals("Amount cannot be negative", exception.getMessage());
     }
 
-}
\ No newline at end of file
+    @Test
+    void batchAppliesAllOperationsWhenAllSucceed() {
+        when(accountService.getAccountsByNumbers(anyCollection())).thenReturn(loadedAccounts());
+        var request = new BatchTransactionRequest(BatchMode.ALL_OR_NOTHING,
+                                                  List.of(new BatchOperation(TransactionType.DEPOSIT, null, ACCOUNT_NUMBER, AMOUNT),
+                                                          new BatchOperation(TransactionType.TRANSFER,
+                                                                             ACCOUNT_NUMBER,
+                                                                             ACCOUNT_NUMBER_2,
+                                                                             2 * AMOUNT),
+                                                          new BatchOperation(TransactionType.WITHDRAWAL,
+                                                                             ACCOUNT_NUMBER_2,
+                                                                             null,
+                                                                             AMOUNT)));
+
+        var response = transactionService.batch(request);
+
+        assertTrue(response.committed());
+        assertTrue(response.results().stream().allMatch(result -> result.status() == BatchOperationStatus.APPLIED));
+        verify(accountService).saveAll(accountsCaptor.capture());
+        var savedAccounts = accountsCaptor.getValue();
+        assertEquals(2, savedAccounts.size());
+        assertEquals(0L, findAccount(savedAccounts, ACCOUNT_NUMBER).getBalance());
+        assertEquals(AMOUNT, findAccount(savedAccounts, ACCOUNT_NUMBER_2).getBalance());
+        verify(transactionRepository).saveAll(transactionsCaptor.capture());
+        assertEquals(3, transactionsCaptor.getValue().size());
+        verify(dailyRollupService).record(transactionsCaptor.getValue());
+        verify(outboxService).record(transactionsCaptor.getValue());
+    }
+
+    @Test
+    void batchSkipsEverythingInAllOrNothingModeWhenOperationFails() {
+        when(accountService.getAccountsByNumbers(anyCollection())).thenReturn(loadedAccounts());
+        var request = new BatchTransactionRequest(BatchMode.ALL_OR_NOTHING,
+                                                  List.of(new BatchOperation(TransactionType.DEPOSIT, null, ACCOUNT_NUMBER, AMOUNT),
+                                                          new BatchOperation(TransactionType.WITHDRAWAL,
+                                                                             ACCOUNT_NUMBER_2,
+                                                                             null,
+                                                                             AMOUNT)));
+
+        var response = transactionService.batch(request);
+
+        assertFalse(response.committed());
+        assertEquals(BatchOperationStatus.SKIPPED, response.results().get(0).status());
+        assertEquals(BatchOperationStatus.FAILED, response.results().get(1).status());
+        assertEquals("Insufficient funds for withdrawal", response.results().get(1).error());
+        verify(accountService, never()).saveAll(any());
+        verify(transactionRepository, never()).saveAll(any());
+        verify(dailyRollupService, never()).record(any());
+        verify(outboxService, never()).record(any());
+    }
+
+    @Test
+    void batchAppliesSucceededOperationsInBestEffortMode() {
+        when(accountService.getAccountsByNumbers(anyCollection())).thenReturn(loadedAccounts());
+        var request = new BatchTransactionRequest(BatchMode.BEST_EFFORT,
+                                                  List.of(new BatchOperation(TransactionType.DEPOSIT, null, "missed", AMOUNT),
+                                                          new BatchOperation(TransactionType.DEPOSIT,
+                                                                             null,
+                                                                             ACCOUNT_NUMBER_2,
+                                                                             AMOUNT)));
+
+        var response = transactionService.batch(request);
+
+        assertTrue(response.committed());
+        assertEquals(BatchOperationStatus.FAILED, response.results().get(0).status());
+        assertEquals("Account missed not found", response.results().get(0).error());
+        assertEquals(BatchOperationStatus.APPLIED, response.results().get(1).status());
+        verify(accountService).saveAll(accountsCaptor.capture());
+        assertEquals(AMOUNT, findAccount(accountsCaptor.getValue(), ACCOUNT_NUMBER_2).getBalance());
+        verify(transactionRepository).saveAll(transactionsCaptor.capture());
+        assertEquals(1, transactionsCaptor.getValue().size());
+    }
+
+    @Test
+    void batchWithoutOperationsThrowsException() {
+        var exception = assertThrows(IllegalArgumentException.class,
+                                     () -> transactionService.batch(new BatchTransactionRequest(BatchMode.BEST_EFFORT,
+                                                                                                List.of())));
+
+        assertEquals("Batch must contain at least one operation", exception.getMessage());
+    }
+
+    private static Map<String, Account> loadedAccounts() {
+        return Map.of(ACCOUNT_NUMBER, new Account(1L, ACCOUNT_NUMBER, AMOUNT, AMOUNT),
+                      ACCOUNT_NUMBER_2, new Account(2L, ACCOUNT_NUMBER_2, 0L, 0L));
+    }
+
+    private static Account findAccount(List<Account> accounts, String accountNumber) {
+        return accounts.stream()
+                       .filter(account -> account.getAccountNumber().equals(accountNumber))
+                       .findFirst()
+                       .orElseThrow();
+    }
+}
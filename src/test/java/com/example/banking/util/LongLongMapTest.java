@@ -0,0 +1,67 @@
+package com.example.banking.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongLongMapTest {
+
+    @Test
+    void addAccumulatesFromZero() {
+        var map = new LongLongMap();
+
+        map.add(7L, 500L);
+        map.add(7L, -100L);
+
+        assertEquals(400L, map.get(7L));
+        assertEquals(0L, map.get(8L));
+        assertTrue(map.containsKey(7L));
+        assertFalse(map.containsKey(8L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void keepsEntriesWhileGrowing() {
+        var map = new LongLongMap(4);
+        for (var key = 1L; key <= 10_000L; key++) {
+            map.put(key, key * 3);
+        }
+
+        assertEquals(10_000, map.size());
+        for (var key = 1L; key <= 10_000L; key++) {
+            assertEquals(key * 3, map.get(key));
+        }
+    }
+
+    @Test
+    void forEachVisitsEveryEntryIncludingZeroKey() {
+        var map = new LongLongMap();
+        map.put(0L, 1L);
+        map.put(-5L, 2L);
+        map.put(Long.MAX_VALUE, 3L);
+
+        var visited = new HashMap<Long, Long>();
+        map.forEach(visited::put);
+
+        assertEquals(Map.of(0L, 1L, -5L, 2L, Long.MAX_VALUE, 3L), visited);
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void clearRemovesAllEntries() {
+        var map = new LongLongMap();
+        map.put(0L, 1L);
+        map.put(7L, 2L);
+
+        map.clear();
+
+        assertEquals(0, map.size());
+        assertEquals(0L, map.get(7L));
+        assertFalse(map.containsKey(0L));
+    }
+}
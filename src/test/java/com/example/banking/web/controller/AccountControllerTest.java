@@ -5,6 +5,7 @@ import com.github.database.rider.core.api.configuration.DBUnit;
 import com.github.database.rider.core.api.dataset.DataSet;
 import com.github.database.rider.core.api.dataset.ExpectedDataSet;
 import com.github.database.rider.junit5.api.DBRider;
+import com.jayway.jsonpath.JsonPath;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,11 +13,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.hamcrest.Matchers.stringContainsInOrder;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
@@ -83,19 +88,103 @@ class AccountControllerTest extends TestContainerConfig {
 
 
     @Test
-    void getAllAccountsWithDefaultPageableReturnsOkStatus() throws Exception {
-        mockMvc.perform(get("/accounts"))
+    void getAccountsWithoutPageReturnsCursorSlice() throws Exception {
+        var firstSlice = mockMvc.perform(get("/accounts")
+                                                 .param("size", "1"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.accounts.length()").value(1))
+                                .andExpect(jsonPath("$.accounts[0].accountNumber").value("123456789"))
+                                .andExpect(jsonPath("$.accounts[0].balance").value(1000))
+                                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                                .andExpect(jsonPath("$.nextCursor").exists())
+                                .andReturn();
+        String cursor = JsonPath.read(firstSlice.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/accounts")
+                                .param("size", "1")
+                                .param("cursor", cursor))
                .andExpect(status().isOk())
-               .andExpect(jsonPath("$.content.length()").value(2)) // Перевіряємо кількість елементів у списку
-               .andExpect(jsonPath("$.content[0].accountNumber").value("123456789"))
-               .andExpect(jsonPath("$.content[0].balance").value(1000))
-               .andExpect(jsonPath("$.content[1].accountNumber").value("987654321"))
-               .andExpect(jsonPath("$.content[1].balance").value(2000))
-               .andExpect(jsonPath("$.totalElements").value(2))
-               .andExpect(jsonPath("$.totalPages").value(1))
-               .andExpect(jsonPath("$.pageable.pageSize").value(20))
-               .andExpect(jsonPath("$.pageable.pageNumber").value(0))
-               .andExpect(jsonPath("$.first").value(true))
-               .andExpect(jsonPath("$.last").value(true));
+               .andExpect(jsonPath("$.accounts.length()").value(1))
+               .andExpect(jsonPath("$.accounts[0].accountNumber").value("987654321"))
+               .andExpect(jsonPath("$.accounts[0].balance").value(2000))
+               .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DataSet(value = "datasets/history.yml")
+    void getTransactionsReturnsNewestFirstAcrossPages() throws Exception {
+        var firstPage = mockMvc.perform(get("/accounts/123456789/transactions")
+                                                .param("size", "2"))
+                               .andExpect(status().isOk())
+                               .andExpect(jsonPath("$.transactions.length()").value(2))
+                               .andExpect(jsonPath("$.transactions[0].fromAccountNumber").value("987654321"))
+                               .andExpect(jsonPath("$.transactions[0].amount").value(200))
+                               .andExpect(jsonPath("$.transactions[1].toAccountNumber").value("987654321"))
+                               .andExpect(jsonPath("$.transactions[1].amount").value(100))
+                               .andExpect(jsonPath("$.nextCursor").exists())
+                               .andReturn();
+        String cursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/accounts/123456789/transactions")
+                                .param("size", "2")
+                                .param("cursor", cursor))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.transactions.length()").value(1))
+               .andExpect(jsonPath("$.transactions[0].type").value("DEPOSIT"))
+               .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getTransactionsWithNonExistingAccountNumberReturnsNotFoundStatus() throws Exception {
+        mockMvc.perform(get("/accounts/nonExisting/transactions"))
+               .andExpect(status().isNotFound())
+               .andExpect(content().string("Account nonExisting not found"));
+    }
+
+    @Test
+    void getBalanceAsOfFutureInstantReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/accounts/123456789/balance")
+                                .param("asOf", "2999-01-01T00:00:00Z"))
+               .andExpect(status().isBadRequest())
+               .andExpect(content().string("Balance can only be queried for past instants"));
+    }
+
+    @Test
+    void getPeriodSummaryWithoutRollupsReturnsCurrentBalance() throws Exception {
+        mockMvc.perform(get("/accounts/123456789/rollups")
+                                .param("from", "2999-01-01")
+                                .param("to", "2999-01-31"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.openingBalance").value(1000))
+               .andExpect(jsonPath("$.closingBalance").value(1000))
+               .andExpect(jsonPath("$.transactionCount").value(0))
+               .andExpect(jsonPath("$.days.length()").value(0));
+    }
+
+    @Test
+    void getPeriodSummaryWithStartAfterEndReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/accounts/123456789/rollups")
+                                .param("from", "2024-02-01")
+                                .param("to", "2024-01-01"))
+               .andExpect(status().isBadRequest())
+               .andExpect(content().string("Period start date must not be after its end date"));
+    }
+
+    @Test
+    @DataSet(value = "datasets/history.yml")
+    void exportStatementStreamsCsvRowsOldestFirst() throws Exception {
+        var result = mockMvc.perform(get("/accounts/123456789/statement")
+                                             .param("from", "2024-01-01")
+                                             .param("to", "2024-01-31"))
+                            .andExpect(request().asyncStarted())
+                            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+               .andExpect(status().isOk())
+               .andExpect(header().string("Content-Type", "text/csv"))
+               .andExpect(content().string(stringContainsInOrder("timestamp,type,from_account_number,to_account_number,amount\n",
+                                                                 "DEPOSIT,,123456789,500\n",
+                                                                 "TRANSFER,123456789,987654321,100\n",
+                                                                 "TRANSFER,987654321,123456789,200\n")));
     }
-}
\ No newline at end of file
+}
@@ -12,6 +12,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -43,6 +44,37 @@ class TransactionControllerTest extends TestContainerConfig {
                .andExpect(jsonPath("$.type").value("DEPOSIT"));
     }
 
+    @Test
+    @ExpectedDataSet("datasets/deposit.yml")
+    void shouldDepositOnceWhenRetriedWithIdempotencyKey() throws Exception {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/transactions/deposit")
+                                    .header(TransactionController.IDEMPOTENCY_KEY_HEADER, "deposit-retry")
+                                    .param("accountNumber", ACCOUNT_NUMBER)
+                                    .param("amount", String.valueOf(AMOUNT)))
+                   .andExpect(status().isOk())
+                   .andExpect(jsonPath("$.accountNumber").value(ACCOUNT_NUMBER))
+                   .andExpect(jsonPath("$.amount").value(AMOUNT))
+                   .andExpect(jsonPath("$.type").value("DEPOSIT"));
+        }
+    }
+
+    @Test
+    void shouldDepositReturnUnprocessableEntityForReusedIdempotencyKey() throws Exception {
+        mockMvc.perform(post("/transactions/deposit")
+                                .header(TransactionController.IDEMPOTENCY_KEY_HEADER, "deposit-reused")
+                                .param("accountNumber", ACCOUNT_NUMBER)
+                                .param("amount", String.valueOf(AMOUNT)))
+               .andExpect(status().isOk());
+
+        mockMvc.perform(post("/transactions/deposit")
+                                .header(TransactionController.IDEMPOTENCY_KEY_HEADER, "deposit-reused")
+                                .param("accountNumber", ACCOUNT_NUMBER)
+                                .param("amount", String.valueOf(AMOUNT + 1)))
+               .andExpect(status().isUnprocessableEntity())
+               .andExpect(content().string("Idempotency key deposit-reused was already used for a different request"));
+    }
+
     @Test
     void shouldDepositReturnBadRequestForNegativeAmount() throws Exception {
         mockMvc.perform(post("/transactions/deposit")
@@ -163,4 +195,47 @@ class TransactionControllerTest extends TestContainerConfig {
                .andExpect(status().isNotFound())
                .andExpect(content().string("Account not found: missed_account"));
     }
+
+    @Test
+    @ExpectedDataSet("datasets/batch.yml")
+    void shouldApplyBatchSuccessfully() throws Exception {
+        mockMvc.perform(post("/transactions/batch")
+                                .contentType(APPLICATION_JSON)
+                                .content("""
+                                                 {
+                                                   "mode": "ALL_OR_NOTHING",
+                                                   "operations": [
+                                                     {"type": "DEPOSIT", "toAccountNumber": "123456789", "amount": 100},
+                                                     {"type": "TRANSFER", "fromAccountNumber": "987654321", "toAccountNumber": "123456789", "amount": 100}
+                                                   ]
+                                                 }
+                                                 """))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.committed").value(true))
+               .andExpect(jsonPath("$.results[0].status").value("APPLIED"))
+               .andExpect(jsonPath("$.results[1].status").value("APPLIED"))
+               .andExpect(jsonPath("$.results[1].transaction.fromAccountNumber").value(TO_ACCOUNT_NUMBER))
+               .andExpect(jsonPath("$.results[1].transaction.toAccountNumber").value(ACCOUNT_NUMBER));
+    }
+
+    @Test
+    @ExpectedDataSet(value = { "datasets/accounts.yml", "datasets/empty_transactions.yml" })
+    void shouldNotApplyBatchWhenOperationFailsInAllOrNothingMode() throws Exception {
+        mockMvc.perform(post("/transactions/batch")
+                                .contentType(APPLICATION_JSON)
+                                .content("""
+                                                 {
+                                                   "mode": "ALL_OR_NOTHING",
+                                                   "operations": [
+                                                     {"type": "DEPOSIT", "toAccountNumber": "123456789", "amount": 100},
+                                                     {"type": "WITHDRAWAL", "fromAccountNumber": "missed_account", "amount": 100}
+                                                   ]
+                                                 }
+                                                 """))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.committed").value(false))
+               .andExpect(jsonPath("$.results[0].status").value("SKIPPED"))
+               .andExpect(jsonPath("$.results[1].status").value("FAILED"))
+               .andExpect(jsonPath("$.results[1].error").value("Account missed_account not found"));
+    }
 }
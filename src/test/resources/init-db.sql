@@ -2,22 +2,133 @@ DROP SCHEMA IF EXISTS `bank`;
 CREATE SCHEMA IF NOT EXISTS `bank` DEFAULT CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
 USE `bank`;
 
+DROP TABLE IF EXISTS account_balance_slots;
 DROP TABLE IF EXISTS transactions;
 DROP TABLE IF EXISTS accounts;
+DROP TABLE IF EXISTS id_sequences;
+DROP TABLE IF EXISTS journal_checkpoints;
+DROP TABLE IF EXISTS idempotency_keys;
+DROP TABLE IF EXISTS account_daily_rollups;
+DROP TABLE IF EXISTS account_balance_snapshots;
+DROP TABLE IF EXISTS replication_heartbeat;
+DROP TABLE IF EXISTS cross_shard_transfers;
+DROP TABLE IF EXISTS applied_transfers;
+DROP TABLE IF EXISTS outbox_events;
+DROP TABLE IF EXISTS reconciliation_runs;
+DROP TABLE IF EXISTS reconciliation_mismatches;
+
+CREATE TABLE id_sequences (
+    sequence_name VARCHAR(255) PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+
+INSERT INTO id_sequences (sequence_name, next_val) VALUES ('accounts', 1);
+INSERT INTO id_sequences (sequence_name, next_val) VALUES ('transactions', 1);
 
 CREATE TABLE accounts (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     account_number VARCHAR(50) UNIQUE NOT NULL,
-    balance BIGINT NOT NULL
+    balance BIGINT NOT NULL,
+    opening_balance BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE transactions (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT AUTO_INCREMENT,
     from_account_id BIGINT NULL,
     to_account_id BIGINT NULL,
     amount BIGINT NOT NULL,
     type ENUM('DEPOSIT', 'WITHDRAWAL', 'TRANSFER') NOT NULL,
     timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
-    CONSTRAINT fk_transactions_from FOREIGN KEY (from_account_id) REFERENCES accounts(id) ON DELETE SET NULL,
-    CONSTRAINT fk_transactions_to FOREIGN KEY (to_account_id) REFERENCES accounts(id) ON DELETE SET NULL
+    PRIMARY KEY (id, timestamp),
+    INDEX idx_transactions_from_history (from_account_id, timestamp, id),
+    INDEX idx_transactions_to_history (to_account_id, timestamp, id)
+)
+PARTITION BY RANGE (UNIX_TIMESTAMP(timestamp)) (
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+CREATE TABLE account_balance_slots (
+    account_id BIGINT NOT NULL,
+    slot INT NOT NULL,
+    balance BIGINT NOT NULL,
+    PRIMARY KEY (account_id, slot),
+    CONSTRAINT fk_balance_slots_account FOREIGN KEY (account_id) REFERENCES accounts(id) ON DELETE CASCADE
+);
+
+CREATE TABLE journal_checkpoints (
+    name VARCHAR(64) PRIMARY KEY,
+    applied_sequence BIGINT NOT NULL
+);
+
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(64) PRIMARY KEY,
+    request VARCHAR(160) NOT NULL,
+    response TEXT NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL,
+    INDEX idx_idempotency_keys_created_at (created_at)
+);
+
+CREATE TABLE account_daily_rollups (
+    account_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    slot INT NOT NULL,
+    credits BIGINT NOT NULL,
+    debits BIGINT NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    PRIMARY KEY (account_id, day, slot)
+);
+
+CREATE TABLE account_balance_snapshots (
+    account_id BIGINT NOT NULL,
+    taken_at TIMESTAMP NOT NULL,
+    balance BIGINT NOT NULL,
+    PRIMARY KEY (account_id, taken_at),
+    INDEX idx_balance_snapshots_taken_at (taken_at)
+);
+
+CREATE TABLE replication_heartbeat (
+    id TINYINT PRIMARY KEY,
+    beat TIMESTAMP(3) NOT NULL
+);
+
+CREATE TABLE cross_shard_transfers (
+    id VARCHAR(36) PRIMARY KEY,
+    from_account_number VARCHAR(50) NOT NULL,
+    to_account_number VARCHAR(50) NOT NULL,
+    amount BIGINT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL,
+    updated_at TIMESTAMP(3) NOT NULL,
+    INDEX idx_cross_shard_transfers_status (status, updated_at)
+);
+
+CREATE TABLE applied_transfers (
+    transfer_id VARCHAR(36) PRIMARY KEY,
+    applied_at TIMESTAMP(3) NOT NULL
+);
+
+CREATE TABLE outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    transaction_id BIGINT NOT NULL,
+    type ENUM('DEPOSIT', 'WITHDRAWAL', 'TRANSFER') NOT NULL,
+    from_account_number VARCHAR(50),
+    to_account_number VARCHAR(50),
+    amount BIGINT NOT NULL,
+    occurred_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE reconciliation_runs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    started_at TIMESTAMP(3) NOT NULL,
+    finished_at TIMESTAMP(3) NULL,
+    next_account_id BIGINT NOT NULL,
+    max_account_id BIGINT NOT NULL
+);
+
+CREATE TABLE reconciliation_mismatches (
+    run_id BIGINT NOT NULL,
+    account_id BIGINT NOT NULL,
+    expected_balance BIGINT NOT NULL,
+    actual_balance BIGINT NOT NULL,
+    PRIMARY KEY (run_id, account_id)
 );